@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Cold-start comparison of the application jar with and without the AppCDS archive.
+#
+# Build first:  mvn -Pappcds package
+# Run:          scripts/startup-benchmark.sh [runs]
+#
+# Each mode is started [runs] times (default 10), every time in a fresh copy of
+# one fixture data directory, so runs never see each other's writes. Reported are the mean and the fastest wall-clock time of the
+# whole process, from JVM launch to exit:
+#   batch  one "add-author" command (the training run's path),
+#   cli    start the interactive menu and exit immediately.
+set -euo pipefail
+
+runs="${1:-10}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$root/target/library-1.0-SNAPSHOT.jar"
+archive="$root/target/library-1.0-SNAPSHOT.jsa"
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [[ ! -f "$jar" || ! -f "$archive" ]]; then
+    echo "Missing $jar or $archive; run 'mvn -Pappcds package' first." >&2
+    exit 1
+fi
+
+scratch="$(mktemp -d)"
+trap 'rm -rf "$scratch"' EXIT
+fixture="$scratch/fixture"
+work="$scratch/work"
+mkdir "$fixture"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# run_mode <label> <mode> [jvm options...]
+run_mode() {
+    local label="$1" mode="$2"
+    shift 2
+    local total=0 best=""
+    for ((i = 0; i < runs; i++)); do
+        local start end elapsed
+        # untimed: restore the fixture state the previous run may have changed
+        rm -rf "$work"
+        cp -R "$fixture" "$work"
+        start="$(now_ms)"
+        if [[ "$mode" == batch ]]; then
+            (cd "$work" && echo 'add-author "Benchmark"' | "$java" "$@" -jar "$jar" batch - >/dev/null)
+        else
+            (cd "$work" && echo 0 | "$java" "$@" -Djava.awt.headless=true -jar "$jar" >/dev/null)
+        fi
+        end="$(now_ms)"
+        elapsed=$((end - start))
+        total=$((total + elapsed))
+        if [[ -z "$best" || "$elapsed" -lt "$best" ]]; then
+            best="$elapsed"
+        fi
+    done
+    printf '%-28s mean %5d ms   min %5d ms\n' "$label" $((total / runs)) "$best"
+}
+
+# one untimed start creates the fixture data files that every timed run starts from
+(cd "$fixture" && echo 'add-author "Warmup"' | "$java" -jar "$jar" batch - >/dev/null)
+
+for mode in batch cli; do
+    run_mode "$mode, default CDS" "$mode"
+    run_mode "$mode, AppCDS archive" "$mode" "-XX:SharedArchiveFile=$archive" -Xlog:cds=error
+done
@@ -0,0 +1,16 @@
+package com.github.gogoasac;
+
+import com.github.gogoasac.config.DependencyOrchestrator;
+
+/**
+ * Entry point for the batch, server and follower modes only; the native image is built
+ * from it so that AWT and Swing stay out of the binary.
+ */
+public class HeadlessMain {
+    public static void main(String[] args) {
+        final int status = DependencyOrchestrator.runHeadless(args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.github.gogoasac.config.DependencyOrchestrator;
 
 public class Main {
     public static void main(String[] args) {
-        DependencyOrchestrator.run();
+        final int status = DependencyOrchestrator.run(args);
+        if (status != 0) {
+            System.exit(status);
+        }
     }
 }
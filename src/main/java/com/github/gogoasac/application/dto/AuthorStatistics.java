@@ -0,0 +1,12 @@
+package com.github.gogoasac.application.dto;
+
+public record AuthorStatistics(
+    Long authorId,
+    String name,
+    long books
+) {
+    @Override
+    public String toString() {
+        return String.format("%s (id=%d): %d books", name, authorId, books);
+    }
+}
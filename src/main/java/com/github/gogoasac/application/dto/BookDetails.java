@@ -0,0 +1,27 @@
+package com.github.gogoasac.application.dto;
+
+import com.github.gogoasac.domain.entity.Hold;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Everything known about one book, resolved for display.
+ *
+ * @param borrowedAt null when the book is available
+ * @param holds      waiting patrons, oldest first
+ */
+public record BookDetails(
+    Long bookId,
+    String title,
+    String authorName,
+    String collectionName,
+    Integer publicationYear,
+    boolean borrowed,
+    LocalDate borrowedAt,
+    List<Hold> holds
+) {
+    public BookDetails {
+        holds = List.copyOf(holds);
+    }
+}
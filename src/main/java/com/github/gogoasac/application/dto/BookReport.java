@@ -1,9 +1,27 @@
 package com.github.gogoasac.application.dto;
 
+import java.time.LocalDate;
+
+/**
+ * One row of a collection report. {@code bookId} lets viewers fetch the full
+ * {@link BookDetails} on demand instead of carrying them in every report; it is
+ * {@code null} for rows that do not come from a stored book. {@code borrowedAt}
+ * is {@code null} while the book is available.
+ */
 public record BookReport(
+    Long bookId,
     String title,
-    String authorName
+    String authorName,
+    LocalDate borrowedAt
 ) {
+    public BookReport(final String title, final String authorName) {
+        this(null, title, authorName);
+    }
+
+    public BookReport(final Long bookId, final String title, final String authorName) {
+        this(bookId, title, authorName, null);
+    }
+
     @Override
     public String toString() {
         return String.format("%s by %s", title, authorName);
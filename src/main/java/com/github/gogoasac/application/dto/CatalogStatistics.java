@@ -0,0 +1,23 @@
+package com.github.gogoasac.application.dto;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Aggregates over the whole catalog.
+ *
+ * @param collections            every collection in persistence order, empty ones included
+ * @param authors                every author in persistence order, authors without books included
+ * @param booksByPublicationYear number of books per publication year, ascending by year
+ */
+public record CatalogStatistics(
+    long totalBooks,
+    long borrowedBooks,
+    List<CollectionStatistics> collections,
+    List<AuthorStatistics> authors,
+    SortedMap<Integer, Long> booksByPublicationYear
+) {
+    public double borrowedRatio() {
+        return totalBooks == 0 ? 0.0 : (double) borrowedBooks / totalBooks;
+    }
+}
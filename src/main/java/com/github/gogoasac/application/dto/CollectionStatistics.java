@@ -0,0 +1,17 @@
+package com.github.gogoasac.application.dto;
+
+public record CollectionStatistics(
+    Long collectionId,
+    String name,
+    long books,
+    long borrowed
+) {
+    public double borrowedRatio() {
+        return books == 0 ? 0.0 : (double) borrowed / books;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (id=%d): %d books, %d borrowed (%.0f%%)", name, collectionId, books, borrowed, borrowedRatio() * 100);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.gogoasac.application.dto;
+
+import java.time.LocalDate;
+
+public record OverdueLoan(
+    Long bookId,
+    String title,
+    LocalDate borrowedAt,
+    LocalDate dueDate
+) {
+    @Override
+    public String toString() {
+        return String.format("%s (id=%d) borrowed %s, due %s", title, bookId, borrowedAt, dueDate);
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.gogoasac.application.dto;
+
+import java.time.Duration;
+
+/**
+ * Replication state of one process.
+ *
+ * @param role         {@code standalone}, {@code primary} or {@code follower}
+ * @param sequence     last change written to the log (primary) or applied from it (follower)
+ * @param pendingBytes follower only: size of the log not applied yet
+ * @param lag          follower only: time since it last caught up with the log, zero when it has
+ */
+public record ReplicationStatus(
+    String role,
+    long sequence,
+    long pendingBytes,
+    Duration lag
+) {
+    public static final String STANDALONE = "standalone";
+    public static final String PRIMARY = "primary";
+    public static final String FOLLOWER = "follower";
+
+    public static ReplicationStatus standalone() {
+        return new ReplicationStatus(STANDALONE, 0L, 0L, Duration.ZERO);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s sequence=%d pending=%d bytes lag=%d ms", role, sequence, pendingBytes, lag.toMillis());
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.gogoasac.application.dto;
+
+public record ReportCacheStats(
+    long hits,
+    long misses
+) {
+    public double hitRatio() {
+        final long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (%.0f%% hit ratio)", hits, misses, hitRatio() * 100);
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.gogoasac.application.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Output formats a collection report can be rendered in.
+ */
+public enum ReportFormat {
+    TEXT("txt"),
+    CSV("csv"),
+    JSON("json"),
+    HTML("html"),
+    MARKDOWN("md");
+
+    private final String fileExtension;
+
+    ReportFormat(final String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolve a format from its name or file extension, case-insensitively.
+     */
+    public static ReportFormat parse(final String value) {
+        final String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+            .filter(f -> f.fileExtension.equals(normalized) || f.name().toLowerCase(Locale.ROOT).equals(normalized))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown report format: " + value));
+    }
+}
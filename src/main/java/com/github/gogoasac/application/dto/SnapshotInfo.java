@@ -0,0 +1,28 @@
+package com.github.gogoasac.application.dto;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one online snapshot.
+ *
+ * @param location    where the snapshot was written
+ * @param authors     number of authors it holds
+ * @param collections number of collections it holds
+ * @param books       number of books it holds
+ * @param bytes       size of the compressed snapshot
+ * @param capture     time spent taking the point-in-time copy, during which commits wait
+ */
+public record SnapshotInfo(
+    String location,
+    int authors,
+    int collections,
+    int books,
+    long bytes,
+    Duration capture
+) {
+    @Override
+    public String toString() {
+        return String.format("%s authors=%d collections=%d books=%d bytes=%d capture=%d us",
+            location, authors, collections, books, bytes, capture.toNanos() / 1_000L);
+    }
+}
@@ -1,7 +1,9 @@
 package com.github.gogoasac.application.input;
 
 import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.BookDetails;
 import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Hold;
 
 import java.util.List;
 
@@ -10,10 +12,30 @@ import java.util.List;
  *
  * <p>Implementations should orchestrate validation and persistence and present
  * a small, testable API for creating, retrieving and performing actions on books.
+ *
+ * <p>Borrowed books can be reserved with {@link #placeHold(Long, String)}; holds are
+ * served in FIFO order when the book is returned, so clients do not need to poll
+ * {@link #borrow(Long)} until a copy frees up.
  */
 public interface BookManagementInput {
     Book addBook(AddBookCommand addBookCommand);
     List<Book> getAll();
+
+    /**
+     * Books of one collection, read from that collection only instead of
+     * filtering the whole catalog.
+     */
+    List<Book> getByCollectionId(final Long collectionId);
     Book getById(Long id);
     void borrow(final Long bookId);
+    void returnBook(final Long bookId);
+    Hold placeHold(final Long bookId, final String patron);
+    List<Hold> getHolds(final Long bookId);
+
+    /**
+     * The book with its author and collection names, borrow state and hold queue.
+     *
+     * @throws IllegalArgumentException when the book does not exist
+     */
+    BookDetails getDetails(final Long bookId);
 }
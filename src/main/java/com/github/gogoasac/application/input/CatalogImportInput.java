@@ -0,0 +1,32 @@
+package com.github.gogoasac.application.input;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+/**
+ * Input port for adding many authors, collections and books as one change.
+ *
+ * <p>The adds of a {@link CatalogImport} are validated as they are made but
+ * only stored, all together, by {@link CatalogImport#commit()}. A book may
+ * refer to an author or collection added earlier in the same import.
+ */
+public interface CatalogImportInput {
+    CatalogImport begin();
+
+    interface CatalogImport {
+        Author addAuthor(AddAuthorCommand addAuthorCommand);
+
+        Collection addCollection(AddCollectionCommand addCollectionCommand);
+
+        Book addBook(AddBookCommand addBookCommand);
+
+        /**
+         * @return the number of authors, collections and books stored
+         */
+        int commit();
+    }
+}
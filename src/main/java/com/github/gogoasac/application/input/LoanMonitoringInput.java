@@ -0,0 +1,19 @@
+package com.github.gogoasac.application.input;
+
+import com.github.gogoasac.application.dto.OverdueLoan;
+
+import java.util.List;
+
+/**
+ * Loan monitoring input port.
+ *
+ * <p>Answers which borrowed books are past their due date. Implementations keep
+ * their own due-date index, so the query costs O(overdue loans) rather than a
+ * scan of the whole catalog.
+ */
+public interface LoanMonitoringInput {
+    /**
+     * Overdue loans as of today, longest overdue first.
+     */
+    List<OverdueLoan> getOverdueLoans();
+}
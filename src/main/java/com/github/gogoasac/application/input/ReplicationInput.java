@@ -0,0 +1,13 @@
+package com.github.gogoasac.application.input;
+
+import com.github.gogoasac.application.dto.ReplicationStatus;
+
+/**
+ * Replication status input port.
+ *
+ * <p>Tells whether this process is a standalone store, the primary that ships
+ * its changes, or a read-only follower, and how far a follower is behind.
+ */
+public interface ReplicationInput {
+    ReplicationStatus getReplicationStatus();
+}
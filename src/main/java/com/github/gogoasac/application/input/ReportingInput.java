@@ -1,7 +1,13 @@
 package com.github.gogoasac.application.input;
 
 import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportCacheStats;
+import com.github.gogoasac.application.dto.ReportFormat;
+
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Reporting input port.
@@ -19,4 +25,28 @@ import java.util.List;
  */
 public interface ReportingInput {
     List<CollectionReport> generateCollectionReports();
+
+    /**
+     * Formats accepted by {@link #exportReports(Map)}; none by default.
+     */
+    default Set<ReportFormat> supportedFormats() {
+        return Set.of();
+    }
+
+    /**
+     * Render the reports in every requested format to its destination in a single
+     * pass over the data. Destinations are flushed but left open.
+     *
+     * @throws IllegalArgumentException when a format is not in {@link #supportedFormats()}
+     */
+    default List<CollectionReport> exportReports(final Map<ReportFormat, OutputStream> destinations) {
+        throw new IllegalArgumentException("Report export is not supported.");
+    }
+
+    /**
+     * Hit/miss counters of the report cache; zero for implementations without one.
+     */
+    default ReportCacheStats getCacheStats() {
+        return new ReportCacheStats(0, 0);
+    }
 }
@@ -0,0 +1,13 @@
+package com.github.gogoasac.application.input;
+
+import com.github.gogoasac.application.dto.SnapshotInfo;
+
+/**
+ * Online snapshot input port.
+ *
+ * <p>Writes a consistent copy of the catalog while the application keeps
+ * serving reads and writes.
+ */
+public interface SnapshotInput {
+    SnapshotInfo createSnapshot();
+}
@@ -0,0 +1,29 @@
+package com.github.gogoasac.application.input;
+
+import com.github.gogoasac.application.dto.CatalogStatistics;
+
+/**
+ * Catalog statistics input port.
+ *
+ * <p>Counts per collection and author, borrowed ratios and the publication-year
+ * histogram. Implementations keep the counters up to date as books change, so
+ * the single counts are O(1) and {@link #getStatistics()} costs O(collections +
+ * authors + years) rather than a scan of every book.
+ */
+public interface StatisticsInput {
+    CatalogStatistics getStatistics();
+
+    long countBooks();
+
+    long countBorrowed();
+
+    long countBooksInCollection(Long collectionId);
+
+    long countBooksByAuthor(Long authorId);
+
+    /**
+     * Rebuild every counter from a full pass over the stored books, e.g. after the
+     * data was changed outside the application.
+     */
+    CatalogStatistics recomputeStatistics();
+}
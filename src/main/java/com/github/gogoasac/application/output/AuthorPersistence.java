@@ -11,4 +11,22 @@ public interface AuthorPersistence {
     Optional<Author> findById(final Long id);
 
     List<Author> findAll();
+
+    /**
+     * Monotonic counter bumped by every write, or {@code -1} when the implementation
+     * does not track one. Equal values mean the data has not changed in between.
+     */
+    default long dataVersion() {
+        return -1L;
+    }
+
+    /**
+     * Every author as of one committed write, versioned by {@link #dataVersion()}.
+     * Taking it must not block writers.
+     *
+     * @return empty when the implementation cannot provide a consistent copy
+     */
+    default Optional<PersistenceSnapshot<Author>> snapshot() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,17 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.domain.entity.Book;
+
+/**
+ * Output port notified after a book change has been persisted.
+ *
+ * <p>Every callback receives the stored book, including its new version, so a
+ * listener can discard notifications that arrive out of order.
+ */
+public interface BookActivityListener {
+    default void onAdded(final Book book) {}
+
+    default void onBorrowed(final Book book) {}
+
+    default void onReturned(final Book book) {}
+}
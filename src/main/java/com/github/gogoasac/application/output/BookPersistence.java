@@ -4,6 +4,7 @@ import com.github.gogoasac.domain.entity.Book;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface BookPersistence {
     Book addBook(Book book);
@@ -13,4 +14,88 @@ public interface BookPersistence {
     List<Book> findAll();
 
     Optional<Book> updateBook(final Book book);
+
+    /**
+     * Compare-and-set update: replace the stored book only if its version still equals
+     * {@code expectedVersion}. On success the stored book carries {@code expectedVersion + 1}.
+     *
+     * @return the stored book, or empty when the book is missing or was modified concurrently
+     */
+    Optional<Book> updateIfVersion(final Book book, final long expectedVersion);
+
+    /**
+     * {@link #updateBook(Book)} that also returns the book it replaced. The
+     * default retries {@link #replaceIfVersion(Book, long)} against the latest
+     * version; implementations that see the replaced book while writing should
+     * hand it back directly.
+     */
+    default Optional<Replacement> replaceBook(final Book book) {
+        while (true) {
+            final Optional<Book> current = findById(book.id());
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            final Optional<Replacement> replaced = replaceIfVersion(book, current.get().version());
+            if (replaced.isPresent()) {
+                return replaced;
+            }
+        }
+    }
+
+    /**
+     * {@link #updateIfVersion(Book, long)} that also returns the book it
+     * replaced. The default reads it first, which is exact because versions
+     * only grow: a successful write replaced the book read at
+     * {@code expectedVersion}.
+     */
+    default Optional<Replacement> replaceIfVersion(final Book book, final long expectedVersion) {
+        return findById(book.id())
+            .filter(current -> current.version() == expectedVersion)
+            .flatMap(replaced -> updateIfVersion(book, expectedVersion)
+                .map(stored -> new Replacement(replaced, stored)));
+    }
+
+    /**
+     * Books of one collection. The default filters {@link #findAll()}.
+     */
+    default List<Book> findByCollectionId(final Long collectionId) {
+        return findAll().stream()
+            .filter(book -> collectionId.equals(book.collectionId()))
+            .toList();
+    }
+
+    /**
+     * Monotonic counter incremented by every book mutation, or {@code -1} when the
+     * implementation does not keep a change journal.
+     */
+    default long changeSequence() {
+        return -1L;
+    }
+
+    /**
+     * Ids of the collections whose books were added or changed after the mutation
+     * numbered {@code sequence} (see {@link #changeSequence()}). A book moved between
+     * collections touches both.
+     *
+     * @return empty when that history is not available, in which case callers must
+     *         assume every collection changed
+     */
+    default Optional<Set<Long>> collectionsChangedSince(final long sequence) {
+        return Optional.empty();
+    }
+
+    /**
+     * Every book as of one committed write, versioned by {@link #changeSequence()}.
+     * Taking it must not block writers.
+     *
+     * @return empty when the implementation cannot provide a consistent copy
+     */
+    default Optional<PersistenceSnapshot<Book>> snapshot() {
+        return Optional.empty();
+    }
+
+    /**
+     * A successful update: the book as it was before and as it was stored.
+     */
+    record Replacement(Book replaced, Book stored) {}
 }
@@ -0,0 +1,22 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.domain.entity.Book;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Books as a persistence adapter keeps them in memory: an immutable list that
+ * builds a {@link Book} only for the element being read.
+ *
+ * <p>{@link PersistenceSnapshot} keeps such a list as it is instead of copying
+ * it, and readers that need every book by collection ask the list to group
+ * itself rather than building each book to find its collection.
+ */
+public interface BookRows extends List<Book> {
+    /**
+     * Books grouped by collection id (null for books without one), each group
+     * in list order.
+     */
+    Map<Long, List<Book>> groupByCollection();
+}
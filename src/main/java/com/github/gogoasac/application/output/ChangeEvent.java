@@ -0,0 +1,42 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+/**
+ * One committed write to the persistence ports, as published to change-event
+ * subscribers.
+ *
+ * <p>{@code sequence} numbers the events of one publisher from 1 without gaps,
+ * in delivery order, so a subscriber can tell that it missed some. Book events
+ * carry the stored book, including its new version.
+ */
+public sealed interface ChangeEvent {
+    long sequence();
+
+    record BookAdded(long sequence, Book book) implements ChangeEvent {
+    }
+
+    /**
+     * A book was lent: it was available before, or it went straight to the
+     * next hold with a new borrow date.
+     */
+    record BookBorrowed(long sequence, Book book) implements ChangeEvent {
+    }
+
+    record BookReturned(long sequence, Book book) implements ChangeEvent {
+    }
+
+    /**
+     * Any other book update, or one whose previous state was not known.
+     */
+    record BookUpdated(long sequence, Book book) implements ChangeEvent {
+    }
+
+    record AuthorAdded(long sequence, Author author) implements ChangeEvent {
+    }
+
+    record CollectionAdded(long sequence, Collection collection) implements ChangeEvent {
+    }
+}
@@ -11,4 +11,22 @@ public interface CollectionPersistence {
     Optional<Collection> findById(Long id);
 
     List<Collection> findAll();
+
+    /**
+     * Monotonic counter bumped by every write, or {@code -1} when the implementation
+     * does not track one. Equal values mean the data has not changed in between.
+     */
+    default long dataVersion() {
+        return -1L;
+    }
+
+    /**
+     * Every collection as of one committed write, versioned by {@link #dataVersion()}.
+     * Taking it must not block writers.
+     *
+     * @return empty when the implementation cannot provide a consistent copy
+     */
+    default Optional<PersistenceSnapshot<Collection>> snapshot() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,36 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.domain.entity.Hold;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Output port for per-book FIFO hold queues.
+ *
+ * <p>Implementations must keep one queue per book so that enqueueing, peeking and
+ * dequeueing are constant-time operations regardless of how many holds exist.
+ */
+public interface HoldPersistence {
+    /**
+     * Append a hold to the tail of its book's queue and assign it an id.
+     */
+    Hold enqueue(final Hold hold);
+
+    /**
+     * The oldest hold of the book, without removing it.
+     */
+    Optional<Hold> peek(final Long bookId);
+
+    /**
+     * Remove the given hold if it is still the head of its book's queue.
+     *
+     * @return true when the hold was removed
+     */
+    boolean dequeue(final Hold hold);
+
+    /**
+     * Holds of the book in queue order.
+     */
+    List<Hold> findByBookId(final Long bookId);
+}
@@ -0,0 +1,21 @@
+package com.github.gogoasac.application.output;
+
+import java.util.List;
+
+/**
+ * Immutable point-in-time copy of everything a persistence port stores.
+ *
+ * <p>{@code version} is the port's data version at the moment the copy was
+ * committed, so two snapshots with equal versions hold the same entities.
+ *
+ * <p>{@code entities} is copied into an unmodifiable list, except for a
+ * {@link BookRows} list, which is immutable already and would only lose its
+ * compact form.
+ *
+ * @param <T> entity type
+ */
+public record PersistenceSnapshot<T>(long version, List<T> entities) {
+    public PersistenceSnapshot {
+        entities = entities instanceof BookRows ? entities : List.copyOf(entities);
+    }
+}
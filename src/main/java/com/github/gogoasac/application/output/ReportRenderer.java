@@ -0,0 +1,32 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output port (SPI) rendering collection reports in one {@link ReportFormat}.
+ *
+ * <p>Rendering is streaming: {@link #open(OutputStream, String)} writes the
+ * document preamble, every {@link Session#collection(CollectionReport)} call
+ * writes one section, and {@link Session#finish()} completes the document. A
+ * session never holds more than the current section in memory, so callers can
+ * drive several sessions side by side over the same reports.
+ */
+public interface ReportRenderer {
+    ReportFormat format();
+
+    /**
+     * Start a document on {@code out}. The stream is flushed by
+     * {@link Session#finish()} but never closed; it belongs to the caller.
+     */
+    Session open(OutputStream out, String date) throws IOException;
+
+    interface Session {
+        void collection(CollectionReport report) throws IOException;
+
+        void finish() throws IOException;
+    }
+}
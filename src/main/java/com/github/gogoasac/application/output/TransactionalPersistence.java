@@ -0,0 +1,9 @@
+package com.github.gogoasac.application.output;
+
+/**
+ * Output port opening {@link UnitOfWork}s over the author, collection and book
+ * persistence ports.
+ */
+public interface TransactionalPersistence {
+    UnitOfWork begin();
+}
@@ -0,0 +1,47 @@
+package com.github.gogoasac.application.output;
+
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+import java.util.List;
+
+/**
+ * New authors, collections and books staged in memory and stored together.
+ *
+ * <p>Every add returns the entity with the id it will be stored under, so a
+ * staged book can refer to an author or collection staged in the same unit.
+ * Nothing is visible to readers before {@link #commit()}; after it either all
+ * of the staged entities are stored or, after a crash, all of them are once
+ * the repositories are opened again. A unit that is dropped without a commit
+ * leaves nothing behind but unused ids.
+ *
+ * <p>Instances are not thread-safe and are committed at most once.
+ */
+public interface UnitOfWork {
+    Author addAuthor(Author author);
+
+    Collection addCollection(Collection collection);
+
+    Book addBook(Book book);
+
+    /**
+     * Store everything staged.
+     *
+     * @return what was stored
+     * @throws IllegalStateException when the unit was already committed
+     */
+    Committed commit();
+
+    record Committed(List<Author> authors, List<Collection> collections, List<Book> books) {
+        public Committed {
+            authors = List.copyOf(authors);
+            collections = List.copyOf(collections);
+            books = List.copyOf(books);
+        }
+
+        public int size() {
+            return authors.size() + collections.size() + books.size();
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.github.gogoasac.application.service;
 
 import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.BookDetails;
 import com.github.gogoasac.application.input.BookManagementInput;
 import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookActivityListener;
 import com.github.gogoasac.application.output.BookPersistence;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.HoldPersistence;
+import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Application service orchestrating book-related use cases.
@@ -16,18 +25,50 @@ import java.util.List;
  * validation and persistence:
  * - Validates that referenced author and collection exist before creating books.
  * - Delegates persistence operations to {@link BookPersistence}.
- * - Exposes a small domain action to borrow a book which composes the domain
- *   {@link Book#borrow()} behaviour with repository updates.
+ * - Exposes small domain actions to borrow and return a book which compose the
+ *   domain {@link Book#borrow()} / {@link Book#returnBook()} behaviour with
+ *   repository updates.
+ *
+ * <p>Borrow and return use optimistic concurrency instead of a lock: the book is
+ * read, the domain action applied, and the result written with
+ * {@link BookPersistence#updateIfVersion(Book, long)}. If another client changed
+ * the book in between, the attempt is retried on a fresh read, so two clients can
+ * never both borrow the same copy.
+ *
+ * <p>Holds: a borrowed book can be reserved through {@link HoldPersistence}. On
+ * return the book goes straight to the oldest hold (it stays borrowed, with a new
+ * borrow date) instead of becoming available, so waiting patrons are served
+ * first-come, first-served. The hold is read inside the versioned update and
+ * the loan records it ({@link Book#holdId()}); the hold is dequeued right after.
+ * A return that finds the head hold already recorded on the loan knows that
+ * hand-over happened and only completes the dequeue, so a hold is never served
+ * twice.
+ *
+ * <p>Every persisted add, borrow or return is reported to the registered
+ * {@link BookActivityListener}s; a hand-over to a hold is reported as a borrow.
  */
 public final class BookManagementService implements BookManagementInput {
+    private static final int MAX_UPDATE_ATTEMPTS = 100;
+
     private final BookPersistence bookPersistence;
     private final AuthorPersistence authorPersistence;
     private final CollectionPersistence collectionPersistence;
+    private final HoldPersistence holdPersistence;
+    private final List<BookActivityListener> activityListeners;
+
+    public BookManagementService(BookPersistence bookPersistence, AuthorPersistence authorPersistence,
+                                 CollectionPersistence collectionPersistence, HoldPersistence holdPersistence) {
+        this(bookPersistence, authorPersistence, collectionPersistence, holdPersistence, List.of());
+    }
 
-    public BookManagementService(BookPersistence bookPersistence, AuthorPersistence authorPersistence, CollectionPersistence collectionPersistence) {
+    public BookManagementService(BookPersistence bookPersistence, AuthorPersistence authorPersistence,
+                                 CollectionPersistence collectionPersistence, HoldPersistence holdPersistence,
+                                 List<BookActivityListener> activityListeners) {
         this.bookPersistence = bookPersistence;
         this.authorPersistence = authorPersistence;
         this.collectionPersistence = collectionPersistence;
+        this.holdPersistence = holdPersistence;
+        this.activityListeners = List.copyOf(activityListeners);
     }
 
     @Override
@@ -50,7 +91,9 @@ public final class BookManagementService implements BookManagementInput {
             false
         );
 
-        return bookPersistence.addBook(book);
+        final Book added = bookPersistence.addBook(book);
+        this.activityListeners.forEach(listener -> listener.onAdded(added));
+        return added;
     }
 
     @Override
@@ -58,15 +101,136 @@ public final class BookManagementService implements BookManagementInput {
         return bookPersistence.findAll();
     }
 
+    @Override
+    public List<Book> getByCollectionId(final Long collectionId) {
+        return bookPersistence.findByCollectionId(collectionId);
+    }
+
     @Override
     public Book getById(Long id) {
         return bookPersistence.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Book with ID " + id + " does not exist."));
     }
 
+    @Override
+    public BookDetails getDetails(final Long bookId) {
+        final Book book = this.getById(bookId);
+        final String authorName = authorPersistence.findById(book.authorId()).map(Author::name).orElse(null);
+        final String collectionName = collectionPersistence.findById(book.collectionId()).map(Collection::name).orElse(null);
+
+        return new BookDetails(
+            book.id(),
+            book.title(),
+            authorName,
+            collectionName,
+            book.publicationYear(),
+            book.isBorrowed(),
+            book.borrowedAt(),
+            this.holdPersistence.findByBookId(bookId)
+        );
+    }
+
+    @Override
     public void borrow(final Long bookId) {
-        final Book book = this.bookPersistence.findById(bookId).orElseThrow();
+        final Book borrowed = this.updateOptimistically(bookId, Book::borrow);
+        this.activityListeners.forEach(listener -> listener.onBorrowed(borrowed));
+    }
+
+    @Override
+    public void returnBook(final Long bookId) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            final Book current = this.bookPersistence.findById(bookId).orElseThrow();
+            final Optional<Hold> next = this.holdPersistence.peek(bookId);
+            if (next.isPresent() && next.get().id().equals(current.holdId())) {
+                // the current loan serves this hold; the return that handed it over has not dequeued it yet
+                this.dequeueServed(next.get());
+                continue;
+            }
+
+            // hand the copy over to the next holder, if any, in one versioned update
+            final Book result = next.isPresent() ? current.returnBook().borrowFor(next.get()) : current.returnBook();
+            final Optional<Book> updated = this.bookPersistence.updateIfVersion(result, current.version());
+            if (updated.isEmpty()) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (next.isEmpty()) {
+                this.activityListeners.forEach(listener -> listener.onReturned(updated.get()));
+            } else {
+                this.dequeueServed(next.get());
+                this.activityListeners.forEach(listener -> listener.onBorrowed(updated.get()));
+            }
+            return;
+        }
+
+        throw new IllegalStateException("Book with ID " + bookId + " is under heavy contention; try again.");
+    }
+
+    @Override
+    public Hold placeHold(final Long bookId, final String patron) {
+        if (patron == null || patron.isBlank()) {
+            throw new IllegalArgumentException("Patron must be provided to place a hold.");
+        }
+
+        final Book book = this.getById(bookId);
+        if (!book.isBorrowed()) {
+            throw new IllegalStateException("Book is available; borrow it instead.");
+        }
+
+        final Hold hold = this.holdPersistence.enqueue(new Hold(null, bookId, patron.trim(), LocalDate.now()));
+        this.fulfilIfReturnedMeanwhile(bookId);
+        return hold;
+    }
+
+    @Override
+    public List<Hold> getHolds(final Long bookId) {
+        return this.holdPersistence.findByBookId(bookId);
+    }
+
+    /**
+     * Closes the race where the book was returned between the availability check in
+     * {@link #placeHold(Long, String)} and the enqueue: nobody would hand it over then.
+     */
+    private void fulfilIfReturnedMeanwhile(final Long bookId) {
+        while (true) {
+            final Book current = this.getById(bookId);
+            final Optional<Hold> next = this.holdPersistence.peek(bookId);
+            if (current.isBorrowed() || next.isEmpty()) {
+                return;
+            }
+
+            final Optional<Book> handedOver = this.bookPersistence.updateIfVersion(current.borrowFor(next.get()), current.version());
+            if (handedOver.isPresent()) {
+                this.dequeueServed(next.get());
+                this.activityListeners.forEach(listener -> listener.onBorrowed(handedOver.get()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dequeues a hold the book was just handed to. Only a return that found the
+     * hold on the loan can have dequeued it first; a hold that is still at the
+     * head after a refused dequeue means the queue is out of step with the book.
+     */
+    private void dequeueServed(final Hold hold) {
+        if (!this.holdPersistence.dequeue(hold) && this.holdPersistence.peek(hold.bookId()).filter(hold::equals).isPresent()) {
+            throw new IllegalStateException("Hold " + hold.id() + " was served but could not be dequeued.");
+        }
+    }
+
+    private Book updateOptimistically(final Long bookId, final UnaryOperator<Book> action) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            final Book current = this.bookPersistence.findById(bookId).orElseThrow();
+            final Optional<Book> updated = this.bookPersistence.updateIfVersion(action.apply(current), current.version());
+
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+            Thread.onSpinWait();
+        }
 
-        this.bookPersistence.updateBook(book.borrow()).orElseThrow();
+        throw new IllegalStateException("Book with ID " + bookId + " is under heavy contention; try again.");
     }
 }
@@ -0,0 +1,106 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.input.CatalogImportInput;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookActivityListener;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Application service for catalog imports.
+ *
+ * <p>Each import is one {@link UnitOfWork} of {@link TransactionalPersistence}.
+ * A book is checked like {@link BookManagementService#addBook} checks it, except
+ * that its author and collection may also be ones staged in the same import.
+ * Authors and collections are never removed, so a check made while staging
+ * still holds at commit.
+ *
+ * <p>After a commit every stored book is reported to the registered
+ * {@link BookActivityListener}s as added.
+ */
+public final class CatalogImportService implements CatalogImportInput {
+    private final TransactionalPersistence transactions;
+    private final AuthorPersistence authorPersistence;
+    private final CollectionPersistence collectionPersistence;
+    private final List<BookActivityListener> activityListeners;
+
+    public CatalogImportService(final TransactionalPersistence transactions,
+                                final AuthorPersistence authorPersistence,
+                                final CollectionPersistence collectionPersistence,
+                                final List<BookActivityListener> activityListeners) {
+        this.transactions = transactions;
+        this.authorPersistence = authorPersistence;
+        this.collectionPersistence = collectionPersistence;
+        this.activityListeners = List.copyOf(activityListeners);
+    }
+
+    @Override
+    public CatalogImport begin() {
+        return new Import(transactions.begin());
+    }
+
+    private final class Import implements CatalogImport {
+        private final UnitOfWork unitOfWork;
+        private final Set<Long> stagedAuthorIds = new HashSet<>();
+        private final Set<Long> stagedCollectionIds = new HashSet<>();
+
+        private Import(final UnitOfWork unitOfWork) {
+            this.unitOfWork = unitOfWork;
+        }
+
+        @Override
+        public Author addAuthor(final AddAuthorCommand addAuthorCommand) {
+            final Author staged = unitOfWork.addAuthor(new Author(null, addAuthorCommand.name()));
+            stagedAuthorIds.add(staged.id());
+            return staged;
+        }
+
+        @Override
+        public Collection addCollection(final AddCollectionCommand addCollectionCommand) {
+            final Collection staged = unitOfWork.addCollection(new Collection(null, addCollectionCommand.name()));
+            stagedCollectionIds.add(staged.id());
+            return staged;
+        }
+
+        @Override
+        public Book addBook(final AddBookCommand addBookCommand) {
+            final Long authorId = addBookCommand.authorId();
+            if (!stagedAuthorIds.contains(authorId) && authorPersistence.findById(authorId).isEmpty()) {
+                throw new IllegalArgumentException("Author with ID " + authorId + " does not exist.");
+            }
+
+            final Long collectionId = addBookCommand.collectionId();
+            if (!stagedCollectionIds.contains(collectionId) && collectionPersistence.findById(collectionId).isEmpty()) {
+                throw new IllegalArgumentException("Collection with ID " + collectionId + " does not exist.");
+            }
+
+            return unitOfWork.addBook(new Book(
+                null,
+                addBookCommand.title(),
+                authorId,
+                collectionId,
+                addBookCommand.publicationYear(),
+                null,
+                false
+            ));
+        }
+
+        @Override
+        public int commit() {
+            final UnitOfWork.Committed committed = unitOfWork.commit();
+            committed.books().forEach(book -> activityListeners.forEach(listener -> listener.onAdded(book)));
+            return committed.size();
+        }
+    }
+}
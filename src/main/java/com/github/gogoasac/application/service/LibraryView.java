@@ -0,0 +1,142 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.BookRows;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only view of books, authors and collections for one report run.
+ *
+ * <p>Ports that offer a {@code snapshot()} are read from that immutable copy;
+ * the others are queried live. The snapshots are taken with a double collect:
+ * all of them are taken, their versions are read again, and the collect is
+ * repeated until nothing moved in between. The three copies were then current
+ * at the same instant, so the view is a consistent point in time across the
+ * ports although none of them was locked and writers never waited.
+ *
+ * <p>Live ports keep their previous semantics: each call reads current data
+ * and the version is read once at capture.
+ */
+final class LibraryView {
+    private final BookPersistence bookPersistence;
+    private final AuthorPersistence authorPersistence;
+    private final CollectionPersistence collectionPersistence;
+    private final PersistenceSnapshot<Book> books;
+    private final PersistenceSnapshot<Author> authors;
+    private final PersistenceSnapshot<Collection> collections;
+    private final long bookVersion;
+    private final long authorVersion;
+    private final long collectionVersion;
+
+    // lazily built indexes over the snapshots
+    private Map<Long, List<Book>> booksByCollection;
+    private Map<Long, Author> authorsById;
+
+    private LibraryView(final BookPersistence bookPersistence,
+                        final AuthorPersistence authorPersistence,
+                        final CollectionPersistence collectionPersistence,
+                        final Optional<PersistenceSnapshot<Book>> books,
+                        final Optional<PersistenceSnapshot<Author>> authors,
+                        final Optional<PersistenceSnapshot<Collection>> collections) {
+        this.bookPersistence = bookPersistence;
+        this.authorPersistence = authorPersistence;
+        this.collectionPersistence = collectionPersistence;
+        this.books = books.orElse(null);
+        this.authors = authors.orElse(null);
+        this.collections = collections.orElse(null);
+        this.bookVersion = books.map(PersistenceSnapshot::version).orElseGet(bookPersistence::changeSequence);
+        this.authorVersion = authors.map(PersistenceSnapshot::version).orElseGet(authorPersistence::dataVersion);
+        this.collectionVersion = collections.map(PersistenceSnapshot::version).orElseGet(collectionPersistence::dataVersion);
+    }
+
+    static LibraryView capture(final BookPersistence bookPersistence,
+                               final AuthorPersistence authorPersistence,
+                               final CollectionPersistence collectionPersistence) {
+        while (true) {
+            final Optional<PersistenceSnapshot<Book>> books = bookPersistence.snapshot();
+            final Optional<PersistenceSnapshot<Author>> authors = authorPersistence.snapshot();
+            final Optional<PersistenceSnapshot<Collection>> collections = collectionPersistence.snapshot();
+
+            if (unchanged(books, bookPersistence.snapshot())
+                && unchanged(authors, authorPersistence.snapshot())
+                && unchanged(collections, collectionPersistence.snapshot())) {
+                return new LibraryView(bookPersistence, authorPersistence, collectionPersistence,
+                    books, authors, collections);
+            }
+            // a write committed between the two collects; snapshots are cheap, try again
+            Thread.onSpinWait();
+        }
+    }
+
+    private static boolean unchanged(final Optional<? extends PersistenceSnapshot<?>> first,
+                                     final Optional<? extends PersistenceSnapshot<?>> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return first.isEmpty() && second.isEmpty();
+        }
+        return first.get().version() == second.get().version();
+    }
+
+    long bookVersion() {
+        return bookVersion;
+    }
+
+    long authorVersion() {
+        return authorVersion;
+    }
+
+    long collectionVersion() {
+        return collectionVersion;
+    }
+
+    List<Collection> collections() {
+        return collections == null ? collectionPersistence.findAll() : collections.entities();
+    }
+
+    List<Book> books() {
+        return books == null ? bookPersistence.findAll() : books.entities();
+    }
+
+    List<Book> booksOf(final Long collectionId) {
+        if (books == null) {
+            return bookPersistence.findByCollectionId(collectionId);
+        }
+        return booksByCollection().getOrDefault(collectionId, List.of());
+    }
+
+    /**
+     * All books grouped by collection id. A snapshot held as {@link BookRows}
+     * groups itself, without building a {@code Book} per row.
+     */
+    Map<Long, List<Book>> booksByCollection() {
+        if (books == null) {
+            return bookPersistence.findAll().stream().collect(Collectors.groupingBy(Book::collectionId));
+        }
+        if (booksByCollection == null) {
+            booksByCollection = books.entities() instanceof BookRows rows
+                ? rows.groupByCollection()
+                : books.entities().stream().collect(Collectors.groupingBy(Book::collectionId));
+        }
+        return booksByCollection;
+    }
+
+    Optional<Author> author(final Long id) {
+        if (authors == null) {
+            return authorPersistence.findById(id);
+        }
+        if (authorsById == null) {
+            authorsById = authors.entities().stream().collect(Collectors.toMap(Author::id, Function.identity()));
+        }
+        return Optional.ofNullable(authorsById.get(id));
+    }
+}
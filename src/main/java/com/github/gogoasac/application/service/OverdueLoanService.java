@@ -0,0 +1,156 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.OverdueLoan;
+import com.github.gogoasac.application.input.LoanMonitoringInput;
+import com.github.gogoasac.application.output.BookActivityListener;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.common.HierarchicalTimingWheel;
+import com.github.gogoasac.domain.entity.Book;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * OverdueLoanService
+ *
+ * <p>Implementation of the {@link LoanMonitoringInput} port that tracks due dates
+ * without scanning the catalog:
+ * - The book persistence is scanned once at construction to register the loans
+ *   that are already open.
+ * - Afterwards it learns about borrows and returns as a
+ *   {@link BookActivityListener}; each open loan is a timer in a
+ *   {@link HierarchicalTimingWheel} with one tick per day.
+ * - Before answering a query or handling an event the wheel is advanced to
+ *   today. Loans whose due date passed move to the overdue index and are
+ *   handed to the overdue sink, O(1) per tick and per loan.
+ *
+ * <p>Events carry the book version, so a late notification about an older
+ * change never overrides a newer one.
+ *
+ * <p>All methods are synchronized; the overdue sink runs under that lock and
+ * should return quickly.
+ */
+public final class OverdueLoanService implements LoanMonitoringInput, BookActivityListener {
+    public static final Period DEFAULT_LOAN_PERIOD = Period.ofDays(14);
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+
+    private final Clock clock;
+    private final Period loanPeriod;
+    private final Consumer<OverdueLoan> overdueSink;
+    private final HierarchicalTimingWheel<Loan> wheel;
+    // latest known state per book id, returned books included, for version checks
+    private final Map<Long, Loan> loans;
+    // in the order the loans became overdue, i.e. by due date
+    private final Map<Long, OverdueLoan> overdue;
+
+    public OverdueLoanService(final BookPersistence bookPersistence) {
+        this(bookPersistence, Clock.systemDefaultZone(), DEFAULT_LOAN_PERIOD, loan -> {});
+    }
+
+    public OverdueLoanService(final BookPersistence bookPersistence,
+                              final Clock clock,
+                              final Period loanPeriod,
+                              final Consumer<OverdueLoan> overdueSink) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.loanPeriod = Objects.requireNonNull(loanPeriod, "loanPeriod");
+        this.overdueSink = Objects.requireNonNull(overdueSink, "overdueSink");
+        this.wheel = new HierarchicalTimingWheel<>(WHEEL_SIZE, WHEEL_LEVELS, today().toEpochDay());
+        this.loans = new HashMap<>();
+        this.overdue = new LinkedHashMap<>();
+
+        // sorted once so loans that are already overdue are reported oldest first
+        bookPersistence.findAll().stream()
+            .filter(Book::isBorrowed)
+            .sorted(Comparator.comparing(this::borrowDate))
+            .forEach(this::register);
+        advance();
+    }
+
+    @Override
+    public synchronized List<OverdueLoan> getOverdueLoans() {
+        advance();
+        return List.copyOf(overdue.values());
+    }
+
+    @Override
+    public synchronized void onBorrowed(final Book book) {
+        advance();
+        if (isStale(book)) {
+            return;
+        }
+        close(book.id());
+        register(book);
+    }
+
+    @Override
+    public synchronized void onReturned(final Book book) {
+        advance();
+        if (isStale(book)) {
+            return;
+        }
+        close(book.id());
+        loans.put(book.id(), new Loan(book, null));
+    }
+
+    private void register(final Book book) {
+        final LocalDate dueDate = borrowDate(book).plus(loanPeriod);
+        final Loan loan = new Loan(book, dueDate);
+        // overdue from the day after the due date
+        loan.timer = wheel.schedule(loan, dueDate.toEpochDay() + 1);
+        loans.put(book.id(), loan);
+    }
+
+    private void close(final Long bookId) {
+        final Loan previous = loans.get(bookId);
+        if (previous != null && previous.timer != null) {
+            previous.timer.cancel();
+        }
+        overdue.remove(bookId);
+    }
+
+    private void advance() {
+        wheel.advanceTo(today().toEpochDay(), this::markOverdue);
+    }
+
+    private void markOverdue(final Loan loan) {
+        loan.timer = null;
+        final Book book = loan.book;
+        final OverdueLoan overdueLoan = new OverdueLoan(book.id(), book.title(), borrowDate(book), loan.dueDate);
+        overdue.put(book.id(), overdueLoan);
+        overdueSink.accept(overdueLoan);
+    }
+
+    private boolean isStale(final Book book) {
+        final Loan known = loans.get(book.id());
+        return known != null && known.book.version() >= book.version();
+    }
+
+    private LocalDate borrowDate(final Book book) {
+        return book.borrowedAt() == null ? today() : book.borrowedAt();
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private static final class Loan {
+        private final Book book;
+        private final LocalDate dueDate;
+        private HierarchicalTimingWheel.Timer<Loan> timer;
+
+        private Loan(final Book book, final LocalDate dueDate) {
+            this.book = book;
+            this.dueDate = dueDate;
+        }
+    }
+}
@@ -2,26 +2,38 @@ package com.github.gogoasac.application.service;
 
 import com.github.gogoasac.application.dto.BookReport;
 import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportCacheStats;
+import com.github.gogoasac.application.dto.ReportFormat;
 import com.github.gogoasac.application.input.ReportingInput;
 import com.github.gogoasac.application.output.AuthorPersistence;
 import com.github.gogoasac.application.output.BookPersistence;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.ReportRenderer;
+import com.github.gogoasac.common.StringUtils;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * ReportingService
@@ -38,82 +50,258 @@ import java.util.stream.Collectors;
  * - Includes borrowed-date information for books when available.
  * - Uses small private helper methods for grouping, mapping and rendering to
  *   keep the public method concise and easy to test.
+ *
+ * <p>Incremental regeneration: the report and its rendered text are cached per
+ * collection. When the book persistence keeps a change journal
+ * ({@link BookPersistence#changeSequence()}), later runs only rebuild the
+ * sections of collections touched since the previous run and reuse the rest,
+ * so the cost follows the churn rather than the catalog size. Without a
+ * journal, or when its history no longer reaches back far enough, every
+ * section is rebuilt.
+ *
+ * <p>Result cache: when all three persistence ports expose a data version
+ * ({@link BookPersistence#changeSequence()}, {@link AuthorPersistence#dataVersion()},
+ * {@link CollectionPersistence#dataVersion()}) and none of them moved since the
+ * previous run on the same day, the previous reports and rendered file are
+ * returned as they are. Any write changes a version, so invalidation is exact.
+ * Hits and misses are counted in {@link #getCacheStats()}.
+ *
+ * <p>Snapshot isolation: every run reads through a {@link LibraryView}. When the
+ * persistence ports offer snapshots, books, authors and collections come from
+ * immutable copies taken at one common instant, so a report never mixes data
+ * from before and after a concurrent write, and running it neither locks the
+ * repositories nor delays writers.
+ *
+ * <p>Other formats: {@link ReportRenderer}s passed at construction add formats
+ * to {@link #exportReports(Map)}, which streams any number of them from the same
+ * cached reports in a single pass.
  */
-public record ReportingService(CollectionPersistence collectionPersistence, BookPersistence bookPersistence,
-                               AuthorPersistence authorPersistence) implements ReportingInput {
+public final class ReportingService implements ReportingInput {
 
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter BORROWED_DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long NO_RUN = -1L;
+    private static final long UNTRACKED = -1L;
+
+    private final CollectionPersistence collectionPersistence;
+    private final BookPersistence bookPersistence;
+    private final AuthorPersistence authorPersistence;
+    private final Map<ReportFormat, ReportRenderer> renderers;
+
+    // cached sections by collection id, guarded by this
+    private final Map<Long, Section> sections = new HashMap<>();
+    private long lastChangeSequence = NO_RUN;
+
+    // result cache of the previous run, guarded by this
+    private DataVersion cachedVersion;
+    private String cachedDate;
+    private String cachedContent;
+    private List<CollectionReport> cachedReports;
+    private long hits;
+    private long misses;
+
+    public ReportingService(final CollectionPersistence collectionPersistence,
+                            final BookPersistence bookPersistence,
+                            final AuthorPersistence authorPersistence) {
+        this(collectionPersistence, bookPersistence, authorPersistence, List.of());
+    }
+
+    public ReportingService(final CollectionPersistence collectionPersistence,
+                            final BookPersistence bookPersistence,
+                            final AuthorPersistence authorPersistence,
+                            final List<ReportRenderer> renderers) {
+        this.collectionPersistence = collectionPersistence;
+        this.bookPersistence = bookPersistence;
+        this.authorPersistence = authorPersistence;
+        this.renderers = new EnumMap<>(ReportFormat.class);
+        renderers.forEach(renderer -> this.renderers.put(renderer.format(), renderer));
+    }
+
+    @Override
+    public synchronized List<CollectionReport> generateCollectionReports() {
+        final boolean hit = refresh();
+        final String fileName = "report_" + cachedDate + "." + ReportFormat.TEXT.fileExtension();
+
+        if (!hit || !Files.exists(Paths.get(fileName))) {
+            writeReportFile(fileName, cachedContent);
+        }
+        return cachedReports;
+    }
+
+    @Override
+    public Set<ReportFormat> supportedFormats() {
+        final Set<ReportFormat> formats = EnumSet.of(ReportFormat.TEXT);
+        formats.addAll(renderers.keySet());
+        return Collections.unmodifiableSet(formats);
+    }
 
+    /**
+     * Streams every requested format in one pass: each collection report is handed
+     * to all open renderers before moving on to the next one. The text format is
+     * written from the cached rendering. Destinations are flushed, not closed.
+     */
     @Override
-    public List<CollectionReport> generateCollectionReports() {
-        final List<Collection> collections = collectionPersistence.findAll();
-        final Map<Long, List<Book>> booksByCollection = groupBooksByCollection(bookPersistence.findAll());
-        final List<CollectionReport> reports = buildReports(collections, booksByCollection);
+    public synchronized List<CollectionReport> exportReports(final Map<ReportFormat, OutputStream> destinations) {
+        final Set<ReportFormat> unsupported = EnumSet.noneOf(ReportFormat.class);
+        unsupported.addAll(destinations.keySet());
+        unsupported.removeAll(supportedFormats());
+        if (!unsupported.isEmpty()) {
+            throw new IllegalArgumentException("Unsupported report formats: " + unsupported);
+        }
+
+        refresh();
 
+        final List<ReportRenderer.Session> sessions = new ArrayList<>();
+        try {
+            for (final Map.Entry<ReportFormat, OutputStream> destination : destinations.entrySet()) {
+                if (destination.getKey() == ReportFormat.TEXT) {
+                    destination.getValue().write(cachedContent.getBytes(StandardCharsets.UTF_8));
+                    destination.getValue().flush();
+                } else {
+                    sessions.add(renderers.get(destination.getKey()).open(destination.getValue(), cachedDate));
+                }
+            }
+            for (final CollectionReport report : cachedReports) {
+                for (final ReportRenderer.Session session : sessions) {
+                    session.collection(report);
+                }
+            }
+            for (final ReportRenderer.Session session : sessions) {
+                session.finish();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to export reports", e);
+        }
+        return cachedReports;
+    }
+
+    /**
+     * Bring the cached reports and text rendering up to date.
+     *
+     * @return true when the cache was still valid
+     */
+    private boolean refresh() {
+        // versions are fixed at capture, before any live read: a concurrent change is picked up next time, never missed
+        final LibraryView view = LibraryView.capture(bookPersistence, authorPersistence, collectionPersistence);
+        final DataVersion version = new DataVersion(view.bookVersion(), view.authorVersion(), view.collectionVersion());
         final String date = LocalDate.now().format(DATE_FMT);
-        final String fileName = "report_" + date + ".txt";
-        final String content = renderReportText(reports, date);
-        writeReportFile(fileName, content);
 
-        return Collections.unmodifiableList(reports);
+        if (version.isTracked() && version.equals(cachedVersion) && date.equals(cachedDate)) {
+            hits++;
+            return true;
+        }
+        misses++;
+
+        final List<Collection> collections = view.collections();
+        // may include changes newer than the view; rebuilding those sections again next time is harmless
+        final Optional<Set<Long>> touched = touchedCollections();
+
+        if (touched.isEmpty()) {
+            rebuildAll(view, collections);
+        } else {
+            rebuildTouched(view, collections, touched.get());
+        }
+        lastChangeSequence = version.books();
+
+        final List<Section> ordered = collections.stream().map(c -> sections.get(c.id())).toList();
+
+        cachedVersion = version;
+        cachedDate = date;
+        cachedContent = renderReportText(ordered, date);
+        cachedReports = ordered.stream().map(Section::report).toList();
+        return false;
     }
 
-    private Map<Long, List<Book>> groupBooksByCollection(final List<Book> books) {
-        return books.stream().collect(Collectors.groupingBy(Book::collectionId));
+    @Override
+    public synchronized ReportCacheStats getCacheStats() {
+        return new ReportCacheStats(hits, misses);
     }
 
-    private List<CollectionReport> buildReports(final List<Collection> collections,
-                                                final Map<Long, List<Book>> booksByCollection) {
-        return collections.stream()
-            .map(col -> {
-                final List<BookReport> bookReports = booksByCollection
-                    .getOrDefault(col.id(), Collections.emptyList())
-                    .stream()
-                    .map(this::mapToBookReport)
-                    .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
-                return new CollectionReport(col.name(), bookReports);
-            })
-            .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    private Optional<Set<Long>> touchedCollections() {
+        if (lastChangeSequence == NO_RUN) {
+            return Optional.empty();
+        }
+        return bookPersistence.collectionsChangedSince(lastChangeSequence);
     }
 
-    private BookReport mapToBookReport(final Book book) {
-        final Author author = authorPersistence.findById(book.authorId())
-            .orElseThrow(() -> new IllegalArgumentException("Author with ID " + book.authorId() + " does not exist."));
+    private void rebuildAll(final LibraryView view, final List<Collection> collections) {
+        final Map<Long, List<Book>> booksByCollection = view.booksByCollection();
+        final Map<Long, String> authorNames = new HashMap<>();
 
-        final LocalDate borrowedAt = book.borrowedAt();
-        final String titleWithBorrowInfo;
-        if (borrowedAt == null) {
-            titleWithBorrowInfo = book.title();
-        } else {
-            titleWithBorrowInfo = String.format("%s (borrowed: %s)", book.title(), borrowedAt.format(BORROWED_DATE_FMT));
+        sections.clear();
+        for (final Collection collection : collections) {
+            final List<Book> books = booksByCollection.getOrDefault(collection.id(), Collections.emptyList());
+            sections.put(collection.id(), buildSection(view, collection, books, authorNames));
         }
+    }
+
+    private void rebuildTouched(final LibraryView view, final List<Collection> collections, final Set<Long> touched) {
+        final Map<Long, String> authorNames = new HashMap<>();
+        final Set<Long> present = new HashSet<>();
+
+        for (final Collection collection : collections) {
+            present.add(collection.id());
+            final Section cached = sections.get(collection.id());
+            if (cached != null && cached.collection().equals(collection) && !touched.contains(collection.id())) {
+                continue;
+            }
+            final List<Book> books = view.booksOf(collection.id());
+            sections.put(collection.id(), buildSection(view, collection, books, authorNames));
+        }
+        sections.keySet().retainAll(present);
+    }
 
-        return new BookReport(titleWithBorrowInfo, author.name());
+    private Section buildSection(final LibraryView view,
+                                 final Collection collection,
+                                 final List<Book> books,
+                                 final Map<Long, String> authorNames) {
+        final List<BookReport> bookReports = books.stream()
+            .map(book -> mapToBookReport(view, book, authorNames))
+            .toList();
+        final CollectionReport report = new CollectionReport(collection.name(), bookReports);
+        return new Section(collection, report, renderSection(report));
     }
 
-    private String renderReportText(final List<CollectionReport> reports, final String date) {
+    private BookReport mapToBookReport(final LibraryView view, final Book book, final Map<Long, String> authorNames) {
+        final String authorName = authorNames.computeIfAbsent(book.authorId(), id -> view.author(id)
+            .map(Author::name)
+            .map(StringUtils::canonical)
+            .orElseThrow(() -> new IllegalArgumentException("Author with ID " + id + " does not exist.")));
+
+        return new BookReport(book.id(), book.title(), authorName, book.borrowedAt());
+    }
+
+    private String renderReportText(final List<Section> sections, final String date) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Library Report - ").append(date).append(System.lineSeparator()).append(System.lineSeparator());
-        for (final CollectionReport report : reports) {
-            final String header = "Collection: " + report.collectionName();
-            sb.append(header).append(System.lineSeparator());
-            sb.append(repeat('-', header.length())).append(System.lineSeparator());
-
-            final String titleCol = "Title";
-            final String authorCol = "Author";
-            sb.append(String.format("  %-30s | %s", titleCol, authorCol)).append(System.lineSeparator());
-            sb.append(String.format("  %-30s | %s", repeat('-', 30), repeat('-', authorCol.length()))).append(System.lineSeparator());
-
-            for (final BookReport book : report.books()) {
-                sb.append(String.format("  %-30s | %s", book.title(), book.authorName()))
-                  .append(System.lineSeparator());
-            }
-            sb.append(System.lineSeparator());
+        for (final Section section : sections) {
+            sb.append(section.text());
         }
         return sb.toString();
     }
 
+    private String renderSection(final CollectionReport report) {
+        final StringBuilder sb = new StringBuilder();
+        final String header = "Collection: " + report.collectionName();
+        sb.append(header).append(System.lineSeparator());
+        sb.append(repeat('-', header.length())).append(System.lineSeparator());
+
+        final String titleCol = "Title";
+        final String authorCol = "Author";
+        sb.append(String.format("  %-30s | %s", titleCol, authorCol)).append(System.lineSeparator());
+        sb.append(String.format("  %-30s | %s", repeat('-', 30), repeat('-', authorCol.length()))).append(System.lineSeparator());
+
+        for (final BookReport book : report.books()) {
+            final String title = book.borrowedAt() == null
+                ? book.title()
+                : String.format("%s (borrowed: %s)", book.title(), book.borrowedAt().format(BORROWED_DATE_FMT));
+            sb.append(String.format("  %-30s | %s", title, book.authorName()))
+              .append(System.lineSeparator());
+        }
+        sb.append(System.lineSeparator());
+        return sb.toString();
+    }
+
     private void writeReportFile(final String fileName, final String content) {
         final Path path = Paths.get(fileName);
         try {
@@ -129,4 +317,18 @@ public record ReportingService(CollectionPersistence collectionPersistence, Book
         Arrays.fill(arr, c);
         return new String(arr);
     }
+
+    /**
+     * One collection's report together with its rendered text.
+     */
+    private record Section(Collection collection, CollectionReport report, String text) {}
+
+    /**
+     * Data versions of the three persistence ports at the start of a run.
+     */
+    private record DataVersion(long books, long authors, long collections) {
+        boolean isTracked() {
+            return books != UNTRACKED && authors != UNTRACKED && collections != UNTRACKED;
+        }
+    }
 }
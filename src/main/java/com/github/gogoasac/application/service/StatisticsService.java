@@ -0,0 +1,292 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.AuthorStatistics;
+import com.github.gogoasac.application.dto.CatalogStatistics;
+import com.github.gogoasac.application.dto.CollectionStatistics;
+import com.github.gogoasac.application.input.StatisticsInput;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookActivityListener;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Book;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StatisticsService
+ *
+ * <p>Implementation of the {@link StatisticsInput} port:
+ * - At construction, and on {@link #recomputeStatistics()}, all books are
+ *   counted in one parallel pass. Every worker fills its own {@link Tally} of
+ *   {@code long[]} counters keyed by collection, author and publication year,
+ *   and the tallies are merged at the end, so no counter is shared between
+ *   threads.
+ * - Afterwards it learns about every add, borrow and return as a
+ *   {@link BookActivityListener} and adjusts the counters of that one book, so
+ *   reads never rescan the catalog.
+ *
+ * <p>Per book only its last known version and borrowed flag are kept, packed
+ * into one {@code long} in a primitive open-addressed table ({@link LoanStates}),
+ * so the tally holds no {@code Book} and boxes nothing per book. An add, borrow
+ * or return changes nothing of a known book but its borrowed flag, so a newer
+ * event only moves the borrowed counters by the change of that flag. Stale
+ * events are dropped, and a hold hand-over (reported as a borrow of an already
+ * borrowed book) changes nothing.
+ *
+ * <p>All methods are synchronized.
+ */
+public final class StatisticsService implements StatisticsInput, BookActivityListener {
+    private final BookPersistence bookPersistence;
+    private final AuthorPersistence authorPersistence;
+    private final CollectionPersistence collectionPersistence;
+
+    private Tally tally;
+
+    public StatisticsService(final BookPersistence bookPersistence,
+                             final AuthorPersistence authorPersistence,
+                             final CollectionPersistence collectionPersistence) {
+        this.bookPersistence = bookPersistence;
+        this.authorPersistence = authorPersistence;
+        this.collectionPersistence = collectionPersistence;
+        this.tally = countAll();
+    }
+
+    @Override
+    public synchronized CatalogStatistics getStatistics() {
+        final List<CollectionStatistics> collections = collectionPersistence.findAll().stream()
+            .map(collection -> {
+                final long[] counts = tally.byCollection.getOrDefault(collection.id(), Tally.EMPTY);
+                return new CollectionStatistics(collection.id(), collection.name(), counts[0], counts[1]);
+            })
+            .toList();
+        final List<AuthorStatistics> authors = authorPersistence.findAll().stream()
+            .map(author -> new AuthorStatistics(author.id(), author.name(), countBooksByAuthor(author.id())))
+            .toList();
+        final SortedMap<Integer, Long> years = new TreeMap<>();
+        tally.byYear.forEach((year, counts) -> {
+            if (counts[0] > 0) {
+                years.put(year, counts[0]);
+            }
+        });
+
+        return new CatalogStatistics(tally.total, tally.borrowed, collections, authors,
+            Collections.unmodifiableSortedMap(years));
+    }
+
+    @Override
+    public synchronized long countBooks() {
+        return tally.total;
+    }
+
+    @Override
+    public synchronized long countBorrowed() {
+        return tally.borrowed;
+    }
+
+    @Override
+    public synchronized long countBooksInCollection(final Long collectionId) {
+        return tally.byCollection.getOrDefault(collectionId, Tally.EMPTY)[0];
+    }
+
+    @Override
+    public synchronized long countBooksByAuthor(final Long authorId) {
+        return tally.byAuthor.getOrDefault(authorId, Tally.EMPTY)[0];
+    }
+
+    @Override
+    public synchronized CatalogStatistics recomputeStatistics() {
+        tally = countAll();
+        return getStatistics();
+    }
+
+    @Override
+    public synchronized void onAdded(final Book book) {
+        apply(book);
+    }
+
+    @Override
+    public synchronized void onBorrowed(final Book book) {
+        apply(book);
+    }
+
+    @Override
+    public synchronized void onReturned(final Book book) {
+        apply(book);
+    }
+
+    private Tally countAll() {
+        final List<Book> books = bookPersistence.snapshot()
+            .map(PersistenceSnapshot::entities)
+            .orElseGet(bookPersistence::findAll);
+        return books.parallelStream().collect(Tally::new, Tally::add, Tally::merge);
+    }
+
+    private void apply(final Book book) {
+        final long known = tally.loans.get(book.id());
+        if (known == LoanStates.ABSENT) {
+            tally.add(book);
+        } else if (LoanStates.version(known) < book.version()) {
+            tally.update(book, LoanStates.isBorrowed(known));
+        }
+    }
+
+    /**
+     * Mutable counters for one set of books; {@code long[]} values avoid boxing on
+     * every increment.
+     */
+    private static final class Tally {
+        private static final long[] EMPTY = new long[2];
+
+        private final LoanStates loans = new LoanStates();
+        // {books, borrowed}
+        private final Map<Long, long[]> byCollection = new HashMap<>();
+        // {books}
+        private final Map<Long, long[]> byAuthor = new HashMap<>();
+        private final Map<Integer, long[]> byYear = new HashMap<>();
+        private long total;
+        private long borrowed;
+
+        private void add(final Book book) {
+            loans.put(book.id(), LoanStates.of(book));
+            count(book, 1);
+        }
+
+        private void update(final Book book, final boolean wasBorrowed) {
+            loans.put(book.id(), LoanStates.of(book));
+            if (book.isBorrowed() != wasBorrowed) {
+                final int delta = book.isBorrowed() ? 1 : -1;
+                borrowed += delta;
+                byCollection.computeIfAbsent(book.collectionId(), id -> new long[2])[1] += delta;
+            }
+        }
+
+        private void count(final Book book, final int delta) {
+            final int borrowedDelta = book.isBorrowed() ? delta : 0;
+            total += delta;
+            borrowed += borrowedDelta;
+
+            final long[] collection = byCollection.computeIfAbsent(book.collectionId(), id -> new long[2]);
+            collection[0] += delta;
+            collection[1] += borrowedDelta;
+            byAuthor.computeIfAbsent(book.authorId(), id -> new long[1])[0] += delta;
+            if (book.publicationYear() != null) {
+                byYear.computeIfAbsent(book.publicationYear(), year -> new long[1])[0] += delta;
+            }
+        }
+
+        private void merge(final Tally other) {
+            loans.putAll(other.loans);
+            total += other.total;
+            borrowed += other.borrowed;
+            mergeCounts(byCollection, other.byCollection);
+            mergeCounts(byAuthor, other.byAuthor);
+            mergeCounts(byYear, other.byYear);
+        }
+
+        private static <K> void mergeCounts(final Map<K, long[]> into, final Map<K, long[]> from) {
+            from.forEach((key, counts) -> {
+                final long[] target = into.putIfAbsent(key, counts);
+                if (target != null) {
+                    for (int i = 0; i < target.length; i++) {
+                        target[i] += counts[i];
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Map from book id to {@code version << 1 | borrowed}, in two parallel
+     * arrays with linear probing. Ids are never removed.
+     */
+    private static final class LoanStates {
+        private static final long ABSENT = -1L;
+        private static final long FREE = Long.MIN_VALUE;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] ids = freeSlots(INITIAL_CAPACITY);
+        private long[] states = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private static long of(final Book book) {
+            return book.version() << 1 | (book.isBorrowed() ? 1L : 0L);
+        }
+
+        private static long version(final long state) {
+            return state >>> 1;
+        }
+
+        private static boolean isBorrowed(final long state) {
+            return (state & 1L) != 0L;
+        }
+
+        /**
+         * The state stored for {@code id}, or {@link #ABSENT}.
+         */
+        private long get(final long id) {
+            for (int slot = slot(id, ids.length); ; slot = (slot + 1) & (ids.length - 1)) {
+                if (ids[slot] == id) {
+                    return states[slot];
+                }
+                if (ids[slot] == FREE) {
+                    return ABSENT;
+                }
+            }
+        }
+
+        private void put(final long id, final long state) {
+            // at most half full, so every probe ends at a free slot
+            if (2 * (size + 1) > ids.length) {
+                resize(ids.length * 2);
+            }
+            int slot = slot(id, ids.length);
+            while (ids[slot] != FREE && ids[slot] != id) {
+                slot = (slot + 1) & (ids.length - 1);
+            }
+            if (ids[slot] == FREE) {
+                ids[slot] = id;
+                size++;
+            }
+            states[slot] = state;
+        }
+
+        private void putAll(final LoanStates other) {
+            for (int slot = 0; slot < other.ids.length; slot++) {
+                if (other.ids[slot] != FREE) {
+                    put(other.ids[slot], other.states[slot]);
+                }
+            }
+        }
+
+        private void resize(final int capacity) {
+            final long[] oldIds = ids;
+            final long[] oldStates = states;
+            ids = freeSlots(capacity);
+            states = new long[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldIds.length; slot++) {
+                if (oldIds[slot] != FREE) {
+                    put(oldIds[slot], oldStates[slot]);
+                }
+            }
+        }
+
+        private static long[] freeSlots(final int capacity) {
+            final long[] slots = new long[capacity];
+            Arrays.fill(slots, FREE);
+            return slots;
+        }
+
+        // ids are mostly consecutive; the multiply spreads them over the table
+        private static int slot(final long id, final int capacity) {
+            return Long.hashCode(id * 0x9E3779B97F4A7C15L) & (capacity - 1);
+        }
+    }
+}
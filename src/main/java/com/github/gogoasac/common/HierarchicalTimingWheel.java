@@ -0,0 +1,227 @@
+package com.github.gogoasac.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel keyed by an abstract, monotonically increasing tick.
+ *
+ * <p>Level 0 has one slot per tick; every higher level has slots that are
+ * {@code wheelSize} times wider. A timer lands on the lowest level whose range
+ * still covers its deadline and is cascaded one level down whenever the level
+ * below wraps around, so:
+ * - {@link #schedule(Object, long)} and {@link Timer#cancel()} are O(1),
+ * - {@link #advanceTo(long, Consumer)} costs O(1) per tick plus O(1) per expired
+ *   or cascaded timer, independent of how many timers are pending.
+ *
+ * <p>Deadlines beyond the range of the top level wait in an overflow list that
+ * is re-examined each time the top level wraps.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ *
+ * @param <T> payload delivered when a timer expires
+ */
+public final class HierarchicalTimingWheel<T> {
+    private final int wheelSize;
+    private final Slot<T>[][] levels;
+    private final long[] spans;
+    private final Slot<T> overflow;
+    private final Slot<T> due;
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HierarchicalTimingWheel(final int wheelSize, final int levelCount, final long startTick) {
+        if (wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("wheelSize must be at least 2 and levelCount at least 1");
+        }
+        this.wheelSize = wheelSize;
+        this.levels = new Slot[levelCount][wheelSize];
+        this.spans = new long[levelCount + 1];
+        this.spans[0] = 1;
+        for (int level = 0; level < levelCount; level++) {
+            this.spans[level + 1] = Math.multiplyExact(this.spans[level], wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                this.levels[level][slot] = new Slot<>();
+            }
+        }
+        this.overflow = new Slot<>();
+        this.due = new Slot<>();
+        this.currentTick = startTick;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Number of pending timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Register a payload that expires at {@code deadline}. A deadline that is not
+     * after the current tick expires on the next call to {@link #advanceTo(long, Consumer)}.
+     */
+    public Timer<T> schedule(final T payload, final long deadline) {
+        final Timer<T> timer = new Timer<>(this, Objects.requireNonNull(payload, "payload"), deadline);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Move the wheel forward to {@code tick}, handing every timer whose deadline
+     * has been reached to {@code onExpired} in deadline order.
+     */
+    public void advanceTo(final long tick, final Consumer<? super T> onExpired) {
+        expire(due, onExpired);
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            expire(levels[0][slotIndex(currentTick, 0)], onExpired);
+            // timers cascaded down exactly onto the current tick
+            expire(due, onExpired);
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels.length; level++) {
+            if (currentTick % spans[level] != 0) {
+                return;
+            }
+            replace(levels[level][slotIndex(currentTick, level)]);
+        }
+        if (currentTick % spans[levels.length] == 0) {
+            replace(overflow);
+        }
+    }
+
+    private void replace(final Slot<T> slot) {
+        for (final Timer<T> timer : slot.drain()) {
+            place(timer);
+        }
+    }
+
+    private void expire(final Slot<T> slot, final Consumer<? super T> onExpired) {
+        for (final Timer<T> timer : slot.drain()) {
+            size--;
+            onExpired.accept(timer.payload);
+        }
+    }
+
+    private void place(final Timer<T> timer) {
+        if (timer.deadline <= currentTick) {
+            due.add(timer);
+            return;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            if (timer.deadline / spans[level] - currentTick / spans[level] < wheelSize) {
+                levels[level][slotIndex(timer.deadline, level)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private int slotIndex(final long tick, final int level) {
+        return (int) Math.floorMod(tick / spans[level], (long) wheelSize);
+    }
+
+    /**
+     * Handle to a scheduled payload.
+     */
+    public static final class Timer<T> {
+        private final HierarchicalTimingWheel<T> wheel;
+        private final T payload;
+        private final long deadline;
+
+        private Slot<T> owner;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(final HierarchicalTimingWheel<T> wheel, final T payload, final long deadline) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * Remove the timer from the wheel in O(1).
+         *
+         * @return false when it already expired or was cancelled
+         */
+        public boolean cancel() {
+            if (owner == null) {
+                return false;
+            }
+            owner.remove(this);
+            wheel.size--;
+            return true;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list, so timers unlink themselves without a search.
+     */
+    private static final class Slot<T> {
+        private Timer<T> head;
+        private Timer<T> tail;
+
+        private void add(final Timer<T> timer) {
+            timer.owner = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (tail == null) {
+                head = timer;
+            } else {
+                tail.next = timer;
+            }
+            tail = timer;
+        }
+
+        private void remove(final Timer<T> timer) {
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next == null) {
+                tail = timer.prev;
+            } else {
+                timer.next.prev = timer.prev;
+            }
+            timer.owner = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        private List<Timer<T>> drain() {
+            final List<Timer<T>> timers = new ArrayList<>();
+            for (Timer<T> timer = head; timer != null; ) {
+                final Timer<T> next = timer.next;
+                timer.owner = null;
+                timer.prev = null;
+                timer.next = null;
+                timers.add(timer);
+                timer = next;
+            }
+            head = null;
+            tail = null;
+            return timers;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.gogoasac.common;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Memoizing supplier: the factory runs on the first {@link #get()} and every
+ * later call returns the same instance.
+ *
+ * <p>Thread-safe. Concurrent first calls run the factory once, and callers
+ * that already see the value never lock. A factory that throws caches
+ * nothing, so the next call tries again.
+ *
+ * @param <T> type of the supplied value, which must not be null
+ */
+public final class Lazy<T> implements Supplier<T> {
+    private Supplier<? extends T> factory;
+    private volatile T value;
+
+    private Lazy(final Supplier<? extends T> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+    }
+
+    public static <T> Lazy<T> of(final Supplier<? extends T> factory) {
+        return new Lazy<>(factory);
+    }
+
+    @Override
+    public T get() {
+        final T current = value;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (value == null) {
+                value = Objects.requireNonNull(factory.get(), "factory returned null");
+                // let the factory and whatever it captured be collected
+                factory = null;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Whether the value was already created; never triggers the factory.
+     */
+    public boolean isInitialized() {
+        return value != null;
+    }
+}
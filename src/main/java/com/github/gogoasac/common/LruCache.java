@@ -0,0 +1,49 @@
+package com.github.gogoasac.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Small bounded map that evicts the least recently used entry once it holds
+ * {@code capacity} entries. Both reads and writes count as a use.
+ *
+ * <p>Thread-safe: all operations are synchronized on the cache.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class LruCache<K, V> {
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        // access order: every get moves the entry to the most recently used end
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized Optional<V> get(final K key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    public synchronized void put(final K key, final V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void remove(final K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -5,6 +5,8 @@ import com.github.gogoasac.common.functional.ThrowingSupplier;
 public final class StringUtils {
     public static final String EMPTY_STRING = "";
 
+    private static final WeakInterner<String> CANONICAL = new WeakInterner<>();
+
     private StringUtils() {}
 
     public static String orElse(final ThrowingSupplier<String> stringSupplier, final String defaultValue) {
@@ -16,4 +18,12 @@ public final class StringUtils {
             return defaultValue;
         }
     }
+
+    /**
+     * The process-wide shared instance equal to {@code value} (see
+     * {@link WeakInterner}); used for titles and names, which repeat a lot.
+     */
+    public static String canonical(final String value) {
+        return CANONICAL.intern(value);
+    }
 }
@@ -0,0 +1,77 @@
+package com.github.gogoasac.common;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizing pool: {@link #intern(Object)} returns one shared instance per
+ * distinct value, so repeated values share storage and equality checks between
+ * them succeed on the identity comparison.
+ *
+ * <p>Entries are weak. A value stays pooled only while something else still
+ * references it, so the pool never keeps data alive that the application
+ * dropped, and needs no size bound.
+ *
+ * <p>Thread-safe. The pool is split into {@value #STRIPES} independently
+ * locked stripes by hash, so threads interning different values rarely wait
+ * for each other.
+ *
+ * @param <T> pooled type; must be immutable with value-based equals/hashCode
+ */
+public final class WeakInterner<T> {
+    private static final int STRIPES = 16;
+
+    private final Stripe<T>[] stripes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WeakInterner() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * The pooled instance equal to {@code value}, which becomes the pooled
+     * instance if there was none. Null is returned as is.
+     */
+    public T intern(final T value) {
+        if (value == null) {
+            return null;
+        }
+        final int hash = value.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)].intern(value);
+    }
+
+    /**
+     * Number of pooled values; approximate, since collected entries are only
+     * dropped lazily.
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe<T> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static final class Stripe<T> {
+        // the value references itself only weakly, through the map's key and its own reference
+        private final Map<T, WeakReference<T>> pool = new WeakHashMap<>();
+
+        private synchronized T intern(final T value) {
+            final WeakReference<T> pooled = pool.get(value);
+            final T existing = pooled == null ? null : pooled.get();
+            if (existing != null) {
+                return existing;
+            }
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+
+        private synchronized int size() {
+            return pool.size();
+        }
+    }
+}
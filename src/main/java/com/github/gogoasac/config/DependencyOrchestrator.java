@@ -1,66 +1,483 @@
 package com.github.gogoasac.config;
 
+import com.github.gogoasac.application.dto.ReplicationStatus;
 import com.github.gogoasac.application.input.AuthorManagementInput;
 import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.application.input.CatalogImportInput;
 import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.application.input.LoanMonitoringInput;
+import com.github.gogoasac.application.input.ReplicationInput;
 import com.github.gogoasac.application.input.ReportingInput;
+import com.github.gogoasac.application.input.SnapshotInput;
+import com.github.gogoasac.application.input.StatisticsInput;
 import com.github.gogoasac.application.output.AuthorPersistence;
 import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.ChangeEvent;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.HoldPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
 import com.github.gogoasac.application.service.AuthorManagementService;
 import com.github.gogoasac.application.service.BookManagementService;
+import com.github.gogoasac.application.service.CatalogImportService;
 import com.github.gogoasac.application.service.CollectionManagementService;
+import com.github.gogoasac.application.service.OverdueLoanService;
 import com.github.gogoasac.application.service.ReportingService;
+import com.github.gogoasac.application.service.StatisticsService;
+import com.github.gogoasac.common.Lazy;
+import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.infra.input.CLIInputParser;
+import com.github.gogoasac.infra.input.batch.BatchCommandRunner;
+import com.github.gogoasac.infra.input.reporting.ReportSchedule;
+import com.github.gogoasac.infra.input.reporting.ReportScheduler;
 import com.github.gogoasac.infra.input.reporting.ReportViewer;
 import com.github.gogoasac.infra.input.reporting.ReportViewerSwing;
+import com.github.gogoasac.infra.input.socket.LineProtocolHandler;
+import com.github.gogoasac.infra.input.socket.LineProtocolServer;
 import com.github.gogoasac.infra.output.AuthorRepository;
+import com.github.gogoasac.infra.output.BatchStore;
 import com.github.gogoasac.infra.output.BookRepository;
 import com.github.gogoasac.infra.output.CollectionRepository;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+import com.github.gogoasac.infra.output.HoldRepository;
+import com.github.gogoasac.infra.output.ShardedBookRepository;
+import com.github.gogoasac.infra.output.base.AbstractFileRepository;
+import com.github.gogoasac.infra.output.events.ChangeEventPublisher;
+import com.github.gogoasac.infra.output.replication.LogFollower;
+import com.github.gogoasac.infra.output.replication.ReplicationPrimary;
+import com.github.gogoasac.infra.output.snapshot.OnlineSnapshots;
+import com.github.gogoasac.infra.output.snapshot.UnavailableSnapshots;
+import com.github.gogoasac.infra.output.snapshot.SnapshotArchive;
+import com.github.gogoasac.infra.output.report.CsvReportRenderer;
+import com.github.gogoasac.infra.output.report.HtmlReportRenderer;
+import com.github.gogoasac.infra.output.report.JsonReportRenderer;
+import com.github.gogoasac.infra.output.report.MarkdownReportRenderer;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Wires the application together.
+ *
+ * <p>Every component sits behind a memoizing {@link Lazy} provider and is
+ * created the first time something asks for it, together with what it
+ * depends on. A mode therefore only pays for the adapters it uses: batch and
+ * server runs never load the Swing report viewer, the report scheduler or the
+ * interactive menus, which {@link #run()} builds itself.
+ *
+ * <p>The repositories are the exception to per-component laziness. Whoever
+ * first needs one gets all of them, because every service that touches the
+ * catalog needs several of them anyway. Opening them only reads their
+ * headers; the data files are parsed in parallel in the background, and a
+ * first access that comes earlier waits for that one file.
+ *
+ * <p>Writes to the book, author and collection repositories are published as
+ * {@link ChangeEvent}s through {@link #changeEvents()}, for components that
+ * keep derived state up to date without rescanning.
+ */
 public class DependencyOrchestrator {
     public static final DependencyOrchestrator INSTANCE = new DependencyOrchestrator();
 
-    private final BookPersistence bookPersistence;
-    private final AuthorPersistence authorPersistence;
-    private final CollectionPersistence collectionPersistence;
+    private static final String SERVE_MODE = "serve";
+    private static final String BATCH_MODE = "batch";
+    private static final String FOLLOW_MODE = "follow";
+    private static final String RESTORE_MODE = "restore";
+    private static final String STDIN = "-";
+    private static final int DEFAULT_SERVER_PORT = 7070;
+    private static final int STDOUT_BUFFER_SIZE = 64 * 1024;
+    private static final String REPORT_SCHEDULE_PROPERTY = "library.reportSchedule";
+    private static final String DEFAULT_REPORT_SCHEDULE = "every 1h";
+    private static final String SHARDED_BOOKS_PROPERTY = "library.books.sharded";
+    private static final String REPLICATION_DIR_PROPERTY = "library.replication.dir";
+    private static final String SNAPSHOT_DIR_PROPERTY = "library.snapshot.dir";
+    private static final String SNAPSHOTS_ON_PRIMARY = "Snapshots are taken on the primary";
+    private static final Duration FOLLOWER_POLL_INTERVAL = Duration.ofMillis(20);
+    private static final String HEADLESS_USAGE = "Usage: serve [port] | batch [file|-] | follow <dir> [port] | restore <snapshot> [dir]";
+    private static final int USAGE_STATUS = 2;
 
-    public final AuthorManagementInput authorManagementInput;
-    public final BookManagementInput bookManagementInput;
-    public final CollectionManagementInput collectionManagementInput;
-    public final ReportingInput reportingInput;
+    private final Lazy<Repositories> repositories;
 
-    private final CLIInputParser cliInputParser;
-    public final ReportViewer reportViewer;
+    private final Lazy<AuthorManagementInput> authorManagementInput =
+        Lazy.of(() -> new AuthorManagementService(repositories().authors()));
+    private final Lazy<CollectionManagementInput> collectionManagementInput =
+        Lazy.of(() -> new CollectionManagementService(repositories().collections()));
+    private final Lazy<OverdueLoanService> overdueLoanService =
+        Lazy.of(() -> new OverdueLoanService(repositories().books()));
+    private final Lazy<StatisticsService> statisticsService = Lazy.of(() -> {
+        final Repositories repos = repositories();
+        return new StatisticsService(repos.books(), repos.authors(), repos.collections());
+    });
+    private final Lazy<BookManagementInput> bookManagementInput = Lazy.of(() -> {
+        final Repositories repos = repositories();
+        // the listeners must see every change from the start, so they come first
+        return new BookManagementService(
+            repos.books(),
+            repos.authors(),
+            repos.collections(),
+            repos.holds(),
+            List.of(overdueLoanService.get(), statisticsService.get())
+        );
+    });
+    private final Lazy<CatalogImportInput> catalogImportInput = Lazy.of(() -> {
+        final Repositories repos = repositories();
+        return new CatalogImportService(
+            repos.transactions(),
+            repos.authors(),
+            repos.collections(),
+            List.of(overdueLoanService.get(), statisticsService.get())
+        );
+    });
+    private final Lazy<ReportingInput> reportingInput = Lazy.of(() -> {
+        final Repositories repos = repositories();
+        return new ReportingService(
+            repos.collections(),
+            repos.books(),
+            repos.authors(),
+            List.of(new CsvReportRenderer(), new JsonReportRenderer(), new HtmlReportRenderer(), new MarkdownReportRenderer())
+        );
+    });
 
     private DependencyOrchestrator() {
-        this.bookPersistence = new BookRepository();
-        this.authorPersistence = new AuthorRepository();
-        this.collectionPersistence = new CollectionRepository();
-
-        this.authorManagementInput = new AuthorManagementService(authorPersistence);
-        this.collectionManagementInput = new CollectionManagementService(collectionPersistence);
-        this.bookManagementInput = new BookManagementService(
-            bookPersistence,
-            authorPersistence,
-            collectionPersistence
+        this(DependencyOrchestrator::loadRepositories);
+    }
+
+    private DependencyOrchestrator(final Supplier<Repositories> repositories) {
+        this.repositories = Lazy.of(repositories);
+    }
+
+    public AuthorManagementInput authorManagementInput() {
+        return authorManagementInput.get();
+    }
+
+    public BookManagementInput bookManagementInput() {
+        return bookManagementInput.get();
+    }
+
+    public CollectionManagementInput collectionManagementInput() {
+        return collectionManagementInput.get();
+    }
+
+    public CatalogImportInput catalogImportInput() {
+        return catalogImportInput.get();
+    }
+
+    public ReportingInput reportingInput() {
+        return reportingInput.get();
+    }
+
+    public LoanMonitoringInput loanMonitoringInput() {
+        // borrows and returns only reach the monitor through the book service
+        bookManagementInput();
+        return overdueLoanService.get();
+    }
+
+    public StatisticsInput statisticsInput() {
+        bookManagementInput();
+        return statisticsService.get();
+    }
+
+    /**
+     * Every committed book, author and collection write of this process. A
+     * follower's ports are read-only, so in {@code follow} mode it stays silent.
+     */
+    public Flow.Publisher<ChangeEvent> changeEvents() {
+        return repositories().changes();
+    }
+
+    private Repositories repositories() {
+        return repositories.get();
+    }
+
+    /**
+     * Interactive terminal UI. The Swing viewer, the report scheduler and the
+     * menus are built here rather than behind providers, so nothing on the
+     * batch and server paths refers to them (see {@link #runHeadless(String[])}).
+     */
+    public static void run() {
+        final ReportViewer reportViewer = new ReportViewerSwing(INSTANCE.bookManagementInput());
+        final ReportScheduler scheduler = new ReportScheduler(
+            INSTANCE.reportingInput(),
+            ReportSchedule.parse(System.getProperty(REPORT_SCHEDULE_PROPERTY, DEFAULT_REPORT_SCHEDULE))
         );
-        this.reportingInput = new ReportingService(collectionPersistence, bookPersistence, authorPersistence);
-        this.reportViewer = new ReportViewerSwing();
-
-        this.cliInputParser = new CLIInputParser(
-            this.authorManagementInput,
-            this.bookManagementInput,
-            this.collectionManagementInput,
-            this.reportingInput,
+        final CLIInputParser cli = new CLIInputParser(
+            INSTANCE.authorManagementInput(),
+            INSTANCE.bookManagementInput(),
+            INSTANCE.collectionManagementInput(),
+            INSTANCE.reportingInput(),
+            INSTANCE.loanMonitoringInput(),
+            INSTANCE.statisticsInput(),
             System.in,
-            System.out,
-            this.reportViewer
+            bufferedStdout(),
+            reportViewer,
+            scheduler
         );
+
+        scheduler.start();
+        try {
+            cli.run();
+        } finally {
+            scheduler.close();
+        }
     }
 
-    public static void run() {
-        INSTANCE.cliInputParser.run();
+    /**
+     * Entry point honouring command-line arguments:
+     * - no arguments: interactive terminal UI, with reports generated in the
+     *   background on the {@code library.reportSchedule} system property
+     *   schedule (default {@code every 1h}),
+     * - {@code serve [port]}, {@code batch [file|-]}, {@code follow <dir> [port]}
+     *   and {@code restore <snapshot> [dir]}: see {@link #runHeadless(String[])}.
+     *
+     * @return the process exit status
+     */
+    public static int run(final String[] args) {
+        if (args.length > 0 && (SERVE_MODE.equals(args[0]) || BATCH_MODE.equals(args[0])
+            || FOLLOW_MODE.equals(args[0]) || RESTORE_MODE.equals(args[0]))) {
+            return runHeadless(args);
+        }
+
+        run();
+        return 0;
     }
 
+    /**
+     * Entry point for the modes without a terminal UI; never touches AWT or Swing:
+     * - {@code serve [port]}: line-protocol TCP server (default port 7070),
+     * - {@code batch [file|-]}: run a command script from a file or stdin,
+     * - {@code follow <dir> [port]}: read-only line-protocol server over the
+     *   change log a primary writes into {@code dir}.
+     * - {@code restore <snapshot> [dir]}: replace the author, collection and
+     *   book files in {@code dir} (default: the working directory) with a
+     *   snapshot; run it with the application stopped. Books are restored into
+     *   the single-file layout, so a directory with sharded books is refused.
+     *   Until an interrupted restore is run again, the other modes refuse to
+     *   start.
+     *
+     * <p>A {@code serve} or {@code batch} run becomes a replication primary when
+     * the {@code library.replication.dir} system property names the shared
+     * directory. A {@code serve} run answers {@code SNAPSHOT} by writing into
+     * the directory named by {@code library.snapshot.dir} (default
+     * {@code snapshots}).
+     *
+     * @return the process exit status, {@value #USAGE_STATUS} for any other arguments
+     */
+    public static int runHeadless(final String[] args) {
+        if (args.length > 0 && SERVE_MODE.equals(args[0])) {
+            final int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT;
+            INSTANCE.serve(port);
+            return 0;
+        }
+
+        if (args.length > 1 && FOLLOW_MODE.equals(args[0])) {
+            final int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SERVER_PORT;
+            new DependencyOrchestrator(() -> followRepositories(Path.of(args[1]))).serve(port);
+            return 0;
+        }
+
+        if (args.length > 1 && RESTORE_MODE.equals(args[0])) {
+            restore(Path.of(args[1]), Path.of(args.length > 2 ? args[2] : "."));
+            return 0;
+        }
+
+        if (args.length > 0 && BATCH_MODE.equals(args[0])) {
+            final String source = args.length > 1 ? args[1] : STDIN;
+            return INSTANCE.batch(source).failed() == 0 ? 0 : 1;
+        }
+
+        System.err.println(HEADLESS_USAGE);
+        return USAGE_STATUS;
+    }
+
+    private BatchCommandRunner.Summary batch(final String source) {
+        final PrintStream out = bufferedStdout();
+
+        try (BufferedReader reader = STDIN.equals(source)
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            return new BatchCommandRunner(
+                authorManagementInput(),
+                bookManagementInput(),
+                collectionManagementInput(),
+                catalogImportInput(),
+                reader,
+                out
+            ).run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read batch script: " + source, e);
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static void requireNoPendingRestore() {
+        try {
+            SnapshotArchive.pendingRestore(Path.of(".")).ifPresent(snapshot -> {
+                throw new IllegalStateException("The restore of " + snapshot
+                    + " was interrupted and left a mix of old and restored files; run it again before starting");
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to check for an interrupted restore", e);
+        }
+    }
+
+    // never loads the repositories: their files are about to be replaced
+    private static void restore(final Path snapshot, final Path directory) {
+        try {
+            final SnapshotArchive.Manifest manifest = SnapshotArchive.restore(snapshot, directory, repositoryLoader());
+            System.out.printf("Restored %d authors, %d collections and %d books taken at %s%n",
+                manifest.count(SnapshotArchive.AUTHORS),
+                manifest.count(SnapshotArchive.COLLECTIONS),
+                manifest.count(SnapshotArchive.BOOKS),
+                manifest.takenAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore snapshot " + snapshot, e);
+        }
+    }
+
+    /**
+     * Parsing is CPU-bound: on a single core, loading the files one after the
+     * other on the calling thread is faster than interleaving them.
+     */
+    private static Executor repositoryLoader() {
+        return Runtime.getRuntime().availableProcessors() > 1 ? ForkJoinPool.commonPool() : Runnable::run;
+    }
+
+    /**
+     * Runs the background parse of the data files. On a single core it would
+     * only compete with the rest of startup, so there each file is parsed by
+     * whoever needs it first.
+     */
+    private static Executor repositoryWarmUp() {
+        return Runtime.getRuntime().availableProcessors() > 1 ? ForkJoinPool.commonPool() : task -> { };
+    }
+
+    // the data files are independent, so they are parsed concurrently; with
+    // -Dlibrary.books.sharded=true books are kept in one file per collection
+    private static Repositories loadRepositories() {
+        final Repositories local = loadLocalRepositories();
+        final String replicationDir = System.getProperty(REPLICATION_DIR_PROPERTY);
+        if (replicationDir == null) {
+            return local;
+        }
+        final ReplicationPrimary primary = new ReplicationPrimary(
+            Path.of(replicationDir), local.books(), local.authors(), local.collections());
+        return new Repositories(primary.books(), primary.authors(), primary.collections(), local.holds(),
+            primary.transactions(local.transactions()), primary, local.snapshots(), local.changes());
+    }
+
+    // caught up once before the services are built, so they start from the primary's data
+    private static Repositories followRepositories(final Path directory) {
+        final LogFollower follower = new LogFollower(directory);
+        try {
+            follower.poll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the change log in " + directory, e);
+        }
+        follower.start(FOLLOWER_POLL_INTERVAL);
+        final ChangeEventPublisher events = new ChangeEventPublisher(follower.books(), follower.authors(), follower.collections());
+        return new Repositories(events.books(), events.authors(), events.collections(), follower.holds(),
+            follower.transactions(), follower, new UnavailableSnapshots(SNAPSHOTS_ON_PRIMARY), events);
+    }
+
+    private static Repositories loadLocalRepositories() {
+        requireNoPendingRestore();
+        final Executor loader = repositoryLoader();
+        return Boolean.getBoolean(SHARDED_BOOKS_PROPERTY)
+            ? loadLocalRepositories(CompletableFuture.supplyAsync(ShardedBookRepository::new, loader), loader)
+            : loadLocalRepositories(CompletableFuture.completedFuture(open(BookRepository::new)), loader);
+    }
+
+    // a transaction log left by an interrupted commit is replayed before anything reads the repositories
+    private static <B extends BookPersistence & BatchStore<Book>> Repositories loadLocalRepositories(
+        final CompletableFuture<B> books,
+        final Executor loader) {
+        final AuthorRepository authors = open(AuthorRepository::new);
+        final CollectionRepository collections = open(CollectionRepository::new);
+        final CompletableFuture<HoldRepository> holds = CompletableFuture.supplyAsync(HoldRepository::new, loader);
+        final FileTransactionManager transactions = new FileTransactionManager(authors, collections, await(books));
+        final ChangeEventPublisher events = new ChangeEventPublisher(await(books), authors, collections);
+        final OnlineSnapshots snapshots = new OnlineSnapshots(transactions,
+            Path.of(System.getProperty(SNAPSHOT_DIR_PROPERTY, OnlineSnapshots.DEFAULT_DIRECTORY)));
+        return new Repositories(events.books(), events.authors(), events.collections(), await(holds),
+            events.transactions(transactions), ReplicationStatus::standalone, snapshots, events);
+    }
+
+    // only the header is read here; a parse failure in the background is retried by the first access
+    private static <R extends AbstractFileRepository<?>> R open(final Supplier<R> constructor) {
+        final R repository = constructor.get();
+        repositoryWarmUp().execute(repository::preload);
+        return repository;
+    }
+
+    private static <R> R await(final CompletableFuture<R> initialization) {
+        try {
+            return initialization.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * System.out flushes on every println; adapters get a large non-autoflush stream
+     * instead and decide themselves when to flush (before prompts, per page, per batch).
+     */
+    private static PrintStream bufferedStdout() {
+        return new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), STDOUT_BUFFER_SIZE),
+            false,
+            StandardCharsets.UTF_8
+        );
+    }
+
+    private void serve(final int port) {
+        final LineProtocolHandler handler = new LineProtocolHandler(
+            bookManagementInput(),
+            authorManagementInput(),
+            collectionManagementInput(),
+            loanMonitoringInput(),
+            repositories().replication(),
+            repositories().snapshots()
+        );
+        final LineProtocolServer server = new LineProtocolServer(handler, port);
+
+        try {
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Line protocol server listening on port " + server.getPort());
+            server.awaitTermination();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start line protocol server on port " + port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Repositories(BookPersistence books,
+                                AuthorPersistence authors,
+                                CollectionPersistence collections,
+                                HoldPersistence holds,
+                                TransactionalPersistence transactions,
+                                ReplicationInput replication,
+                                SnapshotInput snapshots,
+                                Flow.Publisher<ChangeEvent> changes) {
+    }
 }
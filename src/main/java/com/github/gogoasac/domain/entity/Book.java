@@ -6,13 +6,18 @@ import java.time.LocalDate;
  * Domain record representing an immutable Book within the library domain.
  *
  * <p>The record holds identifying information (id, title), references to related
- * entities (authorId, collectionId), a publication year and borrowing state
- * (borrowedAt timestamp and a boolean flag).
+ * entities (authorId, collectionId), a publication year, borrowing state
+ * (borrowedAt timestamp and a boolean flag), an optimistic-locking version and,
+ * for a loan that serves a hold, the id of that hold.
+ *
+ * <p>The version is owned by persistence: repositories increment it on every
+ * successful update, and conditional updates only succeed when the caller saw
+ * the latest version. Domain behaviour carries it over unchanged.
  *
  * <p>Responsibility:
  * - Provide an immutable data carrier for persistence, reporting and UI layers.
- * - Expose simple domain behaviour (e.g. {@link #borrow()}) that returns a new
- *   instance with updated borrowing state rather than mutating state.
+ * - Expose simple domain behaviour (e.g. {@link #borrow()}, {@link #returnBook()})
+ *   that returns a new instance with updated borrowing state rather than mutating state.
  */
 public record Book(
     Long id,
@@ -21,23 +26,55 @@ public record Book(
     Long collectionId,
     Integer publicationYear,
     LocalDate borrowedAt,
-    boolean isBorrowed) {
+    boolean isBorrowed,
+    long version,
+    Long holdId) {
 
     public Book(Long id, String title, Long authorId, Long collectionId, Integer publicationYear) {
         this(id, title, authorId, collectionId, publicationYear, null, false);
     }
 
+    public Book(Long id, String title, Long authorId, Long collectionId, Integer publicationYear,
+                LocalDate borrowedAt, boolean isBorrowed) {
+        this(id, title, authorId, collectionId, publicationYear, borrowedAt, isBorrowed, 0L);
+    }
+
+    public Book(Long id, String title, Long authorId, Long collectionId, Integer publicationYear,
+                LocalDate borrowedAt, boolean isBorrowed, long version) {
+        this(id, title, authorId, collectionId, publicationYear, borrowedAt, isBorrowed, version, null);
+    }
+
     public Book borrow() {
         if (isBorrowed) {
             throw new IllegalStateException("Book is already borrowed.");
         }
-        return new Book(id, title, authorId, collectionId, publicationYear, LocalDate.now(), true);
+        return new Book(id, title, authorId, collectionId, publicationYear, LocalDate.now(), true, version);
+    }
+
+    /**
+     * Borrow on behalf of the patron of {@code hold}; the loan remembers the
+     * hold, so a second hand-over for the same hold can be recognised.
+     */
+    public Book borrowFor(final Hold hold) {
+        return new Book(id, title, authorId, collectionId, publicationYear, borrow().borrowedAt(), true, version,
+            hold.id());
+    }
+
+    public Book returnBook() {
+        if (!isBorrowed) {
+            throw new IllegalStateException("Book is not borrowed.");
+        }
+        return new Book(id, title, authorId, collectionId, publicationYear, null, false, version);
+    }
+
+    public Book withVersion(final long newVersion) {
+        return new Book(id, title, authorId, collectionId, publicationYear, borrowedAt, isBorrowed, newVersion, holdId);
     }
 
     @Override
     public String toString() {
         return String
-            .format("Book{id=%s, title='%s', authorId=%s, collectionId=%s, year=%s, borrowedAt=%s, isBorrowed=%s}",
-            id, title, authorId, collectionId, publicationYear, borrowedAt, isBorrowed);
+            .format("Book{id=%s, title='%s', authorId=%s, collectionId=%s, year=%s, borrowedAt=%s, isBorrowed=%s, version=%d, holdId=%s}",
+            id, title, authorId, collectionId, publicationYear, borrowedAt, isBorrowed, version, holdId);
     }
 }
@@ -0,0 +1,21 @@
+package com.github.gogoasac.domain.entity;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable value object representing a patron's place in a book's hold queue.
+ *
+ * <p>Holds are served first-in, first-out: when a borrowed book is returned it is
+ * handed straight to the patron of the oldest hold instead of becoming available.
+ */
+public record Hold(
+    Long id,
+    Long bookId,
+    String patron,
+    LocalDate placedAt) {
+
+    @Override
+    public String toString() {
+        return String.format("Hold{id=%s, bookId=%s, patron='%s', placedAt=%s}", id, bookId, patron, placedAt);
+    }
+}
@@ -1,35 +1,54 @@
 package com.github.gogoasac.infra.input;
 
+import com.github.gogoasac.application.dto.CatalogStatistics;
 import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
 import com.github.gogoasac.application.input.AuthorManagementInput;
 import com.github.gogoasac.application.input.BookManagementInput;
 import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.application.input.LoanMonitoringInput;
 import com.github.gogoasac.application.input.ReportingInput;
+import com.github.gogoasac.application.input.StatisticsInput;
 import com.github.gogoasac.common.JCFUtils;
 import com.github.gogoasac.common.StringUtils;
 import com.github.gogoasac.infra.input.menu.AuthorMenu;
 import com.github.gogoasac.infra.input.menu.BookMenu;
 import com.github.gogoasac.infra.input.menu.CollectionMenu;
+import com.github.gogoasac.infra.input.menu.MenuOutput;
+import com.github.gogoasac.infra.input.reporting.ReportScheduler;
 import com.github.gogoasac.infra.input.reporting.ReportViewer;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Simple terminal UI for the application. Keeps logic thin and delegates to application services.
  * The parser is IO-agnostic: input and output are injected so it can be tested easily.
+ * All output goes through one shared {@link MenuOutput}, which is flushed before every prompt.
+ * When a {@link ReportScheduler} is supplied, report generation runs in the background: the
+ * reports menu shows the latest finished run and queues a fresh one instead of blocking.
  */
 public final class CLIInputParser {
     private final AuthorManagementInput authorInput;
     private final BookManagementInput bookInput;
     private final CollectionManagementInput collectionInput;
     private final ReportingInput reportingInput;
+    private final ReportScheduler reportScheduler;
+    private final StatisticsInput statisticsInput;
 
     // single shared IO objects
     private final BufferedReader sharedReader;
-    private final PrintStream sharedWriter;
+    private final MenuOutput sharedOutput;
 
     private final ReportViewer reportViewer;
     private final AuthorMenu authorMenu;
@@ -38,6 +57,7 @@ public final class CLIInputParser {
 
     private static final String REPORT_GENERATED = "Report generated. A file named report_YYYY-MM-DD.txt was written to the working directory.";
     private static final String COLLECTIONS_FOUND = "Collections found: %d";
+    private static final String CACHE_STATS = "Report cache: %s";
     private static final String PROMPT_OPEN_REPORT = "Open report in GUI? (y/N): ";
     private static final String OPEN_OPTION = "y";
     private static final String REPORT_VIEWER_OPENED = "Report viewer opened.";
@@ -46,6 +66,19 @@ public final class CLIInputParser {
     private static final String FAILED_TO_OPEN = "Failed to open report viewer: %s";
     private static final String GENERATION_FAILED = "Failed to generate reports: %s";
     private static final String GENERATING_REPORTS = "Generating collection reports...";
+    private static final String REPORTS_QUEUED = "Report generation started in the background. Choose this option again to view the result.";
+    private static final String LATEST_REPORTS = "Showing reports generated at %s; a refresh was started in the background.";
+    private static final String PROMPT_FORMATS = "Formats to export (%s, comma-separated): ";
+    private static final String NO_FORMATS = "No formats selected.";
+    private static final String EXPORTED = "Exported: %s";
+    private static final String EXPORT_FAILED = "Failed to export reports: %s";
+    private static final String STATISTICS_UNAVAILABLE = "Statistics are not available.";
+    private static final String STATISTICS_TOTALS = "Books: %d, borrowed: %d (%.0f%%)";
+    private static final String STATISTICS_BY_COLLECTION = "Books per collection:";
+    private static final String STATISTICS_BY_AUTHOR = "Books per author:";
+    private static final String STATISTICS_BY_YEAR = "Books per publication year:";
+    private static final String STATISTICS_YEAR = "  %d: %d";
+    private static final String PROMPT_OPEN_STATISTICS = "Open statistics in GUI? (y/N): ";
 
     private static final String MAIN_MENU = """
         === Main Menu ===
@@ -53,6 +86,8 @@ public final class CLIInputParser {
         2) Collections
         3) Books
         4) Generate Collection Reports (writes report_YYYY-MM-DD.txt)
+        5) Export Collection Reports (csv, json, html, md)
+        6) Catalog Statistics
         0) Exit\s
         """;
     private static final String SELECT_AN_OPTION = "Select an option: ";
@@ -68,20 +103,56 @@ public final class CLIInputParser {
         InputStream in,
         PrintStream out,
         ReportViewer reportViewer
+    ) {
+        this(authorInput, bookInput, collectionInput, reportingInput, List::of, in, out, reportViewer);
+    }
+
+    public CLIInputParser(
+        AuthorManagementInput authorInput,
+        BookManagementInput bookInput,
+        CollectionManagementInput collectionInput,
+        ReportingInput reportingInput,
+        LoanMonitoringInput loanMonitoringInput,
+        InputStream in,
+        PrintStream out,
+        ReportViewer reportViewer
+    ) {
+        this(authorInput, bookInput, collectionInput, reportingInput, loanMonitoringInput, null, in, out,
+            reportViewer, null);
+    }
+
+    /**
+     * @param statisticsInput source of the catalog statistics; {@code null} when not available
+     * @param reportScheduler runs reports in the background; {@code null} generates them synchronously
+     */
+    public CLIInputParser(
+        AuthorManagementInput authorInput,
+        BookManagementInput bookInput,
+        CollectionManagementInput collectionInput,
+        ReportingInput reportingInput,
+        LoanMonitoringInput loanMonitoringInput,
+        StatisticsInput statisticsInput,
+        InputStream in,
+        PrintStream out,
+        ReportViewer reportViewer,
+        ReportScheduler reportScheduler
     ) {
         this.authorInput = authorInput;
         this.bookInput = bookInput;
         this.collectionInput = collectionInput;
         this.reportingInput = reportingInput;
+        this.reportScheduler = reportScheduler;
+        this.statisticsInput = statisticsInput;
 
         this.sharedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
-        this.sharedWriter = out;
+        this.sharedOutput = new MenuOutput(out, this.sharedReader);
 
         this.reportViewer = reportViewer;
 
-        this.authorMenu = new AuthorMenu(this.sharedWriter, this.sharedReader, this.authorInput);
-        this.collectionMenu = new CollectionMenu(this.sharedWriter, this.sharedReader, this.collectionInput);
-        this.bookMenu = new BookMenu(this.sharedWriter, this.sharedReader, this.bookInput, this.authorInput, this.collectionInput);
+        this.authorMenu = new AuthorMenu(this.sharedOutput, this.sharedReader, this.authorInput);
+        this.collectionMenu = new CollectionMenu(this.sharedOutput, this.sharedReader, this.collectionInput);
+        this.bookMenu = new BookMenu(this.sharedOutput, this.sharedReader, this.bookInput, this.authorInput,
+            this.collectionInput, loanMonitoringInput);
     }
 
     public void run() {
@@ -99,6 +170,8 @@ public final class CLIInputParser {
                 case "2" -> collectionMenu.run();
                 case "3" -> bookMenu.run();
                 case "4" -> handleReports();
+                case "5" -> handleExport();
+                case "6" -> handleStatistics();
                 case "0" -> isRunning = false;
                 default -> println(UNKNOWN_OPTION);
             }
@@ -107,6 +180,7 @@ public final class CLIInputParser {
         }
 
         println(EXITING);
+        this.sharedOutput.flush();
     }
 
     private void printMainMenu() {
@@ -114,6 +188,10 @@ public final class CLIInputParser {
     }
 
     private void handleReports() {
+        if (reportScheduler != null) {
+            handleScheduledReports();
+            return;
+        }
         println(GENERATING_REPORTS);
 
         try {
@@ -131,14 +209,102 @@ public final class CLIInputParser {
         }
     }
 
+    private void handleScheduledReports() {
+        final Optional<ReportScheduler.Result> latest = reportScheduler.latest();
+        reportScheduler.runNow();
+
+        if (latest.isEmpty()) {
+            println(REPORTS_QUEUED);
+            return;
+        }
+
+        final List<CollectionReport> reports = latest.get().reports();
+        println(String.format(LATEST_REPORTS, latest.get().generatedAt()));
+        printReportSummary(reports);
+        if (!JCFUtils.isEmptyOrNull(reports)) {
+            this.promptAndOpenViewer(reports);
+        }
+    }
+
+    private void handleExport() {
+        final String supported = reportingInput.supportedFormats().stream()
+            .map(ReportFormat::fileExtension)
+            .collect(Collectors.joining(", "));
+        final Set<ReportFormat> formats = EnumSet.noneOf(ReportFormat.class);
+
+        try {
+            for (final String token : readLine(String.format(PROMPT_FORMATS, supported)).split("[,\\s]+")) {
+                if (!token.isBlank()) {
+                    formats.add(ReportFormat.parse(token));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            println(e.getMessage());
+            return;
+        }
+        if (formats.isEmpty()) {
+            println(NO_FORMATS);
+            return;
+        }
+
+        final String baseName = "report_" + LocalDate.now();
+        final Map<ReportFormat, OutputStream> destinations = new EnumMap<>(ReportFormat.class);
+        try {
+            for (final ReportFormat format : formats) {
+                final Path path = Path.of(baseName + "." + format.fileExtension());
+                destinations.put(format, new BufferedOutputStream(Files.newOutputStream(path)));
+            }
+            reportingInput.exportReports(destinations);
+            println(String.format(EXPORTED, formats.stream()
+                .map(f -> baseName + "." + f.fileExtension())
+                .collect(Collectors.joining(", "))));
+        } catch (Exception e) {
+            println(String.format(EXPORT_FAILED, e.getMessage()));
+        } finally {
+            destinations.values().forEach(CLIInputParser::closeQuietly);
+        }
+    }
+
+    private void handleStatistics() {
+        if (statisticsInput == null) {
+            println(STATISTICS_UNAVAILABLE);
+            return;
+        }
+
+        final CatalogStatistics statistics = statisticsInput.getStatistics();
+        println(String.format(STATISTICS_TOTALS, statistics.totalBooks(), statistics.borrowedBooks(),
+            statistics.borrowedRatio() * 100));
+        println(STATISTICS_BY_COLLECTION);
+        statistics.collections().forEach(c -> println("  " + c));
+        println(STATISTICS_BY_AUTHOR);
+        statistics.authors().forEach(a -> println("  " + a));
+        println(STATISTICS_BY_YEAR);
+        statistics.booksByPublicationYear().forEach((year, count) -> println(String.format(STATISTICS_YEAR, year, count)));
+
+        this.promptAndOpenViewer(PROMPT_OPEN_STATISTICS, () -> reportViewer.showStatistics(statistics));
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // the export already reported its outcome
+        }
+    }
+
     private void printReportSummary(final List<CollectionReport> reports) {
         final int count = Optional.ofNullable(reports).map(List::size).orElse(0);
         println(REPORT_GENERATED);
         println(String.format(COLLECTIONS_FOUND, count));
+        println(String.format(CACHE_STATS, reportingInput.getCacheStats()));
     }
 
     private void promptAndOpenViewer(final List<CollectionReport> reports) {
-        final String answer = readLine(PROMPT_OPEN_REPORT).trim();
+        this.promptAndOpenViewer(PROMPT_OPEN_REPORT, () -> reportViewer.showReports(reports));
+    }
+
+    private void promptAndOpenViewer(final String prompt, final Runnable show) {
+        final String answer = readLine(prompt).trim();
 
         if (!OPEN_OPTION.equalsIgnoreCase(answer)) {
             println(SKIP_GUI);
@@ -147,7 +313,7 @@ public final class CLIInputParser {
         }
 
         try {
-            reportViewer.showReports(reports);
+            show.run();
             println(REPORT_VIEWER_OPENED);
         } catch (ClassCastException ex) {
             println(UNABLE_TO_OPEN);
@@ -157,8 +323,8 @@ public final class CLIInputParser {
     }
 
     private String readLine(final String prompt) {
-        this.sharedWriter.print(prompt);
-        this.sharedWriter.flush();
+        this.sharedOutput.print(prompt);
+        this.sharedOutput.flush();
 
         try {
             final String line = sharedReader.readLine();
@@ -170,10 +336,10 @@ public final class CLIInputParser {
     }
 
     private void println(final String s) {
-        this.sharedWriter.println(s);
+        this.sharedOutput.printLine(s);
     }
 
     private void println() {
-        this.sharedWriter.println();
+        this.sharedOutput.printLine(StringUtils.EMPTY_STRING);
     }
 }
@@ -0,0 +1,294 @@
+package com.github.gogoasac.infra.input.batch;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.input.AuthorManagementInput;
+import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.application.input.CatalogImportInput;
+import com.github.gogoasac.application.input.CollectionManagementInput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Non-interactive adapter executing operator scripts against the input ports.
+ *
+ * <p>Each non-blank line of the input is one command; lines starting with
+ * {@code #} are comments. Supported commands:
+ * - {@code add-author "Name"}
+ * - {@code add-collection "Name"}
+ * - {@code add-book "Title" <authorId> <collectionId> <year>}
+ * - {@code borrow <bookId>}, {@code return <bookId>}
+ * - {@code hold <bookId> "Patron"}, {@code holds <bookId>}
+ * - {@code get-book <bookId>}
+ * - {@code list-books [<collectionId>]}, {@code list-authors}, {@code list-collections}
+ * - {@code begin}, {@code commit}, {@code rollback}
+ *
+ * <p>Between {@code begin} and {@code commit} only the three {@code add-*}
+ * commands are allowed. They are validated and numbered at once but go into a
+ * {@link CatalogImportInput.CatalogImport} and are stored together by
+ * {@code commit}, e.g. a whole catalog with one write per data file.
+ * {@code rollback}, or the end of the script, drops what was staged; a script
+ * ending inside {@code begin} counts as a failure.
+ *
+ * <p>Unlike {@link com.github.gogoasac.infra.input.CLIInputParser} no prompts or
+ * menus are printed. Commands are read and parsed in batches of
+ * {@code batchSize} lines, executed in order, and the output of a whole batch is
+ * written and flushed at once, so a script of 100k commands costs one flush per
+ * batch instead of one per line. A failing command is reported with its line
+ * number and does not stop the script.
+ */
+public final class BatchCommandRunner {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String FAILED = "line %d: %s";
+    private static final String SUMMARY = "Executed %d commands, %d failed.";
+    private static final String STAGING_ONLY = "Only add-author, add-collection and add-book are allowed between begin and commit";
+    private static final String NOT_COMMITTED = "line %d: begin without commit; nothing was stored";
+
+    private final AuthorManagementInput authorInput;
+    private final BookManagementInput bookInput;
+    private final CollectionManagementInput collectionInput;
+    private final CatalogImportInput importInput;
+    private final BufferedReader reader;
+    private final PrintStream writer;
+    private final int batchSize;
+
+    // the open import and the line of its begin; null outside begin ... commit
+    private CatalogImportInput.CatalogImport openImport;
+    private int openImportLine;
+
+    public BatchCommandRunner(final AuthorManagementInput authorInput,
+                              final BookManagementInput bookInput,
+                              final CollectionManagementInput collectionInput,
+                              final CatalogImportInput importInput,
+                              final BufferedReader reader,
+                              final PrintStream writer) {
+        this(authorInput, bookInput, collectionInput, importInput, reader, writer, DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchCommandRunner(final AuthorManagementInput authorInput,
+                              final BookManagementInput bookInput,
+                              final CollectionManagementInput collectionInput,
+                              final CatalogImportInput importInput,
+                              final BufferedReader reader,
+                              final PrintStream writer,
+                              final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.authorInput = Objects.requireNonNull(authorInput, "authorInput");
+        this.bookInput = Objects.requireNonNull(bookInput, "bookInput");
+        this.collectionInput = Objects.requireNonNull(collectionInput, "collectionInput");
+        this.importInput = Objects.requireNonNull(importInput, "importInput");
+        this.reader = Objects.requireNonNull(reader, "reader");
+        this.writer = Objects.requireNonNull(writer, "writer");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Execute the whole script and print a summary line.
+     *
+     * @return the counts of executed and failed commands
+     */
+    public Summary run() {
+        int lineNumber = 0;
+        int executed = 0;
+        int failed = 0;
+        final List<ParsedLine> batch = new ArrayList<>(batchSize);
+        final StringBuilder output = new StringBuilder();
+
+        String line;
+        while ((line = nextLine()) != null) {
+            lineNumber++;
+            final String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            batch.add(new ParsedLine(lineNumber, trimmed));
+
+            if (batch.size() == batchSize) {
+                failed += executeBatch(batch, output);
+                executed += batch.size();
+                batch.clear();
+            }
+        }
+        failed += executeBatch(batch, output);
+        executed += batch.size();
+
+        if (openImport != null) {
+            failed++;
+            openImport = null;
+            writer.println(String.format(NOT_COMMITTED, openImportLine));
+        }
+        writer.println(String.format(SUMMARY, executed, failed));
+        writer.flush();
+        return new Summary(executed, failed);
+    }
+
+    private int executeBatch(final List<ParsedLine> batch, final StringBuilder output) {
+        int failed = 0;
+        for (final ParsedLine parsed : batch) {
+            try {
+                output.append(execute(parsed.lineNumber(), CommandTokenizer.tokenize(parsed.text()))).append(System.lineSeparator());
+            } catch (Exception e) {
+                failed++;
+                output.append(String.format(FAILED, parsed.lineNumber(), describe(e))).append(System.lineSeparator());
+            }
+        }
+
+        writer.print(output);
+        writer.flush();
+        output.setLength(0);
+        return failed;
+    }
+
+    private String execute(final int lineNumber, final List<String> tokens) {
+        final String command = tokens.getFirst();
+        final List<String> args = tokens.subList(1, tokens.size());
+        if (openImport != null) {
+            return stage(command, args);
+        }
+
+        return switch (command) {
+            case "begin" -> {
+                requireArgs(args, 0, "begin");
+                openImport = importInput.begin();
+                openImportLine = lineNumber;
+                yield "Import started";
+            }
+            case "commit", "rollback" -> throw new IllegalArgumentException(command + " without begin");
+            case "add-author" -> {
+                requireArgs(args, 1, "add-author \"Name\"");
+                yield "Author created: " + authorInput.addAuthor(new AddAuthorCommand(args.getFirst()));
+            }
+            case "add-collection" -> {
+                requireArgs(args, 1, "add-collection \"Name\"");
+                yield "Collection created: " + collectionInput.addCollection(new AddCollectionCommand(args.getFirst()));
+            }
+            case "add-book" -> {
+                requireArgs(args, 4, "add-book \"Title\" <authorId> <collectionId> <year>");
+                yield "Book created: " + bookInput.addBook(parseAddBook(args));
+            }
+            case "borrow" -> {
+                requireArgs(args, 1, "borrow <bookId>");
+                final Long id = Long.parseLong(args.getFirst());
+                bookInput.borrow(id);
+                yield "Book borrowed: " + id;
+            }
+            case "return" -> {
+                requireArgs(args, 1, "return <bookId>");
+                final Long id = Long.parseLong(args.getFirst());
+                bookInput.returnBook(id);
+                yield "Book returned: " + id;
+            }
+            case "hold" -> {
+                requireArgs(args, 2, "hold <bookId> \"Patron\"");
+                yield "Hold placed: " + bookInput.placeHold(Long.parseLong(args.get(0)), args.get(1));
+            }
+            case "holds" -> {
+                requireArgs(args, 1, "holds <bookId>");
+                yield joinLines("Holds:", bookInput.getHolds(Long.parseLong(args.getFirst())));
+            }
+            case "get-book" -> {
+                requireArgs(args, 1, "get-book <bookId>");
+                yield "Book: " + bookInput.getById(Long.parseLong(args.getFirst()));
+            }
+            case "list-books" -> listBooks(args);
+            case "list-authors" -> joinLines("Authors:", authorInput.getAll());
+            case "list-collections" -> joinLines("Collections:", collectionInput.getAll());
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        };
+    }
+
+    private String stage(final String command, final List<String> args) {
+        return switch (command) {
+            case "add-author" -> {
+                requireArgs(args, 1, "add-author \"Name\"");
+                yield "Author staged: " + openImport.addAuthor(new AddAuthorCommand(args.getFirst()));
+            }
+            case "add-collection" -> {
+                requireArgs(args, 1, "add-collection \"Name\"");
+                yield "Collection staged: " + openImport.addCollection(new AddCollectionCommand(args.getFirst()));
+            }
+            case "add-book" -> {
+                requireArgs(args, 4, "add-book \"Title\" <authorId> <collectionId> <year>");
+                yield "Book staged: " + openImport.addBook(parseAddBook(args));
+            }
+            case "commit" -> {
+                requireArgs(args, 0, "commit");
+                final CatalogImportInput.CatalogImport committing = openImport;
+                // a failed commit stored nothing and closes the import as well
+                openImport = null;
+                yield "Import committed: " + committing.commit() + " records";
+            }
+            case "rollback" -> {
+                requireArgs(args, 0, "rollback");
+                openImport = null;
+                yield "Import rolled back";
+            }
+            default -> throw new IllegalArgumentException(STAGING_ONLY);
+        };
+    }
+
+    private static AddBookCommand parseAddBook(final List<String> args) {
+        return new AddBookCommand(
+            args.get(0),
+            Long.parseLong(args.get(1)),
+            Long.parseLong(args.get(2)),
+            Integer.parseInt(args.get(3))
+        );
+    }
+
+    private String listBooks(final List<String> args) {
+        if (args.size() > 1) {
+            throw new IllegalArgumentException("Usage: list-books [<collectionId>]");
+        }
+        if (args.isEmpty()) {
+            return joinLines("Books:", bookInput.getAll());
+        }
+
+        return joinLines("Books:", bookInput.getByCollectionId(Long.parseLong(args.getFirst())));
+    }
+
+    private static String joinLines(final String header, final List<?> items) {
+        final StringBuilder sb = new StringBuilder(header);
+        items.forEach(item -> sb.append(System.lineSeparator()).append("  ").append(item));
+        return sb.toString();
+    }
+
+    private static void requireArgs(final List<String> args, final int expected, final String usage) {
+        if (args.size() != expected) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    private static String describe(final Exception e) {
+        if (e instanceof NumberFormatException) {
+            return "Invalid number: " + e.getMessage();
+        }
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private String nextLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read batch input", e);
+        }
+    }
+
+    private record ParsedLine(int lineNumber, String text) {}
+
+    /**
+     * Outcome of a batch run.
+     */
+    public record Summary(int executed, int failed) {}
+}
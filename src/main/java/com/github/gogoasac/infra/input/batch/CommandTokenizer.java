@@ -0,0 +1,56 @@
+package com.github.gogoasac.infra.input.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a batch command line into tokens.
+ *
+ * <p>Tokens are separated by whitespace. Double quotes group words into a single
+ * token ({@code "The Left Hand of Darkness"}); inside quotes {@code \"} and
+ * {@code \\} escape a quote and a backslash.
+ */
+final class CommandTokenizer {
+    private CommandTokenizer() {}
+
+    static List<String> tokenize(final String line) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+
+            if (inQuotes) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    current.append(line.charAt(++i));
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                hasToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (hasToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                current.append(c);
+                hasToken = true;
+            }
+        }
+
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted string");
+        }
+        if (hasToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
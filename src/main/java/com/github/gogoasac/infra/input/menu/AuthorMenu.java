@@ -28,7 +28,13 @@ public class AuthorMenu extends MenuHandler {
     public AuthorMenu(final PrintStream printStream,
                       final BufferedReader sharedReader,
                       final AuthorManagementInput authorManagementInput) {
-        super(MENU_NAME, printStream, sharedReader);
+        this(new MenuOutput(printStream, sharedReader), sharedReader, authorManagementInput);
+    }
+
+    public AuthorMenu(final MenuOutput sharedOutput,
+                      final BufferedReader sharedReader,
+                      final AuthorManagementInput authorManagementInput) {
+        super(MENU_NAME, sharedOutput, sharedReader);
 
         super.setMenuItemList(List.of(
             new MenuItem("Add author", this::addAuthor),
@@ -63,10 +69,7 @@ public class AuthorMenu extends MenuHandler {
             return;
         }
 
-        super.printLine("Authors:");
-        authors.stream()
-            .map(a -> "  " + a)
-            .forEach(super::printLine);
+        super.printListing("Authors:", authors.stream().map(a -> "  " + a));
     }
 
     private void viewAuthorById() {
@@ -1,12 +1,15 @@
 package com.github.gogoasac.infra.input.menu;
 
 import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.OverdueLoan;
 import com.github.gogoasac.application.input.AuthorManagementInput;
 import com.github.gogoasac.application.input.BookManagementInput;
 import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.application.input.LoanMonitoringInput;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
 
 import java.io.BufferedReader;
 import java.io.PrintStream;
@@ -18,7 +21,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
- * CLI menu handling book-related interactions (add/list/view/borrow).
+ * CLI menu handling book-related interactions (add/list/view/borrow/return/holds/overdue).
  *
  * <p>This {@link MenuHandler} coordinates interactions across the book, author
  * and collection input ports. It resolves author/collection names for listings
@@ -38,24 +41,48 @@ public final class BookMenu extends MenuHandler {
     private final BookManagementInput bookInput;
     private final AuthorManagementInput authorInput;
     private final CollectionManagementInput collectionInput;
+    private final LoanMonitoringInput loanInput;
 
     public BookMenu(final PrintStream printStream,
                     final BufferedReader sharedReader,
                     final BookManagementInput bookManagementInput,
                     final AuthorManagementInput authorManagementInput,
                     final CollectionManagementInput collectionManagementInput) {
-        super(MENU_NAME, printStream, sharedReader);
+        this(new MenuOutput(printStream, sharedReader), sharedReader,
+            bookManagementInput, authorManagementInput, collectionManagementInput);
+    }
+
+    public BookMenu(final MenuOutput sharedOutput,
+                    final BufferedReader sharedReader,
+                    final BookManagementInput bookManagementInput,
+                    final AuthorManagementInput authorManagementInput,
+                    final CollectionManagementInput collectionManagementInput) {
+        this(sharedOutput, sharedReader, bookManagementInput, authorManagementInput, collectionManagementInput, List::of);
+    }
+
+    public BookMenu(final MenuOutput sharedOutput,
+                    final BufferedReader sharedReader,
+                    final BookManagementInput bookManagementInput,
+                    final AuthorManagementInput authorManagementInput,
+                    final CollectionManagementInput collectionManagementInput,
+                    final LoanMonitoringInput loanMonitoringInput) {
+        super(MENU_NAME, sharedOutput, sharedReader);
 
         super.setMenuItemList(List.of(
             new MenuItem("Add book", this::addBook),
             new MenuItem("List all books", this::listAllBooks),
             new MenuItem("View book by id", this::viewBookById),
-            new MenuItem("Borrow a book", this::borrowBook)
+            new MenuItem("Borrow a book", this::borrowBook),
+            new MenuItem("Return a book", this::returnBook),
+            new MenuItem("Place a hold on a borrowed book", this::placeHold),
+            new MenuItem("View holds for a book", this::viewHolds),
+            new MenuItem("List overdue books", this::listOverdueBooks)
         ));
 
         this.bookInput = Objects.requireNonNull(bookManagementInput, "bookManagementInput");
         this.authorInput = Objects.requireNonNull(authorManagementInput, "authorManagementInput");
         this.collectionInput = Objects.requireNonNull(collectionManagementInput, "collectionManagementInput");
+        this.loanInput = Objects.requireNonNull(loanMonitoringInput, "loanMonitoringInput");
     }
 
     private void addBook() {
@@ -89,10 +116,7 @@ public final class BookMenu extends MenuHandler {
             super.printLine("No authors found.");
             return;
         }
-        super.printLine("Authors:");
-        authors.stream()
-               .map(a -> "  " + a.id() + ") " + a)
-               .forEach(super::printLine);
+        super.printListing("Authors:", authors.stream().map(a -> "  " + a.id() + ") " + a));
     }
 
     private void listAllCollections() {
@@ -101,10 +125,7 @@ public final class BookMenu extends MenuHandler {
             super.printLine("No collections found.");
             return;
         }
-        super.printLine("Collections:");
-        collections.stream()
-                   .map(c -> "  " + c.id() + ") " + c)
-                   .forEach(super::printLine);
+        super.printListing("Collections:", collections.stream().map(c -> "  " + c.id() + ") " + c));
     }
 
     private void listAllBooks() {
@@ -119,8 +140,7 @@ public final class BookMenu extends MenuHandler {
         final Map<Long, String> collectionsById = collectionInput.getAll().stream()
                 .collect(Collectors.toMap(Collection::id, Collection::toString));
 
-        super.printLine("Books:");
-        books.stream()
+        super.printListing("Books:", books.stream()
              .map(b -> {
                  final String authorStr = authorsById.getOrDefault(b.authorId(), "<unknown>");
                  final String collectionStr = collectionsById.getOrDefault(b.collectionId(), "<unknown>");
@@ -129,8 +149,7 @@ public final class BookMenu extends MenuHandler {
                          : " | Borrowed: " + b.borrowedAt().format(BORROWED_FMT);
                  return String.format("  %d) %s | Author: %s | Collection: %s | Year: %s%s",
                          b.id(), b.title(), authorStr, collectionStr, b.publicationYear(), borrowedInfo);
-             })
-             .forEach(super::printLine);
+             }));
     }
 
     private void viewBookById() {
@@ -167,4 +186,54 @@ public final class BookMenu extends MenuHandler {
             super.printLine("Failed to borrow book: " + exception.getMessage());
         }
     }
+
+    private void returnBook() {
+        final Long id = super.readLong("Book id to return: ");
+        if (id == null) return;
+
+        try {
+            this.bookInput.returnBook(id);
+            super.printLine("Book returned: " + id);
+        } catch (Exception exception) {
+            super.printLine("Failed to return book: " + exception.getMessage());
+        }
+    }
+
+    private void placeHold() {
+        final Long id = super.readLong("Book id to hold: ");
+        if (id == null) return;
+        final String patron = super.readLine("Patron name: ");
+        if (patron.isEmpty()) {
+            super.printLine("Patron cannot be empty");
+            return;
+        }
+
+        try {
+            final Hold hold = this.bookInput.placeHold(id, patron);
+            super.printLine("Hold placed: " + hold);
+        } catch (Exception exception) {
+            super.printLine("Failed to place hold: " + exception.getMessage());
+        }
+    }
+
+    private void viewHolds() {
+        final Long id = super.readLong("Book id: ");
+        if (id == null) return;
+
+        final List<Hold> holds = this.bookInput.getHolds(id);
+        if (holds == null || holds.isEmpty()) {
+            super.printLine("No holds for this book.");
+            return;
+        }
+        super.printListing("Holds (oldest first):", holds.stream().map(h -> "  " + h));
+    }
+
+    private void listOverdueBooks() {
+        final List<OverdueLoan> overdue = this.loanInput.getOverdueLoans();
+        if (overdue.isEmpty()) {
+            super.printLine("No overdue books.");
+            return;
+        }
+        super.printListing("Overdue books (longest overdue first):", overdue.stream().map(o -> "  " + o));
+    }
 }
@@ -27,7 +27,13 @@ public final class CollectionMenu extends MenuHandler {
     public CollectionMenu(final PrintStream printStream,
                           final BufferedReader sharedReader,
                           final CollectionManagementInput collectionManagementInput) {
-        super(MENU_NAME, printStream, sharedReader);
+        this(new MenuOutput(printStream, sharedReader), sharedReader, collectionManagementInput);
+    }
+
+    public CollectionMenu(final MenuOutput sharedOutput,
+                          final BufferedReader sharedReader,
+                          final CollectionManagementInput collectionManagementInput) {
+        super(MENU_NAME, sharedOutput, sharedReader);
 
         super.setMenuItemList(List.of(
             new MenuItem("Add collection", this::addCollection),
@@ -58,10 +64,7 @@ public final class CollectionMenu extends MenuHandler {
             super.printLine("No collections found.");
             return;
         }
-        super.printLine("Collections:");
-        collections.stream()
-                   .map(c -> "  " + c)
-                   .forEach(super::printLine);
+        super.printListing("Collections:", collections.stream().map(c -> "  " + c));
     }
 
     private void viewCollectionById() {
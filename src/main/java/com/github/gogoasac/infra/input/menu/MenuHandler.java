@@ -4,6 +4,7 @@ import com.github.gogoasac.common.StringUtils;
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Abstract base class for simple terminal-based menus.
@@ -15,8 +16,10 @@ import java.util.*;
  *
  * <p>Important details:
  * - The class expects a shared {@link BufferedReader} and {@link PrintStream}
- *   to be supplied so multiple menus and the CLI can share the same IO streams
- *   (no second BufferedReader on the same InputStream).
+ *   (or a shared {@link MenuOutput}) to be supplied so multiple menus and the
+ *   CLI can share the same IO streams (no second BufferedReader on the same InputStream).
+ * - Output is buffered: lines are only flushed before input is read and once
+ *   per page of a listing printed with {@link #printListing(String, Stream)}.
  * - It renders 1-based menu indices to the user and validates choices.
  * - Input parsing is defensive: invalid numbers are handled and a cancelled
  *   read returns empty results.
@@ -34,7 +37,7 @@ public abstract class MenuHandler {
 
     private final String menuName;
     private final List<MenuItem> menuItemList;
-    private final PrintStream writer;
+    private final MenuOutput output;
     private final BufferedReader reader;
 
     private String menuText;
@@ -43,9 +46,18 @@ public abstract class MenuHandler {
     public MenuHandler(final String menuName,
                        final PrintStream outputStream,
                        final BufferedReader sharedReader) {
+        this(menuName, new MenuOutput(
+            Objects.requireNonNull(outputStream, "outputStream"),
+            Objects.requireNonNull(sharedReader, "sharedReader")
+        ), sharedReader);
+    }
+
+    public MenuHandler(final String menuName,
+                       final MenuOutput sharedOutput,
+                       final BufferedReader sharedReader) {
         this.menuName = menuName;
         this.menuItemList = new ArrayList<>();
-        this.writer = Objects.requireNonNull(outputStream, "outputStream");
+        this.output = Objects.requireNonNull(sharedOutput, "sharedOutput");
         this.reader = Objects.requireNonNull(sharedReader, "sharedReader");
         this.menuText = StringUtils.EMPTY_STRING;
     }
@@ -115,6 +127,8 @@ public abstract class MenuHandler {
     }
 
     protected String readLine() {
+        this.output.flush();
+
         try {
             String line = this.reader.readLine();
             return line == null ? "" : line.trim();
@@ -129,8 +143,11 @@ public abstract class MenuHandler {
     }
 
     protected void printLine(final String prompt) {
-        this.writer.println(prompt);
-        this.writer.flush();
+        this.output.printLine(prompt);
+    }
+
+    protected void printListing(final String header, final Stream<String> lines) {
+        this.output.printListing(header, lines);
     }
 
     protected Long readLong(final String prompt) {
@@ -0,0 +1,99 @@
+package com.github.gogoasac.infra.input.menu;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Buffered, paging output shared by the CLI and every {@link MenuHandler}.
+ *
+ * <p>Lines are written to the underlying {@link PrintStream} without flushing;
+ * the stream is flushed only when the user is about to be asked for input
+ * ({@link #flush()}) or when a listing page is complete. Pair it with a
+ * non-autoflush, buffered stream so a listing costs one flush per page instead
+ * of one per line.
+ *
+ * <p>Listings longer than {@code pageSize} lines pause after each page with a
+ * prompt: Enter shows the next page, {@code a} prints the rest without pausing
+ * and {@code q} stops the listing.
+ */
+public final class MenuOutput {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final String MORE_PROMPT = "-- More: Enter = next page, a = all, q = stop --";
+    private static final String STOP = "q";
+    private static final String ALL = "a";
+
+    private final PrintStream writer;
+    private final BufferedReader reader;
+    private final int pageSize;
+
+    public MenuOutput(final PrintStream writer, final BufferedReader reader) {
+        this(writer, reader, DEFAULT_PAGE_SIZE);
+    }
+
+    public MenuOutput(final PrintStream writer, final BufferedReader reader, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.writer = Objects.requireNonNull(writer, "writer");
+        this.reader = Objects.requireNonNull(reader, "reader");
+        this.pageSize = pageSize;
+    }
+
+    public void printLine(final String line) {
+        this.writer.println(line);
+    }
+
+    public void print(final String text) {
+        this.writer.print(text);
+    }
+
+    public void flush() {
+        this.writer.flush();
+    }
+
+    /**
+     * Print a header followed by the given lines, one page at a time.
+     * The stream is consumed lazily, so lines after a {@code q} are never rendered.
+     */
+    public void printListing(final String header, final Stream<String> lines) {
+        printLine(header);
+
+        final Iterator<String> iterator = lines.iterator();
+        int onPage = 1;
+        boolean paging = true;
+
+        while (iterator.hasNext()) {
+            if (paging && onPage >= pageSize) {
+                final String answer = askForMore();
+                if (STOP.equals(answer)) {
+                    break;
+                }
+                paging = !ALL.equals(answer);
+                onPage = 0;
+            }
+
+            printLine(iterator.next());
+            onPage++;
+        }
+
+        flush();
+    }
+
+    private String askForMore() {
+        printLine(MORE_PROMPT);
+        flush();
+
+        try {
+            final String line = reader.readLine();
+            return line == null ? STOP : line.trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            return STOP;
+        }
+    }
+}
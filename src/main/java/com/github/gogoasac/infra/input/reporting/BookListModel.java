@@ -0,0 +1,216 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import com.github.gogoasac.application.dto.BookReport;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingWorker;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Virtual list model over the books of one {@link com.github.gogoasac.application.dto.CollectionReport}.
+ *
+ * <p>Rows are not copied: {@link #getElementAt(int)} reads the report's own list
+ * by index, so only the rows Swing actually paints are touched and showing a
+ * collection costs O(1) regardless of its size.
+ *
+ * <p>Filtering matches titles and author names case-insensitively. The scan
+ * runs on a {@link SwingWorker}, which publishes the matching row indexes in
+ * pages of {@value #PAGE_SIZE} rows, so the list fills in while the scan is
+ * still going and the EDT never waits for it. A filter that extends the
+ * previous one (typing another character) only rescans the previous matches.
+ * A newer filter cancels the running scan. The scan returns how many rows it
+ * matched, because {@code process} may still deliver the last page after
+ * {@code done}; the filter is complete once that many rows have arrived.
+ *
+ * <p>All methods must be called on the EDT.
+ */
+@SuppressWarnings("serial") // Swing models are never serialized here
+final class BookListModel extends AbstractListModel<BookReport> {
+    static final int PAGE_SIZE = 10_000;
+
+    private List<BookReport> books = List.of();
+    private String filter = "";
+    // indexes into books of the rows that match, or null when unfiltered
+    private int[] matches;
+    private int matchCount;
+    private FilterWorker worker;
+    // total rows the current worker matched, -1 while it is still scanning
+    private int expectedMatches = -1;
+
+    void setBooks(final List<BookReport> books) {
+        cancelWorker();
+        final int previousSize = getSize();
+        this.books = books == null ? List.of() : books;
+        this.matches = null;
+        this.matchCount = 0;
+        fireReplaced(previousSize);
+
+        final String current = filter;
+        filter = "";
+        setFilter(current);
+    }
+
+    void setFilter(final String text) {
+        final String normalized = text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+        if (normalized.equals(filter)) {
+            return;
+        }
+
+        final boolean narrowing = matches != null && !isFiltering() && !filter.isEmpty() && normalized.startsWith(filter);
+        final int[] candidates = narrowing ? Arrays.copyOf(matches, matchCount) : null;
+        cancelWorker();
+        filter = normalized;
+
+        final int previousSize = getSize();
+        if (normalized.isEmpty()) {
+            matches = null;
+            matchCount = 0;
+            fireReplaced(previousSize);
+            return;
+        }
+
+        matches = new int[Math.min(PAGE_SIZE, books.size())];
+        matchCount = 0;
+        fireReplaced(previousSize);
+        expectedMatches = -1;
+        worker = new FilterWorker(books, candidates, normalized);
+        worker.execute();
+    }
+
+    /**
+     * Whether a filter scan is still publishing rows.
+     */
+    boolean isFiltering() {
+        return worker != null && matchCount != expectedMatches;
+    }
+
+    int getTotalSize() {
+        return books.size();
+    }
+
+    @Override
+    public int getSize() {
+        return matches == null ? books.size() : matchCount;
+    }
+
+    @Override
+    public BookReport getElementAt(final int index) {
+        return books.get(matches == null ? index : matches[index]);
+    }
+
+    private void append(final FilterWorker source, final int[] page) {
+        if (source != worker || page.length == 0) {
+            return;
+        }
+        if (matchCount + page.length > matches.length) {
+            matches = Arrays.copyOf(matches, Math.max(matches.length * 2, matchCount + page.length));
+        }
+        System.arraycopy(page, 0, matches, matchCount, page.length);
+        final int first = matchCount;
+        matchCount += page.length;
+        fireIntervalAdded(this, first, matchCount - 1);
+        fireIfComplete();
+    }
+
+    private void finished(final FilterWorker source, final int total) {
+        if (source == worker) {
+            expectedMatches = total;
+            fireIfComplete();
+        }
+    }
+
+    private void fireIfComplete() {
+        if (!isFiltering()) {
+            // let listeners (e.g. a status label) see the final state
+            fireContentsChanged(this, 0, Math.max(0, matchCount - 1));
+        }
+    }
+
+    private void cancelWorker() {
+        if (worker != null) {
+            worker.cancel(false);
+            worker = null;
+        }
+    }
+
+    private void fireReplaced(final int previousSize) {
+        if (previousSize > 0) {
+            fireIntervalRemoved(this, 0, previousSize - 1);
+        }
+        if (getSize() > 0) {
+            fireIntervalAdded(this, 0, getSize() - 1);
+        }
+    }
+
+    private static boolean matches(final BookReport book, final String filter) {
+        return book != null && (contains(book.title(), filter) || contains(book.authorName(), filter));
+    }
+
+    private static boolean contains(final String value, final String filter) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(filter);
+    }
+
+    /**
+     * Scans {@code candidates} (or every row) off the EDT and publishes one page of
+     * matching indexes at a time.
+     */
+    private final class FilterWorker extends SwingWorker<Integer, int[]> {
+        private final List<BookReport> books;
+        private final int[] candidates;
+        private final String filter;
+
+        private FilterWorker(final List<BookReport> books, final int[] candidates, final String filter) {
+            this.books = books;
+            this.candidates = candidates;
+            this.filter = filter;
+        }
+
+        @Override
+        protected Integer doInBackground() {
+            final int total = candidates == null ? books.size() : candidates.length;
+            final int[] page = new int[PAGE_SIZE];
+            int found = 0;
+            int matched = 0;
+
+            for (int i = 0; i < total && !isCancelled(); i++) {
+                final int row = candidates == null ? i : candidates[i];
+                if (BookListModel.matches(books.get(row), filter)) {
+                    page[found++] = row;
+                    matched++;
+                }
+                if (found == PAGE_SIZE || (i + 1) % PAGE_SIZE == 0) {
+                    // publish what this stretch found so the list fills in progressively
+                    if (found > 0) {
+                        publish(Arrays.copyOf(page, found));
+                    }
+                    found = 0;
+                }
+            }
+            if (found > 0 && !isCancelled()) {
+                publish(Arrays.copyOf(page, found));
+            }
+            return matched;
+        }
+
+        @Override
+        protected void process(final List<int[]> pages) {
+            pages.forEach(p -> append(this, p));
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                finished(this, get());
+            } catch (InterruptedException | ExecutionException e) {
+                // a failed scan leaves the rows found so far
+                finished(this, matchCount);
+            }
+        }
+    }
+}
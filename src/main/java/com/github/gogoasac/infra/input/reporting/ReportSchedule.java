@@ -0,0 +1,80 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * When {@link ReportScheduler} runs the reports, in the spirit of a cron entry.
+ *
+ * <p>Specs understood by {@link #parse(String)}:
+ * - {@code every <n>m} / {@code every <n>h}: on every multiple of the interval
+ *   counted from midnight, like {@code *}{@code /n} in cron; the count restarts
+ *   at midnight when the interval does not divide a day,
+ * - {@code daily HH:mm}: once a day at that local time.
+ */
+@FunctionalInterface
+public interface ReportSchedule {
+
+    /**
+     * The first run strictly after {@code time}.
+     */
+    ZonedDateTime nextRunAfter(ZonedDateTime time);
+
+    static ReportSchedule every(final Duration interval) {
+        Objects.requireNonNull(interval, "interval");
+        if (interval.isNegative() || interval.isZero() || interval.compareTo(Duration.ofDays(1)) > 0) {
+            throw new IllegalArgumentException("Report interval must be positive and at most one day: " + interval);
+        }
+        return time -> {
+            final ZonedDateTime midnight = time.toLocalDate().atStartOfDay(time.getZone());
+            final long elapsed = Duration.between(midnight, time).toNanos();
+            final ZonedDateTime next = midnight.plusNanos((elapsed / interval.toNanos() + 1) * interval.toNanos());
+            return next.toLocalDate().equals(time.toLocalDate())
+                ? next
+                : time.toLocalDate().plusDays(1).atStartOfDay(time.getZone());
+        };
+    }
+
+    static ReportSchedule dailyAt(final LocalTime at) {
+        Objects.requireNonNull(at, "at");
+        return time -> {
+            final ZonedDateTime today = ZonedDateTime.of(time.toLocalDate(), at, time.getZone());
+            return today.isAfter(time)
+                ? today
+                : ZonedDateTime.of(time.toLocalDate().plusDays(1), at, time.getZone());
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException when the spec is not understood
+     */
+    static ReportSchedule parse(final String spec) {
+        final String[] parts = spec.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Unknown report schedule: " + spec);
+        }
+
+        try {
+            return switch (parts[0]) {
+                case "every" -> every(parseInterval(parts[1]));
+                case "daily" -> dailyAt(LocalTime.parse(parts[1]));
+                default -> throw new IllegalArgumentException("Unknown report schedule: " + spec);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Unknown report schedule: " + spec, e);
+        }
+    }
+
+    private static Duration parseInterval(final String interval) {
+        final long amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        return switch (interval.charAt(interval.length() - 1)) {
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Report interval must end in m or h: " + interval);
+        };
+    }
+}
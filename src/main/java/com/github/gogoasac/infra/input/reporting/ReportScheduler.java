@@ -0,0 +1,124 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.input.ReportingInput;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Generates collection reports in the background, off the operator's request path.
+ *
+ * <p>A single daemon thread runs {@link ReportingInput#generateCollectionReports()}
+ * at the times given by a {@link ReportSchedule} and on demand through
+ * {@link #runNow()}. Runs never overlap; each one reschedules the next from the
+ * clock, so a slow run skips missed slots instead of piling them up. The latest
+ * successful result is kept for {@link #latest()}; a failing run is logged and
+ * the schedule goes on.
+ *
+ * <p>The reporting service reads a consistent snapshot of the data, so
+ * background runs do not hold up writers either.
+ */
+public final class ReportScheduler implements AutoCloseable {
+    private final ReportingInput reportingInput;
+    private final ReportSchedule schedule;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private final Logger logger;
+
+    private volatile Result latest;
+    private boolean started;
+
+    public ReportScheduler(final ReportingInput reportingInput, final ReportSchedule schedule) {
+        this(reportingInput, schedule, Clock.systemDefaultZone());
+    }
+
+    public ReportScheduler(final ReportingInput reportingInput, final ReportSchedule schedule, final Clock clock) {
+        this.reportingInput = Objects.requireNonNull(reportingInput, "reportingInput");
+        this.schedule = Objects.requireNonNull(schedule, "schedule");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.logger = Logger.getLogger(this.getClass().getName());
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "report-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedule the first run. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduleNext();
+    }
+
+    /**
+     * Queue an immediate run without waiting for it.
+     *
+     * @return completes with the result, or exceptionally when the run fails
+     */
+    public CompletableFuture<Result> runNow() {
+        return CompletableFuture.supplyAsync(this::generate, executor)
+            .whenComplete((result, e) -> {
+                if (e != null) {
+                    this.logger.warning("Report generation failed: " + e.getMessage());
+                }
+            });
+    }
+
+    /**
+     * The result of the most recent successful run, if any.
+     */
+    public Optional<Result> latest() {
+        return Optional.ofNullable(latest);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleNext() {
+        final ZonedDateTime now = ZonedDateTime.now(clock);
+        final long delay = Duration.between(now, schedule.nextRunAfter(now)).toMillis();
+        executor.schedule(this::scheduledRun, Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledRun() {
+        try {
+            generate();
+        } catch (RuntimeException e) {
+            this.logger.warning("Scheduled report generation failed: " + e.getMessage());
+        } finally {
+            if (!executor.isShutdown()) {
+                scheduleNext();
+            }
+        }
+    }
+
+    private Result generate() {
+        final List<CollectionReport> reports = reportingInput.generateCollectionReports();
+        final Result result = new Result(reports, clock.instant());
+        latest = result;
+        return result;
+    }
+
+    /**
+     * Reports of one run and when they were generated.
+     */
+    public record Result(List<CollectionReport> reports, Instant generatedAt) {}
+}
@@ -1,9 +1,12 @@
 package com.github.gogoasac.infra.input.reporting;
 
+import com.github.gogoasac.application.dto.CatalogStatistics;
 import com.github.gogoasac.application.dto.CollectionReport;
 
 import java.util.List;
 
 public interface ReportViewer {
     void showReports(final List<CollectionReport> reports);
+
+    void showStatistics(final CatalogStatistics statistics);
 }
@@ -1,15 +1,30 @@
 package com.github.gogoasac.infra.input.reporting;
 
+import com.github.gogoasac.application.dto.AuthorStatistics;
+import com.github.gogoasac.application.dto.BookDetails;
 import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CatalogStatistics;
 import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.CollectionStatistics;
+import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.common.LruCache;
+import com.github.gogoasac.domain.entity.Hold;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.StringJoiner;
 
 /**
@@ -19,9 +34,42 @@ import java.util.StringJoiner;
  * books on the right. Provides double-click-to-open details and copy-to-clipboard
  * actions for book entries.
  *
+ * <p>Large reports: both lists are virtual models over the report lists
+ * themselves, nothing is copied into Swing models, and the lists use fixed
+ * cell sizes so Swing never measures every row. The filter box above the books
+ * narrows them as you type; the scan runs on a {@link SwingWorker} (see
+ * {@link BookListModel}), so a collection of a million books opens and filters
+ * without freezing the window.
+ *
+ * <p>Book details: report rows only carry the book id, title and author. When
+ * a row is opened the full {@link BookDetails} (collection, year, borrow state,
+ * hold queue) are fetched from the book port on a {@link SwingWorker} and kept
+ * in a small {@link LruCache}, so reopening a recently viewed book is instant.
+ * The dialog's Refresh button bypasses the cache. Without a book port the
+ * dialog shows what the row itself holds.
+ *
+ * <p>Catalog statistics open in a separate window with one tab per aggregate;
+ * the publication-year histogram is drawn as horizontal bars.
+ *
  * <p>Threading note: UI creation is dispatched via {@link SwingUtilities#invokeLater}
  */
 public class ReportViewerSwing implements ReportViewer {
+    private static final int DETAILS_CACHE_SIZE = 256;
+
+    private final BookManagementInput bookInput;
+    private final LruCache<Long, BookDetails> detailsCache;
+
+    public ReportViewerSwing() {
+        this(null);
+    }
+
+    /**
+     * @param bookInput source of book details; {@code null} limits the detail view to the report row
+     */
+    public ReportViewerSwing(final BookManagementInput bookInput) {
+        this.bookInput = bookInput;
+        this.detailsCache = new LruCache<>(DETAILS_CACHE_SIZE);
+    }
 
     public void showReports(final List<CollectionReport> reports) {
         if (reports == null || reports.isEmpty()) return;
@@ -29,6 +77,77 @@ public class ReportViewerSwing implements ReportViewer {
         SwingUtilities.invokeLater(() -> createAndShow(snapshot));
     }
 
+    @Override
+    public void showStatistics(final CatalogStatistics statistics) {
+        if (statistics == null) return;
+        SwingUtilities.invokeLater(() -> createAndShowStatistics(statistics));
+    }
+
+    private void createAndShowStatistics(final CatalogStatistics statistics) {
+        final JFrame frame = new JFrame("Library Catalog Statistics");
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setSize(700, 500);
+        frame.setLocationRelativeTo(null);
+
+        final DefaultTableModel collections = readOnlyModel("Collection", "Books", "Borrowed", "Borrowed %");
+        for (final CollectionStatistics c : statistics.collections()) {
+            collections.addRow(new Object[]{c.name(), c.books(), c.borrowed(), Math.round(c.borrowedRatio() * 100)});
+        }
+        final DefaultTableModel authors = readOnlyModel("Author", "Books");
+        for (final AuthorStatistics a : statistics.authors()) {
+            authors.addRow(new Object[]{a.name(), a.books()});
+        }
+
+        final JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Collections", new JScrollPane(new JTable(collections)));
+        tabs.addTab("Authors", new JScrollPane(new JTable(authors)));
+        tabs.addTab("Publication years", new JScrollPane(createHistogramPanel(statistics.booksByPublicationYear())));
+
+        final JLabel totals = new JLabel(String.format("Books: %d, borrowed: %d (%.0f%%)",
+            statistics.totalBooks(), statistics.borrowedBooks(), statistics.borrowedRatio() * 100));
+        totals.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+
+        frame.getContentPane().add(totals, BorderLayout.NORTH);
+        frame.getContentPane().add(tabs, BorderLayout.CENTER);
+        frame.setVisible(true);
+    }
+
+    private JComponent createHistogramPanel(final Map<Integer, Long> booksByYear) {
+        final long max = booksByYear.values().stream().mapToLong(Long::longValue).max().orElse(1);
+        final JPanel panel = new JPanel(new GridBagLayout());
+        final GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(2, 6, 2, 6);
+        c.anchor = GridBagConstraints.WEST;
+
+        int row = 0;
+        for (final Map.Entry<Integer, Long> entry : booksByYear.entrySet()) {
+            final JProgressBar bar = new JProgressBar(0, (int) Math.min(max, Integer.MAX_VALUE));
+            bar.setValue((int) Math.min(entry.getValue(), Integer.MAX_VALUE));
+            bar.setStringPainted(true);
+            bar.setString(String.valueOf(entry.getValue()));
+
+            c.gridy = row++;
+            c.gridx = 0;
+            c.weightx = 0;
+            c.fill = GridBagConstraints.NONE;
+            panel.add(new JLabel(String.valueOf(entry.getKey())), c);
+            c.gridx = 1;
+            c.weightx = 1;
+            c.fill = GridBagConstraints.HORIZONTAL;
+            panel.add(bar, c);
+        }
+        return panel;
+    }
+
+    private DefaultTableModel readOnlyModel(final String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(final int row, final int column) {
+                return false;
+            }
+        };
+    }
+
     private void createAndShow(final List<CollectionReport> reports) {
         final JFrame frame = new JFrame("Library Collection Reports");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -36,7 +155,7 @@ public class ReportViewerSwing implements ReportViewer {
         frame.setLocationRelativeTo(null);
 
         // create books panel first so we can pass its model to the collections panel
-        final DefaultListModel<BookReport> booksModel = new DefaultListModel<>();
+        final BookListModel booksModel = new BookListModel();
         final JComponent booksPanel = createBooksPanel(booksModel);
         final JComponent collectionsPanel = createCollectionsPanel(reports, booksModel);
 
@@ -56,12 +175,22 @@ public class ReportViewerSwing implements ReportViewer {
     }
 
     private JComponent createCollectionsPanel(final List<CollectionReport> reports,
-                                                     final DefaultListModel<BookReport> booksModel) {
-        final DefaultListModel<CollectionReport> model = new DefaultListModel<>();
-        reports.forEach(model::addElement);
+                                                     final BookListModel booksModel) {
+        final AbstractListModel<CollectionReport> model = new AbstractListModel<>() {
+            @Override
+            public int getSize() {
+                return reports.size();
+            }
+
+            @Override
+            public CollectionReport getElementAt(final int index) {
+                return reports.get(index);
+            }
+        };
 
         final JList<CollectionReport> list = new JList<>(model);
         list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setPrototypeCellValue(new CollectionReport("A typical collection name", List.of()));
         list.setCellRenderer((l, value, index, isSelected, cellHasFocus) -> {
             final String name = value == null ? "<unknown>" : value.collectionName();
             final int count = value == null ? 0 : (value.books() == null ? 0 : value.books().size());
@@ -88,10 +217,7 @@ public class ReportViewerSwing implements ReportViewer {
         list.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 final CollectionReport selected = list.getSelectedValue();
-                booksModel.clear();
-                if (selected != null && selected.books() != null) {
-                    selected.books().stream().filter(Objects::nonNull).forEach(booksModel::addElement);
-                }
+                booksModel.setBooks(selected == null ? List.of() : selected.books());
             }
         });
 
@@ -99,12 +225,15 @@ public class ReportViewerSwing implements ReportViewer {
         return panel;
     }
 
-    private JComponent createBooksPanel(final DefaultListModel<BookReport> booksModel) {
+    private JComponent createBooksPanel(final BookListModel booksModel) {
         final JList<BookReport> booksList = new JList<>(booksModel);
         booksList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // fixed cell size: without it JList renders every row to measure the list
+        booksList.setPrototypeCellValue(new BookReport("A fairly long book title for sizing", "An author name"));
         booksList.setCellRenderer((l, value, index, isSelected, cellHasFocus) -> {
             final String title = value == null ? "" : htmlEscape(value.title());
-            final String author = value == null ? "" : htmlEscape(value.authorName());
+            final String author = value == null ? "" : htmlEscape(value.authorName())
+                + (value.borrowedAt() == null ? "" : " &middot; borrowed " + value.borrowedAt());
             final String text = String.format("<html><b>%s</b><br/><i>%s</i></html>", title, author);
             final JLabel label = new JLabel(text);
             label.setOpaque(true);
@@ -124,27 +253,140 @@ public class ReportViewerSwing implements ReportViewer {
             public void mouseClicked(final MouseEvent e) {
                 if (e.getClickCount() == 2 && !booksList.isSelectionEmpty()) {
                     final BookReport br = booksList.getSelectedValue();
-                    showBookDetailsDialog(booksList, br);
+                    openBookDetails(booksList, br);
                 }
             }
         });
 
+        final JTextField filterField = new JTextField();
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(final DocumentEvent e) {
+                booksModel.setFilter(filterField.getText());
+            }
+
+            @Override
+            public void removeUpdate(final DocumentEvent e) {
+                booksModel.setFilter(filterField.getText());
+            }
+
+            @Override
+            public void changedUpdate(final DocumentEvent e) {
+                booksModel.setFilter(filterField.getText());
+            }
+        });
+
+        final JLabel status = new JLabel(" ");
+        booksModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(final ListDataEvent e) {
+                updateStatus(status, booksModel);
+            }
+
+            @Override
+            public void intervalRemoved(final ListDataEvent e) {
+                updateStatus(status, booksModel);
+            }
+
+            @Override
+            public void contentsChanged(final ListDataEvent e) {
+                updateStatus(status, booksModel);
+            }
+        });
+
+        final JPanel header = new JPanel(new BorderLayout(6, 0));
+        header.add(new JLabel("Books"), BorderLayout.WEST);
+        header.add(filterField, BorderLayout.CENTER);
+
         final JScrollPane scroll = new JScrollPane(booksList);
         final JPanel panel = new JPanel(new BorderLayout());
-        panel.add(new JLabel("Books"), BorderLayout.NORTH);
+        panel.add(header, BorderLayout.NORTH);
         panel.add(scroll, BorderLayout.CENTER);
+        panel.add(status, BorderLayout.SOUTH);
 
         panel.putClientProperty("booksModel", booksModel);
         panel.putClientProperty("booksList", booksList);
         return panel;
     }
 
-    private void showBookDetailsDialog(final Component parent, final BookReport br) {
+    private void updateStatus(final JLabel status, final BookListModel model) {
+        status.setText(String.format("Showing %d of %d books%s", model.getSize(), model.getTotalSize(),
+            model.isFiltering() ? " (filtering...)" : ""));
+    }
+
+    private void openBookDetails(final Component parent, final BookReport br) {
+        if (bookInput == null || br == null || br.bookId() == null) {
+            showBookDetailsDialog(parent, describe(br), null);
+            return;
+        }
+
+        final Optional<BookDetails> cached = detailsCache.get(br.bookId());
+        if (cached.isPresent()) {
+            showBookDetailsDialog(parent, describe(cached.get()), br.bookId());
+            return;
+        }
+        loadDetails(br.bookId(), text -> showBookDetailsDialog(parent, text, br.bookId()));
+    }
+
+    /**
+     * Fetch the details off the EDT, cache them and hand the rendered text to {@code onLoaded} on the EDT.
+     */
+    private void loadDetails(final Long bookId, final Consumer<String> onLoaded) {
+        new SwingWorker<BookDetails, Void>() {
+            @Override
+            protected BookDetails doInBackground() {
+                return bookInput.getDetails(bookId);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    final BookDetails details = get();
+                    detailsCache.put(bookId, details);
+                    onLoaded.accept(describe(details));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    onLoaded.accept("Failed to load book details: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private String describe(final BookReport br) {
         final StringJoiner sj = new StringJoiner(System.lineSeparator());
         sj.add("Title: " + (br == null ? "" : br.title()));
         sj.add("Author: " + (br == null ? "" : br.authorName()));
+        if (br != null) {
+            sj.add("Status: " + (br.borrowedAt() != null ? "borrowed since " + br.borrowedAt() : "available"));
+        }
+        return sj.toString();
+    }
+
+    private String describe(final BookDetails details) {
+        final StringJoiner sj = new StringJoiner(System.lineSeparator());
+        sj.add("Title: " + details.title());
+        sj.add("Author: " + details.authorName());
+        sj.add("Collection: " + details.collectionName());
+        sj.add("Published: " + details.publicationYear());
+        sj.add("Status: " + (details.borrowed() ? "borrowed since " + details.borrowedAt() : "available"));
+        if (details.holds().isEmpty()) {
+            sj.add("Holds: none");
+        } else {
+            sj.add("Holds:");
+            int position = 1;
+            for (final Hold hold : details.holds()) {
+                sj.add(String.format("  %d. %s (since %s)", position++, hold.patron(), hold.placedAt()));
+            }
+        }
+        return sj.toString();
+    }
 
-        final JTextArea area = new JTextArea(sj.toString());
+    /**
+     * @param bookId enables the Refresh button when not null
+     */
+    private void showBookDetailsDialog(final Component parent, final String text, final Long bookId) {
+        final JTextArea area = new JTextArea(text);
         area.setEditable(false);
         area.setLineWrap(true);
         area.setWrapStyleWord(true);
@@ -152,11 +394,22 @@ public class ReportViewerSwing implements ReportViewer {
 
         final JButton copy = new JButton("Copy");
         copy.addActionListener(a -> {
-            final StringSelection sel = new StringSelection(sj.toString());
+            final StringSelection sel = new StringSelection(area.getText());
             Toolkit.getDefaultToolkit().getSystemClipboard().setContents(sel, sel);
         });
 
         final JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        if (bookId != null) {
+            final JButton refresh = new JButton("Refresh");
+            refresh.addActionListener(a -> {
+                refresh.setEnabled(false);
+                loadDetails(bookId, loaded -> {
+                    area.setText(loaded);
+                    refresh.setEnabled(true);
+                });
+            });
+            panel.add(refresh);
+        }
         panel.add(copy);
 
         final JPanel content = new JPanel(new BorderLayout(6, 6));
@@ -167,7 +420,7 @@ public class ReportViewerSwing implements ReportViewer {
         final JDialog dialog = pane.createDialog(parent, "Book Details");
         dialog.setModal(true);
         dialog.setResizable(true);
-        dialog.setSize(400, 200);
+        dialog.setSize(420, 300);
         dialog.setLocationRelativeTo(parent);
         dialog.setVisible(true);
     }
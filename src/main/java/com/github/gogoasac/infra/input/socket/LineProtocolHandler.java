@@ -0,0 +1,181 @@
+package com.github.gogoasac.infra.input.socket;
+
+import com.github.gogoasac.application.input.AuthorManagementInput;
+import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.application.input.LoanMonitoringInput;
+import com.github.gogoasac.application.input.ReplicationInput;
+import com.github.gogoasac.application.input.SnapshotInput;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Hold;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Translates single protocol lines into calls on the application input ports.
+ *
+ * <p>Every request is one line of whitespace-separated tokens; command words are
+ * case-insensitive. Every response starts with either {@code OK} or {@code ERR}:
+ * - {@code OK <text>} for single-value answers,
+ * - {@code OK <n>} followed by exactly {@code n} lines for listings,
+ * - {@code ERR <message>} when the command failed or was not understood.
+ *
+ * <p>Supported commands:
+ * - {@code PING}
+ * - {@code GET BOOK <id>}, {@code GET AUTHOR <id>}, {@code GET COLLECTION <id>}
+ * - {@code LIST BOOKS [<collectionId>]}
+ * - {@code BORROW <id>}, {@code RETURN <id>}
+ * - {@code HOLD <id> <patron>}, {@code HOLDS <id>}
+ * - {@code OVERDUE}
+ * - {@code REPLICATION}: role, applied sequence and lag of this process
+ * - {@code SNAPSHOT}: write an online snapshot of the catalog and report its file
+ *
+ * <p>The handler is stateless and thread-safe as long as the injected ports are,
+ * so a single instance can serve every connection of {@link LineProtocolServer}.
+ */
+public final class LineProtocolHandler {
+    static final String OK = "OK";
+    static final String ERR = "ERR";
+    static final String QUIT = "QUIT";
+
+    private static final String UNKNOWN_COMMAND = "Unknown command: %s";
+    private static final String USAGE = "Usage: %s";
+
+    private final BookManagementInput bookInput;
+    private final AuthorManagementInput authorInput;
+    private final CollectionManagementInput collectionInput;
+    private final LoanMonitoringInput loanInput;
+    private final ReplicationInput replicationInput;
+    private final SnapshotInput snapshotInput;
+
+    public LineProtocolHandler(final BookManagementInput bookInput,
+                               final AuthorManagementInput authorInput,
+                               final CollectionManagementInput collectionInput,
+                               final LoanMonitoringInput loanInput,
+                               final ReplicationInput replicationInput,
+                               final SnapshotInput snapshotInput) {
+        this.bookInput = Objects.requireNonNull(bookInput, "bookInput");
+        this.authorInput = Objects.requireNonNull(authorInput, "authorInput");
+        this.collectionInput = Objects.requireNonNull(collectionInput, "collectionInput");
+        this.loanInput = Objects.requireNonNull(loanInput, "loanInput");
+        this.replicationInput = Objects.requireNonNull(replicationInput, "replicationInput");
+        this.snapshotInput = Objects.requireNonNull(snapshotInput, "snapshotInput");
+    }
+
+    /**
+     * Execute one request line and return the full response, without a trailing line separator.
+     * Multi-line responses are joined with {@code \n}.
+     */
+    public String handle(final String line) {
+        final String[] tokens = line.trim().split("\\s+");
+        final String command = tokens[0].toUpperCase(Locale.ROOT);
+
+        try {
+            return switch (command) {
+                case "PING" -> ok("PONG");
+                case "GET" -> handleGet(tokens);
+                case "LIST" -> handleList(tokens);
+                case "BORROW" -> handleBorrow(tokens);
+                case "RETURN" -> handleReturn(tokens);
+                case "HOLD" -> handleHold(tokens);
+                case "HOLDS" -> handleHolds(tokens);
+                case "OVERDUE" -> tokens.length == 1
+                    ? listing(loanInput.getOverdueLoans())
+                    : err(String.format(USAGE, "OVERDUE"));
+                case "REPLICATION" -> tokens.length == 1
+                    ? ok(String.valueOf(replicationInput.getReplicationStatus()))
+                    : err(String.format(USAGE, "REPLICATION"));
+                case "SNAPSHOT" -> tokens.length == 1
+                    ? ok(String.valueOf(snapshotInput.createSnapshot()))
+                    : err(String.format(USAGE, "SNAPSHOT"));
+                default -> err(String.format(UNKNOWN_COMMAND, tokens[0]));
+            };
+        } catch (NumberFormatException e) {
+            return err("Invalid number: " + e.getMessage());
+        } catch (Exception e) {
+            return err(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private String handleGet(final String[] tokens) {
+        if (tokens.length != 3) {
+            return err(String.format(USAGE, "GET BOOK|AUTHOR|COLLECTION <id>"));
+        }
+
+        final Long id = Long.parseLong(tokens[2]);
+        return switch (tokens[1].toUpperCase(Locale.ROOT)) {
+            case "BOOK" -> ok(String.valueOf(bookInput.getById(id)));
+            case "AUTHOR" -> ok(String.valueOf(authorInput.getById(id)));
+            case "COLLECTION" -> ok(String.valueOf(collectionInput.getById(id)));
+            default -> err(String.format(UNKNOWN_COMMAND, "GET " + tokens[1]));
+        };
+    }
+
+    private String handleList(final String[] tokens) {
+        if (tokens.length < 2 || tokens.length > 3 || !"BOOKS".equalsIgnoreCase(tokens[1])) {
+            return err(String.format(USAGE, "LIST BOOKS [<collectionId>]"));
+        }
+
+        final List<Book> books = tokens.length == 3
+            ? bookInput.getByCollectionId(Long.parseLong(tokens[2]))
+            : bookInput.getAll();
+
+        return listing(books);
+    }
+
+    private String handleBorrow(final String[] tokens) {
+        if (tokens.length != 2) {
+            return err(String.format(USAGE, "BORROW <id>"));
+        }
+
+        final Long id = Long.parseLong(tokens[1]);
+        bookInput.borrow(id);
+        return ok("Borrowed " + id);
+    }
+
+    private String handleReturn(final String[] tokens) {
+        if (tokens.length != 2) {
+            return err(String.format(USAGE, "RETURN <id>"));
+        }
+
+        final Long id = Long.parseLong(tokens[1]);
+        bookInput.returnBook(id);
+        return ok("Returned " + id);
+    }
+
+    private String handleHold(final String[] tokens) {
+        if (tokens.length < 3) {
+            return err(String.format(USAGE, "HOLD <id> <patron>"));
+        }
+
+        final Long id = Long.parseLong(tokens[1]);
+        final String patron = String.join(" ", Arrays.copyOfRange(tokens, 2, tokens.length));
+        final Hold hold = bookInput.placeHold(id, patron);
+        return ok(String.valueOf(hold));
+    }
+
+    private String handleHolds(final String[] tokens) {
+        if (tokens.length != 2) {
+            return err(String.format(USAGE, "HOLDS <id>"));
+        }
+
+        return listing(bookInput.getHolds(Long.parseLong(tokens[1])));
+    }
+
+    private static String listing(final List<?> items) {
+        final StringBuilder sb = new StringBuilder(OK).append(' ').append(items.size());
+        items.forEach(item -> sb.append('\n').append(item));
+        return sb.toString();
+    }
+
+    private static String ok(final String payload) {
+        return OK + " " + payload;
+    }
+
+    private static String err(final String message) {
+        return ERR + " " + message.replace('\n', ' ');
+    }
+}
@@ -0,0 +1,390 @@
+package com.github.gogoasac.infra.input.socket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking TCP adapter speaking the line protocol understood by {@link LineProtocolHandler}.
+ *
+ * <p>Threading model:
+ * - A single selector thread accepts connections and performs all socket reads
+ *   and writes, so idle connections cost a registered key and a small buffer,
+ *   not a thread.
+ * - Decoded request lines are executed on a small, fixed worker pool because the
+ *   input ports may block on file I/O.
+ *
+ * <p>Pipelining: a client may send any number of requests without waiting for
+ * the answers. Lines of one connection are queued and executed strictly in
+ * order by at most one worker at a time, so responses always come back in
+ * request order, while different connections are served in parallel. A
+ * connection stops being read while {@value #MAX_BACKLOG} of its requests are
+ * unanswered or their responses unsent, and is read again once the backlog
+ * is down to half, so a client that pipelines faster than it reads cannot
+ * grow the queues without bound.
+ *
+ * <p>A {@code QUIT} line is answered with {@code OK BYE}, and a line longer
+ * than {@value #MAX_LINE_LENGTH} bytes with an error; either way the
+ * connection is closed once every earlier response has been flushed.
+ */
+public final class LineProtocolServer implements AutoCloseable {
+    public static final int DEFAULT_WORKER_THREADS = 4;
+
+    private static final int READ_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+    private static final int MAX_BACKLOG = 1024;
+    private static final String LINE_TOO_LONG = LineProtocolHandler.ERR + " Line exceeds " + MAX_LINE_LENGTH + " bytes";
+    private static final String BYE = LineProtocolHandler.OK + " BYE";
+
+    private final LineProtocolHandler handler;
+    private final InetSocketAddress bindAddress;
+    private final int workerThreads;
+    private final Queue<Connection> pendingWrites;
+    private final Logger logger;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public LineProtocolServer(final LineProtocolHandler handler, final int port) {
+        this(handler, new InetSocketAddress(port), DEFAULT_WORKER_THREADS);
+    }
+
+    public LineProtocolServer(final LineProtocolHandler handler,
+                              final InetSocketAddress bindAddress,
+                              final int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("workerThreads must be positive");
+        }
+        this.handler = Objects.requireNonNull(handler, "handler");
+        this.bindAddress = Objects.requireNonNull(bindAddress, "bindAddress");
+        this.workerThreads = workerThreads;
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.logger = Logger.getLogger(this.getClass().getName());
+    }
+
+    /**
+     * Bind the listening socket and start the selector thread. Returns once the
+     * server accepts connections.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("Server already started.");
+        }
+
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(bindAddress, 1024);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        final AtomicInteger workerCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            final Thread t = new Thread(r, "line-protocol-worker-" + workerCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.running = true;
+        this.selectorThread = new Thread(this::selectLoop, "line-protocol-selector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    /**
+     * The port the server is bound to; useful when started on port 0.
+     */
+    public int getPort() {
+        if (serverChannel == null) {
+            throw new IllegalStateException("Server not started.");
+        }
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Block the calling thread until the server is closed.
+     */
+    public void awaitTermination() throws InterruptedException {
+        final Thread thread = this.selectorThread;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        workers.shutdownNow();
+        closeQuietly(serverChannel);
+        selector.keys().forEach(key -> closeQuietly(key.channel()));
+        closeQuietly(selector);
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                enableQueuedWrites();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                this.logger.severe("Selector loop failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleKey(final SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+
+            final Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private void enableQueuedWrites() {
+        Connection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            final SelectionKey key = connection.key;
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private static void closeQuietly(final AutoCloseable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (Exception ignored) {
+            // best effort during shutdown
+        }
+    }
+
+    /**
+     * A request line to handle or, with a {@code closingResponse}, the end of
+     * the connection: that response is sent after every earlier one, then the
+     * connection is closed.
+     */
+    private record Command(String line, String closingResponse) {
+        static Command request(final String line) {
+            return new Command(line, null);
+        }
+
+        static Command closing(final String response) {
+            return new Command(null, response);
+        }
+    }
+
+    /**
+     * Per-connection state. Reads and writes happen on the selector thread only;
+     * the command queue is shared with the worker executing this connection.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer;
+        private final ByteArrayOutputStream partialLine;
+        private final ArrayDeque<Command> pendingCommands;
+        private final Queue<ByteBuffer> outbound;
+
+        private boolean executing;
+        private volatile boolean closeAfterFlush;
+        // selector thread only: requests read but not yet answered and flushed
+        private int backlog;
+        private boolean inputEnded;
+
+        private Connection(final SocketChannel channel, final SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.partialLine = new ByteArrayOutputStream();
+            this.pendingCommands = new ArrayDeque<>();
+            this.outbound = new ConcurrentLinkedQueue<>();
+        }
+
+        private void read() throws IOException {
+            final int read = channel.read(readBuffer);
+            if (read < 0) {
+                // peer finished sending; answer what is queued, then close
+                endInput(BYE);
+                return;
+            }
+
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                final byte b = readBuffer.get();
+                if (b == '\n') {
+                    final String line = partialLine.toString(StandardCharsets.UTF_8).strip();
+                    partialLine.reset();
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (LineProtocolHandler.QUIT.equalsIgnoreCase(line)) {
+                        // anything after QUIT is ignored
+                        endInput(BYE);
+                        break;
+                    }
+                    enqueue(Command.request(line));
+                } else if (partialLine.size() >= MAX_LINE_LENGTH) {
+                    endInput(LINE_TOO_LONG);
+                    break;
+                } else {
+                    partialLine.write(b);
+                }
+            }
+            readBuffer.clear();
+            // the rest of this buffer is already queued, so the backlog can exceed the limit by one read
+            if (backlog >= MAX_BACKLOG && !inputEnded) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+
+        private void endInput(final String closingResponse) {
+            inputEnded = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            enqueue(Command.closing(closingResponse));
+        }
+
+        private void enqueue(final Command command) {
+            backlog++;
+            synchronized (this) {
+                pendingCommands.add(command);
+                if (executing) {
+                    return;
+                }
+                executing = true;
+            }
+            workers.execute(this::drain);
+        }
+
+        /**
+         * Run every queued command of this connection in order. Only one drain task
+         * per connection is active at a time, which keeps pipelined responses ordered.
+         */
+        private void drain() {
+            while (true) {
+                final Command command;
+                synchronized (this) {
+                    command = pendingCommands.poll();
+                    if (command == null) {
+                        executing = false;
+                        return;
+                    }
+                }
+
+                if (command.closingResponse() != null) {
+                    respond(command.closingResponse(), true);
+                    synchronized (this) {
+                        pendingCommands.clear();
+                        executing = false;
+                    }
+                    return;
+                }
+
+                respond(handler.handle(command.line()), false);
+            }
+        }
+
+        private void respond(final String response, final boolean closeConnection) {
+            outbound.add(ByteBuffer.wrap((response + "\n").getBytes(StandardCharsets.UTF_8)));
+            if (closeConnection) {
+                // set only after the final response is queued: write() reads the flag before it drains
+                closeAfterFlush = true;
+            }
+            pendingWrites.add(this);
+            selector.wakeup();
+        }
+
+        private void write() throws IOException {
+            // read before draining, so a set flag means the final response is already queued
+            final boolean closing = closeAfterFlush;
+            ByteBuffer buffer;
+            while ((buffer = outbound.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                outbound.poll();
+                backlog--;
+            }
+            if (backlog <= MAX_BACKLOG / 2 && !inputEnded) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closing && outbound.isEmpty()) {
+                close();
+            }
+        }
+
+        private void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
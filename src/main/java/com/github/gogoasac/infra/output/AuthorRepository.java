@@ -2,6 +2,7 @@ package com.github.gogoasac.infra.output;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.infra.output.base.AbstractFileRepository;
 
@@ -16,15 +17,15 @@ import java.util.Optional;
  * used by application services and tests. File IO and id generation are handled
  * by the base class.
  */
-public class AuthorRepository extends AbstractFileRepository<Author> implements AuthorPersistence {
+public class AuthorRepository extends AbstractFileRepository<Author> implements AuthorPersistence, BatchStore<Author> {
     private static final String FILE_PATH = "Authors.json";
 
     public AuthorRepository() {
-        super(FILE_PATH, new TypeReference<>() {}, Author::id);
+        super(FILE_PATH, new AuthorList(), Author::id);
     }
 
     public AuthorRepository(final String filePath) {
-        super(filePath, new TypeReference<>() {}, Author::id);
+        super(filePath, new AuthorList(), Author::id);
     }
 
     @Override
@@ -42,8 +43,36 @@ public class AuthorRepository extends AbstractFileRepository<Author> implements
         return super.findAll();
     }
 
+    @Override
+    public long reserveId() {
+        return super.reserveId();
+    }
+
+    @Override
+    public List<Author> insertAll(final List<Author> authors) {
+        return super.insertAll(authors);
+    }
+
+    @Override
+    public long dataVersion() {
+        return super.modificationCount();
+    }
+
+    @Override
+    public Optional<PersistenceSnapshot<Author>> snapshot() {
+        return Optional.of(super.committedSnapshot());
+    }
+
+    @Override
+    public PersistenceSnapshot<Author> committed() {
+        return super.committedSnapshot();
+    }
+
     @Override
     protected Author setId(Author author, Long id) {
         return new Author(id, author.name());
     }
+
+    private static final class AuthorList extends TypeReference<List<Author>> {
+    }
 }
@@ -0,0 +1,33 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+
+import java.util.List;
+
+/**
+ * Repository side of {@link FileTransactionManager}: ids handed out before
+ * the entities are stored, many entities stored with one write, and the
+ * committed state for {@link FileTransactionManager#snapshot()}.
+ *
+ * @param <T> entity type
+ */
+public interface BatchStore<T> {
+    /**
+     * Next id of this store, reserved for an entity that is not stored yet.
+     */
+    long reserveId();
+
+    /**
+     * Store entities that already carry their ids in one write. Ids that are
+     * already stored are skipped, so replaying a batch is harmless.
+     *
+     * @return the entities that were stored
+     */
+    List<T> insertAll(List<T> entities);
+
+    /**
+     * Everything this store holds at one committed version, as offered by the
+     * store's persistence port.
+     */
+    PersistenceSnapshot<T> committed();
+}
@@ -0,0 +1,92 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.infra.output.base.AbstractFileRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * File repository of books whose committed list is a {@link BookTable}.
+ *
+ * <p>Writes build the next table from the current one's columns and only
+ * convert the books being written; lookups scan the columns and only build the
+ * books they return. {@link #findAll()} returns the committed, immutable view
+ * itself.
+ */
+abstract class BookFileRepository extends AbstractFileRepository<Book> {
+    BookFileRepository(final String filePath) {
+        super(filePath, new BookRepository.BookList(), Book::id);
+    }
+
+    @Override
+    protected Optional<Book> findById(final Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        final BookTable table = table();
+        final int row = table.rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(table.book(row));
+    }
+
+    @Override
+    protected List<Book> findAll() {
+        return committedSnapshot().entities();
+    }
+
+    BookTable table() {
+        return BookTable.of(committedSnapshot().entities());
+    }
+
+    @Override
+    protected List<Book> compact(final List<Book> books) {
+        return BookTable.of(books).asList();
+    }
+
+    @Override
+    protected List<Book> appended(final List<Book> committed, final List<Book> added) {
+        return BookTable.of(committed).withAppended(added).asList();
+    }
+
+    @Override
+    protected List<Book> replaced(final List<Book> committed, final int index, final Book book) {
+        return BookTable.of(committed).withRow(index, book).asList();
+    }
+
+    @Override
+    protected List<Book> removed(final List<Book> committed, final int index) {
+        return BookTable.of(committed).withoutRow(index).asList();
+    }
+
+    @Override
+    protected int indexOf(final List<Book> committed, final Long id) {
+        return BookTable.of(committed).rowOf(id);
+    }
+
+    @Override
+    protected LongStream ids(final List<Book> committed) {
+        final BookTable table = BookTable.of(committed);
+        return IntStream.range(0, table.size()).mapToLong(table::id);
+    }
+
+    @Override
+    protected Book setId(final Book book, final Long id) {
+        return withId(book, id);
+    }
+
+    static Book withId(final Book book, final Long id) {
+        return new Book(
+            id,
+            book.title(),
+            book.authorId(),
+            book.collectionId(),
+            book.publicationYear(),
+            book.borrowedAt(),
+            book.isBorrowed(),
+            book.version(),
+            book.holdId()
+        );
+    }
+}
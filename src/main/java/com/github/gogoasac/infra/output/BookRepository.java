@@ -2,11 +2,17 @@ package com.github.gogoasac.infra.output;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
 import com.github.gogoasac.domain.entity.Book;
-import com.github.gogoasac.infra.output.base.AbstractFileRepository;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * File-backed repository for Book entities.
@@ -14,27 +20,63 @@ import java.util.Optional;
  * <p>Persists {@link Book} records into a JSON file and provides basic CRUD
  * operations required by the {@link BookPersistence} port. The repository
  * guarantees id assignment on save and offers an {@code updateBook} operation
- * that atomically replaces an existing record by id.
+ * that atomically replaces an existing record by id, plus a compare-and-set
+ * {@code updateIfVersion} for optimistic concurrency control. Both increment
+ * the stored version.
+ *
+ * <p>Change journal: every add or update bumps the change sequence (the base
+ * class modification count, so it also versions {@link #snapshot()}) and
+ * records the affected collection ids in a bounded journal, so readers can
+ * ask which collections changed since a given sequence without scanning the
+ * books. Only the most recent {@value #JOURNAL_CAPACITY} entries are kept;
+ * older history is reported as unavailable. A batch stored through
+ * {@link #insertAll(List)} is one change.
  *
  * <p>Notes:
  * - The repository preserves the full Book shape (including borrowing state).
+ * - In memory the committed books are held as a {@link BookTable}, one
+ *   primitive column per field (see {@link BookFileRepository}).
+ *   {@link #findById(Long)} and {@link #findByCollectionId(Long)} scan the
+ *   columns and only build {@code Book}s for the rows they return, and
+ *   {@link #findAll()} returns the immutable committed view.
  * - JSON (de)serialization supports Java time types via the configured mapper
  *   in {@link com.github.gogoasac.infra.output.base.AbstractFileRepository}.
  */
-public class BookRepository extends AbstractFileRepository<Book> implements BookPersistence {
+public class BookRepository extends BookFileRepository implements BookPersistence, BatchStore<Book> {
     private static final String FILE_PATH = "Books.json";
+    static final int JOURNAL_CAPACITY = 4_096;
+
+    // guarded by this, the same monitor that serializes the base class mutations
+    private final ArrayDeque<Change> journal = new ArrayDeque<>();
+    private long truncatedThrough;
 
     public BookRepository() {
-        super(FILE_PATH, new TypeReference<>() {}, Book::id);
+        super(FILE_PATH);
     }
 
     public BookRepository(final String filePath) {
-        super(filePath, new TypeReference<>() {}, Book::id);
+        super(filePath);
+    }
+
+    @Override
+    public synchronized Book addBook(Book book) {
+        final Book saved = super.save(book);
+        recordChange(List.of(saved.collectionId()));
+        return saved;
+    }
+
+    @Override
+    public long reserveId() {
+        return super.reserveId();
     }
 
     @Override
-    public Book addBook(Book book) {
-        return super.save(book);
+    public synchronized List<Book> insertAll(final List<Book> books) {
+        final List<Book> inserted = super.insertAll(books);
+        if (!inserted.isEmpty()) {
+            recordChange(inserted.stream().map(Book::collectionId).toList());
+        }
+        return inserted;
     }
 
     @Override
@@ -43,21 +85,13 @@ public class BookRepository extends AbstractFileRepository<Book> implements Book
     }
 
     @Override
-    public List<Book> findAll() {
-        return super.findAll();
+    public List<Book> findByCollectionId(final Long collectionId) {
+        return collectionId == null ? List.of() : table().booksOf(collectionId);
     }
 
     @Override
-    protected Book setId(Book book, Long id) {
-        return new Book(
-            id,
-            book.title(),
-            book.authorId(),
-            book.collectionId(),
-            book.publicationYear(),
-            book.borrowedAt(),
-            book.isBorrowed()
-        );
+    public List<Book> findAll() {
+        return super.findAll();
     }
 
     // --- new: update existing book ---
@@ -66,11 +100,99 @@ public class BookRepository extends AbstractFileRepository<Book> implements Book
      * Returns Optional.empty() when no such book exists.
      */
     public Optional<Book> updateBook(final Book book) {
+        return replaceBook(book).map(Replacement::stored);
+    }
+
+    @Override
+    public Optional<Book> updateIfVersion(final Book book, final long expectedVersion) {
+        return replaceIfVersion(book, expectedVersion).map(Replacement::stored);
+    }
+
+    @Override
+    public synchronized Optional<Replacement> replaceBook(final Book book) {
         if (book == null || book.id() == null) {
             throw new IllegalArgumentException("Book and its id must be provided for update.");
         }
 
         // Delegate to the generic update; updater returns the provided book instance (setId will enforce id)
-        return super.updateById(book.id(), existing -> book);
+        final List<Book> replaced = new ArrayList<>(1);
+        final Optional<Book> updated = super.updateById(book.id(), existing -> {
+            replaced.add(existing);
+            return book.withVersion(existing.version() + 1);
+        });
+        return updated.map(stored -> recordChange(replaced.get(0), stored));
+    }
+
+    @Override
+    public synchronized Optional<Replacement> replaceIfVersion(final Book book, final long expectedVersion) {
+        if (book == null || book.id() == null) {
+            throw new IllegalArgumentException("Book and its id must be provided for update.");
+        }
+
+        final List<Book> replaced = new ArrayList<>(1);
+        final Optional<Book> updated = super.compareAndUpdateById(
+            book.id(),
+            existing -> existing.version() == expectedVersion,
+            existing -> {
+                replaced.add(existing);
+                return book.withVersion(expectedVersion + 1);
+            }
+        );
+        return updated.map(stored -> recordChange(replaced.get(0), stored));
+    }
+
+    @Override
+    public long changeSequence() {
+        return super.modificationCount();
+    }
+
+    @Override
+    public Optional<PersistenceSnapshot<Book>> snapshot() {
+        return Optional.of(super.committedSnapshot());
+    }
+
+    @Override
+    public PersistenceSnapshot<Book> committed() {
+        return super.committedSnapshot();
+    }
+
+    @Override
+    public synchronized Optional<Set<Long>> collectionsChangedSince(final long sequence) {
+        if (sequence < truncatedThrough || sequence > changeSequence()) {
+            return Optional.empty();
+        }
+
+        final Set<Long> collectionIds = new HashSet<>();
+        final Iterator<Change> newestFirst = journal.descendingIterator();
+        while (newestFirst.hasNext()) {
+            final Change change = newestFirst.next();
+            if (change.sequence() <= sequence) {
+                break;
+            }
+            collectionIds.add(change.collectionId());
+        }
+        return Optional.of(collectionIds);
+    }
+
+    private Replacement recordChange(final Book replaced, final Book stored) {
+        recordChange(Arrays.asList(replaced.collectionId(), stored.collectionId()));
+        return new Replacement(replaced, stored);
+    }
+
+    // runs under the lock right after the write, whose modification count is the sequence
+    private void recordChange(final List<Long> collectionIds) {
+        final long sequence = changeSequence();
+        collectionIds.stream().distinct().forEach(id -> journal.addLast(new Change(sequence, id)));
+        while (journal.size() > JOURNAL_CAPACITY) {
+            truncatedThrough = journal.removeFirst().sequence();
+        }
+    }
+
+    private record Change(long sequence, Long collectionId) {}
+
+    /**
+     * Named instead of anonymous so the native-image reflection metadata can list it.
+     */
+    static final class BookList extends TypeReference<List<Book>> {
     }
 }
@@ -0,0 +1,326 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.BookRows;
+import com.github.gogoasac.domain.entity.Book;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Compact, immutable, column-per-field form of a list of {@link Book}s.
+ *
+ * <p>A {@code Book} record carries boxed {@code Long}/{@code Integer} fields
+ * and a {@code LocalDate}, i.e. up to five objects per book besides its title.
+ * Here every field is one primitive array indexed by row:
+ * - ids, hold ids and versions as {@code long}, the publication year as {@code int},
+ * - the borrow date as an epoch-day {@code int},
+ * - nulls as the sentinels {@link #NO_ID}, {@link #NO_YEAR} and {@link #NO_DATE},
+ * - titles as references to the original strings.
+ *
+ * <p>{@link #asList()} is the boundary to the ports: an unmodifiable
+ * {@link BookRows} over the columns that creates a {@code Book} only for the
+ * row being read, so nothing is copied up front. {@link #of(List)} on such a
+ * list returns the same table. Hot paths that only need a few fields use the
+ * primitive accessors and never create a {@code Book}.
+ *
+ * <p>A table never changes. A write builds the next table with
+ * {@link #withAppended(List)}, {@link #withRow(int, Book)} or
+ * {@link #withoutRow(int)}, which copy the columns and convert only the books
+ * being written.
+ */
+final class BookTable {
+    public static final long NO_ID = Long.MIN_VALUE;
+    public static final int NO_YEAR = Integer.MIN_VALUE;
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final long[] ids;
+    private final String[] titles;
+    private final long[] authorIds;
+    private final long[] collectionIds;
+    private final int[] publicationYears;
+    private final int[] borrowedEpochDays;
+    private final boolean[] borrowed;
+    private final long[] versions;
+    private final long[] holdIds;
+    private final Rows rows;
+
+    private BookTable(final int size) {
+        this.ids = new long[size];
+        this.titles = new String[size];
+        this.authorIds = new long[size];
+        this.collectionIds = new long[size];
+        this.publicationYears = new int[size];
+        this.borrowedEpochDays = new int[size];
+        this.borrowed = new boolean[size];
+        this.versions = new long[size];
+        this.holdIds = new long[size];
+        this.rows = new Rows(this);
+    }
+
+    /**
+     * Table holding {@code books} in order; returns the backing table when
+     * {@code books} is already a {@link #asList()} view.
+     */
+    public static BookTable of(final List<Book> books) {
+        if (books instanceof Rows view) {
+            return view.table;
+        }
+        final BookTable table = new BookTable(books.size());
+        int row = 0;
+        for (final Book book : books) {
+            table.set(row++, book);
+        }
+        return table;
+    }
+
+    /**
+     * One table holding the rows of {@code parts} one after the other. Copies
+     * the columns; no {@code Book} is built.
+     */
+    public static BookTable concat(final List<BookTable> parts) {
+        final BookTable table = new BookTable(parts.stream().mapToInt(BookTable::size).sum());
+        int offset = 0;
+        for (final BookTable part : parts) {
+            part.copyRows(0, table, offset, part.size());
+            offset += part.size();
+        }
+        return table;
+    }
+
+    /**
+     * This table followed by {@code books}.
+     */
+    public BookTable withAppended(final List<Book> books) {
+        final BookTable table = new BookTable(size() + books.size());
+        copyRows(0, table, 0, size());
+        int row = size();
+        for (final Book book : books) {
+            table.set(row++, book);
+        }
+        return table;
+    }
+
+    /**
+     * This table with {@code row} replaced by {@code book}.
+     */
+    public BookTable withRow(final int row, final Book book) {
+        final BookTable table = new BookTable(size());
+        copyRows(0, table, 0, size());
+        table.set(row, book);
+        return table;
+    }
+
+    /**
+     * This table without {@code row}; the rows after it move up by one.
+     */
+    public BookTable withoutRow(final int row) {
+        final BookTable table = new BookTable(size() - 1);
+        copyRows(0, table, 0, row);
+        copyRows(row + 1, table, row, size() - row - 1);
+        return table;
+    }
+
+    private void copyRows(final int from, final BookTable target, final int to, final int count) {
+        System.arraycopy(ids, from, target.ids, to, count);
+        System.arraycopy(titles, from, target.titles, to, count);
+        System.arraycopy(authorIds, from, target.authorIds, to, count);
+        System.arraycopy(collectionIds, from, target.collectionIds, to, count);
+        System.arraycopy(publicationYears, from, target.publicationYears, to, count);
+        System.arraycopy(borrowedEpochDays, from, target.borrowedEpochDays, to, count);
+        System.arraycopy(borrowed, from, target.borrowed, to, count);
+        System.arraycopy(versions, from, target.versions, to, count);
+        System.arraycopy(holdIds, from, target.holdIds, to, count);
+    }
+
+    private void set(final int row, final Book book) {
+        ids[row] = toLong(book.id());
+        titles[row] = book.title();
+        authorIds[row] = toLong(book.authorId());
+        collectionIds[row] = toLong(book.collectionId());
+        publicationYears[row] = book.publicationYear() == null ? NO_YEAR : book.publicationYear();
+        borrowedEpochDays[row] = book.borrowedAt() == null ? NO_DATE : Math.toIntExact(book.borrowedAt().toEpochDay());
+        borrowed[row] = book.isBorrowed();
+        versions[row] = book.version();
+        holdIds[row] = toLong(book.holdId());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(final int row) {
+        return ids[row];
+    }
+
+    public String title(final int row) {
+        return titles[row];
+    }
+
+    public long authorId(final int row) {
+        return authorIds[row];
+    }
+
+    public long collectionId(final int row) {
+        return collectionIds[row];
+    }
+
+    public int publicationYear(final int row) {
+        return publicationYears[row];
+    }
+
+    public int borrowedEpochDay(final int row) {
+        return borrowedEpochDays[row];
+    }
+
+    public boolean isBorrowed(final int row) {
+        return borrowed[row];
+    }
+
+    public long version(final int row) {
+        return versions[row];
+    }
+
+    /**
+     * The book stored in {@code row}, rebuilt from the columns.
+     */
+    public Book book(final int row) {
+        final int epochDay = borrowedEpochDays[row];
+        return new Book(
+            toBoxed(ids[row]),
+            titles[row],
+            toBoxed(authorIds[row]),
+            toBoxed(collectionIds[row]),
+            publicationYears[row] == NO_YEAR ? null : publicationYears[row],
+            epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay),
+            borrowed[row],
+            versions[row],
+            toBoxed(holdIds[row])
+        );
+    }
+
+    /**
+     * First row whose id is {@code id}, or -1.
+     */
+    public int rowOf(final long id) {
+        for (int row = 0; row < ids.length; row++) {
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Unmodifiable view of all rows as books.
+     */
+    public List<Book> asList() {
+        return rows;
+    }
+
+    /**
+     * Books of the given collection, in row order.
+     */
+    public List<Book> booksOf(final long collectionId) {
+        int count = 0;
+        for (final long id : collectionIds) {
+            if (id == collectionId) {
+                count++;
+            }
+        }
+        final int[] selected = new int[count];
+        int next = 0;
+        for (int row = 0; row < collectionIds.length && next < count; row++) {
+            if (collectionIds[row] == collectionId) {
+                selected[next++] = row;
+            }
+        }
+        return new Subset(this, selected, count);
+    }
+
+    /**
+     * Books grouped by collection id (null for books without one), each group
+     * in row order. Groups are views over row numbers; only the keys are boxed.
+     */
+    public Map<Long, List<Book>> groupByCollection() {
+        // first pass sizes every group, the second fills in the row numbers
+        final Map<Long, int[]> sizes = new HashMap<>();
+        for (final long id : collectionIds) {
+            sizes.computeIfAbsent(toBoxed(id), key -> new int[1])[0]++;
+        }
+        final Map<Long, Subset> groups = new HashMap<>(sizes.size() * 2);
+        sizes.forEach((id, size) -> groups.put(id, new Subset(this, new int[size[0]])));
+        for (int row = 0; row < collectionIds.length; row++) {
+            groups.get(toBoxed(collectionIds[row])).append(row);
+        }
+        return new HashMap<>(groups);
+    }
+
+    private static long toLong(final Long value) {
+        return value == null ? NO_ID : value;
+    }
+
+    private static Long toBoxed(final long value) {
+        return value == NO_ID ? null : value;
+    }
+
+    /**
+     * The {@link BookTable#asList()} view.
+     */
+    private static final class Rows extends AbstractList<Book> implements BookRows, RandomAccess {
+        private final BookTable table;
+
+        private Rows(final BookTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public Map<Long, List<Book>> groupByCollection() {
+            return table.groupByCollection();
+        }
+
+        @Override
+        public Book get(final int index) {
+            return table.book(index);
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+    }
+
+    private static final class Subset extends AbstractList<Book> implements RandomAccess {
+        private final BookTable table;
+        private final int[] rows;
+        private int filled;
+
+        private Subset(final BookTable table, final int[] rows) {
+            this(table, rows, 0);
+        }
+
+        private Subset(final BookTable table, final int[] rows, final int filled) {
+            this.table = table;
+            this.rows = rows;
+            this.filled = filled;
+        }
+
+        // only while the subset is being built, before it is handed out
+        private void append(final int row) {
+            rows[filled++] = row;
+        }
+
+        @Override
+        public Book get(final int index) {
+            return table.book(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+/**
+ * The authors, collections and books at one point in time, as taken by
+ * {@link FileTransactionManager#snapshot()}.
+ */
+public record CatalogSnapshot(PersistenceSnapshot<Author> authors,
+                              PersistenceSnapshot<Collection> collections,
+                              PersistenceSnapshot<Book> books) {
+}
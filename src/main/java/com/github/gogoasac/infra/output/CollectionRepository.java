@@ -2,6 +2,7 @@ package com.github.gogoasac.infra.output;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
 import com.github.gogoasac.domain.entity.Collection;
 import com.github.gogoasac.infra.output.base.AbstractFileRepository;
 
@@ -20,15 +21,16 @@ import java.util.Optional;
  * - Persistence concerns such as file paths and id generation are handled by
  *   the base class; business validation belongs in the service layer.
  */
-public class CollectionRepository extends AbstractFileRepository<Collection> implements CollectionPersistence {
+public class CollectionRepository extends AbstractFileRepository<Collection>
+    implements CollectionPersistence, BatchStore<Collection> {
     private static final String FILE_PATH = "Collections.json";
 
     public CollectionRepository() {
-        super(FILE_PATH, new TypeReference<>() {}, Collection::id);
+        super(FILE_PATH, new CollectionList(), Collection::id);
     }
 
     public CollectionRepository(final String filePath) {
-        super(filePath, new TypeReference<>() {}, Collection::id);
+        super(filePath, new CollectionList(), Collection::id);
     }
 
     @Override
@@ -46,8 +48,36 @@ public class CollectionRepository extends AbstractFileRepository<Collection> imp
         return super.findAll();
     }
 
+    @Override
+    public long reserveId() {
+        return super.reserveId();
+    }
+
+    @Override
+    public List<Collection> insertAll(final List<Collection> collections) {
+        return super.insertAll(collections);
+    }
+
+    @Override
+    public long dataVersion() {
+        return super.modificationCount();
+    }
+
+    @Override
+    public Optional<PersistenceSnapshot<Collection>> snapshot() {
+        return Optional.of(super.committedSnapshot());
+    }
+
+    @Override
+    public PersistenceSnapshot<Collection> committed() {
+        return super.committedSnapshot();
+    }
+
     @Override
     protected Collection setId(Collection collection, Long id) {
         return new Collection(id, collection.name());
     }
+
+    private static final class CollectionList extends TypeReference<List<Collection>> {
+    }
 }
@@ -0,0 +1,288 @@
+package com.github.gogoasac.infra.output;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * {@link TransactionalPersistence} over the file-backed author, collection and
+ * book repositories, made atomic by a write-ahead log.
+ *
+ * <p>An add to a unit of work takes its id from the repository right away
+ * ({@link BatchStore#reserveId()}) and keeps the entity in memory. A commit
+ * then:
+ * - appends everything staged as one JSON line to the log
+ *   ({@value #DEFAULT_LOG}) and forces it to disk; this is the commit point,
+ * - stores the authors, then the collections, then the books, each
+ *   repository with one write ({@link BatchStore#insertAll(List)}), so a
+ *   reader never sees a book before its author and collection,
+ * - empties the log.
+ *
+ * <p>A commit of n entities therefore costs one forced append and one write
+ * per repository instead of n file rewrites. Opening the manager replays a log
+ * that was not emptied, i.e. a process that stopped between the first and the
+ * last step; entities already stored are skipped. A last line without its
+ * newline was never committed and is dropped.
+ *
+ * <p>When storing a logged commit fails, the commit reports the failure but
+ * its record stays in the log, and the log is not emptied until it is stored:
+ * the next commit replays the whole log instead of only its own record, and
+ * so does the next start.
+ *
+ * <p>Commits are serialized on the manager. Single writes through the ports do
+ * not wait for them; both take ids from the same allocators, so ids never
+ * collide. Readers may see a commit's authors a moment before its books.
+ *
+ * <p>{@link #snapshot()} takes the committed state of all three repositories
+ * between two commits, for online backups.
+ */
+public final class FileTransactionManager implements TransactionalPersistence, Closeable {
+    public static final String DEFAULT_LOG = "Transactions.wal";
+
+    private static final ObjectReader RECORD_READER = JsonSerialization.shared().reader(LogRecord.class);
+    private static final ObjectWriter RECORD_WRITER = JsonSerialization.shared().writer(LogRecord.class);
+
+    private final Logger logger = Logger.getLogger(FileTransactionManager.class.getName());
+    private final BatchStore<Author> authors;
+    private final BatchStore<Collection> collections;
+    private final BatchStore<Book> books;
+    // guarded by this
+    private final FileChannel log;
+    // guarded by this; set while the log holds a commit whose apply failed
+    private boolean unapplied;
+
+    public FileTransactionManager(final BatchStore<Author> authors,
+                                  final BatchStore<Collection> collections,
+                                  final BatchStore<Book> books) {
+        this(DEFAULT_LOG, authors, collections, books);
+    }
+
+    public FileTransactionManager(final String logPath,
+                                  final BatchStore<Author> authors,
+                                  final BatchStore<Collection> collections,
+                                  final BatchStore<Book> books) {
+        this.authors = authors;
+        this.collections = collections;
+        this.books = books;
+        try {
+            this.log = FileChannel.open(Path.of(logPath),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the transaction log " + logPath, e);
+        }
+    }
+
+    @Override
+    public UnitOfWork begin() {
+        return new FileUnitOfWork();
+    }
+
+    /**
+     * Point-in-time copy of the authors, collections and books, consistent
+     * across the three repositories.
+     *
+     * <p>Holding the manager's lock keeps commits out, so the copy contains
+     * either all or nothing of every unit of work. Single writes are not
+     * stopped: each repository hands out its last committed copy without
+     * locking, so the lock is only held for three volatile reads. Books are
+     * read first, and a book is only ever stored after its author and
+     * collection, so every book in the copy finds them in the later reads.
+     */
+    public synchronized CatalogSnapshot snapshot() {
+        final PersistenceSnapshot<Book> bookSnapshot = books.committed();
+        final PersistenceSnapshot<Collection> collectionSnapshot = collections.committed();
+        final PersistenceSnapshot<Author> authorSnapshot = authors.committed();
+        return new CatalogSnapshot(authorSnapshot, collectionSnapshot, bookSnapshot);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private synchronized UnitOfWork.Committed commit(final LogRecord record) {
+        if (record.isEmpty()) {
+            return record.committed();
+        }
+        append(record);
+        try {
+            if (unapplied) {
+                // an earlier commit is still only in the log; everything logged goes in, in order
+                replay();
+            } else {
+                apply(record);
+            }
+        } catch (RuntimeException e) {
+            unapplied = true;
+            throw e;
+        }
+        unapplied = false;
+        checkpoint();
+        return record.committed();
+    }
+
+    private void append(final LogRecord record) {
+        long start = -1L;
+        try {
+            final byte[] json = RECORD_WRITER.writeValueAsBytes(record);
+            final ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            start = log.size();
+            long position = start;
+            while (line.hasRemaining()) {
+                position += log.write(line, position);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            discardFrom(start);
+            throw new UncheckedIOException("Failed to write the transaction log", e);
+        }
+    }
+
+    // a partly written line would swallow the next record appended after it
+    private void discardFrom(final long start) {
+        if (start < 0L) {
+            return;
+        }
+        try {
+            log.truncate(start);
+        } catch (IOException e) {
+            logger.warning("Failed to drop a partly written transaction: " + e.getMessage());
+        }
+    }
+
+    private void apply(final LogRecord record) {
+        authors.insertAll(record.authors());
+        collections.insertAll(record.collections());
+        books.insertAll(record.books());
+    }
+
+    // everything logged is stored; a lost truncation only means a harmless replay
+    private void checkpoint() {
+        try {
+            log.truncate(0L);
+        } catch (IOException e) {
+            logger.warning("Failed to empty the transaction log: " + e.getMessage());
+        }
+    }
+
+    private void recover() throws IOException {
+        if (log.size() == 0L) {
+            return;
+        }
+        final int replayed = replayLog();
+        logger.info("Replayed " + replayed + " transactions from the log");
+        checkpoint();
+    }
+
+    // applies every complete line of the log; stored entities are skipped, so lines may repeat
+    private int replay() {
+        try {
+            return replayLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the transaction log", e);
+        }
+    }
+
+    private int replayLog() throws IOException {
+        final long size = log.size();
+        final ByteBuffer content = ByteBuffer.allocate(Math.toIntExact(size));
+        long position = 0L;
+        while (content.hasRemaining()) {
+            final int read = log.read(content, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        final byte[] bytes = content.array();
+        int lineStart = 0;
+        int replayed = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                final LogRecord record = RECORD_READER.readValue(bytes, lineStart, i - lineStart);
+                apply(record);
+                replayed++;
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < bytes.length) {
+            logger.warning("Dropping an incomplete transaction at the end of the log");
+        }
+        return replayed;
+    }
+
+    /**
+     * One committed unit of work as written to the log.
+     */
+    record LogRecord(List<Author> authors, List<Collection> collections, List<Book> books) {
+        boolean isEmpty() {
+            return authors.isEmpty() && collections.isEmpty() && books.isEmpty();
+        }
+
+        UnitOfWork.Committed committed() {
+            return new UnitOfWork.Committed(authors, collections, books);
+        }
+    }
+
+    private final class FileUnitOfWork implements UnitOfWork {
+        private final List<Author> stagedAuthors = new ArrayList<>();
+        private final List<Collection> stagedCollections = new ArrayList<>();
+        private final List<Book> stagedBooks = new ArrayList<>();
+        private boolean committed;
+
+        @Override
+        public Author addAuthor(final Author author) {
+            requireOpen();
+            final Author numbered = new Author(authors.reserveId(), author.name());
+            stagedAuthors.add(numbered);
+            return numbered;
+        }
+
+        @Override
+        public Collection addCollection(final Collection collection) {
+            requireOpen();
+            final Collection numbered = new Collection(collections.reserveId(), collection.name());
+            stagedCollections.add(numbered);
+            return numbered;
+        }
+
+        @Override
+        public Book addBook(final Book book) {
+            requireOpen();
+            final Book numbered = BookFileRepository.withId(book, books.reserveId());
+            stagedBooks.add(numbered);
+            return numbered;
+        }
+
+        @Override
+        public Committed commit() {
+            requireOpen();
+            committed = true;
+            return FileTransactionManager.this.commit(new LogRecord(stagedAuthors, stagedCollections, stagedBooks));
+        }
+
+        private void requireOpen() {
+            if (committed) {
+                throw new IllegalStateException("Unit of work was already committed.");
+            }
+        }
+    }
+}
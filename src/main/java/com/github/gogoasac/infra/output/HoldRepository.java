@@ -0,0 +1,276 @@
+package com.github.gogoasac.infra.output;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.gogoasac.application.output.HoldPersistence;
+import com.github.gogoasac.domain.entity.Hold;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Append-only, file-backed store for hold queues.
+ *
+ * <p>Unlike the JSON array repositories, which rewrite the whole file on every
+ * change, every mutation here appends a single JSON line to the log:
+ * {@code ENQUEUE} carries the full hold, {@code DEQUEUE} just the ids. On startup
+ * the log is replayed into an in-memory index of one {@link ArrayDeque} per book,
+ * so enqueue, peek and dequeue are O(1) and never touch other books' queues.
+ *
+ * <p>When the log holds mostly dequeued entries at startup it is compacted: the
+ * live holds are rewritten to a fresh log that replaces the old one atomically.
+ * The compacted log starts with a {@code MAXID} entry carrying the highest id
+ * ever issued, so ids of served holds, which open loans may still record, are
+ * never handed out again.
+ *
+ * <p>All operations are serialized on the repository instance.
+ */
+public class HoldRepository implements HoldPersistence {
+    public static final String DEFAULT_LOG = "Holds.log";
+    private static final int COMPACTION_THRESHOLD = 1_000;
+
+    private final Path logPath;
+    private final ObjectReader entryReader;
+    private final ObjectWriter entryWriter;
+    private final Map<Long, ArrayDeque<Hold>> queuesByBook;
+    private final Logger logger;
+    private long idGenerator;
+    private long liveHolds;
+
+    public HoldRepository() {
+        this(DEFAULT_LOG);
+    }
+
+    public HoldRepository(final String filePath) {
+        this.logger = Logger.getLogger(this.getClass().getName());
+        this.logPath = Path.of(filePath);
+        this.entryReader = JsonSerialization.shared().reader(LogEntry.class);
+        this.entryWriter = JsonSerialization.shared().writer(LogEntry.class);
+        this.queuesByBook = new HashMap<>();
+        replay();
+    }
+
+    /**
+     * Drop every queued hold from the log at {@code logPath}, keeping only the
+     * id high-water mark, so ids that loans still record are never reissued.
+     * Must not run while a repository has the log open.
+     */
+    public static void clear(final Path logPath) throws IOException {
+        if (Files.notExists(logPath)) {
+            return;
+        }
+        final HoldRepository holds;
+        try {
+            holds = new HoldRepository(logPath.toString());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        holds.rewrite(List.of(holds.entryWriter.writeValueAsString(LogEntry.maxId(holds.idGenerator))));
+    }
+
+    @Override
+    public synchronized Hold enqueue(final Hold hold) {
+        Objects.requireNonNull(hold.bookId(), "bookId");
+
+        final Hold saved = new Hold(++idGenerator, hold.bookId(), hold.patron(), hold.placedAt());
+        append(LogEntry.enqueue(saved));
+        queuesByBook.computeIfAbsent(saved.bookId(), id -> new ArrayDeque<>()).addLast(saved);
+        liveHolds++;
+        return saved;
+    }
+
+    @Override
+    public synchronized Optional<Hold> peek(final Long bookId) {
+        final ArrayDeque<Hold> queue = queuesByBook.get(bookId);
+        return queue == null ? Optional.empty() : Optional.ofNullable(queue.peekFirst());
+    }
+
+    @Override
+    public synchronized boolean dequeue(final Hold hold) {
+        final ArrayDeque<Hold> queue = queuesByBook.get(hold.bookId());
+        if (queue == null || queue.isEmpty() || !queue.peekFirst().id().equals(hold.id())) {
+            return false;
+        }
+
+        append(LogEntry.dequeue(hold));
+        queue.removeFirst();
+        if (queue.isEmpty()) {
+            queuesByBook.remove(hold.bookId());
+        }
+        liveHolds--;
+        return true;
+    }
+
+    @Override
+    public synchronized List<Hold> findByBookId(final Long bookId) {
+        final ArrayDeque<Hold> queue = queuesByBook.get(bookId);
+        return queue == null ? List.of() : List.copyOf(queue);
+    }
+
+    private void replay() {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+
+        long entries = 0;
+        try {
+            final byte[] bytes = Files.readAllBytes(logPath);
+            int lineStart = 0;
+            while (lineStart < bytes.length) {
+                final int lineEnd = lineEnd(bytes, lineStart);
+                final String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                final boolean last = lineEnd >= bytes.length - 1;
+                if (!line.isBlank()) {
+                    final LogEntry entry;
+                    try {
+                        entry = entryReader.readValue(line);
+                    } catch (JsonProcessingException e) {
+                        if (!last) {
+                            throw e;
+                        }
+                        // an append torn by a crash; the mutation never completed
+                        dropTail(lineStart);
+                        break;
+                    }
+                    if (lineEnd == bytes.length) {
+                        // complete entry without its line separator: also torn, and the next append would run into it
+                        dropTail(lineStart);
+                        break;
+                    }
+                    apply(entry);
+                    entries++;
+                }
+                lineStart = lineEnd + 1;
+            }
+        } catch (IOException e) {
+            this.logger.severe(e.getMessage());
+            throw new UncheckedIOException("Failed to read hold log: " + logPath, e);
+        }
+
+        if (entries > COMPACTION_THRESHOLD && entries > 2 * liveHolds) {
+            compact();
+        }
+    }
+
+    private static int lineEnd(final byte[] bytes, final int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private void dropTail(final long length) throws IOException {
+        this.logger.warning("Dropping an incomplete entry at the end of the hold log");
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    private void apply(final LogEntry entry) {
+        idGenerator = Math.max(idGenerator, entry.id());
+        switch (entry.op()) {
+            case LogEntry.ENQUEUE -> {
+                queuesByBook.computeIfAbsent(entry.bookId(), id -> new ArrayDeque<>()).addLast(entry.toHold());
+                liveHolds++;
+            }
+            case LogEntry.DEQUEUE -> {
+                final ArrayDeque<Hold> queue = queuesByBook.get(entry.bookId());
+                if (queue != null && queue.removeIf(h -> h.id().equals(entry.id()))) {
+                    liveHolds--;
+                    if (queue.isEmpty()) {
+                        queuesByBook.remove(entry.bookId());
+                    }
+                }
+            }
+            case LogEntry.MAXID -> {
+                // only carries the id high-water mark, taken above
+            }
+            default -> this.logger.warning("Skipping unknown hold log entry: " + entry.op());
+        }
+    }
+
+    private void compact() {
+        final List<String> lines = new ArrayList<>();
+        try {
+            lines.add(entryWriter.writeValueAsString(LogEntry.maxId(idGenerator)));
+            for (final ArrayDeque<Hold> queue : queuesByBook.values()) {
+                for (final Hold hold : queue) {
+                    lines.add(entryWriter.writeValueAsString(LogEntry.enqueue(hold)));
+                }
+            }
+
+            rewrite(lines);
+        } catch (IOException e) {
+            // the uncompacted log is still valid; try again on the next start
+            this.logger.warning("Hold log compaction failed: " + e.getMessage());
+        }
+    }
+
+    // replaces the log atomically with the given lines
+    private void rewrite(final List<String> lines) throws IOException {
+        final Path absolute = logPath.toAbsolutePath();
+        final Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void append(final LogEntry entry) {
+        try {
+            final String line = entryWriter.writeValueAsString(entry) + System.lineSeparator();
+            Files.writeString(logPath, line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            this.logger.severe(e.getMessage());
+            throw new UncheckedIOException("Failed to append to hold log: " + logPath, e);
+        }
+    }
+
+    /**
+     * One line of the hold log. {@code patron} and {@code placedAt} are only set for enqueues,
+     * {@code bookId} is not set for the {@code MAXID} marker.
+     */
+    record LogEntry(String op, Long id, Long bookId, String patron, LocalDate placedAt) {
+        static final String ENQUEUE = "ENQUEUE";
+        static final String DEQUEUE = "DEQUEUE";
+        static final String MAXID = "MAXID";
+
+        static LogEntry enqueue(final Hold hold) {
+            return new LogEntry(ENQUEUE, hold.id(), hold.bookId(), hold.patron(), hold.placedAt());
+        }
+
+        static LogEntry dequeue(final Hold hold) {
+            return new LogEntry(DEQUEUE, hold.id(), hold.bookId(), null, null);
+        }
+
+        static LogEntry maxId(final long id) {
+            return new LogEntry(MAXID, id, null, null, null);
+        }
+
+        Hold toHold() {
+            return new Hold(id, bookId, patron, placedAt);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.infra.output.base.AbstractFileRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * File-backed {@link BookPersistence} that keeps one file per collection.
+ *
+ * <p>The books of collection {@code 7} live in {@code <dir>/collection-7.json},
+ * books without a collection in {@code <dir>/collection-none.json}. Each file
+ * is a shard with the same format, header and copy-on-write reads as
+ * {@link BookRepository}, and its own lock. A write therefore rewrites only its
+ * collection's file, and writes to different collections run in parallel.
+ * {@link #findByCollectionId(Long)} reads one shard.
+ *
+ * <p>Two structures sit on top of the shards:
+ * - ids come from one allocator for all shards, seeded with the largest id
+ *   found when the shards are opened, so ids stay unique across shards;
+ * - an in-memory routing index maps every book id to its shard, for
+ *   {@link #findById(Long)} and updates. It is rebuilt from the shards when
+ *   the repository is opened, and the shards are parsed in parallel for that.
+ *
+ * <p>A book moved to another collection is written to the new shard first and
+ * then removed from the old one, with both shard locks held (taken in
+ * collection id order). After a crash between the two writes the book is in
+ * both files; opening the repository keeps the copy with the higher version
+ * and removes the other.
+ *
+ * <p>The change journal and {@link #changeSequence()} work as in
+ * {@link BookRepository}; a batch stored through {@link #insertAll(List)} is
+ * one change, written with one write per shard it touches. {@link #snapshot()} must see all shards at one
+ * committed write although shard writers do not share a lock. It first
+ * collects the shards optimistically: while no write is in flight and no
+ * write started meanwhile, retrying otherwise, with writers never waiting.
+ * Under a steady stream of writes that could retry forever, so after
+ * {@value #OPTIMISTIC_SNAPSHOT_ATTEMPTS} attempts it takes a gate that every
+ * writer holds in shared mode; writers then wait only while the shards'
+ * current lists are picked up. The snapshot is one {@link BookTable}
+ * concatenated from the shards' columns.
+ *
+ * <p>{@link #findAll()} and {@link #snapshot()} list the books shard by shard,
+ * in collection id order, not in global id order.
+ */
+public class ShardedBookRepository implements BookPersistence, BatchStore<Book> {
+    public static final String DEFAULT_DIRECTORY = "Books.shards";
+    private static final String SHARD_PREFIX = "collection-";
+    private static final String SHARD_SUFFIX = ".json";
+    private static final String NO_COLLECTION = "none";
+    private static final Pattern SHARD_FILE = Pattern.compile(
+        Pattern.quote(SHARD_PREFIX) + "(\\d+|" + NO_COLLECTION + ")" + Pattern.quote(SHARD_SUFFIX));
+    // shard key of books without a collection; sorts before every collection id
+    private static final long NO_COLLECTION_KEY = BookTable.NO_ID;
+    static final int JOURNAL_CAPACITY = BookRepository.JOURNAL_CAPACITY;
+    private static final int OPTIMISTIC_SNAPSHOT_ATTEMPTS = 64;
+
+    private static final Logger LOGGER = Logger.getLogger(ShardedBookRepository.class.getName());
+
+    private final Path directory;
+    private final ConcurrentSkipListMap<Long, Shard> shards = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, Shard> routes = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    // a write counts as started before it touches a shard and as finished after
+    // its journal entry; snapshots only collect while the two are equal
+    private final AtomicLong writesStarted = new AtomicLong();
+    private final AtomicLong writesFinished = new AtomicLong();
+    // shared by writers, exclusive for a snapshot that gave up on collecting optimistically
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    // guarded by journal
+    private final ArrayDeque<Change> journal = new ArrayDeque<>();
+    private long truncatedThrough;
+    private volatile long sequence;
+
+    public ShardedBookRepository() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    public ShardedBookRepository(final String directory) {
+        this.directory = Path.of(directory);
+        open();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(file -> SHARD_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(match -> NO_COLLECTION.equals(match.group(1)) ? NO_COLLECTION_KEY : Long.parseLong(match.group(1)))
+                    .forEach(this::shard);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open book shards in " + directory, e);
+        }
+
+        // the shards are independent files, so they are parsed concurrently
+        shards.values().parallelStream().forEach(Shard::preload);
+        for (final Shard shard : shards.values()) {
+            for (final Book book : shard.books()) {
+                route(book, shard);
+            }
+        }
+    }
+
+    private void route(final Book book, final Shard shard) {
+        final Shard other = routes.putIfAbsent(book.id(), shard);
+        if (other != null) {
+            // left behind by an interrupted move: keep the newer copy
+            final Book existing = other.findById(book.id()).orElseThrow();
+            final boolean newer = book.version() > existing.version();
+            LOGGER.warning("Book " + book.id() + " found in two shards; keeping version "
+                + Math.max(book.version(), existing.version()));
+            (newer ? other : shard).removeById(book.id());
+            if (newer) {
+                routes.put(book.id(), shard);
+            }
+        }
+        lastId.accumulateAndGet(book.id(), Math::max);
+    }
+
+    @Override
+    public Book addBook(final Book book) {
+        final Book numbered = BookFileRepository.withId(book, lastId.incrementAndGet());
+        beginWrite();
+        try {
+            final Shard shard = shard(key(numbered.collectionId()));
+            shard.insert(numbered);
+            routes.put(numbered.id(), shard);
+            recordChange(Arrays.asList(numbered.collectionId()));
+            return numbered;
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public long reserveId() {
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public List<Book> insertAll(final List<Book> books) {
+        final Map<Long, List<Book>> byShard = new TreeMap<>();
+        for (final Book book : books) {
+            byShard.computeIfAbsent(key(book.collectionId()), k -> new ArrayList<>()).add(book);
+        }
+        beginWrite();
+        try {
+            final List<Book> inserted = new ArrayList<>(books.size());
+            for (final Map.Entry<Long, List<Book>> batch : byShard.entrySet()) {
+                final List<Book> fresh = batch.getValue().stream().filter(book -> !routes.containsKey(book.id())).toList();
+                if (fresh.isEmpty()) {
+                    continue;
+                }
+                final Shard shard = shard(batch.getKey());
+                for (final Book book : shard.insertAll(fresh)) {
+                    routes.put(book.id(), shard);
+                    lastId.accumulateAndGet(book.id(), Math::max);
+                    inserted.add(book);
+                }
+            }
+            if (!inserted.isEmpty()) {
+                recordChange(inserted.stream().map(Book::collectionId).toList());
+            }
+            return inserted;
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public Optional<Book> findById(final Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        while (true) {
+            final Shard shard = routes.get(id);
+            if (shard == null) {
+                return Optional.empty();
+            }
+            final Optional<Book> book = shard.findById(id);
+            if (book.isPresent() || routes.get(id) == shard) {
+                return book;
+            }
+            // moved to another shard meanwhile; look again
+        }
+    }
+
+    @Override
+    public List<Book> findByCollectionId(final Long collectionId) {
+        if (collectionId == null) {
+            return List.of();
+        }
+        final Shard shard = shards.get(collectionId);
+        return shard == null ? List.of() : shard.books();
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return BookTable.concat(tables()).asList();
+    }
+
+    @Override
+    public Optional<Book> updateBook(final Book book) {
+        return replaceBook(book).map(Replacement::stored);
+    }
+
+    @Override
+    public Optional<Book> updateIfVersion(final Book book, final long expectedVersion) {
+        return replaceIfVersion(book, expectedVersion).map(Replacement::stored);
+    }
+
+    @Override
+    public Optional<Replacement> replaceBook(final Book book) {
+        if (book == null || book.id() == null) {
+            throw new IllegalArgumentException("Book and its id must be provided for update.");
+        }
+        return update(book, existing -> true, existing -> book.withVersion(existing.version() + 1));
+    }
+
+    @Override
+    public Optional<Replacement> replaceIfVersion(final Book book, final long expectedVersion) {
+        if (book == null || book.id() == null) {
+            throw new IllegalArgumentException("Book and its id must be provided for update.");
+        }
+        return update(book, existing -> existing.version() == expectedVersion, existing -> book.withVersion(expectedVersion + 1));
+    }
+
+    private Optional<Replacement> update(final Book book, final Predicate<Book> expected, final Function<Book, Book> updater) {
+        // the updater only runs on the book it replaces
+        final List<Book> replaced = new ArrayList<>(1);
+        final Function<Book, Book> replacing = existing -> {
+            replaced.add(existing);
+            return updater.apply(existing);
+        };
+        beginWrite();
+        try {
+            while (true) {
+                final Shard from = routes.get(book.id());
+                if (from == null) {
+                    return Optional.empty();
+                }
+                final Shard to = shard(key(book.collectionId()));
+                final Optional<Book> updated = from == to
+                    ? from.compareAndUpdateById(book.id(), expected, replacing)
+                    : move(book.id(), from, to, expected, replacing);
+                if (updated.isPresent()) {
+                    recordChange(Arrays.asList(key(from), book.collectionId()));
+                    return Optional.of(new Replacement(replaced.get(replaced.size() - 1), updated.get()));
+                }
+                if (routes.get(book.id()) == from) {
+                    // the book is still where we looked: it did not match
+                    return Optional.empty();
+                }
+                // moved to another shard meanwhile; look again
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void beginWrite() {
+        commitGate.readLock().lock();
+        writesStarted.incrementAndGet();
+    }
+
+    private void endWrite() {
+        writesFinished.incrementAndGet();
+        commitGate.readLock().unlock();
+    }
+
+    private Optional<Book> move(final Long id,
+                                final Shard from,
+                                final Shard to,
+                                final Predicate<Book> expected,
+                                final Function<Book, Book> updater) {
+        final Shard first = from.key < to.key ? from : to;
+        final Shard second = first == from ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                final Optional<Book> current = from.findById(id).filter(expected);
+                if (current.isEmpty()) {
+                    return Optional.empty();
+                }
+                final Book moved = to.insert(BookFileRepository.withId(updater.apply(current.get()), id));
+                // reroute before removing, so lock-free readers always find it somewhere
+                routes.put(id, to);
+                from.removeById(id);
+                return Optional.of(moved);
+            }
+        }
+    }
+
+    @Override
+    public long changeSequence() {
+        return sequence;
+    }
+
+    @Override
+    public Optional<Set<Long>> collectionsChangedSince(final long since) {
+        synchronized (journal) {
+            if (since < truncatedThrough || since > sequence) {
+                return Optional.empty();
+            }
+
+            final Set<Long> collectionIds = new HashSet<>();
+            final Iterator<Change> newestFirst = journal.descendingIterator();
+            while (newestFirst.hasNext()) {
+                final Change change = newestFirst.next();
+                if (change.sequence() <= since) {
+                    break;
+                }
+                collectionIds.add(change.collectionId());
+            }
+            return Optional.of(collectionIds);
+        }
+    }
+
+    @Override
+    public PersistenceSnapshot<Book> committed() {
+        return snapshot().orElseThrow();
+    }
+
+    @Override
+    public Optional<PersistenceSnapshot<Book>> snapshot() {
+        for (int attempt = 0; attempt < OPTIMISTIC_SNAPSHOT_ATTEMPTS; attempt++) {
+            final long finished = writesFinished.get();
+            if (writesStarted.get() == finished) {
+                final long version = sequence;
+                final List<BookTable> tables = tables();
+                if (writesStarted.get() == finished) {
+                    return Optional.of(snapshot(version, tables));
+                }
+            }
+            // a write was in flight or started meanwhile; it does not wait for us
+            Thread.onSpinWait();
+        }
+
+        final long version;
+        final List<BookTable> tables;
+        commitGate.writeLock().lock();
+        try {
+            version = sequence;
+            tables = tables();
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+        return Optional.of(snapshot(version, tables));
+    }
+
+    private List<BookTable> tables() {
+        return shards.values().stream().map(Shard::table).toList();
+    }
+
+    private static PersistenceSnapshot<Book> snapshot(final long version, final List<BookTable> tables) {
+        return new PersistenceSnapshot<>(version, BookTable.concat(tables).asList());
+    }
+
+    private void recordChange(final Collection<Long> collectionIds) {
+        synchronized (journal) {
+            final long next = sequence + 1;
+            collectionIds.stream().distinct().forEach(id -> journal.addLast(new Change(next, id)));
+            while (journal.size() > JOURNAL_CAPACITY) {
+                truncatedThrough = journal.removeFirst().sequence();
+            }
+            sequence = next;
+        }
+    }
+
+    private Shard shard(final long key) {
+        return shards.computeIfAbsent(key, k -> new Shard(k, directory.resolve(fileName(k)).toString()));
+    }
+
+    private static String fileName(final long key) {
+        return SHARD_PREFIX + (key == NO_COLLECTION_KEY ? NO_COLLECTION : Long.toString(key)) + SHARD_SUFFIX;
+    }
+
+    private static long key(final Long collectionId) {
+        return collectionId == null ? NO_COLLECTION_KEY : collectionId;
+    }
+
+    private static Long key(final Shard shard) {
+        return shard.key == NO_COLLECTION_KEY ? null : shard.key;
+    }
+
+    private record Change(long sequence, Long collectionId) {}
+
+    /**
+     * The books of one collection, held like {@link BookRepository} holds all of them.
+     */
+    private static final class Shard extends BookFileRepository {
+        private final long key;
+
+        private Shard(final long key, final String filePath) {
+            super(filePath);
+            this.key = key;
+        }
+
+        @Override
+        protected Book insert(final Book book) {
+            return super.insert(book);
+        }
+
+        @Override
+        protected List<Book> insertAll(final List<Book> books) {
+            return super.insertAll(books);
+        }
+
+        @Override
+        protected Optional<Book> removeById(final Long id) {
+            return super.removeById(id);
+        }
+
+        @Override
+        protected Optional<Book> compareAndUpdateById(final Long id,
+                                                      final Predicate<Book> expected,
+                                                      final Function<Book, Book> updater) {
+            return super.compareAndUpdateById(id, expected, updater);
+        }
+
+        @Override
+        protected Optional<Book> findById(final Long id) {
+            return super.findById(id);
+        }
+
+        List<Book> books() {
+            return committedSnapshot().entities();
+        }
+    }
+}
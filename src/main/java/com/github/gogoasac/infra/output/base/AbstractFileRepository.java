@@ -1,34 +1,72 @@
 package com.github.gogoasac.infra.output.base;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
+import java.util.stream.LongStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Simple file-backed repository base class for JSON persistence of domain records.
  *
  * <p>Responsibilities:
- * - Read and write a collection of T instances to/from a JSON file.
+ * - Read a collection of T instances from a JSON file once, on first access,
+ *   and write it back on every change.
  * - Provide basic persistence primitives: save (append with id assignment),
  *   findById, findAll and a generic updateById that atomically replaces an
  *   entity by id.
  * - Maintain a simple numeric id generator based on the current maximum id in
  *   the backing file.
  *
+ * <p>Concurrency notes:
+ * - Mutations are serialized on the repository instance, so every
+ *   read-modify-write of the backing file is atomic with respect to other
+ *   writers of the same repository.
+ * - The file is replaced atomically (write to a sibling temp file, then move),
+ *   so concurrent readers always see a complete previous or next version.
+ * - Reads are served from an in-memory copy-on-write list: every write builds a
+ *   new list, persists it and then publishes it together with the new
+ *   {@link #modificationCount()} through one volatile reference. Readers never
+ *   lock, never block writers and always see one committed version, so
+ *   {@link #committedSnapshot()} is a consistent point-in-time view. The
+ *   instance therefore assumes it owns its file; changes made to the file by
+ *   other processes are not picked up.
+ *
+ * <p>Startup notes:
+ * - Next to the data file a small header ({@code <file>.meta}) records the max
+ *   id, the record count, and the size and CRC-32 of the data file. It is
+ *   overwritten in place after every write of the data file; it is only a
+ *   hint, so it needs no temp file or atomic move of its own.
+ * - The constructor only reads that header, so it costs the same for any file
+ *   size. The entities are parsed on first access, or earlier through
+ *   {@link #preload()}. The parse checks the data file against the header.
+ *   When the header is missing, unreadable or does not match, the max id and
+ *   count come from a full scan of the parsed entities and the header is
+ *   rewritten.
+ *
  * <p>Serialization notes:
- * - The mapper is pre-configured with {@link JavaTimeModule} and timestamps are
- *   written as textual ISO dates (WRITE_DATES_AS_TIMESTAMPS disabled). This
- *   ensures java.time types such as {@code LocalDate} are handled correctly.
+ * - JSON goes through the process-wide {@link JsonSerialization}: java.time
+ *   types are supported and dates are written as textual ISO dates.
+ * - The reader and writer are bound to {@code List<T>} once at construction, so
+ *   loading and rewriting the file do not resolve the type again.
  *
  * <p>Usage:
  * - Subclasses provide a concrete {@link #setId(Object, Long)} implementation
@@ -37,50 +75,144 @@ import java.util.logging.Logger;
  * - Call {@link #updateById(Long, java.util.function.Function)} to perform an
  *   in-place update: the updater receives the current instance and must return
  *   the new instance to persist (the id will be enforced).
+ * - Call {@link #compareAndUpdateById(Long, Predicate, Function)} for a
+ *   conditional update that only applies when the stored instance still
+ *   satisfies the caller's expectation (e.g. an optimistic-locking version).
+ * - Call {@link #insert(Object)} and {@link #removeById(Long)} to move an
+ *   entity that keeps its id from one repository to another.
+ * - Call {@link #reserveId()} and later {@link #insertAll(List)} to number
+ *   entities before they are stored and then store many of them with one
+ *   write of the file.
  *
  */
 public abstract class AbstractFileRepository<T> {
+    public static final String HEADER_SUFFIX = ".meta";
+    private static final ObjectReader HEADER_READER = JsonSerialization.shared().reader(FileHeader.class);
+    private static final ObjectWriter HEADER_WRITER = JsonSerialization.shared().writer(FileHeader.class);
+
     private final String filePath;
-    private final ObjectMapper objectMapper;
-    private final TypeReference<List<T>> typeReference;
+    private final Path headerPath;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
     private Long idGenerator;
     private final Function<T, Long> idExtractor;
     private final Logger logger;
+    // header read at construction, null when missing or not matching the file size
+    private FileHeader header;
+    // last committed state, replaced as a whole on every write; null until loaded
+    private volatile PersistenceSnapshot<T> committed;
 
     protected AbstractFileRepository(
         String filePath,
         TypeReference<List<T>> typeReference,
         Function<T, Long> idExtractor
     ) {
+        this.logger = Logger.getLogger(this.getClass().getName());
         this.filePath = filePath;
-        this.objectMapper = JsonMapper.builder()
-            .addModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-            .findAndAddModules()
-            .build();
-        this.typeReference = typeReference;
+        this.headerPath = Path.of(filePath + HEADER_SUFFIX);
+        this.reader = JsonSerialization.shared().reader(typeReference);
+        this.writer = JsonSerialization.shared().writer(typeReference);
         this.idExtractor = idExtractor;
         createFileIfNotExists();
-        this.idGenerator = getMaxId();
-        this.logger = Logger.getLogger(this.getClass().getName());
+        this.header = readHeader();
+    }
+
+    /**
+     * Parse the data file now rather than on first access, e.g. to load several
+     * repositories in parallel at startup. Does nothing once loaded.
+     */
+    public void preload() {
+        loaded();
     }
 
-    protected T save(T entity) {
-        List<T> entities = readFromFile();
+    protected synchronized T save(T entity) {
+        final List<T> committedEntities = loaded().entities();
         T savedEntity = setId(entity, ++idGenerator);
-        entities.add(savedEntity);
+        final List<T> entities = appended(committedEntities, List.of(savedEntity));
         writeToFile(entities);
+        publish(entities);
         return savedEntity;
     }
 
+    /**
+     * Persist an entity that already carries its id, e.g. one numbered by an
+     * allocator shared by several repositories. Ids at or below the current
+     * maximum are not checked for collisions; that is the caller's job.
+     */
+    protected synchronized T insert(final T entity) {
+        final List<T> entities = appended(loaded().entities(), List.of(entity));
+        idGenerator = Math.max(idGenerator, idExtractor.apply(entity));
+        writeToFile(entities);
+        publish(entities);
+        return entity;
+    }
+
+    /**
+     * Hand out the next id without storing anything. An id that is never
+     * stored leaves a gap; after a restart it may be handed out again.
+     */
+    protected synchronized long reserveId() {
+        loaded();
+        return ++idGenerator;
+    }
+
+    /**
+     * Persist entities that already carry their ids with a single write of the
+     * file. Entities whose id is already stored are skipped, so a batch can be
+     * applied again after a crash.
+     *
+     * @return the entities that were stored (nothing is written when none are)
+     */
+    protected synchronized List<T> insertAll(final List<T> batch) {
+        final List<T> committedEntities = loaded().entities();
+        final Set<Long> stored = new HashSet<>();
+        ids(committedEntities).forEach(stored::add);
+        final List<T> inserted = new ArrayList<>(batch.size());
+        for (final T entity : batch) {
+            final Long id = idExtractor.apply(entity);
+            if (stored.add(id)) {
+                inserted.add(entity);
+                idGenerator = Math.max(idGenerator, id);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            final List<T> entities = appended(committedEntities, inserted);
+            writeToFile(entities);
+            publish(entities);
+        }
+        return inserted;
+    }
+
+    /**
+     * Remove the entity identified by id.
+     *
+     * @return the removed entity, or empty when there is none (nothing is written then)
+     */
+    protected synchronized Optional<T> removeById(final Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        final List<T> committedEntities = loaded().entities();
+        final int idx = indexOf(committedEntities, id);
+        if (idx < 0) {
+            return Optional.empty();
+        }
+        final T removed = committedEntities.get(idx);
+        final List<T> entities = removed(committedEntities, idx);
+        writeToFile(entities);
+        publish(entities);
+        return Optional.of(removed);
+    }
+
     protected Optional<T> findById(Long id) {
-        return readFromFile().stream()
-            .filter(entity -> idExtractor.apply(entity).equals(id))
-            .findFirst();
+        final List<T> entities = loaded().entities();
+        final int idx = id == null ? -1 : indexOf(entities, id);
+        return idx < 0 ? Optional.empty() : Optional.of(entities.get(idx));
     }
 
     protected List<T> findAll() {
-        return readFromFile();
+        return new ArrayList<>(loaded().entities());
     }
 
     /**
@@ -89,41 +221,186 @@ public abstract class AbstractFileRepository<T> {
      * Returns Optional.empty() when no entity with the given id exists.
      */
     protected Optional<T> updateById(final Long id, final Function<T, T> updater) {
+        return compareAndUpdateById(id, current -> true, updater);
+    }
+
+    /**
+     * Atomically update the entity identified by id, but only if the stored instance
+     * matches {@code expected}. Returns Optional.empty() when no entity with the given id
+     * exists or when the stored instance does not match; nothing is written in that case.
+     */
+    protected synchronized Optional<T> compareAndUpdateById(final Long id,
+                                                            final Predicate<T> expected,
+                                                            final Function<T, T> updater) {
         if (id == null) {
             return Optional.empty();
         }
 
-        final List<T> entities = readFromFile();
-        for (int idx = 0; idx < entities.size(); idx++) {
-            final T current = entities.get(idx);
-            final Long currentId = idExtractor.apply(current);
-            if (currentId != null && currentId.equals(id)) {
-                final T updatedCandidate = updater.apply(current);
-                final T updatedWithId = setId(updatedCandidate, id);
-                entities.set(idx, updatedWithId);
-                writeToFile(entities);
-                return Optional.of(updatedWithId);
+        final List<T> committedEntities = loaded().entities();
+        final int idx = indexOf(committedEntities, id);
+        if (idx < 0) {
+            return Optional.empty();
+        }
+        final T current = committedEntities.get(idx);
+        if (!expected.test(current)) {
+            return Optional.empty();
+        }
+        final T updatedWithId = setId(updater.apply(current), id);
+        final List<T> entities = replaced(committedEntities, idx, updatedWithId);
+        writeToFile(entities);
+        publish(entities);
+        return Optional.of(updatedWithId);
+    }
+
+    /**
+     * Number of successful writes made through this instance. Monotonic; writes by
+     * other processes to the same file are not counted.
+     */
+    protected long modificationCount() {
+        return loaded().version();
+    }
+
+    /**
+     * The last committed entities together with their {@link #modificationCount()}.
+     * Lock-free; the returned snapshot never changes.
+     */
+    protected PersistenceSnapshot<T> committedSnapshot() {
+        return loaded();
+    }
+
+    /**
+     * Form in which a committed list is kept in memory. The default keeps the
+     * entities as they are; a subclass may return a denser immutable list with
+     * the same elements in the same order.
+     *
+     * <p>A subclass that does should also override the copy operations below
+     * ({@link #appended(List, List)}, {@link #replaced(List, int, Object)},
+     * {@link #removed(List, int)}) and the lookups ({@link #indexOf(List, Long)},
+     * {@link #ids(List)}), so that writes build the next list in that form
+     * directly instead of materializing every element.
+     */
+    protected List<T> compact(final List<T> entities) {
+        return entities;
+    }
+
+    /**
+     * The next committed list: {@code committed} followed by {@code added}.
+     * Must not modify {@code committed}.
+     */
+    protected List<T> appended(final List<T> committed, final List<T> added) {
+        final List<T> entities = new ArrayList<>(committed.size() + added.size());
+        entities.addAll(committed);
+        entities.addAll(added);
+        return entities;
+    }
+
+    /**
+     * The next committed list: {@code committed} with the element at
+     * {@code index} replaced. Must not modify {@code committed}.
+     */
+    protected List<T> replaced(final List<T> committed, final int index, final T entity) {
+        final List<T> entities = new ArrayList<>(committed);
+        entities.set(index, entity);
+        return entities;
+    }
+
+    /**
+     * The next committed list: {@code committed} without the element at
+     * {@code index}. Must not modify {@code committed}.
+     */
+    protected List<T> removed(final List<T> committed, final int index) {
+        final List<T> entities = new ArrayList<>(committed);
+        entities.remove(index);
+        return entities;
+    }
+
+    /**
+     * Position of the entity with {@code id} in {@code committed}, or -1.
+     */
+    protected int indexOf(final List<T> committed, final Long id) {
+        for (int idx = 0; idx < committed.size(); idx++) {
+            if (id.equals(idExtractor.apply(committed.get(idx)))) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The ids of {@code committed}, in order.
+     */
+    protected LongStream ids(final List<T> committed) {
+        return committed.stream().mapToLong(idExtractor::apply);
+    }
+
+    // callers hold the instance lock, so versions are published in order
+    private void publish(final List<T> entities) {
+        committed = new PersistenceSnapshot<>(committed.version() + 1, compact(entities));
+    }
+
+    private PersistenceSnapshot<T> loaded() {
+        final PersistenceSnapshot<T> snapshot = committed;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (committed == null) {
+                load();
             }
+            return committed;
         }
-        return Optional.empty();
     }
 
-    private List<T> readFromFile() {
+    private void load() {
+        List<T> entities;
+        boolean valid = false;
         try {
-            return objectMapper.readValue(new File(filePath), typeReference);
+            final byte[] content = Files.readAllBytes(Path.of(filePath));
+            entities = reader.readValue(content);
+            valid = header != null && header.matches(content, entities.size());
         } catch (IOException e) {
             this.logger.severe(e.getMessage());
-            return new ArrayList<>();
+            entities = new ArrayList<>();
         }
+
+        if (valid) {
+            idGenerator = header.maxId();
+        } else {
+            // header missing or stale: fall back to scanning the entities
+            idGenerator = getMaxId(entities);
+            rewriteHeader(entities.size());
+        }
+        header = null;
+        committed = new PersistenceSnapshot<>(0L, compact(entities));
     }
 
     private void writeToFile(List<T> entities) {
+        final Path target = Path.of(filePath).toAbsolutePath();
+        final CRC32 crc = new CRC32();
+        final long size;
         try {
-            objectMapper.writeValue(new File(filePath), entities);
+            final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), crc)) {
+                    writer.writeValue(out, entities);
+                }
+                size = Files.size(temp);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
         } catch (IOException e) {
             this.logger.severe(e.getMessage());
             throw new RuntimeException("Failed to write to file", e);
         }
+
+        // the data file is committed; from here on a failure only costs a scan on the next start
+        try {
+            // every write updates the allocator first, so it covers the max id; null only for the initial empty file
+            writeHeader(new FileHeader(idGenerator == null ? 0L : idGenerator, entities.size(), size, crc.getValue()));
+        } catch (IOException e) {
+            this.logger.warning("Failed to write header " + headerPath + ": " + e.getMessage());
+        }
     }
 
     private void createFileIfNotExists() {
@@ -133,12 +410,53 @@ public abstract class AbstractFileRepository<T> {
         }
     }
 
-    private long getMaxId() {
-        return readFromFile().stream()
-            .mapToLong(idExtractor::apply)
-            .max()
-            .orElse(0);
+    private FileHeader readHeader() {
+        if (Files.notExists(headerPath)) {
+            return null;
+        }
+        try {
+            final FileHeader read = HEADER_READER.readValue(headerPath.toFile());
+            // cheap pre-check; the checksum is verified when the file is parsed
+            return read.size() == Files.size(Path.of(filePath)) ? read : null;
+        } catch (IOException e) {
+            this.logger.warning("Ignoring unreadable header " + headerPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void rewriteHeader(final int count) {
+        try {
+            final byte[] content = Files.readAllBytes(Path.of(filePath));
+            writeHeader(new FileHeader(idGenerator, count, content.length, FileHeader.checksum(content)));
+        } catch (IOException e) {
+            // only costs another scan on the next start
+            this.logger.warning("Failed to rewrite header " + headerPath + ": " + e.getMessage());
+        }
+    }
+
+    // written in place: a torn header is unreadable or does not match, and then only costs a scan
+    private void writeHeader(final FileHeader fileHeader) throws IOException {
+        HEADER_WRITER.writeValue(headerPath.toFile(), fileHeader);
+    }
+
+    private long getMaxId(final List<T> entities) {
+        return ids(entities).max().orElse(0);
     }
 
     protected abstract T setId(T entity, Long id);
+
+    /**
+     * Contents of the {@code .meta} file kept next to the data file.
+     */
+    record FileHeader(long maxId, int count, long size, long crc32) {
+        boolean matches(final byte[] content, final int entityCount) {
+            return size == content.length && crc32 == checksum(content) && count == entityCount;
+        }
+
+        static long checksum(final byte[] content) {
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            return crc.getValue();
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package com.github.gogoasac.infra.output.base;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.gogoasac.common.StringUtils;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide JSON serialization for the file-backed repositories.
+ *
+ * <p>One {@link JsonMapper} is built per process instead of one per repository.
+ * Its modules are registered explicitly ({@link JavaTimeModule}, dates written
+ * as ISO text) rather than found by scanning the classpath, so building it is
+ * cheap and deterministic.
+ *
+ * <p>Callers ask for an {@link ObjectReader}/{@link ObjectWriter} bound to
+ * their entity type once and keep it. Bound readers and writers are immutable
+ * and thread-safe, resolve the type's (de)serializer on first use and then
+ * skip the per-call type resolution that {@code readValue(…, TypeReference)}
+ * does. They are cached per type, so repositories of the same entity share
+ * them.
+ *
+ * <p>Book titles and author and collection names are canonicalized through
+ * {@link StringUtils#canonical(String)} as they are read: values that repeat
+ * across records, files or reloads share one instance, and equal ones compare
+ * equal by identity. The domain records stay free of Jackson annotations; the
+ * deserializer is attached to those three components through mix-ins. Every
+ * other string is read as is, so one-off values never enter the canonical
+ * pool.
+ *
+ * <p>Setting the {@value #BLACKBIRD_PROPERTY} system property to {@code true}
+ * additionally registers the Blackbird module, which replaces reflective
+ * property access with generated lambdas. It is off by default: for the small
+ * records stored here it mostly adds startup cost.
+ */
+public final class JsonSerialization {
+    public static final String BLACKBIRD_PROPERTY = "library.json.blackbird";
+
+    private static final JsonSerialization SHARED = new JsonSerialization(Boolean.getBoolean(BLACKBIRD_PROPERTY));
+
+    private final JsonMapper mapper;
+    private final boolean blackbird;
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    JsonSerialization(final boolean blackbird) {
+        final JsonMapper.Builder builder = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addMixIn(Book.class, CanonicalTitle.class)
+            .addMixIn(Author.class, CanonicalName.class)
+            .addMixIn(Collection.class, CanonicalName.class)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            builder.addModule(new BlackbirdModule());
+        }
+        this.mapper = builder.build();
+        this.blackbird = blackbird;
+    }
+
+    /**
+     * The instance shared by all repositories of this process.
+     */
+    public static JsonSerialization shared() {
+        return SHARED;
+    }
+
+    /**
+     * The underlying mapper, for the rare caller that needs more than a bound
+     * reader or writer. Must not be reconfigured.
+     */
+    public JsonMapper mapper() {
+        return mapper;
+    }
+
+    public boolean usesBlackbird() {
+        return blackbird;
+    }
+
+    public ObjectReader reader(final TypeReference<?> type) {
+        return reader(mapper.constructType(type));
+    }
+
+    public ObjectReader reader(final Class<?> type) {
+        return reader(mapper.constructType(type));
+    }
+
+    public ObjectWriter writer(final TypeReference<?> type) {
+        return writer(mapper.constructType(type));
+    }
+
+    public ObjectWriter writer(final Class<?> type) {
+        return writer(mapper.constructType(type));
+    }
+
+    private ObjectReader reader(final JavaType type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    private ObjectWriter writer(final JavaType type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    private abstract static class CanonicalTitle {
+        @JsonDeserialize(using = CanonicalStringDeserializer.class)
+        abstract String title();
+    }
+
+    private abstract static class CanonicalName {
+        @JsonDeserialize(using = CanonicalStringDeserializer.class)
+        abstract String name();
+    }
+
+    @SuppressWarnings("serial") // never serialized; Jackson's base class is Serializable
+    private static final class CanonicalStringDeserializer extends StringDeserializer {
+        @Override
+        public String deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            return StringUtils.canonical(super.deserialize(parser, context));
+        }
+    }
+}
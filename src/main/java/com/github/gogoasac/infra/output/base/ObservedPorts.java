@@ -0,0 +1,248 @@
+package com.github.gogoasac.infra.output.base;
+
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Forwarding decorators over the book, author and collection ports and their
+ * units of work, reporting every successful write to a {@link WriteHook}.
+ *
+ * <p>Reads and failed writes are only forwarded. Book updates are forwarded as
+ * {@link BookPersistence#replaceBook(Book)} and
+ * {@link BookPersistence#replaceIfVersion(Book, long)}, so the hook also sees
+ * the book that was replaced. Wrappers that ship or publish writes, such as
+ * replication and change events, build on this instead of forwarding every
+ * port method themselves.
+ */
+public final class ObservedPorts {
+    /**
+     * Called on the writing thread right after a write succeeded. The write is
+     * committed by then, so hooks must not throw.
+     */
+    public interface WriteHook {
+        void authorAdded(Author author);
+
+        void collectionAdded(Collection collection);
+
+        void bookAdded(Book book);
+
+        void bookReplaced(BookPersistence.Replacement replacement);
+
+        void committed(UnitOfWork.Committed committed);
+    }
+
+    private final BookPersistence books;
+    private final AuthorPersistence authors;
+    private final CollectionPersistence collections;
+    private final WriteHook hook;
+
+    public ObservedPorts(final BookPersistence books,
+                         final AuthorPersistence authors,
+                         final CollectionPersistence collections,
+                         final WriteHook hook) {
+        this.books = new ObservedBooks(books);
+        this.authors = new ObservedAuthors(authors);
+        this.collections = new ObservedCollections(collections);
+        this.hook = hook;
+    }
+
+    public BookPersistence books() {
+        return books;
+    }
+
+    public AuthorPersistence authors() {
+        return authors;
+    }
+
+    public CollectionPersistence collections() {
+        return collections;
+    }
+
+    /**
+     * Wrap the transactions over the wrapped ports, so their commits are
+     * reported too.
+     */
+    public TransactionalPersistence transactions(final TransactionalPersistence transactions) {
+        return () -> new ObservedUnitOfWork(transactions.begin());
+    }
+
+    private final class ObservedUnitOfWork implements UnitOfWork {
+        private final UnitOfWork delegate;
+
+        private ObservedUnitOfWork(final UnitOfWork delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Author addAuthor(final Author author) {
+            return delegate.addAuthor(author);
+        }
+
+        @Override
+        public Collection addCollection(final Collection collection) {
+            return delegate.addCollection(collection);
+        }
+
+        @Override
+        public Book addBook(final Book book) {
+            return delegate.addBook(book);
+        }
+
+        @Override
+        public Committed commit() {
+            final Committed committed = delegate.commit();
+            hook.committed(committed);
+            return committed;
+        }
+    }
+
+    private final class ObservedBooks implements BookPersistence {
+        private final BookPersistence delegate;
+
+        private ObservedBooks(final BookPersistence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Book addBook(final Book book) {
+            final Book stored = delegate.addBook(book);
+            hook.bookAdded(stored);
+            return stored;
+        }
+
+        @Override
+        public Optional<Book> updateBook(final Book book) {
+            return replaceBook(book).map(Replacement::stored);
+        }
+
+        @Override
+        public Optional<Book> updateIfVersion(final Book book, final long expectedVersion) {
+            return replaceIfVersion(book, expectedVersion).map(Replacement::stored);
+        }
+
+        @Override
+        public Optional<Replacement> replaceBook(final Book book) {
+            final Optional<Replacement> replaced = delegate.replaceBook(book);
+            replaced.ifPresent(hook::bookReplaced);
+            return replaced;
+        }
+
+        @Override
+        public Optional<Replacement> replaceIfVersion(final Book book, final long expectedVersion) {
+            final Optional<Replacement> replaced = delegate.replaceIfVersion(book, expectedVersion);
+            replaced.ifPresent(hook::bookReplaced);
+            return replaced;
+        }
+
+        @Override
+        public Optional<Book> findById(final Long id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Book> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public List<Book> findByCollectionId(final Long collectionId) {
+            return delegate.findByCollectionId(collectionId);
+        }
+
+        @Override
+        public long changeSequence() {
+            return delegate.changeSequence();
+        }
+
+        @Override
+        public Optional<Set<Long>> collectionsChangedSince(final long since) {
+            return delegate.collectionsChangedSince(since);
+        }
+
+        @Override
+        public Optional<PersistenceSnapshot<Book>> snapshot() {
+            return delegate.snapshot();
+        }
+    }
+
+    private final class ObservedAuthors implements AuthorPersistence {
+        private final AuthorPersistence delegate;
+
+        private ObservedAuthors(final AuthorPersistence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Author addAuthor(final Author author) {
+            final Author stored = delegate.addAuthor(author);
+            hook.authorAdded(stored);
+            return stored;
+        }
+
+        @Override
+        public Optional<Author> findById(final Long id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Author> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public long dataVersion() {
+            return delegate.dataVersion();
+        }
+
+        @Override
+        public Optional<PersistenceSnapshot<Author>> snapshot() {
+            return delegate.snapshot();
+        }
+    }
+
+    private final class ObservedCollections implements CollectionPersistence {
+        private final CollectionPersistence delegate;
+
+        private ObservedCollections(final CollectionPersistence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Collection addCollection(final Collection collection) {
+            final Collection stored = delegate.addCollection(collection);
+            hook.collectionAdded(stored);
+            return stored;
+        }
+
+        @Override
+        public Optional<Collection> findById(final Long id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Collection> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public long dataVersion() {
+            return delegate.dataVersion();
+        }
+
+        @Override
+        public Optional<PersistenceSnapshot<Collection>> snapshot() {
+            return delegate.snapshot();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.gogoasac.infra.output.events;
+
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.ChangeEvent;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.base.ObservedPorts;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.LongFunction;
+
+/**
+ * Change-data-capture over the book, author and collection ports.
+ *
+ * <p>Wraps the ports with {@link ObservedPorts}, like
+ * {@link com.github.gogoasac.infra.output.replication.ReplicationPrimary}
+ * does: after every successful write through {@link #books()},
+ * {@link #authors()} or {@link #collections()} a typed {@link ChangeEvent} is
+ * published to every subscriber, and so is every entity of a unit of work
+ * committed through {@link #transactions(TransactionalPersistence)}, as
+ * consecutive events. Reads and failed writes publish nothing.
+ *
+ * <p>Delivery follows {@link Flow}: a subscriber receives no more events than
+ * it requested, and each one has a buffer of at most {@code bufferCapacity}
+ * events (rounded up to a power of two) that were published but not requested
+ * yet. Writers never wait for subscribers. When a buffer is full the subscriber
+ * has fallen too far behind: instead of its next event it receives
+ * {@link Flow.Subscriber#onError(Throwable)} with an
+ * {@link IllegalStateException}, and should rescan the ports and subscribe
+ * again. A subscriber that keeps up sees every event in {@code sequence} order.
+ *
+ * <p>An update is classified by comparing the stored book with the book it
+ * replaced, as handed back by {@link BookPersistence#replaceIfVersion(Book, long)},
+ * so publishing costs no extra read. Two writes of the same book may be
+ * published in a different order than they committed; the book version tells.
+ */
+public final class ChangeEventPublisher implements Flow.Publisher<ChangeEvent>, AutoCloseable {
+    static final String OVERFLOW = "Change event buffer overflowed: rescan and subscribe again";
+
+    private final ObservedPorts ports;
+    private final ExecutorService ownedExecutor;
+    private final SubmissionPublisher<ChangeEvent> publisher;
+    // guarded by this
+    private long sequence;
+
+    /**
+     * Deliver on virtual threads, with {@link Flow#defaultBufferSize()} events
+     * buffered per subscriber.
+     */
+    public ChangeEventPublisher(final BookPersistence books,
+                                final AuthorPersistence authors,
+                                final CollectionPersistence collections) {
+        this(books, authors, collections, Executors.newVirtualThreadPerTaskExecutor(), Flow.defaultBufferSize(), true);
+    }
+
+    /**
+     * @param executor       runs the delivery to subscribers; not shut down by {@link #close()}
+     * @param bufferCapacity events buffered per subscriber before it overflows
+     */
+    public ChangeEventPublisher(final BookPersistence books,
+                                final AuthorPersistence authors,
+                                final CollectionPersistence collections,
+                                final Executor executor,
+                                final int bufferCapacity) {
+        this(books, authors, collections, executor, bufferCapacity, false);
+    }
+
+    private ChangeEventPublisher(final BookPersistence books,
+                                 final AuthorPersistence authors,
+                                 final CollectionPersistence collections,
+                                 final Executor executor,
+                                 final int bufferCapacity,
+                                 final boolean ownsExecutor) {
+        this.ports = new ObservedPorts(books, authors, collections, new Publishing());
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    public BookPersistence books() {
+        return ports.books();
+    }
+
+    public AuthorPersistence authors() {
+        return ports.authors();
+    }
+
+    public CollectionPersistence collections() {
+        return ports.collections();
+    }
+
+    /**
+     * Wrap the transactions over the ports this publisher wraps, so their
+     * commits are published too.
+     */
+    public TransactionalPersistence transactions(final TransactionalPersistence transactions) {
+        return ports.transactions(transactions);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ChangeEvent> subscriber) {
+        publisher.subscribe(new OverflowGuard(Objects.requireNonNull(subscriber)));
+    }
+
+    /**
+     * Sequence of the last event published, 0 before the first.
+     */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Complete every subscription once its buffered events are delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    // numbered and offered under one lock, so delivery order is sequence order
+    private synchronized void publish(final LongFunction<ChangeEvent> event) {
+        publisher.offer(event.apply(++sequence), (subscriber, dropped) -> {
+            ((OverflowGuard) subscriber).overflowed = true;
+            return false;
+        });
+    }
+
+    private synchronized void publishAll(final UnitOfWork.Committed committed) {
+        committed.authors().forEach(author -> publish(sequence -> new ChangeEvent.AuthorAdded(sequence, author)));
+        committed.collections().forEach(collection -> publish(sequence -> new ChangeEvent.CollectionAdded(sequence, collection)));
+        committed.books().forEach(book -> publish(sequence -> new ChangeEvent.BookAdded(sequence, book)));
+    }
+
+    private static ChangeEvent bookUpdated(final long sequence, final BookPersistence.Replacement replacement) {
+        final Book previous = replacement.replaced();
+        final Book stored = replacement.stored();
+        if (stored.isBorrowed() && (!previous.isBorrowed() || !Objects.equals(previous.borrowedAt(), stored.borrowedAt()))) {
+            return new ChangeEvent.BookBorrowed(sequence, stored);
+        }
+        if (previous.isBorrowed() && !stored.isBorrowed()) {
+            return new ChangeEvent.BookReturned(sequence, stored);
+        }
+        return new ChangeEvent.BookUpdated(sequence, stored);
+    }
+
+    /**
+     * Turns a full buffer into an error at the next delivery, so the subscriber
+     * learns it missed events instead of silently skipping them. All signals
+     * arrive serially on the delivery executor; only {@code overflowed} is set
+     * from the writer.
+     */
+    private static final class OverflowGuard implements Flow.Subscriber<ChangeEvent> {
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private volatile boolean overflowed;
+        private Flow.Subscription subscription;
+        private boolean done;
+
+        private OverflowGuard(final Flow.Subscriber<? super ChangeEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(final ChangeEvent event) {
+            if (done) {
+                return;
+            }
+            if (overflowed) {
+                subscription.cancel();
+                onError(new IllegalStateException(OVERFLOW));
+                return;
+            }
+            subscriber.onNext(event);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            if (!done) {
+                done = true;
+                subscriber.onError(error);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (overflowed) {
+                onError(new IllegalStateException(OVERFLOW));
+            } else if (!done) {
+                done = true;
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    // publishes every write reported by the wrapped ports
+    private final class Publishing implements ObservedPorts.WriteHook {
+        @Override
+        public void authorAdded(final Author author) {
+            publish(sequence -> new ChangeEvent.AuthorAdded(sequence, author));
+        }
+
+        @Override
+        public void collectionAdded(final Collection collection) {
+            publish(sequence -> new ChangeEvent.CollectionAdded(sequence, collection));
+        }
+
+        @Override
+        public void bookAdded(final Book book) {
+            publish(sequence -> new ChangeEvent.BookAdded(sequence, book));
+        }
+
+        @Override
+        public void bookReplaced(final BookPersistence.Replacement replacement) {
+            publish(sequence -> bookUpdated(sequence, replacement));
+        }
+
+        @Override
+        public void committed(final UnitOfWork.Committed committed) {
+            publishAll(committed);
+        }
+    }
+}
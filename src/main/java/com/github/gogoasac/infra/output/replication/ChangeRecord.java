@@ -0,0 +1,25 @@
+package com.github.gogoasac.infra.output.replication;
+
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+
+/**
+ * One line of the change log: the stored state of exactly one entity after a
+ * write, the other two entity fields are null.
+ *
+ * @param generation  identifies one log of the primary; a restart or a failed append starts a new one
+ * @param sequence    position in the log, starting at 1
+ * @param committedAt primary wall-clock time of the write, epoch milliseconds
+ */
+record ChangeRecord(long generation, long sequence, long committedAt, Book book, Author author, Collection collection) {
+    static ChangeRecord of(final long generation, final long sequence, final Object entity) {
+        final long now = System.currentTimeMillis();
+        return switch (entity) {
+            case Book b -> new ChangeRecord(generation, sequence, now, b, null, null);
+            case Author a -> new ChangeRecord(generation, sequence, now, null, a, null);
+            case Collection c -> new ChangeRecord(generation, sequence, now, null, null, c);
+            default -> throw new IllegalArgumentException("Not a replicated entity: " + entity);
+        };
+    }
+}
@@ -0,0 +1,419 @@
+package com.github.gogoasac.infra.output.replication;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.gogoasac.application.dto.ReplicationStatus;
+import com.github.gogoasac.application.input.ReplicationInput;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.HoldPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Follower side of log-shipping replication.
+ *
+ * <p>Tails the change log a {@link ReplicationPrimary} writes into a shared
+ * directory and applies every record to in-memory copies of the books, authors
+ * and collections, exposed as read-only ports through {@link #books()},
+ * {@link #authors()} and {@link #collections()}. Their write methods throw
+ * {@link UnsupportedOperationException}; writes go to the primary.
+ *
+ * <p>{@link #poll()} reads whatever complete lines were appended since the
+ * last call; {@link #start(Duration)} calls it on a background thread. A
+ * record of another generation, a line that does not parse, or a log shorter
+ * than what was already read means the primary restarted, and a sequence
+ * number that skips ahead means records were lost. Either way the log is
+ * replayed from the start into fresh copies, which replace the current ones
+ * in one step once the replay is through; readers keep the old copies until
+ * then. If the replay runs into the same again, the poll fails and the old
+ * copies stay. A book record only replaces
+ * a lower version, because the primary may append two writes of one book out
+ * of order.
+ *
+ * <p>Reads never lock: each entity type is a concurrent map ordered by id, and
+ * a record applied while tailing is visible at once. A listing may therefore show
+ * some of the records of one poll and not others.
+ *
+ * <p>Holds are not replicated: {@link #holds()} is empty and rejects new holds.
+ */
+public final class LogFollower implements ReplicationInput, Closeable {
+    static final String READ_ONLY = "Read-only replica: send writes to the primary";
+
+    private static final ObjectReader RECORD_READER = JsonSerialization.shared().reader(ChangeRecord.class);
+
+    private final Logger logger = Logger.getLogger(LogFollower.class.getName());
+    private final Path logPath;
+    // data versions of the three copies, for the report cache
+    private final AtomicLong bookVersion = new AtomicLong();
+    private final AtomicLong authorVersion = new AtomicLong();
+    private final AtomicLong collectionVersion = new AtomicLong();
+    private final BookPersistence bookPort = new ReplicaBooks();
+    private final AuthorPersistence authorPort = new ReplicaAuthors();
+    private final CollectionPersistence collectionPort = new ReplicaCollections();
+
+    // written under this; readers see either the old or the replayed copies, never a mix
+    private volatile Copies copies = new Copies();
+    private long generation;
+    private volatile long position;
+    private ScheduledExecutorService poller;
+
+    private volatile long appliedSequence;
+    private volatile long caughtUpAtNanos = System.nanoTime();
+
+    public LogFollower(final Path directory) {
+        this.logPath = directory.resolve(ReplicationPrimary.LOG_FILE);
+    }
+
+    public BookPersistence books() {
+        return bookPort;
+    }
+
+    public AuthorPersistence authors() {
+        return authorPort;
+    }
+
+    public CollectionPersistence collections() {
+        return collectionPort;
+    }
+
+    public HoldPersistence holds() {
+        return new NoHolds();
+    }
+
+    public TransactionalPersistence transactions() {
+        return () -> {
+            throw new UnsupportedOperationException(READ_ONLY);
+        };
+    }
+
+    /**
+     * Poll the log every {@code interval} on a daemon thread until {@link #close()}.
+     */
+    public synchronized void start(final Duration interval) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "replication-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollQuietly, 0L, interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Apply every complete line appended since the last poll.
+     *
+     * @return the number of records applied
+     * @throws IOException when the log exists but cannot be read, or cannot be
+     *                     replayed after it was replaced or lost records
+     */
+    public synchronized int poll() throws IOException {
+        final Pass tail = new Pass(copies, position, generation, appliedSequence);
+        final boolean tailed = tail.run();
+        advance(tail);
+        if (tailed) {
+            return tail.applied;
+        }
+
+        final Pass replay = new Pass(new Copies(), 0L, 0L, 0L);
+        if (!replay.run()) {
+            throw new IOException("Failed to replay the change log, it " + replay.stopped + ": " + logPath);
+        }
+        logger.info("Change log " + tail.stopped + "; replayed it from the start");
+        copies = replay.target;
+        bookVersion.incrementAndGet();
+        authorVersion.incrementAndGet();
+        collectionVersion.incrementAndGet();
+        advance(replay);
+        return tail.applied + replay.applied;
+    }
+
+    @Override
+    public ReplicationStatus getReplicationStatus() {
+        final long pending = Math.max(0L, size() - position);
+        final Duration lag = pending == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - caughtUpAtNanos);
+        return new ReplicationStatus(ReplicationStatus.FOLLOWER, appliedSequence, pending, lag);
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException | RuntimeException e) {
+            // keep polling; the status shows the growing lag
+            logger.warning("Failed to apply the change log: " + e.getMessage());
+        }
+    }
+
+    private void advance(final Pass pass) {
+        position = pass.position;
+        generation = pass.generation;
+        appliedSequence = pass.sequence;
+        if (pass.caughtUp) {
+            caughtUpAtNanos = System.nanoTime();
+        }
+    }
+
+    private void apply(final Copies target, final ChangeRecord record) {
+        if (record.book() != null) {
+            target.books().merge(record.book().id(), record.book(),
+                (current, next) -> next.version() >= current.version() ? next : current);
+            bookVersion.incrementAndGet();
+        } else if (record.author() != null) {
+            target.authors().put(record.author().id(), record.author());
+            authorVersion.incrementAndGet();
+        } else if (record.collection() != null) {
+            target.collections().put(record.collection().id(), record.collection());
+            collectionVersion.incrementAndGet();
+        }
+    }
+
+    private long size() {
+        try {
+            return Files.size(logPath);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static byte[] read(final FileChannel channel, final long from) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size() - from));
+        long offset = from;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return buffer.array();
+    }
+
+    private record Copies(ConcurrentSkipListMap<Long, Book> books,
+                          ConcurrentSkipListMap<Long, Author> authors,
+                          ConcurrentSkipListMap<Long, Collection> collections) {
+        Copies() {
+            this(new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * One read of the log into {@code target}, from {@code position} to the last
+     * complete line.
+     */
+    private final class Pass {
+        private final Copies target;
+        private long position;
+        private long generation;
+        private long sequence;
+        private int applied;
+        private boolean caughtUp;
+        // why the pass stopped early, null when it read to the end
+        private String stopped;
+
+        private Pass(final Copies target, final long position, final long generation, final long sequence) {
+            this.target = target;
+            this.position = position;
+            this.generation = generation;
+            this.sequence = sequence;
+        }
+
+        /**
+         * @return false when the log no longer continues what was applied
+         */
+        boolean run() throws IOException {
+            final byte[] appended;
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+                if (channel.size() < position) {
+                    stopped = "was replaced";
+                    return false;
+                }
+                appended = read(channel, position);
+            } catch (NoSuchFileException e) {
+                // the primary has not started yet
+                return true;
+            }
+
+            int lineStart = 0;
+            try {
+                for (int i = 0; i < appended.length; i++) {
+                    if (appended[i] != '\n') {
+                        continue;
+                    }
+                    final ChangeRecord record;
+                    try {
+                        record = RECORD_READER.readValue(appended, lineStart, i - lineStart);
+                    } catch (JsonProcessingException e) {
+                        if (position + lineStart == 0) {
+                            throw e;
+                        }
+                        // most likely the middle of a line of a new, longer log
+                        stopped = "was replaced";
+                        return false;
+                    }
+                    if (record.generation() != generation) {
+                        if (position + lineStart > 0) {
+                            stopped = "was replaced";
+                            return false;
+                        }
+                        generation = record.generation();
+                    } else if (record.sequence() != sequence + 1) {
+                        // applying past the hole would leave the copies silently wrong
+                        stopped = "is missing records " + (sequence + 1) + " to " + (record.sequence() - 1);
+                        return false;
+                    }
+                    apply(target, record);
+                    sequence = record.sequence();
+                    applied++;
+                    lineStart = i + 1;
+                }
+                // an incomplete last line is read again once the primary finished it
+                caughtUp = lineStart == appended.length;
+                return true;
+            } finally {
+                position += lineStart;
+            }
+        }
+    }
+
+    private final class ReplicaBooks implements BookPersistence {
+        @Override
+        public Book addBook(final Book book) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Book> updateBook(final Book book) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Book> updateIfVersion(final Book book, final long expectedVersion) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Replacement> replaceBook(final Book book) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Replacement> replaceIfVersion(final Book book, final long expectedVersion) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Book> findById(final Long id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(copies.books().get(id));
+        }
+
+        @Override
+        public List<Book> findAll() {
+            return new ArrayList<>(copies.books().values());
+        }
+
+        @Override
+        public long changeSequence() {
+            return bookVersion.get();
+        }
+    }
+
+    private final class ReplicaAuthors implements AuthorPersistence {
+        @Override
+        public Author addAuthor(final Author author) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Author> findById(final Long id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(copies.authors().get(id));
+        }
+
+        @Override
+        public List<Author> findAll() {
+            return new ArrayList<>(copies.authors().values());
+        }
+
+        @Override
+        public long dataVersion() {
+            return authorVersion.get();
+        }
+    }
+
+    private final class ReplicaCollections implements CollectionPersistence {
+        @Override
+        public Collection addCollection(final Collection collection) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Collection> findById(final Long id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(copies.collections().get(id));
+        }
+
+        @Override
+        public List<Collection> findAll() {
+            return new ArrayList<>(copies.collections().values());
+        }
+
+        @Override
+        public long dataVersion() {
+            return collectionVersion.get();
+        }
+    }
+
+    private static final class NoHolds implements HoldPersistence {
+        @Override
+        public Hold enqueue(final Hold hold) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public Optional<Hold> peek(final Long bookId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean dequeue(final Hold hold) {
+            return false;
+        }
+
+        @Override
+        public List<Hold> findByBookId(final Long bookId) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.gogoasac.infra.output.replication;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.gogoasac.application.dto.ReplicationStatus;
+import com.github.gogoasac.application.input.ReplicationInput;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+import com.github.gogoasac.infra.output.base.ObservedPorts;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Primary side of log-shipping replication.
+ *
+ * <p>Wraps the book, author and collection ports. After every successful write
+ * through {@link #books()}, {@link #authors()} or {@link #collections()} the
+ * stored entity is appended as one JSON line ({@link ChangeRecord}) to
+ * {@value #LOG_FILE} in a directory shared with the followers (see
+ * {@link LogFollower}). Reads and failed writes go straight to the wrapped
+ * ports and are not logged. A unit of work committed through
+ * {@link #transactions(TransactionalPersistence)} is appended with one write,
+ * authors first; a follower polling meanwhile may still apply only part of it.
+ *
+ * <p>Every run starts a new log: the constructor writes every current entity
+ * to a fresh file under a new generation and moves it over the previous one
+ * atomically, then appends. Followers that see a new generation start over, so
+ * the log never has to be compacted while the primary runs.
+ *
+ * <p>A failed append does not fail the write, which the wrapped port has
+ * already committed. The log is marked broken instead and nothing more is
+ * appended to it; the next write, or the failed one if it can, starts a new
+ * generation the same way a restart does, so followers resync rather than
+ * silently miss the lost records.
+ *
+ * <p>The log is for shipping, not durability: the wrapped repositories own
+ * their files, and lines are written without forcing them to disk. Two writes
+ * of the same book can be appended in a different order than they committed;
+ * followers keep the higher book version, and authors and collections are
+ * only ever added.
+ */
+public final class ReplicationPrimary implements ReplicationInput, Closeable {
+    public static final String LOG_FILE = "changes.log";
+
+    private static final ObjectWriter RECORD_WRITER = JsonSerialization.shared().writer(ChangeRecord.class);
+
+    private final Logger logger = Logger.getLogger(ReplicationPrimary.class.getName());
+    private final ObservedPorts ports;
+    private final Path logPath;
+    // guarded by this
+    private long generation;
+    private FileChannel log;
+    private long sequence;
+    private boolean broken;
+
+    public ReplicationPrimary(final Path directory,
+                              final BookPersistence books,
+                              final AuthorPersistence authors,
+                              final CollectionPersistence collections) {
+        this.ports = new ObservedPorts(books, authors, collections, new Shipping());
+        this.logPath = directory.resolve(LOG_FILE).toAbsolutePath();
+        try {
+            Files.createDirectories(directory);
+            roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the change log in " + directory, e);
+        }
+    }
+
+    public BookPersistence books() {
+        return ports.books();
+    }
+
+    public AuthorPersistence authors() {
+        return ports.authors();
+    }
+
+    public CollectionPersistence collections() {
+        return ports.collections();
+    }
+
+    /**
+     * Wrap the transactions over the ports this primary wraps, so their commits
+     * are shipped too.
+     */
+    public TransactionalPersistence transactions(final TransactionalPersistence transactions) {
+        return ports.transactions(transactions);
+    }
+
+    @Override
+    public synchronized ReplicationStatus getReplicationStatus() {
+        return new ReplicationStatus(ReplicationStatus.PRIMARY, sequence, 0L, Duration.ZERO);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    // starts a new generation from the current data; callers hold the lock, or run in the constructor
+    private void roll() throws IOException {
+        generation = Math.max(System.currentTimeMillis(), generation + 1);
+        sequence = 0L;
+        writeBaseline();
+        final FileChannel previous = log;
+        log = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        broken = false;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    // authors and collections first, so a follower never sees a book before its references
+    private void writeBaseline() throws IOException {
+        final Path temp = Files.createTempFile(logPath.getParent(), LOG_FILE, ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (final Author author : ports.authors().findAll()) {
+                    out.write(line(author));
+                }
+                for (final Collection collection : ports.collections().findAll()) {
+                    out.write(line(collection));
+                }
+                for (final Book book : ports.books().findAll()) {
+                    out.write(line(book));
+                }
+            }
+            Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // callers hold the lock, or run in the constructor
+    private String line(final Object entity) throws IOException {
+        return RECORD_WRITER.writeValueAsString(ChangeRecord.of(generation, ++sequence, entity)) + "\n";
+    }
+
+    private synchronized void append(final Object entity) {
+        appendAll(List.of(entity));
+    }
+
+    private synchronized void appendAll(final List<?> entities) {
+        if (!broken) {
+            try {
+                final StringBuilder lines = new StringBuilder();
+                for (final Object entity : entities) {
+                    lines.append(line(entity));
+                }
+                final ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    log.write(bytes);
+                }
+                return;
+            } catch (IOException e) {
+                // the write itself is committed, so it must not fail; the lines may be partly in the log
+                logger.severe("Failed to append to the change log, starting a new one: " + e.getMessage());
+                broken = true;
+            }
+        }
+        // the new baseline is read from the wrapped ports, so it already holds these entities
+        try {
+            roll();
+            logger.info("Started change log generation " + generation + " after a failed append");
+        } catch (IOException e) {
+            logger.severe("Failed to start a new change log, retrying on the next write: " + e.getMessage());
+        }
+    }
+
+    // appends every write reported by the wrapped ports
+    private final class Shipping implements ObservedPorts.WriteHook {
+        @Override
+        public void authorAdded(final Author author) {
+            append(author);
+        }
+
+        @Override
+        public void collectionAdded(final Collection collection) {
+            append(collection);
+        }
+
+        @Override
+        public void bookAdded(final Book book) {
+            append(book);
+        }
+
+        @Override
+        public void bookReplaced(final BookPersistence.Replacement replacement) {
+            append(replacement.stored());
+        }
+
+        @Override
+        public void committed(final UnitOfWork.Committed committed) {
+            final List<Object> entities = new ArrayList<>(committed.size());
+            entities.addAll(committed.authors());
+            entities.addAll(committed.collections());
+            entities.addAll(committed.books());
+            appendAll(entities);
+        }
+    }
+}
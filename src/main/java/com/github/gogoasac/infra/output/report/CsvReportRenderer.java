@@ -0,0 +1,64 @@
+package com.github.gogoasac.infra.output.report;
+
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
+import com.github.gogoasac.application.output.ReportRenderer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Renders reports as RFC 4180 CSV with one row per book:
+ * {@code collection,title,author,borrowedAt}, the date ISO formatted and empty
+ * for available books. Collections without books get a row with empty book
+ * columns so they still appear in the export.
+ */
+public final class CsvReportRenderer implements ReportRenderer {
+    private static final String CRLF = "\r\n";
+
+    @Override
+    public ReportFormat format() {
+        return ReportFormat.CSV;
+    }
+
+    @Override
+    public Session open(final OutputStream out, final String date) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("collection,title,author,borrowedAt" + CRLF);
+
+        return new Session() {
+            @Override
+            public void collection(final CollectionReport report) throws IOException {
+                if (report.books().isEmpty()) {
+                    writer.write(escape(report.collectionName()) + ",,," + CRLF);
+                    return;
+                }
+                for (final BookReport book : report.books()) {
+                    writer.write(escape(report.collectionName()) + ',' + escape(book.title()) + ','
+                        + escape(book.authorName()) + ',' + Objects.toString(book.borrowedAt(), "") + CRLF);
+                }
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.gogoasac.infra.output.report;
+
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
+import com.github.gogoasac.application.output.ReportRenderer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Renders reports as a standalone HTML page with one table per collection.
+ */
+public final class HtmlReportRenderer implements ReportRenderer {
+
+    @Override
+    public ReportFormat format() {
+        return ReportFormat.HTML;
+    }
+
+    @Override
+    public Session open(final OutputStream out, final String date) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        final String title = "Library Report - " + escape(date);
+        writer.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n<title>"
+            + title + "</title>\n</head>\n<body>\n<h1>" + title + "</h1>\n");
+
+        return new Session() {
+            @Override
+            public void collection(final CollectionReport report) throws IOException {
+                writer.write("<h2>Collection: " + escape(report.collectionName()) + "</h2>\n");
+                writer.write("<table>\n<tr><th>Title</th><th>Author</th><th>Borrowed</th></tr>\n");
+                for (final BookReport book : report.books()) {
+                    writer.write("<tr><td>" + escape(book.title()) + "</td><td>" + escape(book.authorName()) + "</td><td>"
+                        + Objects.toString(book.borrowedAt(), "") + "</td></tr>\n");
+                }
+                writer.write("</table>\n");
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.write("</body>\n</html>\n");
+                writer.flush();
+            }
+        };
+    }
+
+    static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
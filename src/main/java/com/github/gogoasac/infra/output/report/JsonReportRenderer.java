@@ -0,0 +1,69 @@
+package com.github.gogoasac.infra.output.report;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
+import com.github.gogoasac.application.output.ReportRenderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Renders reports as a JSON document using Jackson's streaming {@link JsonGenerator},
+ * so no tree of the whole report is built in memory:
+ * {@code {"date": "...", "collections": [{"name": "...", "books": [{"title": "...", "author": "...", "borrowedAt": null}]}]}},
+ * with {@code borrowedAt} an ISO date while the book is borrowed.
+ */
+public final class JsonReportRenderer implements ReportRenderer {
+    private final JsonFactory jsonFactory;
+
+    public JsonReportRenderer() {
+        this.jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public ReportFormat format() {
+        return ReportFormat.JSON;
+    }
+
+    @Override
+    public Session open(final OutputStream out, final String date) throws IOException {
+        final JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeStringField("date", date);
+        generator.writeArrayFieldStart("collections");
+
+        return new Session() {
+            @Override
+            public void collection(final CollectionReport report) throws IOException {
+                generator.writeStartObject();
+                generator.writeStringField("name", report.collectionName());
+                generator.writeArrayFieldStart("books");
+                for (final BookReport book : report.books()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("title", book.title());
+                    generator.writeStringField("author", book.authorName());
+                    if (book.borrowedAt() == null) {
+                        generator.writeNullField("borrowedAt");
+                    } else {
+                        generator.writeStringField("borrowedAt", book.borrowedAt().toString());
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                // closes the generator only; AUTO_CLOSE_TARGET is disabled
+                generator.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.gogoasac.infra.output.report;
+
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportFormat;
+import com.github.gogoasac.application.output.ReportRenderer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Renders reports as GitHub-flavoured Markdown with one table per collection.
+ */
+public final class MarkdownReportRenderer implements ReportRenderer {
+
+    @Override
+    public ReportFormat format() {
+        return ReportFormat.MARKDOWN;
+    }
+
+    @Override
+    public Session open(final OutputStream out, final String date) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("# Library Report - " + date + "\n");
+
+        return new Session() {
+            @Override
+            public void collection(final CollectionReport report) throws IOException {
+                writer.write("\n## Collection: " + escape(report.collectionName()) + "\n\n");
+                if (report.books().isEmpty()) {
+                    writer.write("_No books._\n");
+                    return;
+                }
+                writer.write("| Title | Author | Borrowed |\n| --- | --- | --- |\n");
+                for (final BookReport book : report.books()) {
+                    writer.write("| " + escape(book.title()) + " | " + escape(book.authorName()) + " | "
+                        + Objects.toString(book.borrowedAt(), "") + " |\n");
+                }
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("|", "\\|").replace("\n", " ");
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.gogoasac.infra.output.snapshot;
+
+import com.github.gogoasac.application.dto.SnapshotInfo;
+import com.github.gogoasac.application.input.SnapshotInput;
+import com.github.gogoasac.infra.output.CatalogSnapshot;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * {@link SnapshotInput} that writes {@link SnapshotArchive}s of the live
+ * repositories into one directory, one file per snapshot.
+ *
+ * <p>The point-in-time copy comes from {@link FileTransactionManager#snapshot()}
+ * and only holds up commits for as long as it takes to grab the three
+ * committed versions; compressing and writing the file happens afterwards,
+ * while writers carry on. Files are named after the time of the copy, e.g.
+ * {@code library-20240131-235959-123.zip}, so they sort chronologically.
+ */
+public final class OnlineSnapshots implements SnapshotInput {
+    public static final String DEFAULT_DIRECTORY = "snapshots";
+
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("'library-'yyyyMMdd-HHmmss-SSS'.zip'").withZone(ZoneOffset.UTC);
+
+    private final FileTransactionManager transactions;
+    private final Path directory;
+    private final Clock clock;
+
+    public OnlineSnapshots(final FileTransactionManager transactions, final Path directory) {
+        this(transactions, directory, Clock.systemUTC());
+    }
+
+    public OnlineSnapshots(final FileTransactionManager transactions, final Path directory, final Clock clock) {
+        this.transactions = transactions;
+        this.directory = directory;
+        this.clock = clock;
+    }
+
+    @Override
+    public SnapshotInfo createSnapshot() {
+        final long start = System.nanoTime();
+        final CatalogSnapshot snapshot = transactions.snapshot();
+        final Duration capture = Duration.ofNanos(System.nanoTime() - start);
+        final Instant takenAt = clock.instant();
+
+        final Path archive = directory.resolve(FILE_NAME.format(takenAt));
+        try {
+            SnapshotArchive.write(snapshot, takenAt, archive);
+            return new SnapshotInfo(
+                archive.toString(),
+                snapshot.authors().entities().size(),
+                snapshot.collections().entities().size(),
+                snapshot.books().entities().size(),
+                Files.size(archive),
+                capture
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + archive, e);
+        }
+    }
+}
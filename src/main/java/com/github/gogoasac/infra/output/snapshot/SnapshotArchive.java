@@ -0,0 +1,331 @@
+package com.github.gogoasac.infra.output.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.CatalogSnapshot;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+import com.github.gogoasac.infra.output.HoldRepository;
+import com.github.gogoasac.infra.output.ShardedBookRepository;
+import com.github.gogoasac.infra.output.base.AbstractFileRepository;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compressed, checksummed snapshot file of the author, collection and book
+ * repositories.
+ *
+ * <p>A snapshot is a ZIP file with one deflated entry per repository, named
+ * and formatted exactly like its data file ({@code Authors.json},
+ * {@code Collections.json}, {@code Books.json}), and a {@value #MANIFEST}
+ * entry written last. The manifest records, per entry, the repository version
+ * it was taken at, the record count, and the size and CRC-32 of the
+ * uncompressed JSON.
+ *
+ * <p>Writing streams the entities one by one into the archive, so a snapshot
+ * never needs a second in-memory copy of the catalog. The file is written next
+ * to its target, forced to disk and then moved into place, so a snapshot that
+ * exists is complete.
+ *
+ * <p>Restoring extracts the entries concurrently, each on its own task and
+ * straight into a temporary file next to its data file, checking it against
+ * the manifest on the way. Only when every entry matched are the data files
+ * replaced; their {@code .meta} headers are removed, so the next start
+ * rebuilds them, and so is the transaction log, whose pending commits belong
+ * to the replaced data. Holds are not part of a snapshot: their queues refer
+ * to books and loans of the replaced data, so restoring empties the hold log,
+ * keeping only its id high-water mark so the hold ids that restored loans
+ * record are never issued again. A directory holding sharded books is refused,
+ * since the snapshot would only replace the single-file layout next to it.
+ *
+ * <p>The files are moved into place one after the other, so a restore that
+ * dies halfway leaves a mix. The {@value #PENDING} marker, written before the
+ * first move and removed after the last, records that; until a rerun of the
+ * same restore completes, {@link #pendingRestore(Path)} reports it and the
+ * application refuses to start. A restore must run while no application uses
+ * the directory.
+ */
+public final class SnapshotArchive {
+    public static final String MANIFEST = "manifest.json";
+    public static final String AUTHORS = "Authors.json";
+    public static final String COLLECTIONS = "Collections.json";
+    public static final String BOOKS = "Books.json";
+    public static final String PENDING = "Restore.pending";
+
+    static final int FORMAT = 1;
+
+    private static final Set<String> SECTIONS = Set.of(AUTHORS, COLLECTIONS, BOOKS);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final ObjectReader MANIFEST_READER = JsonSerialization.shared().reader(Manifest.class);
+    private static final ObjectWriter MANIFEST_WRITER = unclosing(JsonSerialization.shared().writer(Manifest.class));
+
+    private SnapshotArchive() {
+    }
+
+    /**
+     * Write {@code snapshot} to {@code archive}, replacing any file there.
+     *
+     * @return the manifest that was written
+     */
+    public static Manifest write(final CatalogSnapshot snapshot, final Instant takenAt, final Path archive)
+        throws IOException {
+        final Path target = archive.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            final Manifest manifest;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                     COPY_BUFFER_SIZE))) {
+                manifest = new Manifest(FORMAT, takenAt, List.of(
+                    writeSection(zip, AUTHORS, snapshot.authors(), Author.class),
+                    writeSection(zip, COLLECTIONS, snapshot.collections(), Collection.class),
+                    writeSection(zip, BOOKS, snapshot.books(), Book.class)
+                ));
+                zip.putNextEntry(new ZipEntry(MANIFEST));
+                MANIFEST_WRITER.writeValue(zip, manifest);
+                zip.closeEntry();
+                zip.finish();
+                zip.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return manifest;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replace the data files in {@code directory} with the contents of
+     * {@code archive}, extracting the entries in parallel on {@code executor}.
+     *
+     * @return the manifest of the restored snapshot
+     * @throws IOException when the archive is unreadable or an entry does not
+     *                     match the manifest; the data files are then untouched
+     */
+    public static Manifest restore(final Path archive, final Path directory, final Executor executor)
+        throws IOException {
+        final Path shards = directory.resolve(ShardedBookRepository.DEFAULT_DIRECTORY);
+        if (isNonEmptyDirectory(shards)) {
+            throw new IOException("Books are kept in shards in " + shards + "; move it away before restoring");
+        }
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            final Manifest manifest = readManifest(zip);
+            // ZipFile hands out independent streams, so the entries inflate concurrently
+            final List<CompletableFuture<Path>> extractions = manifest.sections().stream()
+                .map(section -> CompletableFuture.supplyAsync(() -> extract(zip, section, directory), executor))
+                .toList();
+            final List<Path> extracted = new ArrayList<>();
+            IOException failure = null;
+            for (final CompletableFuture<Path> extraction : extractions) {
+                try {
+                    extracted.add(extraction.join());
+                } catch (CompletionException e) {
+                    final IOException cause = e.getCause() instanceof UncheckedIOException unchecked
+                        ? unchecked.getCause()
+                        : new IOException(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                for (final Path temp : extracted) {
+                    Files.deleteIfExists(temp);
+                }
+                throw failure;
+            }
+            final Path pending = directory.resolve(PENDING);
+            Files.writeString(pending, archive.toAbsolutePath().toString(), StandardCharsets.UTF_8);
+            for (int i = 0; i < extracted.size(); i++) {
+                final Path dataFile = directory.resolve(manifest.sections().get(i).file());
+                Files.move(extracted.get(i), dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(Path.of(dataFile + AbstractFileRepository.HEADER_SUFFIX));
+            }
+            Files.deleteIfExists(directory.resolve(FileTransactionManager.DEFAULT_LOG));
+            HoldRepository.clear(directory.resolve(HoldRepository.DEFAULT_LOG));
+            Files.delete(pending);
+            return manifest;
+        }
+    }
+
+    /**
+     * The snapshot whose restore into {@code directory} was interrupted, if any.
+     * The data files there are then a mix of old and restored ones.
+     */
+    public static Optional<String> pendingRestore(final Path directory) throws IOException {
+        final Path pending = directory.resolve(PENDING);
+        return Files.exists(pending)
+            ? Optional.of(Files.readString(pending, StandardCharsets.UTF_8))
+            : Optional.empty();
+    }
+
+    private static boolean isNonEmptyDirectory(final Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return false;
+        }
+        try (Stream<Path> entries = Files.list(path)) {
+            return entries.findAny().isPresent();
+        }
+    }
+
+    private static <T> Section writeSection(final ZipOutputStream zip,
+                                            final String file,
+                                            final PersistenceSnapshot<T> snapshot,
+                                            final Class<T> type) throws IOException {
+        zip.putNextEntry(new ZipEntry(file));
+        final CRC32 crc = new CRC32();
+        final CountingOutputStream out = new CountingOutputStream(new CheckedOutputStream(zip, crc));
+        try (SequenceWriter entities = unclosing(JsonSerialization.shared().writer(type)).writeValuesAsArray(out)) {
+            for (final T entity : snapshot.entities()) {
+                entities.write(entity);
+            }
+        }
+        zip.closeEntry();
+        return new Section(file, snapshot.version(), snapshot.entities().size(), out.count, crc.getValue());
+    }
+
+    private static Manifest readManifest(final ZipFile zip) throws IOException {
+        final ZipEntry entry = zip.getEntry(MANIFEST);
+        if (entry == null) {
+            throw new IOException("Not a snapshot, " + MANIFEST + " is missing: " + zip.getName());
+        }
+        final Manifest manifest;
+        try (InputStream in = zip.getInputStream(entry)) {
+            manifest = MANIFEST_READER.readValue(in);
+        }
+        if (manifest.format() != FORMAT) {
+            throw new IOException("Unsupported snapshot format " + manifest.format() + ": " + zip.getName());
+        }
+        final Set<String> files = manifest.sections().stream().map(Section::file).collect(Collectors.toSet());
+        // the names become file names, so nothing but the known data files is accepted
+        if (!files.equals(SECTIONS) || manifest.sections().size() != SECTIONS.size()) {
+            throw new IOException("Snapshot must hold exactly " + SECTIONS + " but holds " + files + ": " + zip.getName());
+        }
+        return manifest;
+    }
+
+    private static Path extract(final ZipFile zip, final Section section, final Path directory) {
+        try {
+            final ZipEntry entry = zip.getEntry(section.file());
+            if (entry == null) {
+                throw new IOException("Snapshot entry is missing: " + section.file());
+            }
+            final Path temp = Files.createTempFile(directory.toAbsolutePath(), section.file(), ".restore");
+            try {
+                final CRC32 crc = new CRC32();
+                final long size;
+                try (InputStream in = new CheckedInputStream(zip.getInputStream(entry), crc);
+                     FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                     OutputStream out = Channels.newOutputStream(channel)) {
+                    size = in.transferTo(out);
+                    channel.force(true);
+                }
+                if (size != section.size() || crc.getValue() != section.crc32()) {
+                    throw new IOException(String.format(
+                        "Snapshot entry %s is corrupt: expected %d bytes with CRC-32 %08x, found %d bytes with %08x",
+                        section.file(), section.size(), section.crc32(), size, crc.getValue()));
+                }
+                return temp;
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the archive stays open across entries, so Jackson must not close it
+    private static ObjectWriter unclosing(final ObjectWriter writer) {
+        return writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Contents of the {@value #MANIFEST} entry.
+     *
+     * @param format   layout version of the archive, {@value #FORMAT}
+     * @param takenAt  when the point-in-time copy was taken
+     * @param sections one per repository, in the order they were written
+     */
+    public record Manifest(int format, Instant takenAt, List<Section> sections) {
+        public int count(final String file) {
+            return sections.stream().filter(s -> s.file().equals(file)).mapToInt(Section::count).sum();
+        }
+    }
+
+    /**
+     * One repository in a snapshot.
+     *
+     * @param file    entry name, equal to the repository's data file name
+     * @param version repository version the entities were taken at
+     * @param count   number of entities
+     * @param size    length of the uncompressed JSON
+     * @param crc32   CRC-32 of the uncompressed JSON
+     */
+    public record Section(String file, long version, int count, long size, long crc32) {
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        // closing the section must not close the archive
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
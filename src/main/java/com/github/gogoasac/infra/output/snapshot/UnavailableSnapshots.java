@@ -0,0 +1,22 @@
+package com.github.gogoasac.infra.output.snapshot;
+
+import com.github.gogoasac.application.dto.SnapshotInfo;
+import com.github.gogoasac.application.input.SnapshotInput;
+
+/**
+ * {@link SnapshotInput} for processes that cannot take snapshots, such as
+ * replication followers. Every request fails with the reason given here, which
+ * adapters report to the client as is.
+ */
+public final class UnavailableSnapshots implements SnapshotInput {
+    private final String reason;
+
+    public UnavailableSnapshots(final String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public SnapshotInfo createSnapshot() {
+        throw new IllegalStateException(reason);
+    }
+}
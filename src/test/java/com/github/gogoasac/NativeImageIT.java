@@ -0,0 +1,131 @@
+package com.github.gogoasac;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the native binary behaves like the JVM build: the same batch
+ * script, run through {@link HeadlessMain} on the JVM and through the binary,
+ * must print the same output, exit with the same status and leave the same data
+ * files behind.
+ *
+ * <p>Run by failsafe in the {@code native} profile ({@code mvn -Pnative verify});
+ * skipped when the {@code library.native.binary} executable does not exist.
+ */
+@DisplayName("Native image regression tests")
+class NativeImageIT {
+    private static final String SCRIPT = """
+        add-author "Ursula K. Le Guin"
+        add-collection "Science Fiction"
+        add-book "The Dispossessed" 1 1 1974
+        add-book "The Left Hand of Darkness" 1 1 1969
+        borrow 1
+        hold 1 "Genly Ai"
+        holds 1
+        return 1
+        get-book 1
+        get-book 99
+        list-books 1
+        list-authors
+        list-collections
+        """;
+    private static final List<String> DATA_FILES = List.of("Books.json", "Authors.json", "Collections.json", "Holds.log");
+
+    @TempDir
+    Path workDir;
+
+    private Path binary;
+
+    @BeforeEach
+    void setUp() {
+        binary = Path.of(System.getProperty("library.native.binary", "target/library")).toAbsolutePath();
+        assumeTrue(Files.isExecutable(binary), "native binary not built: " + binary);
+    }
+
+    @Test
+    @DisplayName("Should print the same batch output and write the same data files as the JVM")
+    void batch_ShouldMatchJvm() throws Exception {
+        final Run jvm = run(workDir.resolve("jvm"), jvmCommand("batch", "-"), SCRIPT);
+        final Run nativeRun = run(workDir.resolve("native"), nativeCommand("batch", "-"), SCRIPT);
+
+        assertEquals(1, jvm.status(), "the script has one failing command");
+        assertEquals(jvm.status(), nativeRun.status());
+        assertEquals(jvm.stdout(), nativeRun.stdout());
+        for (final String file : DATA_FILES) {
+            assertEquals(
+                Files.readString(workDir.resolve("jvm").resolve(file)),
+                Files.readString(workDir.resolve("native").resolve(file)),
+                file
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Should reload data written by the JVM build")
+    void batch_ShouldReadJvmData() throws Exception {
+        final Path shared = workDir.resolve("shared");
+        run(shared, jvmCommand("batch", "-"), SCRIPT);
+
+        final Run nativeRun = run(shared, nativeCommand("batch", "-"), "list-books\nholds 1\n");
+
+        assertEquals(0, nativeRun.status());
+        assertTrue(nativeRun.stdout().contains("The Left Hand of Darkness"), nativeRun.stdout());
+        assertTrue(nativeRun.stdout().contains("Executed 2 commands, 0 failed."), nativeRun.stdout());
+    }
+
+    @Test
+    @DisplayName("Should reject the interactive mode with the same usage status")
+    void noArguments_ShouldExitWithUsage() throws Exception {
+        final Run jvm = run(workDir.resolve("jvm"), jvmCommand(), "");
+        final Run nativeRun = run(workDir.resolve("native"), nativeCommand(), "");
+
+        assertEquals(2, jvm.status());
+        assertEquals(jvm.status(), nativeRun.status());
+    }
+
+    private List<String> jvmCommand(final String... args) {
+        final List<String> command = new ArrayList<>(List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp", System.getProperty("java.class.path"),
+            HeadlessMain.class.getName()
+        ));
+        command.addAll(List.of(args));
+        return command;
+    }
+
+    private List<String> nativeCommand(final String... args) {
+        final List<String> command = new ArrayList<>(List.of(binary.toString()));
+        command.addAll(List.of(args));
+        return command;
+    }
+
+    private static Run run(final Path dir, final List<String> command, final String stdin)
+        throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        final Process process = new ProcessBuilder(command)
+            .directory(dir.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try (var in = process.getOutputStream()) {
+            in.write(stdin.getBytes(StandardCharsets.UTF_8));
+        }
+        final String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS), "process did not exit: " + command);
+        return new Run(process.exitValue(), stdout);
+    }
+
+    private record Run(int status, String stdout) {}
+}
@@ -1,12 +1,16 @@
 package com.github.gogoasac.application.service;
 
 import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.BookDetails;
 import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookActivityListener;
 import com.github.gogoasac.application.output.BookPersistence;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.HoldPersistence;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +18,13 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,6 +34,7 @@ class BookManagementServiceTest {
     BookPersistence bookPersist;
     AuthorPersistence authorPersist;
     CollectionPersistence collectionPersist;
+    InMemoryHoldPersistence holdPersist = new InMemoryHoldPersistence();
     BookManagementService service;
 
     @Nested
@@ -98,9 +110,14 @@ class BookManagementServiceTest {
                     }
                     return Optional.empty();
                 }
+
+                @Override
+                public Optional<Book> updateIfVersion(final Book book, final long expectedVersion) {
+                    throw new UnsupportedOperationException();
+                }
             };
 
-            service = new BookManagementService(bookPersist, authorPersist, collectionPersist);
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist);
         }
 
         @Test
@@ -121,6 +138,25 @@ class BookManagementServiceTest {
             assertEquals(result.id(), all.getFirst().id());
         }
 
+        @Test
+        @DisplayName("should notify activity listeners of the stored book")
+        void shouldNotifyListenersOfAddedBook() {
+            final List<Book> added = new ArrayList<>();
+            final BookActivityListener listener = new BookActivityListener() {
+                @Override
+                public void onAdded(Book book) {
+                    added.add(book);
+                }
+            };
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist, List.of(listener));
+
+            final Book result = service.addBook(new AddBookCommand("New Title", 1L, 10L, 2021));
+
+            assertEquals(List.of(result), added);
+            assertThrows(IllegalArgumentException.class, () -> service.addBook(new AddBookCommand("Bad", 99L, 10L, 2021)));
+            assertEquals(1, added.size());
+        }
+
         @Test
         @DisplayName("should throw when author does not exist")
         void shouldThrowWhenAuthorMissing() {
@@ -139,8 +175,10 @@ class BookManagementServiceTest {
     }
 
     @Nested
-    @DisplayName("getAll and getById")
+    @DisplayName("getAll, getByCollectionId and getById")
     class RetrievalTests {
+        private final List<Long> collectionQueries = new ArrayList<>();
+
         @BeforeEach
         void setup() {
             final List<Book> initial = Arrays.asList(
@@ -164,10 +202,21 @@ class BookManagementServiceTest {
                     return initial;
                 }
 
+                @Override
+                public List<Book> findByCollectionId(Long collectionId) {
+                    collectionQueries.add(collectionId);
+                    return collectionId == 10L ? initial : List.of();
+                }
+
                 @Override
                 public Optional<Book> updateBook(Book book) {
                     return Optional.empty();
                 }
+
+                @Override
+                public Optional<Book> updateIfVersion(Book book, long expectedVersion) {
+                    return Optional.empty();
+                }
             };
 
             authorPersist = new AuthorPersistence() {
@@ -204,7 +253,7 @@ class BookManagementServiceTest {
                 }
             };
 
-            service = new BookManagementService(bookPersist, authorPersist, collectionPersist);
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist);
         }
 
         @Test
@@ -217,6 +266,14 @@ class BookManagementServiceTest {
             assertTrue(all.stream().anyMatch(b -> b.title().equals("Beta")));
         }
 
+        @Test
+        @DisplayName("should read the books of one collection from the per-collection query")
+        void shouldReturnByCollection() {
+            assertEquals(2, service.getByCollectionId(10L).size());
+            assertTrue(service.getByCollectionId(11L).isEmpty());
+            assertEquals(List.of(10L, 11L), collectionQueries);
+        }
+
         @Test
         @DisplayName("should return book by id when exists")
         void shouldReturnById() {
@@ -272,6 +329,22 @@ class BookManagementServiceTest {
                     }
                     return Optional.empty();
                 }
+
+                @Override
+                public Optional<Book> updateIfVersion(final Book updated, final long expectedVersion) {
+                    for (int i = 0; i < storage.size(); i++) {
+                        final Book current = storage.get(i);
+                        if (current.id().equals(updated.id())) {
+                            if (current.version() != expectedVersion) {
+                                return Optional.empty();
+                            }
+                            final Book stored = updated.withVersion(expectedVersion + 1);
+                            storage.set(i, stored);
+                            return Optional.of(stored);
+                        }
+                    }
+                    return Optional.empty();
+                }
             };
 
             // author/collection persistence simple stubs so service validation passes
@@ -293,7 +366,7 @@ class BookManagementServiceTest {
                 public List<Collection> findAll() { return Collections.singletonList(new Collection(10L, "Collection Ten")); }
             };
 
-            service = new BookManagementService(bookPersist, authorPersist, collectionPersist);
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist);
         }
 
         @Test
@@ -323,5 +396,300 @@ class BookManagementServiceTest {
             // message thrown by Optional.orElseThrow() may vary; ensure exception thrown
             assertNotNull(ex);
         }
+
+        @Test
+        @DisplayName("should bump the version on every successful update")
+        void shouldBumpVersion() {
+            service.borrow(1L);
+            assertEquals(1L, bookPersist.findById(1L).orElseThrow().version());
+
+            service.returnBook(1L);
+            assertEquals(2L, bookPersist.findById(1L).orElseThrow().version());
+        }
+
+        @Test
+        @DisplayName("should return a borrowed book")
+        void shouldReturnBorrowedBook() {
+            service.borrow(1L);
+
+            service.returnBook(1L);
+
+            Book after = bookPersist.findById(1L).orElseThrow();
+            assertFalse(after.isBorrowed());
+            assertNull(after.borrowedAt());
+        }
+
+        @Test
+        @DisplayName("should refuse to return a book that is not borrowed")
+        void shouldThrowWhenReturningAvailableBook() {
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.returnBook(1L));
+            assertEquals("Book is not borrowed.", ex.getMessage());
+        }
+
+        @Test
+        @DisplayName("should queue holds on a borrowed book in FIFO order")
+        void shouldQueueHolds() {
+            service.borrow(1L);
+
+            final Hold first = service.placeHold(1L, "  Ada ");
+            service.placeHold(1L, "Grace");
+
+            assertEquals("Ada", first.patron());
+            assertEquals(LocalDate.now(), first.placedAt());
+            assertEquals(List.of("Ada", "Grace"), service.getHolds(1L).stream().map(Hold::patron).toList());
+        }
+
+        @Test
+        @DisplayName("should refuse holds on an available book or without a patron")
+        void shouldRejectInvalidHolds() {
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.placeHold(1L, "Ada"));
+            assertEquals("Book is available; borrow it instead.", ex.getMessage());
+
+            service.borrow(1L);
+            assertThrows(IllegalArgumentException.class, () -> service.placeHold(1L, " "));
+            assertTrue(service.getHolds(1L).isEmpty());
+        }
+
+        @Test
+        @DisplayName("should notify activity listeners with the stored book")
+        void shouldNotifyListeners() {
+            final List<String> events = new ArrayList<>();
+            final BookActivityListener listener = new BookActivityListener() {
+                @Override
+                public void onBorrowed(Book book) {
+                    events.add("borrowed v" + book.version());
+                }
+
+                @Override
+                public void onReturned(Book book) {
+                    events.add("returned v" + book.version());
+                }
+            };
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist, List.of(listener));
+
+            service.borrow(1L);
+            service.placeHold(1L, "Ada");
+            service.returnBook(1L);
+            service.returnBook(1L);
+
+            assertEquals(List.of("borrowed v1", "borrowed v2", "returned v3"), events);
+        }
+
+        @Test
+        @DisplayName("should resolve details with names, borrow state and holds")
+        void shouldResolveDetails() {
+            service.borrow(1L);
+            service.placeHold(1L, "Ada");
+
+            final BookDetails details = service.getDetails(1L);
+
+            assertEquals("Loanable", details.title());
+            assertEquals("Author One", details.authorName());
+            assertEquals("Collection Ten", details.collectionName());
+            assertEquals(2022, details.publicationYear());
+            assertTrue(details.borrowed());
+            assertEquals(LocalDate.now(), details.borrowedAt());
+            assertEquals(List.of("Ada"), details.holds().stream().map(Hold::patron).toList());
+            assertThrows(IllegalArgumentException.class, () -> service.getDetails(999L));
+        }
+
+        @Test
+        @DisplayName("should hand a returned book to the oldest hold")
+        void shouldHandOverToOldestHold() {
+            service.borrow(1L);
+            service.placeHold(1L, "Ada");
+            service.placeHold(1L, "Grace");
+
+            service.returnBook(1L);
+
+            final Book after = bookPersist.findById(1L).orElseThrow();
+            assertTrue(after.isBorrowed(), "Book goes straight to the next holder");
+            assertEquals(2L, after.version(), "Hand-over is a single update");
+            assertEquals(List.of("Grace"), service.getHolds(1L).stream().map(Hold::patron).toList());
+
+            service.returnBook(1L);
+            service.returnBook(1L);
+            assertFalse(bookPersist.findById(1L).orElseThrow().isBorrowed());
+        }
+
+        @Test
+        @DisplayName("should record the hold a returned book was handed to")
+        void shouldRecordHoldOnLoan() {
+            service.borrow(1L);
+            final Hold ada = service.placeHold(1L, "Ada");
+
+            service.returnBook(1L);
+
+            assertEquals(ada.id(), bookPersist.findById(1L).orElseThrow().holdId());
+            service.returnBook(1L);
+            assertNull(bookPersist.findById(1L).orElseThrow().holdId());
+        }
+
+        @Test
+        @DisplayName("should finish a hand-over whose dequeue is missing instead of serving the hold twice")
+        void shouldNotServeHoldTwice() {
+            service.borrow(1L);
+            final Hold ada = service.placeHold(1L, "Ada");
+            final Hold grace = service.placeHold(1L, "Grace");
+            // a return that handed the book to Ada but has not dequeued her hold yet
+            final Book borrowed = bookPersist.findById(1L).orElseThrow();
+            bookPersist.updateIfVersion(borrowed.returnBook().borrowFor(ada), borrowed.version());
+
+            service.returnBook(1L);
+
+            assertEquals(grace.id(), bookPersist.findById(1L).orElseThrow().holdId(), "Ada's loan ends, Grace is next");
+            assertTrue(service.getHolds(1L).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("borrow and return under contention")
+    class ContentionTests {
+        private static final int THREADS = 16;
+
+        private final ConcurrentHashMap<Long, Book> storage = new ConcurrentHashMap<>();
+        private final AtomicInteger conflicts = new AtomicInteger();
+
+        @BeforeEach
+        void setup() {
+            storage.put(1L, new Book(1L, "Popular Title", 1L, 10L, 2022));
+
+            bookPersist = new BookPersistence() {
+                @Override
+                public Book addBook(Book book) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Optional<Book> findById(Long id) {
+                    return Optional.ofNullable(storage.get(id));
+                }
+
+                @Override
+                public List<Book> findAll() {
+                    return List.copyOf(storage.values());
+                }
+
+                @Override
+                public Optional<Book> updateBook(Book book) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Optional<Book> updateIfVersion(Book book, long expectedVersion) {
+                    final Book current = storage.get(book.id());
+                    if (current == null || current.version() != expectedVersion) {
+                        conflicts.incrementAndGet();
+                        return Optional.empty();
+                    }
+                    final Book stored = book.withVersion(expectedVersion + 1);
+                    if (!storage.replace(book.id(), current, stored)) {
+                        conflicts.incrementAndGet();
+                        return Optional.empty();
+                    }
+                    return Optional.of(stored);
+                }
+            };
+
+            service = new BookManagementService(bookPersist, authorPersist, collectionPersist, holdPersist);
+        }
+
+        private void runConcurrently(final Runnable task) throws Exception {
+            final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+        }
+
+        @Test
+        @DisplayName("should let exactly one of many concurrent borrowers win")
+        void shouldAllowSingleBorrower() throws Exception {
+            final AtomicInteger successes = new AtomicInteger();
+            final AtomicInteger rejections = new AtomicInteger();
+
+            runConcurrently(() -> {
+                try {
+                    service.borrow(1L);
+                    successes.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejections.incrementAndGet();
+                }
+            });
+
+            assertEquals(1, successes.get());
+            assertEquals(THREADS - 1, rejections.get());
+            assertEquals(1L, storage.get(1L).version());
+        }
+
+        @Test
+        @DisplayName("should never lose an update while borrowing and returning concurrently")
+        void shouldNotLoseUpdates() throws Exception {
+            final int rounds = 200;
+            final AtomicInteger borrows = new AtomicInteger();
+            final AtomicInteger returns = new AtomicInteger();
+
+            runConcurrently(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    try {
+                        service.borrow(1L);
+                        borrows.incrementAndGet();
+                    } catch (IllegalStateException ignored) {
+                        // someone else holds the book
+                    }
+                    try {
+                        service.returnBook(1L);
+                        returns.incrementAndGet();
+                    } catch (IllegalStateException ignored) {
+                        // already returned by someone else
+                    }
+                }
+            });
+
+            final Book last = storage.get(1L);
+            // every successful action produced exactly one version, and borrow/return strictly alternate
+            assertEquals(borrows.get() + returns.get(), last.version());
+            assertEquals(borrows.get() - returns.get(), last.isBorrowed() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Minimal FIFO hold store; holds only ever leave from the head of a book's queue.
+     */
+    static final class InMemoryHoldPersistence implements HoldPersistence {
+        private final List<Hold> holds = new ArrayList<>();
+        private long nextId = 1L;
+
+        @Override
+        public synchronized Hold enqueue(Hold hold) {
+            final Hold saved = new Hold(nextId++, hold.bookId(), hold.patron(), hold.placedAt());
+            holds.add(saved);
+            return saved;
+        }
+
+        @Override
+        public synchronized Optional<Hold> peek(Long bookId) {
+            return holds.stream().filter(h -> h.bookId().equals(bookId)).findFirst();
+        }
+
+        @Override
+        public synchronized boolean dequeue(Hold hold) {
+            return peek(hold.bookId()).filter(hold::equals).map(holds::remove).orElse(false);
+        }
+
+        @Override
+        public synchronized List<Hold> findByBookId(Long bookId) {
+            return holds.stream().filter(h -> h.bookId().equals(bookId)).toList();
+        }
     }
-}
\ No newline at end of file
+}
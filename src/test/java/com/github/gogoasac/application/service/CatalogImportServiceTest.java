@@ -0,0 +1,177 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.input.CatalogImportInput;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookActivityListener;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.TransactionalPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CatalogImportService")
+class CatalogImportServiceTest {
+    private static final Author EXISTING_AUTHOR = new Author(1L, "Existing Author");
+    private static final Collection EXISTING_COLLECTION = new Collection(1L, "Existing Collection");
+
+    private final List<UnitOfWork.Committed> commits = new ArrayList<>();
+    private final List<Book> added = new ArrayList<>();
+    private CatalogImportInput service;
+
+    @BeforeEach
+    void setup() {
+        final BookActivityListener listener = new BookActivityListener() {
+            @Override
+            public void onAdded(final Book book) {
+                added.add(book);
+            }
+        };
+        service = new CatalogImportService(new StagingTransactions(), new OneAuthor(), new OneCollection(), List.of(listener));
+    }
+
+    @Nested
+    @DisplayName("staging")
+    class StagingTests {
+        @Test
+        @DisplayName("should accept books referring to authors and collections of the same import")
+        void shouldAcceptStagedReferences() {
+            final CatalogImportInput.CatalogImport catalogImport = service.begin();
+            final Author author = catalogImport.addAuthor(new AddAuthorCommand("Ted Chiang"));
+            final Collection collection = catalogImport.addCollection(new AddCollectionCommand("Short Stories"));
+
+            final Book book = catalogImport.addBook(new AddBookCommand("Exhalation", author.id(), collection.id(), 2019));
+
+            assertEquals(author.id(), book.authorId());
+            assertEquals(collection.id(), book.collectionId());
+            assertFalse(book.isBorrowed());
+            assertTrue(commits.isEmpty(), "nothing is stored before commit");
+        }
+
+        @Test
+        @DisplayName("should accept books referring to stored authors and collections")
+        void shouldAcceptStoredReferences() {
+            final CatalogImportInput.CatalogImport catalogImport = service.begin();
+
+            assertNotNull(catalogImport.addBook(new AddBookCommand("Kept", 1L, 1L, 2000)).id());
+        }
+
+        @Test
+        @DisplayName("should reject books referring to unknown authors or collections")
+        void shouldRejectUnknownReferences() {
+            final CatalogImportInput.CatalogImport catalogImport = service.begin();
+
+            final IllegalArgumentException author = assertThrows(IllegalArgumentException.class,
+                () -> catalogImport.addBook(new AddBookCommand("Orphan", 99L, 1L, 2000)));
+            final IllegalArgumentException collection = assertThrows(IllegalArgumentException.class,
+                () -> catalogImport.addBook(new AddBookCommand("Orphan", 1L, 99L, 2000)));
+
+            assertEquals("Author with ID 99 does not exist.", author.getMessage());
+            assertEquals("Collection with ID 99 does not exist.", collection.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("commit")
+    class CommitTests {
+        @Test
+        @DisplayName("should commit everything at once and report the books as added")
+        void shouldCommitAndNotify() {
+            final CatalogImportInput.CatalogImport catalogImport = service.begin();
+            final Author author = catalogImport.addAuthor(new AddAuthorCommand("Ted Chiang"));
+            final Book first = catalogImport.addBook(new AddBookCommand("Exhalation", author.id(), 1L, 2019));
+            final Book second = catalogImport.addBook(new AddBookCommand("Arrival", author.id(), 1L, 1998));
+
+            assertEquals(3, catalogImport.commit());
+
+            assertEquals(1, commits.size());
+            assertEquals(List.of(first, second), added);
+        }
+    }
+
+    // numbers entities as they are staged and records each commit
+    private final class StagingTransactions implements TransactionalPersistence {
+        private long nextId = 100L;
+
+        @Override
+        public UnitOfWork begin() {
+            final List<Author> authors = new ArrayList<>();
+            final List<Collection> collections = new ArrayList<>();
+            final List<Book> books = new ArrayList<>();
+            return new UnitOfWork() {
+                @Override
+                public Author addAuthor(final Author author) {
+                    final Author staged = new Author(nextId++, author.name());
+                    authors.add(staged);
+                    return staged;
+                }
+
+                @Override
+                public Collection addCollection(final Collection collection) {
+                    final Collection staged = new Collection(nextId++, collection.name());
+                    collections.add(staged);
+                    return staged;
+                }
+
+                @Override
+                public Book addBook(final Book book) {
+                    final Book staged = new Book(nextId++, book.title(), book.authorId(), book.collectionId(),
+                        book.publicationYear());
+                    books.add(staged);
+                    return staged;
+                }
+
+                @Override
+                public Committed commit() {
+                    final Committed committed = new Committed(authors, collections, books);
+                    commits.add(committed);
+                    return committed;
+                }
+            };
+        }
+    }
+
+    private static final class OneAuthor implements AuthorPersistence {
+        @Override
+        public Author addAuthor(final Author author) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Author> findById(final Long id) {
+            return EXISTING_AUTHOR.id().equals(id) ? Optional.of(EXISTING_AUTHOR) : Optional.empty();
+        }
+
+        @Override
+        public List<Author> findAll() {
+            return List.of(EXISTING_AUTHOR);
+        }
+    }
+
+    private static final class OneCollection implements CollectionPersistence {
+        @Override
+        public Collection addCollection(final Collection collection) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Collection> findById(final Long id) {
+            return EXISTING_COLLECTION.id().equals(id) ? Optional.of(EXISTING_COLLECTION) : Optional.empty();
+        }
+
+        @Override
+        public List<Collection> findAll() {
+            return List.of(EXISTING_COLLECTION);
+        }
+    }
+}
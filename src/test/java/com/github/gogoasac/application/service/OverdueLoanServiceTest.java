@@ -0,0 +1,185 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.OverdueLoan;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.domain.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OverdueLoanService")
+class OverdueLoanServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private MutableClock clock;
+    private List<Book> catalog;
+    private AtomicInteger findAllCalls;
+    private List<OverdueLoan> events;
+    private OverdueLoanService service;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock(TODAY);
+        catalog = new ArrayList<>();
+        findAllCalls = new AtomicInteger();
+        events = new ArrayList<>();
+    }
+
+    private void start() {
+        final BookPersistence bookPersist = new BookPersistence() {
+            @Override
+            public Book addBook(Book book) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Optional<Book> findById(Long id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<Book> findAll() {
+                findAllCalls.incrementAndGet();
+                return List.copyOf(catalog);
+            }
+
+            @Override
+            public Optional<Book> updateBook(Book book) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Optional<Book> updateIfVersion(Book book, long expectedVersion) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        service = new OverdueLoanService(bookPersist, clock, Period.ofDays(14), events::add);
+    }
+
+    private static Book borrowed(long id, LocalDate on, long version) {
+        return new Book(id, "Book " + id, 1L, 1L, 2000, on, true).withVersion(version);
+    }
+
+    @Nested
+    @DisplayName("startup")
+    class StartupTests {
+        @Test
+        @DisplayName("should report loans that were already overdue, oldest first")
+        void shouldReportExistingOverdueLoans() {
+            catalog.add(borrowed(1L, TODAY.minusDays(15), 1));
+            catalog.add(borrowed(2L, TODAY.minusDays(40), 1));
+            catalog.add(borrowed(3L, TODAY.minusDays(14), 1));
+            catalog.add(new Book(4L, "Available", 1L, 1L, 2000));
+
+            start();
+
+            assertEquals(List.of(2L, 1L), service.getOverdueLoans().stream().map(OverdueLoan::bookId).toList());
+            assertEquals(TODAY.minusDays(26), service.getOverdueLoans().getFirst().dueDate());
+            assertEquals(2, events.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("activity")
+    class ActivityTests {
+        @BeforeEach
+        void startEmpty() {
+            start();
+        }
+
+        @Test
+        @DisplayName("should emit a loan once, the day after its due date, without rescanning")
+        void shouldEmitWhenDue() {
+            service.onBorrowed(borrowed(1L, TODAY, 1));
+
+            clock.advanceDays(14);
+            assertTrue(service.getOverdueLoans().isEmpty());
+
+            clock.advanceDays(1);
+            assertEquals(List.of(1L), service.getOverdueLoans().stream().map(OverdueLoan::bookId).toList());
+            clock.advanceDays(30);
+            service.getOverdueLoans();
+
+            assertEquals(1, events.size());
+            assertEquals(1, findAllCalls.get());
+        }
+
+        @Test
+        @DisplayName("should forget loans once the book is returned")
+        void shouldForgetReturnedLoans() {
+            service.onBorrowed(borrowed(1L, TODAY, 1));
+            service.onBorrowed(borrowed(2L, TODAY, 1));
+            clock.advanceDays(20);
+            assertEquals(2, service.getOverdueLoans().size());
+
+            service.onReturned(new Book(1L, "Book 1", 1L, 1L, 2000).withVersion(2));
+            service.onReturned(new Book(3L, "Book 3", 1L, 1L, 2000).withVersion(2));
+
+            assertEquals(List.of(2L), service.getOverdueLoans().stream().map(OverdueLoan::bookId).toList());
+        }
+
+        @Test
+        @DisplayName("should ignore notifications older than the known version")
+        void shouldIgnoreStaleNotifications() {
+            service.onReturned(new Book(1L, "Book 1", 1L, 1L, 2000).withVersion(2));
+            service.onBorrowed(borrowed(1L, TODAY, 1));
+
+            clock.advanceDays(30);
+            assertTrue(service.getOverdueLoans().isEmpty());
+        }
+
+        @Test
+        @DisplayName("should restart the loan period when the book is handed to a hold")
+        void shouldRestartLoanOnHandOver() {
+            service.onBorrowed(borrowed(1L, TODAY, 1));
+            clock.advanceDays(10);
+            service.onBorrowed(borrowed(1L, TODAY.plusDays(10), 2));
+
+            clock.advanceDays(10);
+            assertTrue(service.getOverdueLoans().isEmpty());
+            clock.advanceDays(5);
+            assertEquals(TODAY.plusDays(24), service.getOverdueLoans().getFirst().dueDate());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(final LocalDate date) {
+            this.instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        void advanceDays(final long days) {
+            instant = instant.plusSeconds(days * 86_400);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -2,27 +2,39 @@ package com.github.gogoasac.application.service;
 
 import com.github.gogoasac.application.dto.BookReport;
 import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.dto.ReportCacheStats;
+import com.github.gogoasac.application.dto.ReportFormat;
 import com.github.gogoasac.application.input.ReportingInput;
 import com.github.gogoasac.application.output.AuthorPersistence;
 import com.github.gogoasac.application.output.BookPersistence;
 import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.application.output.ReportRenderer;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
 import org.junit.jupiter.api.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("ReportingService")
@@ -69,6 +81,7 @@ class ReportingServiceTest {
                 @Override public Optional<Book> findById(Long id) { return bookList.stream().filter(b -> b.id().equals(id)).findFirst(); }
                 @Override public List<Book> findAll() { return bookList; }
                 @Override public Optional<Book> updateBook(Book book) { return Optional.empty(); }
+                @Override public Optional<Book> updateIfVersion(Book book, long expectedVersion) { return Optional.empty(); }
             };
 
             authors = Map.of(
@@ -98,8 +111,12 @@ class ReportingServiceTest {
             assertEquals(2, sciBooks.size());
             final Map<String, String> titleToAuthor = sciBooks.stream()
                 .collect(Collectors.toMap(BookReport::title, BookReport::authorName));
-            assertEquals("Frank Herbert", titleToAuthor.get("Dune (borrowed: " + LocalDate.now().format(fmt) + ")"));
+            assertEquals("Frank Herbert", titleToAuthor.get("Dune"));
             assertEquals("William Gibson", titleToAuthor.get("Neuromancer"));
+            final Map<String, LocalDate> titleToBorrowedAt = sciBooks.stream()
+                .filter(book -> book.borrowedAt() != null)
+                .collect(Collectors.toMap(BookReport::title, BookReport::borrowedAt));
+            assertEquals(Map.of("Dune", LocalDate.now()), titleToBorrowedAt);
         }
 
         @Test
@@ -118,9 +135,313 @@ class ReportingServiceTest {
             assertTrue(lines.stream().anyMatch(l -> l.contains("LOTR") && l.contains("J.R.R. Tolkien")));
         }
 
+        @Test
+        @DisplayName("should stream several formats in a single pass and reject unknown ones")
+        void shouldExportFormatsInOnePass() {
+            final List<String> calls = new ArrayList<>();
+            final ReportingInput exporting = new ReportingService(colPersist, bookPersist, authPersist,
+                List.of(new RecordingRenderer(ReportFormat.CSV, calls), new RecordingRenderer(ReportFormat.JSON, calls)));
+            final ByteArrayOutputStream text = new ByteArrayOutputStream();
+            final Map<ReportFormat, OutputStream> destinations = new EnumMap<>(ReportFormat.class);
+            destinations.put(ReportFormat.TEXT, text);
+            destinations.put(ReportFormat.CSV, new ByteArrayOutputStream());
+            destinations.put(ReportFormat.JSON, new ByteArrayOutputStream());
+
+            exporting.exportReports(destinations);
+
+            assertEquals(List.of("CSV open", "JSON open",
+                "CSV Sci-Fi", "JSON Sci-Fi", "CSV Fantasy", "JSON Fantasy",
+                "CSV finish", "JSON finish"), calls);
+            assertTrue(text.toString(StandardCharsets.UTF_8).contains("Collection: Fantasy"));
+            assertThrows(IllegalArgumentException.class,
+                () -> exporting.exportReports(Map.of(ReportFormat.HTML, new ByteArrayOutputStream())));
+        }
+
+        @AfterEach
+        void cleanup() throws IOException {
+            Files.deleteIfExists(reportPath);
+        }
+    }
+
+    private record RecordingRenderer(ReportFormat format, List<String> calls) implements ReportRenderer {
+        @Override
+        public Session open(OutputStream out, String date) {
+            calls.add(format + " open");
+            return new Session() {
+                @Override
+                public void collection(CollectionReport report) {
+                    calls.add(format + " " + report.collectionName());
+                }
+
+                @Override
+                public void finish() {
+                    calls.add(format + " finish");
+                }
+            };
+        }
+    }
+
+    @Nested
+    @DisplayName("incremental regeneration")
+    class IncrementalTests {
+        final List<Book> books = new ArrayList<>();
+        final List<Long> changedCollections = new ArrayList<>();
+        final List<Long> collectionQueries = new ArrayList<>();
+        int fullScans;
+        int authorLookups;
+        boolean journalAvailable = true;
+
+        @BeforeEach
+        void setup() throws IOException {
+            reportPath = Path.of("report_" + LocalDate.now().format(fmt) + ".txt");
+            Files.deleteIfExists(reportPath);
+
+            books.add(new Book(1L, "Dune", 1L, 1L, 1965));
+            books.add(new Book(2L, "LOTR", 1L, 2L, 1954));
+
+            final List<Collection> collections = List.of(new Collection(1L, "Sci-Fi"), new Collection(2L, "Fantasy"));
+            final CollectionPersistence colPersist = new CollectionPersistence() {
+                @Override public Collection addCollection(Collection collection) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Collection> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Collection> findAll() { return collections; }
+            };
+            final BookPersistence bookPersist = new BookPersistence() {
+                @Override public Book addBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Book> findAll() { fullScans++; return List.copyOf(books); }
+                @Override public Optional<Book> updateBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> updateIfVersion(Book book, long expectedVersion) { throw new UnsupportedOperationException(); }
+
+                @Override
+                public List<Book> findByCollectionId(Long collectionId) {
+                    collectionQueries.add(collectionId);
+                    return books.stream().filter(b -> b.collectionId().equals(collectionId)).toList();
+                }
+
+                @Override
+                public long changeSequence() {
+                    return changedCollections.size();
+                }
+
+                @Override
+                public Optional<Set<Long>> collectionsChangedSince(long sequence) {
+                    if (!journalAvailable) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(Set.copyOf(changedCollections.subList((int) sequence, changedCollections.size())));
+                }
+            };
+            final AuthorPersistence authPersist = new AuthorPersistence() {
+                @Override public Author addAuthor(Author author) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Author> findById(Long id) { authorLookups++; return Optional.of(new Author(id, "Author " + id)); }
+                @Override public List<Author> findAll() { throw new UnsupportedOperationException(); }
+            };
+
+            service = new ReportingService(colPersist, bookPersist, authPersist);
+        }
+
+        @AfterEach
+        void cleanup() throws IOException {
+            Files.deleteIfExists(reportPath);
+        }
+
+        private void borrow(final int index) {
+            final Book borrowed = books.get(index).borrow();
+            books.set(index, borrowed);
+            changedCollections.add(borrowed.collectionId());
+        }
+
+        @Test
+        @DisplayName("should only rebuild the collections touched since the last run")
+        void shouldRebuildTouchedCollectionsOnly() throws IOException {
+            service.generateCollectionReports();
+            assertEquals(1, fullScans);
+            assertEquals(1, authorLookups, "author names are resolved once per run");
+
+            borrow(1);
+            final List<CollectionReport> reports = service.generateCollectionReports();
+
+            assertEquals(1, fullScans);
+            assertEquals(List.of(2L), collectionQueries);
+            assertEquals("Dune", reports.get(0).books().getFirst().title());
+            assertEquals("LOTR", reports.get(1).books().getFirst().title());
+            assertNotNull(reports.get(1).books().getFirst().borrowedAt());
+            final List<String> lines = Files.readAllLines(reportPath);
+            assertTrue(lines.stream().anyMatch(l -> l.contains("LOTR (borrowed: ")));
+            assertTrue(lines.contains("Collection: Sci-Fi"));
+        }
+
+        @Test
+        @DisplayName("should reuse every section when nothing changed")
+        void shouldReuseUnchangedSections() {
+            final List<CollectionReport> first = service.generateCollectionReports();
+            final List<CollectionReport> second = service.generateCollectionReports();
+
+            assertEquals(first, second);
+            assertTrue(collectionQueries.isEmpty());
+            assertEquals(1, fullScans);
+        }
+
+        @Test
+        @DisplayName("should fall back to a full rebuild when the journal is unavailable")
+        void shouldRebuildEverythingWithoutJournal() {
+            service.generateCollectionReports();
+            journalAvailable = false;
+            borrow(0);
+
+            final List<CollectionReport> reports = service.generateCollectionReports();
+
+            assertEquals(2, fullScans);
+            assertNotNull(reports.get(0).books().getFirst().borrowedAt());
+        }
+    }
+
+    @Nested
+    @DisplayName("result cache")
+    class CacheTests {
+        final List<Book> books = new ArrayList<>();
+        long bookVersion;
+        long authorVersion;
+        int fullScans;
+
+        @BeforeEach
+        void setup() throws IOException {
+            reportPath = Path.of("report_" + LocalDate.now().format(fmt) + ".txt");
+            Files.deleteIfExists(reportPath);
+
+            books.add(new Book(1L, "Dune", 1L, 1L, 1965));
+            final CollectionPersistence colPersist = new CollectionPersistence() {
+                @Override public Collection addCollection(Collection collection) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Collection> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Collection> findAll() { return List.of(new Collection(1L, "Sci-Fi")); }
+                @Override public long dataVersion() { return 0L; }
+            };
+            final BookPersistence bookPersist = new BookPersistence() {
+                @Override public Book addBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Book> findAll() { fullScans++; return List.copyOf(books); }
+                @Override public Optional<Book> updateBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> updateIfVersion(Book book, long expectedVersion) { throw new UnsupportedOperationException(); }
+                @Override public long changeSequence() { return bookVersion; }
+            };
+            final AuthorPersistence authPersist = new AuthorPersistence() {
+                @Override public Author addAuthor(Author author) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Author> findById(Long id) { return Optional.of(new Author(id, "Frank Herbert")); }
+                @Override public List<Author> findAll() { throw new UnsupportedOperationException(); }
+                @Override public long dataVersion() { return authorVersion; }
+            };
+
+            service = new ReportingService(colPersist, bookPersist, authPersist);
+        }
+
         @AfterEach
         void cleanup() throws IOException {
             Files.deleteIfExists(reportPath);
         }
+
+        @Test
+        @DisplayName("should serve repeated requests without writes from the cache")
+        void shouldHitWithoutWrites() throws IOException {
+            final List<CollectionReport> first = service.generateCollectionReports();
+            Files.delete(reportPath);
+
+            final List<CollectionReport> second = service.generateCollectionReports();
+
+            assertSame(first, second);
+            assertEquals(1, fullScans);
+            assertTrue(Files.exists(reportPath), "the cached rendering is written again if the file is gone");
+            assertEquals(new ReportCacheStats(1, 1), service.getCacheStats());
+        }
+
+        @Test
+        @DisplayName("should miss as soon as any persistence version moves")
+        void shouldMissAfterWrites() {
+            service.generateCollectionReports();
+
+            books.set(0, books.getFirst().borrow());
+            bookVersion++;
+            final List<CollectionReport> afterBorrow = service.generateCollectionReports();
+            authorVersion++;
+            service.generateCollectionReports();
+
+            assertNotNull(afterBorrow.getFirst().books().getFirst().borrowedAt());
+            assertEquals(new ReportCacheStats(0, 3), service.getCacheStats());
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshot isolation")
+    class SnapshotTests {
+        final List<Book> books = new ArrayList<>(List.of(new Book(1L, "Dune", 1L, 1L, 1965)));
+        final List<Author> authors = new ArrayList<>(List.of(new Author(1L, "Frank Herbert")));
+        long bookVersion;
+        long authorVersion;
+        int bookSnapshots;
+
+        @BeforeEach
+        void setup() throws IOException {
+            reportPath = Path.of("report_" + LocalDate.now().format(fmt) + ".txt");
+            Files.deleteIfExists(reportPath);
+
+            final CollectionPersistence colPersist = new CollectionPersistence() {
+                @Override public Collection addCollection(Collection collection) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Collection> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Collection> findAll() { throw new UnsupportedOperationException(); }
+
+                @Override
+                public Optional<PersistenceSnapshot<Collection>> snapshot() {
+                    return Optional.of(new PersistenceSnapshot<>(0L, List.of(new Collection(1L, "Sci-Fi"))));
+                }
+            };
+            final BookPersistence bookPersist = new BookPersistence() {
+                @Override public Book addBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Book> findAll() { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> updateBook(Book book) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Book> updateIfVersion(Book book, long expectedVersion) { throw new UnsupportedOperationException(); }
+                @Override public long changeSequence() { return bookVersion; }
+
+                @Override
+                public Optional<PersistenceSnapshot<Book>> snapshot() {
+                    if (++bookSnapshots == 2) {
+                        // a concurrent writer adds a book and its new author between the two collects
+                        authors.add(new Author(2L, "Ursula K. Le Guin"));
+                        authorVersion++;
+                        books.add(new Book(2L, "Earthsea", 2L, 1L, 1968));
+                        bookVersion++;
+                    }
+                    return Optional.of(new PersistenceSnapshot<>(bookVersion, books));
+                }
+            };
+            final AuthorPersistence authPersist = new AuthorPersistence() {
+                @Override public Author addAuthor(Author author) { throw new UnsupportedOperationException(); }
+                @Override public Optional<Author> findById(Long id) { throw new UnsupportedOperationException(); }
+                @Override public List<Author> findAll() { throw new UnsupportedOperationException(); }
+                @Override public long dataVersion() { return authorVersion; }
+
+                @Override
+                public Optional<PersistenceSnapshot<Author>> snapshot() {
+                    return Optional.of(new PersistenceSnapshot<>(authorVersion, authors));
+                }
+            };
+
+            service = new ReportingService(colPersist, bookPersist, authPersist);
+        }
+
+        @AfterEach
+        void cleanup() throws IOException {
+            Files.deleteIfExists(reportPath);
+        }
+
+        @Test
+        @DisplayName("should retry the snapshot when a write lands in between and never read live data")
+        void shouldReadOneConsistentSnapshot() {
+            final List<CollectionReport> reports = service.generateCollectionReports();
+
+            assertTrue(bookSnapshots > 2, "the first collect was invalidated by the write");
+            assertEquals(List.of(
+                new BookReport(1L, "Dune", "Frank Herbert"),
+                new BookReport(2L, "Earthsea", "Ursula K. Le Guin")), reports.getFirst().books());
+        }
     }
-}
\ No newline at end of file
+}
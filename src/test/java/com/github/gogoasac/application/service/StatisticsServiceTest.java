@@ -0,0 +1,169 @@
+package com.github.gogoasac.application.service;
+
+import com.github.gogoasac.application.dto.AuthorStatistics;
+import com.github.gogoasac.application.dto.CatalogStatistics;
+import com.github.gogoasac.application.dto.CollectionStatistics;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.BookPersistence;
+import com.github.gogoasac.application.output.CollectionPersistence;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StatisticsService")
+class StatisticsServiceTest {
+    private final List<Book> catalog = new ArrayList<>();
+    private int findAllCalls;
+    private StatisticsService service;
+
+    @BeforeEach
+    void setup() {
+        catalog.add(new Book(1L, "Dune", 1L, 1L, 1965));
+        catalog.add(new Book(2L, "Dune Messiah", 1L, 1L, 1969).borrow());
+        catalog.add(new Book(3L, "Earthsea", 2L, 2L, 1968));
+    }
+
+    private void start() {
+        final BookPersistence bookPersist = new BookPersistence() {
+            @Override public Book addBook(Book book) { throw new UnsupportedOperationException(); }
+            @Override public Optional<Book> findById(Long id) { throw new UnsupportedOperationException(); }
+            @Override public List<Book> findAll() { findAllCalls++; return List.copyOf(catalog); }
+            @Override public Optional<Book> updateBook(Book book) { throw new UnsupportedOperationException(); }
+            @Override public Optional<Book> updateIfVersion(Book book, long expectedVersion) { throw new UnsupportedOperationException(); }
+        };
+        final AuthorPersistence authorPersist = new AuthorPersistence() {
+            @Override public Author addAuthor(Author author) { throw new UnsupportedOperationException(); }
+            @Override public Optional<Author> findById(Long id) { throw new UnsupportedOperationException(); }
+            @Override public List<Author> findAll() {
+                return List.of(new Author(1L, "Frank Herbert"), new Author(2L, "Ursula K. Le Guin"), new Author(3L, "Nobody"));
+            }
+        };
+        final CollectionPersistence collectionPersist = new CollectionPersistence() {
+            @Override public Collection addCollection(Collection collection) { throw new UnsupportedOperationException(); }
+            @Override public Optional<Collection> findById(Long id) { throw new UnsupportedOperationException(); }
+            @Override public List<Collection> findAll() {
+                return List.of(new Collection(1L, "Sci-Fi"), new Collection(2L, "Fantasy"), new Collection(3L, "Empty"));
+            }
+        };
+        service = new StatisticsService(bookPersist, authorPersist, collectionPersist);
+    }
+
+    @Nested
+    @DisplayName("full pass")
+    class FullPassTests {
+        @Test
+        @DisplayName("should aggregate per collection, author and year")
+        void shouldAggregate() {
+            start();
+
+            final CatalogStatistics stats = service.getStatistics();
+
+            assertEquals(3, stats.totalBooks());
+            assertEquals(1, stats.borrowedBooks());
+            assertEquals(List.of(
+                new CollectionStatistics(1L, "Sci-Fi", 2, 1),
+                new CollectionStatistics(2L, "Fantasy", 1, 0),
+                new CollectionStatistics(3L, "Empty", 0, 0)), stats.collections());
+            assertEquals(0.5, stats.collections().getFirst().borrowedRatio());
+            assertEquals(List.of(
+                new AuthorStatistics(1L, "Frank Herbert", 2),
+                new AuthorStatistics(2L, "Ursula K. Le Guin", 1),
+                new AuthorStatistics(3L, "Nobody", 0)), stats.authors());
+            assertEquals(new TreeMap<>(Map.of(1965, 1L, 1968, 1L, 1969, 1L)), stats.booksByPublicationYear());
+        }
+
+        @Test
+        @DisplayName("should merge parallel tallies of a large catalog exactly")
+        void shouldCountLargeCatalogInParallel() {
+            catalog.clear();
+            LongStream.rangeClosed(1, 100_000).forEach(id -> {
+                final Book book = new Book(id, "Book " + id, id % 7, id % 13, 1900 + (int) (id % 100));
+                catalog.add(id % 4 == 0 ? book.borrow() : book);
+            });
+            start();
+
+            assertEquals(100_000, service.countBooks());
+            assertEquals(25_000, service.countBorrowed());
+            assertEquals(LongStream.rangeClosed(1, 100_000).filter(id -> id % 13 == 5).count(),
+                service.countBooksInCollection(5L));
+            assertEquals(1_000, service.getStatistics().booksByPublicationYear().get(1950));
+        }
+
+        @Test
+        @DisplayName("should know every book of a merged tally when its events arrive")
+        void shouldFollowEventsAfterParallelPass() {
+            catalog.clear();
+            LongStream.rangeClosed(1, 100_000).forEach(id -> catalog.add(new Book(id, "Book " + id, 1L, id % 13, 2000)));
+            start();
+
+            service.onBorrowed(catalog.get(41_990).borrow().withVersion(1));
+            service.onBorrowed(catalog.get(41_990).borrow().withVersion(1));
+            service.onAdded(catalog.get(99_999));
+
+            assertEquals(100_000, service.countBooks(), "a known book is not added twice");
+            assertEquals(1, service.countBorrowed());
+            assertEquals(1, service.getStatistics().collections().getFirst().borrowed(), "book 41991 is in collection 1");
+        }
+    }
+
+    @Nested
+    @DisplayName("incremental counters")
+    class IncrementalTests {
+        @Test
+        @DisplayName("should follow adds, borrows and returns without rescanning")
+        void shouldFollowEvents() {
+            start();
+            final Book added = new Book(4L, "Tehanu", 2L, 2L, 1990);
+
+            service.onAdded(added);
+            final Book borrowed = added.borrow().withVersion(1);
+            service.onBorrowed(borrowed);
+            service.onReturned(catalog.get(1).returnBook().withVersion(1));
+
+            assertEquals(1, findAllCalls);
+            assertEquals(4, service.countBooks());
+            assertEquals(1, service.countBorrowed());
+            assertEquals(2, service.countBooksInCollection(2L));
+            assertEquals(2, service.countBooksByAuthor(2L));
+            assertEquals(1L, service.getStatistics().booksByPublicationYear().get(1990));
+        }
+
+        @Test
+        @DisplayName("should ignore stale events and hold hand-overs")
+        void shouldIgnoreStaleEventsAndHandOvers() {
+            start();
+            final Book borrowed = catalog.getFirst().borrow().withVersion(1);
+            service.onBorrowed(borrowed);
+            service.onBorrowed(borrowed.returnBook().borrow().withVersion(2));
+            service.onReturned(catalog.getFirst());
+
+            assertEquals(2, service.countBorrowed());
+        }
+
+        @Test
+        @DisplayName("should resynchronise on recompute")
+        void shouldRecompute() {
+            start();
+            catalog.add(new Book(4L, "Added elsewhere", 3L, 3L, 2000));
+
+            final CatalogStatistics stats = service.recomputeStatistics();
+
+            assertEquals(4, stats.totalBooks());
+            assertEquals(1, service.countBooksByAuthor(3L));
+            assertEquals(2, findAllCalls);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.gogoasac.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HierarchicalTimingWheel")
+class HierarchicalTimingWheelTest {
+
+    @Nested
+    @DisplayName("expiry")
+    class ExpiryTests {
+        @Test
+        @DisplayName("should expire timers exactly at their deadline across levels")
+        void shouldExpireAtDeadline() {
+            final HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(4, 3, 0);
+            final long[] deadlines = {1, 3, 4, 5, 15, 16, 17, 63, 64, 200};
+            for (final long deadline : deadlines) {
+                wheel.schedule(deadline, deadline);
+            }
+
+            for (long tick = 1; tick <= 200; tick++) {
+                final List<Long> expired = new ArrayList<>();
+                wheel.advanceTo(tick, expired::add);
+                final long current = tick;
+                final List<Long> expected = java.util.Arrays.stream(deadlines).filter(d -> d == current).boxed().toList();
+                assertEquals(expected, expired, "tick " + tick);
+            }
+            assertEquals(0, wheel.size());
+        }
+
+        @Test
+        @DisplayName("should match a brute-force schedule for random deadlines and jumps")
+        void shouldMatchBruteForce() {
+            final Random random = new Random(42);
+            final HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(8, 2, 1_000);
+            final Map<Integer, Long> pending = new HashMap<>();
+            final Map<Integer, Long> firedAt = new HashMap<>();
+
+            long now = 1_000;
+            int next = 0;
+            while (now < 5_000) {
+                for (int i = 0; i < 5; i++) {
+                    // includes deadlines in the past and beyond the top level (overflow)
+                    final long deadline = now - 3 + random.nextInt(300);
+                    pending.put(next, deadline);
+                    wheel.schedule(next++, deadline);
+                }
+                now += 1 + random.nextInt(40);
+                final long tick = now;
+                wheel.advanceTo(tick, id -> firedAt.put(id, tick));
+
+                pending.entrySet().removeIf(e -> {
+                    if (e.getValue() > tick) {
+                        assertFalse(firedAt.containsKey(e.getKey()), "fired early: " + e);
+                        return false;
+                    }
+                    assertTrue(firedAt.containsKey(e.getKey()), "not fired: " + e);
+                    return true;
+                });
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+
+        @Test
+        @DisplayName("should deliver past deadlines on the next advance")
+        void shouldDeliverPastDeadlines() {
+            final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(16, 2, 100);
+            wheel.schedule("late", 90);
+
+            final List<String> expired = new ArrayList<>();
+            wheel.advanceTo(100, expired::add);
+
+            assertEquals(List.of("late"), expired);
+        }
+    }
+
+    @Nested
+    @DisplayName("cancellation")
+    class CancellationTests {
+        @Test
+        @DisplayName("should not fire cancelled timers")
+        void shouldNotFireCancelled() {
+            final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(4, 2, 0);
+            final HierarchicalTimingWheel.Timer<String> near = wheel.schedule("near", 2);
+            final HierarchicalTimingWheel.Timer<String> far = wheel.schedule("far", 10);
+            wheel.schedule("kept", 10);
+
+            assertTrue(near.cancel());
+            assertTrue(far.cancel());
+            assertFalse(far.cancel());
+            assertEquals(1, wheel.size());
+
+            final List<String> expired = new ArrayList<>();
+            wheel.advanceTo(20, expired::add);
+            assertEquals(List.of("kept"), expired);
+        }
+    }
+}
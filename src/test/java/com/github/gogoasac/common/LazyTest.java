@@ -0,0 +1,80 @@
+package com.github.gogoasac.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Lazy Tests")
+class LazyTest {
+
+    @Test
+    @DisplayName("Should create the value on first use only")
+    void shouldCreateOnFirstUseOnly() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Lazy<String> lazy = Lazy.of(() -> "value " + calls.incrementAndGet());
+
+        assertFalse(lazy.isInitialized());
+        assertEquals(0, calls.get());
+        assertEquals("value 1", lazy.get());
+        assertEquals("value 1", lazy.get());
+        assertTrue(lazy.isInitialized());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should retry a factory that failed")
+    void shouldRetryAfterFailure() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Lazy<String> lazy = Lazy.of(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("not yet");
+            }
+            return "ready";
+        });
+
+        assertThrows(IllegalStateException.class, lazy::get);
+        assertFalse(lazy.isInitialized());
+        assertEquals("ready", lazy.get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should run the factory once under concurrent first use")
+    void shouldRunFactoryOnceConcurrently() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final Lazy<Object> lazy = Lazy.of(() -> {
+            calls.incrementAndGet();
+            return new Object();
+        });
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return lazy.get();
+                }));
+            }
+            start.countDown();
+
+            final Object first = results.getFirst().get();
+            for (final Future<Object> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
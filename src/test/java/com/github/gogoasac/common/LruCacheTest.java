@@ -0,0 +1,41 @@
+package com.github.gogoasac.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LruCache Tests")
+class LruCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used entry")
+    void shouldEvictLeastRecentlyUsed() {
+        final LruCache<Long, String> cache = new LruCache<>(2);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        assertEquals(Optional.of("one"), cache.get(1L));
+        cache.put(3L, "three");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(2L).isEmpty(), "2 was used least recently");
+        assertEquals(Optional.of("one"), cache.get(1L));
+        assertEquals(Optional.of("three"), cache.get(3L));
+    }
+
+    @Test
+    @DisplayName("Should replace and remove entries")
+    void shouldReplaceAndRemove() {
+        final LruCache<Long, String> cache = new LruCache<>(2);
+        cache.put(1L, "one");
+        cache.put(1L, "uno");
+
+        assertEquals(Optional.of("uno"), cache.get(1L));
+        cache.remove(1L);
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<>(0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.gogoasac.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WeakInterner Tests")
+class WeakInternerTest {
+
+    @Test
+    @DisplayName("Should return the first instance for every equal value")
+    void intern_ShouldCanonicalizeEqualValues() {
+        final WeakInterner<String> interner = new WeakInterner<>();
+        final String first = new String("The Dispossessed");
+        final String second = new String("The Dispossessed");
+
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(second));
+        assertNotSame(first, interner.intern(new String("The Word for World Is Forest")));
+        assertEquals(2, interner.size());
+        assertNull(interner.intern(null));
+    }
+
+    @Test
+    @DisplayName("Should agree on one instance across threads")
+    void intern_Concurrently_ShouldAgreeOnOneInstance() throws Exception {
+        final WeakInterner<String> interner = new WeakInterner<>();
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    final List<String> interned = new ArrayList<>();
+                    for (int i = 0; i < 1_000; i++) {
+                        interned.add(interner.intern(new String("name " + i)));
+                    }
+                    return interned;
+                }));
+            }
+
+            final List<String> reference = results.getFirst().get();
+            for (final Future<List<String>> result : results) {
+                final List<String> interned = result.get();
+                for (int i = 0; i < reference.size(); i++) {
+                    assertSame(reference.get(i), interned.get(i));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
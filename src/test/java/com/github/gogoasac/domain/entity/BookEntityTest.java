@@ -27,5 +27,23 @@ class BookEntityTest {
         IllegalStateException ex = assertThrows(IllegalStateException.class, borrowed::borrow);
         assertEquals("Book is already borrowed.", ex.getMessage());
     }
+
+    @Test
+    void shouldClearBorrowingStateWhenReturned() {
+        final Book borrowed = new Book(1L, "Some Title", 1L, 1L, 2020).borrow();
+        final Book returned = borrowed.returnBook();
+
+        assertFalse(returned.isBorrowed());
+        assertNull(returned.borrowedAt());
+        assertEquals(borrowed.version(), returned.version());
+    }
+
+    @Test
+    void shouldThrowWhenReturningBookThatIsNotBorrowed() {
+        final Book original = new Book(1L, "Some Title", 1L, 1L, 2020);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, original::returnBook);
+        assertEquals("Book is not borrowed.", ex.getMessage());
+    }
 }
 
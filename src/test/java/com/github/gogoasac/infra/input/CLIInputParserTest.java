@@ -8,6 +8,8 @@ import com.github.gogoasac.application.input.ReportingInput;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import com.github.gogoasac.infra.input.reporting.ReportViewer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -54,7 +56,7 @@ class CLIInputParserTest {
             InputStream in = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
             // let CLIInputParser create the internal menus but pass shared IO
             CLIInputParser parser = new CLIInputParser(authorInput, bookInput, collectionInput, reportingInput, in, ps,
-                list -> {});
+                new NoopReportViewer());
             parser.run();
         }
         return baos.toString(StandardCharsets.UTF_8);
@@ -228,6 +230,14 @@ class CLIInputParserTest {
         }
     }
 
+    private static class NoopReportViewer implements ReportViewer {
+        @Override
+        public void showReports(List<CollectionReport> reports) {}
+
+        @Override
+        public void showStatistics(CatalogStatistics statistics) {}
+    }
+
     private static class NoopBookInput implements BookManagementInput {
         @Override
         public Book addBook(AddBookCommand cmd) {
@@ -244,8 +254,31 @@ class CLIInputParserTest {
             return List.of();
         }
 
+        @Override
+        public List<Book> getByCollectionId(final Long collectionId) {
+            return List.of();
+        }
+
         @Override
         public void borrow(Long bookId) {}
+
+        @Override
+        public void returnBook(Long bookId) {}
+
+        @Override
+        public Hold placeHold(Long bookId, String patron) {
+            return null;
+        }
+
+        @Override
+        public List<Hold> getHolds(Long bookId) {
+            return List.of();
+        }
+
+        @Override
+        public BookDetails getDetails(Long bookId) {
+            return null;
+        }
     }
 
     private static class MutableAuthorInput implements AuthorManagementInput {
@@ -324,10 +357,39 @@ class CLIInputParserTest {
             return List.copyOf(list);
         }
 
+        @Override
+        public List<Book> getByCollectionId(final Long collectionId) {
+            return getAll().stream()
+                .filter(book -> collectionId.equals(book.collectionId()))
+                .toList();
+        }
+
         @Override
         public void borrow(Long bookId) {
 
         }
+
+        @Override
+        public void returnBook(Long bookId) {
+
+        }
+
+        @Override
+        public Hold placeHold(Long bookId, String patron) {
+            return null;
+        }
+
+        @Override
+        public List<Hold> getHolds(Long bookId) {
+            return List.of();
+        }
+
+        @Override
+        public BookDetails getDetails(final Long bookId) {
+            final Book book = getById(bookId);
+            return new BookDetails(book.id(), book.title(), null, null, book.publicationYear(),
+                book.isBorrowed(), book.borrowedAt(), getHolds(bookId));
+        }
     }
 }
 
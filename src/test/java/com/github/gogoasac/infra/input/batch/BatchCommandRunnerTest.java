@@ -0,0 +1,375 @@
+package com.github.gogoasac.infra.input.batch;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.dto.BookDetails;
+import com.github.gogoasac.application.input.AuthorManagementInput;
+import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.application.input.CatalogImportInput;
+import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BatchCommandRunner")
+class BatchCommandRunnerTest {
+
+    private MutableAuthorInput authorInput;
+    private MutableCollectionInput collectionInput;
+    private MutableBookInput bookInput;
+
+    @BeforeEach
+    void setUp() {
+        authorInput = new MutableAuthorInput();
+        collectionInput = new MutableCollectionInput();
+        bookInput = new MutableBookInput();
+    }
+
+    private String run(final String script, final int batchSize) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8);
+        new BatchCommandRunner(authorInput, bookInput, collectionInput, new StagingImportInput(),
+            new BufferedReader(new StringReader(script)), printStream, batchSize).run();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("command execution")
+    class ExecutionTests {
+        @Test
+        @DisplayName("should execute a script against the ports without printing prompts")
+        void shouldExecuteScript() {
+            final String script = String.join("\n",
+                "# seed data",
+                "add-author \"Ursula K. Le Guin\"",
+                "add-collection Sci-Fi",
+                "",
+                "add-book \"The Left Hand of Darkness\" 1 1 1969",
+                "borrow 1",
+                "list-books 1") + "\n";
+
+            final String out = run(script, BatchCommandRunner.DEFAULT_BATCH_SIZE);
+
+            assertEquals("Ursula K. Le Guin", authorInput.getAll().getFirst().name());
+            assertEquals("The Left Hand of Darkness", bookInput.getAll().getFirst().title());
+            assertTrue(bookInput.getAll().getFirst().isBorrowed());
+            assertTrue(out.contains("Book borrowed: 1"));
+            assertTrue(out.contains("Executed 5 commands, 0 failed."));
+            assertFalse(out.contains("Choose"), "Batch mode must not print menu prompts");
+        }
+
+        @Test
+        @DisplayName("should report failures with line numbers and keep going")
+        void shouldReportFailuresAndContinue() {
+            final String script = String.join("\n",
+                "add-author Solo",
+                "borrow abc",
+                "fly-away",
+                "add-book \"Missing year\" 1 1",
+                "list-authors") + "\n";
+
+            final String out = run(script, BatchCommandRunner.DEFAULT_BATCH_SIZE);
+
+            assertTrue(out.contains("line 2: Invalid number"));
+            assertTrue(out.contains("line 3: Unknown command: fly-away"));
+            assertTrue(out.contains("line 4: Usage: add-book"));
+            assertTrue(out.contains("Author{id=1, name='Solo'}"));
+            assertTrue(out.contains("Executed 5 commands, 3 failed."));
+        }
+
+        @Test
+        @DisplayName("should place holds and list the queue")
+        void shouldPlaceHolds() {
+            final String script = String.join("\n",
+                "hold 1 \"Ada Lovelace\"",
+                "hold 1 Grace",
+                "holds 1",
+                "hold 1") + "\n";
+
+            final String out = run(script, BatchCommandRunner.DEFAULT_BATCH_SIZE);
+
+            assertEquals(2, bookInput.getHolds(1L).size());
+            assertTrue(out.contains("Hold placed: Hold{id=1, bookId=1, patron='Ada Lovelace'"));
+            assertTrue(out.contains("line 4: Usage: hold"));
+            assertTrue(out.contains("Executed 4 commands, 1 failed."));
+        }
+    }
+
+    @Nested
+    @DisplayName("imports")
+    class ImportTests {
+        private String runWithImports(final String script) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8);
+            new BatchCommandRunner(authorInput, bookInput, collectionInput, new StagingImportInput(),
+                new BufferedReader(new StringReader(script)), printStream).run();
+            return out.toString(StandardCharsets.UTF_8);
+        }
+
+        @Test
+        @DisplayName("should store the adds between begin and commit only at commit")
+        void shouldCommitStagedAdds() {
+            final String script = String.join("\n",
+                "begin",
+                "add-author \"N. K. Jemisin\"",
+                "add-collection Fantasy",
+                "add-book \"The Fifth Season\" 1 1 2015",
+                "commit") + "\n";
+
+            final String out = runWithImports(script);
+
+            assertTrue(out.contains("Book staged: Book{id=1"));
+            assertTrue(out.contains("Import committed: 3 records"));
+            assertTrue(out.contains("Executed 5 commands, 0 failed."));
+            assertEquals("The Fifth Season", bookInput.getAll().getFirst().title());
+            assertEquals(1, authorInput.getAll().size());
+        }
+
+        @Test
+        @DisplayName("should store nothing on rollback or when the script ends inside begin")
+        void shouldDropUncommittedAdds() {
+            final String script = String.join("\n",
+                "begin",
+                "add-author Dropped",
+                "rollback",
+                "begin",
+                "add-author Unfinished") + "\n";
+
+            final String out = runWithImports(script);
+
+            assertTrue(authorInput.getAll().isEmpty());
+            assertTrue(out.contains("line 4: begin without commit; nothing was stored"));
+            assertTrue(out.contains("Executed 5 commands, 1 failed."));
+        }
+
+        @Test
+        @DisplayName("should reject other commands inside begin and commit without begin")
+        void shouldRejectMisplacedCommands() {
+            final String script = String.join("\n",
+                "commit",
+                "begin",
+                "borrow 1",
+                "commit") + "\n";
+
+            final String out = runWithImports(script);
+
+            assertTrue(out.contains("line 1: commit without begin"));
+            assertTrue(out.contains("line 3: Only add-author, add-collection and add-book"));
+            assertTrue(out.contains("Import committed: 0 records"));
+        }
+    }
+
+    @Nested
+    @DisplayName("batching")
+    class BatchingTests {
+        @Test
+        @DisplayName("should flush output once per batch rather than once per command")
+        void shouldFlushPerBatch() {
+            final StringBuilder script = new StringBuilder();
+            for (int i = 0; i < 25; i++) {
+                script.append("add-author \"Author ").append(i).append("\"\n");
+            }
+            final CountingOutputStream counting = new CountingOutputStream();
+            final PrintStream printStream = new PrintStream(counting, false, StandardCharsets.UTF_8);
+
+            final BatchCommandRunner.Summary summary = new BatchCommandRunner(authorInput, bookInput, collectionInput,
+                new StagingImportInput(), new BufferedReader(new StringReader(script.toString())), printStream, 10).run();
+
+            assertEquals(25, summary.executed());
+            assertEquals(0, summary.failed());
+            // three batches (10, 10, 5) plus the summary line
+            assertEquals(4, counting.flushes);
+            assertEquals(25, authorInput.getAll().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("tokenizer")
+    class TokenizerTests {
+        @Test
+        @DisplayName("should keep quoted words together and honour escapes")
+        void shouldTokenizeQuotedStrings() {
+            assertEquals(List.of("add-book", "Say \"Hi\"", "3", "2", "1999"),
+                CommandTokenizer.tokenize("add-book \"Say \\\"Hi\\\"\"  3 2 1999"));
+            assertEquals(List.of("add-author", ""), CommandTokenizer.tokenize("add-author \"\""));
+        }
+
+        @Test
+        @DisplayName("should reject unterminated quotes")
+        void shouldRejectUnterminatedQuotes() {
+            assertThrows(IllegalArgumentException.class, () -> CommandTokenizer.tokenize("add-author \"Oops"));
+        }
+    }
+
+    // --- Lightweight mock implementations used in tests ---
+
+    private static final class CountingOutputStream extends OutputStream {
+        private int flushes;
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    // stages into lists and hands them to the mutable inputs on commit
+    private final class StagingImportInput implements CatalogImportInput {
+        @Override
+        public CatalogImport begin() {
+            final List<AddAuthorCommand> authors = new ArrayList<>();
+            final List<AddCollectionCommand> collections = new ArrayList<>();
+            final List<AddBookCommand> books = new ArrayList<>();
+            return new CatalogImport() {
+                @Override
+                public Author addAuthor(AddAuthorCommand cmd) {
+                    authors.add(cmd);
+                    return new Author((long) authorInput.getAll().size() + authors.size(), cmd.name());
+                }
+
+                @Override
+                public Collection addCollection(AddCollectionCommand cmd) {
+                    collections.add(cmd);
+                    return new Collection((long) collectionInput.getAll().size() + collections.size(), cmd.name());
+                }
+
+                @Override
+                public Book addBook(AddBookCommand cmd) {
+                    books.add(cmd);
+                    return new Book((long) bookInput.getAll().size() + books.size(), cmd.title(),
+                        cmd.authorId(), cmd.collectionId(), cmd.publicationYear());
+                }
+
+                @Override
+                public int commit() {
+                    authors.forEach(authorInput::addAuthor);
+                    collections.forEach(collectionInput::addCollection);
+                    books.forEach(bookInput::addBook);
+                    return authors.size() + collections.size() + books.size();
+                }
+            };
+        }
+    }
+
+    private static final class MutableAuthorInput implements AuthorManagementInput {
+        private final List<Author> list = new ArrayList<>();
+
+        @Override
+        public Author addAuthor(AddAuthorCommand cmd) {
+            final Author a = new Author((long) list.size() + 1, cmd.name());
+            list.add(a);
+            return a;
+        }
+
+        @Override
+        public List<Author> getAll() {
+            return List.copyOf(list);
+        }
+
+        @Override
+        public Author getById(Long id) {
+            return list.stream().filter(a -> a.id().equals(id)).findFirst().orElseThrow();
+        }
+    }
+
+    private static final class MutableCollectionInput implements CollectionManagementInput {
+        private final List<Collection> list = new ArrayList<>();
+
+        @Override
+        public Collection addCollection(AddCollectionCommand cmd) {
+            final Collection c = new Collection((long) list.size() + 1, cmd.name());
+            list.add(c);
+            return c;
+        }
+
+        @Override
+        public List<Collection> getAll() {
+            return List.copyOf(list);
+        }
+
+        @Override
+        public Collection getById(Long id) {
+            return list.stream().filter(c -> c.id().equals(id)).findFirst().orElseThrow();
+        }
+    }
+
+    private static final class MutableBookInput implements BookManagementInput {
+        private final List<Book> list = new ArrayList<>();
+        private final List<Hold> holds = new ArrayList<>();
+
+        @Override
+        public Book addBook(AddBookCommand cmd) {
+            final Book b = new Book((long) list.size() + 1, cmd.title(), cmd.authorId(), cmd.collectionId(), cmd.publicationYear());
+            list.add(b);
+            return b;
+        }
+
+        @Override
+        public List<Book> getAll() {
+            return List.copyOf(list);
+        }
+
+        @Override
+        public List<Book> getByCollectionId(final Long collectionId) {
+            return getAll().stream()
+                .filter(book -> collectionId.equals(book.collectionId()))
+                .toList();
+        }
+
+        @Override
+        public Book getById(Long id) {
+            return list.stream().filter(b -> b.id().equals(id)).findFirst().orElseThrow();
+        }
+
+        @Override
+        public void borrow(Long bookId) {
+            final Book borrowed = getById(bookId).borrow();
+            list.replaceAll(b -> b.id().equals(bookId) ? borrowed : b);
+        }
+
+        @Override
+        public void returnBook(Long bookId) {
+            final Book returned = getById(bookId).returnBook();
+            list.replaceAll(b -> b.id().equals(bookId) ? returned : b);
+        }
+
+        @Override
+        public Hold placeHold(Long bookId, String patron) {
+            final Hold hold = new Hold((long) holds.size() + 1, bookId, patron, null);
+            holds.add(hold);
+            return hold;
+        }
+
+        @Override
+        public List<Hold> getHolds(Long bookId) {
+            return holds.stream().filter(h -> h.bookId().equals(bookId)).toList();
+        }
+
+        @Override
+        public BookDetails getDetails(final Long bookId) {
+            final Book book = getById(bookId);
+            return new BookDetails(book.id(), book.title(), null, null, book.publicationYear(),
+                book.isBorrowed(), book.borrowedAt(), getHolds(bookId));
+        }
+    }
+}
@@ -3,12 +3,14 @@ package com.github.gogoasac.infra.input.menu;
 import com.github.gogoasac.application.dto.AddAuthorCommand;
 import com.github.gogoasac.application.dto.AddBookCommand;
 import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.dto.BookDetails;
 import com.github.gogoasac.application.input.AuthorManagementInput;
 import com.github.gogoasac.application.input.BookManagementInput;
 import com.github.gogoasac.application.input.CollectionManagementInput;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -157,6 +159,30 @@ class BookMenuTest {
         }
     }
 
+    @Nested
+    @DisplayName("Hold flows")
+    class Holds {
+
+        @Test
+        void shouldPlaceHoldAndListIt() {
+            final MutableAuthorInput authorInput = new MutableAuthorInput();
+            final MutableCollectionInput collectionInput = new MutableCollectionInput();
+            final MutableBookInput bookInput = new MutableBookInput(authorInput, collectionInput);
+
+            final String inputLines = String.join("\n", "6", "1", "Ada", "7", "1", "9") + "\n";
+            final BufferedReader sharedReader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(inputLines.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+            final BookMenu menu = new BookMenu(printStream, sharedReader, bookInput, authorInput, collectionInput);
+
+            menu.run();
+
+            final String output = outputBuffer.toString(StandardCharsets.UTF_8);
+            assertTrue(output.contains("Hold placed"), "Should confirm the hold");
+            assertTrue(output.contains("Holds (oldest first):"), "Should list the queue");
+            assertEquals(1, bookInput.getHolds(1L).size(), "One hold queued");
+        }
+    }
+
     // --- lightweight in-memory mocks used by tests ---
     private static final class MutableAuthorInput implements AuthorManagementInput {
         private long nextId = 1L;
@@ -205,6 +231,7 @@ class BookMenuTest {
     private static final class MutableBookInput implements BookManagementInput {
         private long nextId = 1L;
         private final List<Book> storage = new ArrayList<>();
+        private final List<Hold> holds = new ArrayList<>();
         private final MutableAuthorInput authors;
         private final MutableCollectionInput collections;
 
@@ -233,6 +260,13 @@ class BookMenuTest {
             return List.copyOf(storage);
         }
 
+        @Override
+        public List<Book> getByCollectionId(final Long collectionId) {
+            return getAll().stream()
+                .filter(book -> collectionId.equals(book.collectionId()))
+                .toList();
+        }
+
         @Override
         public void borrow(final Long bookId) {
             if (bookId == null) {
@@ -255,5 +289,33 @@ class BookMenuTest {
             }
             throw new IllegalArgumentException("Book not found: " + bookId);
         }
+
+        @Override
+        public void returnBook(final Long bookId) {
+            final Book current = getById(bookId);
+            if (current == null) {
+                throw new IllegalArgumentException("Book not found: " + bookId);
+            }
+            storage.replaceAll(b -> b.id().equals(bookId) ? current.returnBook() : b);
+        }
+
+        @Override
+        public Hold placeHold(final Long bookId, final String patron) {
+            final Hold hold = new Hold((long) holds.size() + 1, bookId, patron, null);
+            holds.add(hold);
+            return hold;
+        }
+
+        @Override
+        public List<Hold> getHolds(final Long bookId) {
+            return holds.stream().filter(h -> h.bookId().equals(bookId)).toList();
+        }
+
+        @Override
+        public BookDetails getDetails(final Long bookId) {
+            final Book book = getById(bookId);
+            return new BookDetails(book.id(), book.title(), null, null, book.publicationYear(),
+                book.isBorrowed(), book.borrowedAt(), getHolds(bookId));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.github.gogoasac.infra.input.menu;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MenuOutput behaviour")
+class MenuOutputTest {
+
+    private static final class CountingStream extends ByteArrayOutputStream {
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    private static Stream<String> items(final int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> "item " + i);
+    }
+
+    private static List<String> lines(final ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Nested
+    @DisplayName("buffering")
+    class BufferingTests {
+        @Test
+        @DisplayName("should not flush per line and flush once after a short listing")
+        void shouldFlushOnceForShortListing() {
+            final CountingStream out = new CountingStream();
+            final MenuOutput output = new MenuOutput(new PrintStream(out, false, StandardCharsets.UTF_8),
+                new BufferedReader(new StringReader("")), 10);
+
+            output.printLine("first");
+            output.printLine("second");
+            assertEquals(0, out.flushes);
+
+            output.printListing("Items:", items(5));
+
+            assertEquals(1, out.flushes);
+            assertEquals(8, lines(out).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("pagination")
+    class PaginationTests {
+        @Test
+        @DisplayName("should pause after every page and flush once per page")
+        void shouldPausePerPage() {
+            final CountingStream out = new CountingStream();
+            final MenuOutput output = new MenuOutput(new PrintStream(out, false, StandardCharsets.UTF_8),
+                new BufferedReader(new StringReader("\n\n")), 4);
+
+            output.printListing("Items:", items(10));
+
+            final List<String> written = lines(out);
+            assertEquals(2, written.stream().filter(MenuOutput.MORE_PROMPT::equals).count());
+            assertTrue(written.contains("item 10"));
+            // one flush per page prompt plus the final one
+            assertEquals(3, out.flushes);
+        }
+
+        @Test
+        @DisplayName("should stop the listing when the user answers q")
+        void shouldStopOnQuit() {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final MenuOutput output = new MenuOutput(new PrintStream(out, false, StandardCharsets.UTF_8),
+                new BufferedReader(new StringReader("q\n")), 4);
+
+            output.printListing("Items:", items(10));
+
+            final List<String> written = lines(out);
+            assertTrue(written.contains("item 3"));
+            assertFalse(written.contains("item 4"));
+        }
+
+        @Test
+        @DisplayName("should print the remainder without pausing when the user answers a")
+        void shouldPrintAllOnAll() {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final MenuOutput output = new MenuOutput(new PrintStream(out, false, StandardCharsets.UTF_8),
+                new BufferedReader(new StringReader("a\n")), 4);
+
+            output.printListing("Items:", items(20));
+
+            final List<String> written = lines(out);
+            assertEquals(1, written.stream().filter(MenuOutput.MORE_PROMPT::equals).count());
+            assertTrue(written.contains("item 20"));
+        }
+
+        @Test
+        @DisplayName("should treat end of input as stop")
+        void shouldStopAtEndOfInput() {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final MenuOutput output = new MenuOutput(new PrintStream(out, false, StandardCharsets.UTF_8),
+                new BufferedReader(new StringReader("")), 4);
+
+            output.printListing("Items:", items(10));
+
+            assertFalse(lines(out).contains("item 4"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import com.github.gogoasac.application.dto.BookReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookListModel Tests")
+class BookListModelTest {
+    private static final int ROWS = 250_000;
+
+    private List<BookReport> books;
+    private BookListModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        books = IntStream.range(0, ROWS)
+            .mapToObj(i -> new BookReport("Title " + i, i % 2 == 0 ? "Frank Herbert" : "Ursula K. Le Guin"))
+            .toList();
+        model = onEdt(BookListModel::new);
+    }
+
+    private static <T> T onEdt(final Callable<T> action) throws Exception {
+        final AtomicReference<T> result = new AtomicReference<>();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(action.call());
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result.get();
+    }
+
+    private void filterAndWait(final String filter) throws Exception {
+        onEdt(() -> {
+            model.setFilter(filter);
+            return null;
+        });
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (onEdt(model::isFiltering)) {
+            assertTrue(System.nanoTime() < deadline, "filter did not finish");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Should expose the report rows without copying them")
+    void shouldExposeRowsLazily() throws Exception {
+        onEdt(() -> {
+            model.setBooks(books);
+            return null;
+        });
+
+        assertEquals(ROWS, onEdt(model::getSize));
+        assertSame(books.get(ROWS - 1), onEdt(() -> model.getElementAt(ROWS - 1)));
+    }
+
+    @Test
+    @DisplayName("Should filter in the background and narrow incrementally")
+    void shouldFilterIncrementally() throws Exception {
+        onEdt(() -> {
+            model.setBooks(books);
+            return null;
+        });
+
+        filterAndWait("le guin");
+        assertEquals(ROWS / 2, onEdt(model::getSize));
+
+        filterAndWait("title 1");
+        assertEquals(IntStream.range(0, ROWS).filter(i -> ("" + i).startsWith("1")).count(), (long) onEdt(model::getSize));
+
+        filterAndWait("title 12");
+        assertEquals(IntStream.range(0, ROWS).filter(i -> ("" + i).startsWith("12")).count(), (long) onEdt(model::getSize));
+        assertEquals("Title 12", onEdt(() -> model.getElementAt(0)).title());
+
+        filterAndWait("");
+        assertEquals(ROWS, onEdt(model::getSize));
+    }
+
+    @Test
+    @DisplayName("Should keep the filter when switching collections")
+    void shouldReapplyFilterOnNewBooks() throws Exception {
+        filterAndWait("herbert");
+        onEdt(() -> {
+            model.setBooks(books.subList(0, 10));
+            return null;
+        });
+        // same filter text: only waits for the rescan of the new rows
+        filterAndWait("herbert");
+
+        assertEquals(5, onEdt(model::getSize));
+        assertEquals(10, onEdt(model::getTotalSize));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReportSchedule Tests")
+class ReportScheduleTest {
+    private static ZonedDateTime at(final int day, final int hour, final int minute) {
+        return ZonedDateTime.of(LocalDateTime.of(2024, 5, day, hour, minute), ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Should align intervals to the clock like a cron step")
+    void shouldAlignIntervals() {
+        final ReportSchedule quarterHour = ReportSchedule.parse("every 15m");
+
+        assertEquals(at(1, 10, 15), quarterHour.nextRunAfter(at(1, 10, 7)));
+        assertEquals(at(1, 10, 30), quarterHour.nextRunAfter(at(1, 10, 15)));
+        assertEquals(at(2, 0, 0), quarterHour.nextRunAfter(at(1, 23, 50)));
+    }
+
+    @Test
+    @DisplayName("Should restart uneven intervals at midnight")
+    void shouldRestartAtMidnight() {
+        final ReportSchedule sevenHours = ReportSchedule.parse("every 7h");
+
+        assertEquals(at(1, 21, 0), sevenHours.nextRunAfter(at(1, 14, 0)));
+        assertEquals(at(2, 0, 0), sevenHours.nextRunAfter(at(1, 21, 0)));
+    }
+
+    @Test
+    @DisplayName("Should run daily at the given time")
+    void shouldRunDaily() {
+        final ReportSchedule nightly = ReportSchedule.parse("daily 02:30");
+
+        assertEquals(at(1, 2, 30), nightly.nextRunAfter(at(1, 1, 0)));
+        assertEquals(at(2, 2, 30), nightly.nextRunAfter(at(1, 2, 30)));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown specs")
+    void shouldRejectUnknownSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> ReportSchedule.parse("hourly"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSchedule.parse("every 5d"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSchedule.parse("every xm"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSchedule.parse("daily 25:00"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSchedule.parse("every 0m"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.gogoasac.infra.input.reporting;
+
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.input.ReportingInput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReportScheduler Tests")
+class ReportSchedulerTest {
+    private static final List<CollectionReport> REPORTS =
+        List.of(new CollectionReport("Sci-Fi", List.of(new BookReport("Dune", "Frank Herbert"))));
+
+    private ReportScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the result of an on-demand run")
+    void shouldKeepLatestResult() throws Exception {
+        scheduler = new ReportScheduler(() -> REPORTS, ReportSchedule.parse("daily 02:00"));
+
+        assertTrue(scheduler.latest().isEmpty());
+        final ReportScheduler.Result result = scheduler.runNow().get(5, TimeUnit.SECONDS);
+
+        assertEquals(REPORTS, result.reports());
+        assertEquals(result, scheduler.latest().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should keep running on schedule after a failed run")
+    void shouldSurviveFailures() throws InterruptedException {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch threeRuns = new CountDownLatch(3);
+        final ReportingInput flaky = () -> {
+            threeRuns.countDown();
+            if (runs.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk full");
+            }
+            return REPORTS;
+        };
+        scheduler = new ReportScheduler(flaky, time -> time.plus(Duration.ofMillis(5)));
+
+        scheduler.start();
+
+        assertTrue(threeRuns.await(5, TimeUnit.SECONDS));
+        assertEquals(REPORTS, scheduler.latest().orElseThrow().reports());
+    }
+
+    @Test
+    @DisplayName("Should report a failed on-demand run through its future")
+    void shouldFailFuture() {
+        scheduler = new ReportScheduler(() -> {
+            throw new IllegalStateException("disk full");
+        }, ReportSchedule.parse("daily 02:00"));
+
+        final ExecutionException e = assertThrows(ExecutionException.class,
+            () -> scheduler.runNow().get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(scheduler.latest().isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.gogoasac.infra.input.socket;
+
+import com.github.gogoasac.domain.entity.Book;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput benchmark for {@link LineProtocolServer} against in-memory ports.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test}); run it manually, e.g.
+ * {@code java -cp target/classes:target/test-classes:<deps> com.github.gogoasac.infra.input.socket.LineProtocolBenchmark [clients] [requests] [pipelineDepth]}.
+ */
+public final class LineProtocolBenchmark {
+    private LineProtocolBenchmark() {}
+
+    public static void main(final String[] args) throws Exception {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        final int pipelineDepth = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        final LineProtocolHandlerTest.InMemoryBookInput bookInput = new LineProtocolHandlerTest.InMemoryBookInput();
+        for (long id = 1; id <= 1_000; id++) {
+            bookInput.add(new Book(id, "Book " + id, 1L, 1L, 2000));
+        }
+        final LineProtocolHandler handler = LineProtocolHandlerTest.handler(bookInput);
+
+        try (LineProtocolServer server = new LineProtocolServer(handler, new InetSocketAddress("127.0.0.1", 0),
+            LineProtocolServer.DEFAULT_WORKER_THREADS)) {
+            server.start();
+            final int port = server.getPort();
+
+            final ExecutorService pool = Executors.newFixedThreadPool(clients);
+            final long start = System.nanoTime();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> {
+                    try (LineProtocolTestClient client = new LineProtocolTestClient(port)) {
+                        final String[] batch = new String[pipelineDepth];
+                        for (int sent = 0; sent < requestsPerClient; sent += pipelineDepth) {
+                            for (int i = 0; i < pipelineDepth; i++) {
+                                batch[i] = "GET BOOK " + ((sent + i) % 1_000 + 1);
+                            }
+                            client.send(batch);
+                            for (int i = 0; i < pipelineDepth; i++) {
+                                client.readResponse();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            final long elapsedNanos = System.nanoTime() - start;
+            pool.shutdown();
+
+            final long total = (long) clients * requestsPerClient;
+            System.out.printf("clients=%d requests=%d pipeline=%d -> %.0f req/s (%.1f ms)%n",
+                clients, total, pipelineDepth, total / (elapsedNanos / 1e9), elapsedNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.gogoasac.infra.input.socket;
+
+import com.github.gogoasac.application.dto.AddAuthorCommand;
+import com.github.gogoasac.application.dto.AddBookCommand;
+import com.github.gogoasac.application.dto.AddCollectionCommand;
+import com.github.gogoasac.application.dto.BookDetails;
+import com.github.gogoasac.application.dto.OverdueLoan;
+import com.github.gogoasac.application.dto.ReplicationStatus;
+import com.github.gogoasac.application.dto.SnapshotInfo;
+import com.github.gogoasac.application.input.AuthorManagementInput;
+import com.github.gogoasac.application.input.BookManagementInput;
+import com.github.gogoasac.application.input.CollectionManagementInput;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import com.github.gogoasac.infra.output.snapshot.UnavailableSnapshots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LineProtocolHandler")
+class LineProtocolHandlerTest {
+    private static final String NO_SNAPSHOTS = "Snapshots are not available";
+
+    private InMemoryBookInput bookInput;
+    private LineProtocolHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        bookInput = new InMemoryBookInput();
+        bookInput.add(new Book(1L, "Dune", 1L, 1L, 1965));
+        bookInput.add(new Book(2L, "Neuromancer", 2L, 1L, 1984));
+        bookInput.add(new Book(3L, "LOTR", 3L, 2L, 1954));
+
+        handler = handler(bookInput);
+    }
+
+    /**
+     * A handler over {@code bookInput} with one author and one collection, no
+     * overdue loans, standalone replication and no snapshots.
+     */
+    static LineProtocolHandler handler(final BookManagementInput bookInput) {
+        return new LineProtocolHandler(bookInput, new SingleAuthorInput(), new SingleCollectionInput(), List::of,
+            ReplicationStatus::standalone, new UnavailableSnapshots(NO_SNAPSHOTS));
+    }
+
+    @Test
+    @DisplayName("should answer PING")
+    void shouldAnswerPing() {
+        assertEquals("OK PONG", handler.handle("ping"));
+    }
+
+    @Test
+    @DisplayName("should return a single book for GET BOOK")
+    void shouldGetBook() {
+        final String response = handler.handle("GET BOOK 2");
+
+        assertTrue(response.startsWith("OK "));
+        assertTrue(response.contains("Neuromancer"));
+    }
+
+    @Test
+    @DisplayName("should resolve authors and collections for GET")
+    void shouldGetAuthorAndCollection() {
+        assertTrue(handler.handle("GET AUTHOR 1").contains("Frank Herbert"));
+        assertTrue(handler.handle("get collection 1").contains("Sci-Fi"));
+    }
+
+    @Test
+    @DisplayName("should list only the books of the requested collection")
+    void shouldListBooksOfCollection() {
+        final List<String> lines = handler.handle("LIST BOOKS 1").lines().toList();
+
+        assertEquals("OK 2", lines.getFirst());
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().anyMatch(l -> l.contains("Dune")));
+        assertTrue(lines.stream().noneMatch(l -> l.contains("LOTR")));
+    }
+
+    @Test
+    @DisplayName("should list every book when no collection is given")
+    void shouldListAllBooks() {
+        final List<String> lines = handler.handle("LIST BOOKS").lines().toList();
+
+        assertEquals("OK 3", lines.getFirst());
+    }
+
+    @Test
+    @DisplayName("should borrow through the book input port")
+    void shouldBorrow() {
+        assertEquals("OK Borrowed 3", handler.handle("BORROW 3"));
+        assertTrue(bookInput.getById(3L).isBorrowed());
+    }
+
+    @Test
+    @DisplayName("should place holds with multi-word patrons and list them in order")
+    void shouldPlaceAndListHolds() {
+        assertTrue(handler.handle("HOLD 2 Ada Lovelace").contains("patron='Ada Lovelace'"));
+        handler.handle("HOLD 2 Grace");
+
+        final List<String> lines = handler.handle("HOLDS 2").lines().toList();
+        assertEquals("OK 2", lines.getFirst());
+        assertTrue(lines.get(1).contains("Ada Lovelace"));
+        assertTrue(lines.get(2).contains("Grace"));
+        assertTrue(handler.handle("HOLD 2").startsWith("ERR Usage"));
+    }
+
+    @Test
+    @DisplayName("should list overdue loans from the loan monitoring port")
+    void shouldListOverdueLoans() {
+        final OverdueLoan loan = new OverdueLoan(1L, "Dune", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15));
+        final LineProtocolHandler withLoans = new LineProtocolHandler(
+            bookInput, new SingleAuthorInput(), new SingleCollectionInput(), () -> List.of(loan),
+            ReplicationStatus::standalone, new UnavailableSnapshots(NO_SNAPSHOTS));
+
+        assertEquals("OK 1\n" + loan, withLoans.handle("overdue"));
+        assertEquals("OK 0", handler.handle("OVERDUE"));
+    }
+
+    @Test
+    @DisplayName("should report the replication status of the process")
+    void shouldReportReplicationStatus() {
+        final ReplicationStatus following = new ReplicationStatus(ReplicationStatus.FOLLOWER, 42L, 128L, Duration.ofMillis(250));
+        final LineProtocolHandler follower = new LineProtocolHandler(
+            bookInput, new SingleAuthorInput(), new SingleCollectionInput(), List::of, () -> following,
+            new UnavailableSnapshots(NO_SNAPSHOTS));
+
+        assertEquals("OK follower sequence=42 pending=128 bytes lag=250 ms", follower.handle("replication"));
+        assertEquals("OK standalone sequence=0 pending=0 bytes lag=0 ms", handler.handle("REPLICATION"));
+        assertTrue(handler.handle("REPLICATION NOW").startsWith("ERR Usage"));
+    }
+
+    @Test
+    @DisplayName("should write a snapshot on request and refuse when snapshots are not configured")
+    void shouldCreateSnapshots() {
+        final SnapshotInfo info = new SnapshotInfo("snapshots/library.zip", 1, 2, 3, 512L, Duration.ofNanos(42_000L));
+        final LineProtocolHandler withSnapshots = new LineProtocolHandler(
+            bookInput, new SingleAuthorInput(), new SingleCollectionInput(), List::of, ReplicationStatus::standalone,
+            () -> info);
+
+        assertEquals("OK snapshots/library.zip authors=1 collections=2 books=3 bytes=512 capture=42 us",
+            withSnapshots.handle("snapshot"));
+        assertTrue(withSnapshots.handle("SNAPSHOT NOW").startsWith("ERR Usage"));
+        assertEquals("ERR " + NO_SNAPSHOTS, handler.handle("SNAPSHOT"));
+    }
+
+    @Test
+    @DisplayName("should report domain failures as ERR")
+    void shouldReportFailures() {
+        handler.handle("BORROW 1");
+
+        assertEquals("ERR Book is already borrowed.", handler.handle("BORROW 1"));
+    }
+
+    @Test
+    @DisplayName("should reject unknown commands and malformed arguments")
+    void shouldRejectMalformedInput() {
+        assertTrue(handler.handle("DANCE").startsWith("ERR Unknown command"));
+        assertTrue(handler.handle("BORROW abc").startsWith("ERR Invalid number"));
+        assertTrue(handler.handle("GET BOOK").startsWith("ERR Usage"));
+        assertTrue(handler.handle("LIST AUTHORS").startsWith("ERR Usage"));
+    }
+
+    // --- Lightweight in-memory ports ---
+
+    static final class InMemoryBookInput implements BookManagementInput {
+        private final List<Book> books = new ArrayList<>();
+        private final List<Hold> holds = new ArrayList<>();
+
+        synchronized void add(final Book book) {
+            books.add(book);
+        }
+
+        @Override
+        public synchronized Book addBook(AddBookCommand cmd) {
+            final Book book = new Book((long) books.size() + 1, cmd.title(), cmd.authorId(), cmd.collectionId(), cmd.publicationYear());
+            books.add(book);
+            return book;
+        }
+
+        @Override
+        public synchronized List<Book> getAll() {
+            return List.copyOf(books);
+        }
+
+        @Override
+        public synchronized List<Book> getByCollectionId(final Long collectionId) {
+            return getAll().stream()
+                .filter(book -> collectionId.equals(book.collectionId()))
+                .toList();
+        }
+
+        @Override
+        public synchronized Book getById(Long id) {
+            return books.stream().filter(b -> b.id().equals(id)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Book with ID " + id + " does not exist."));
+        }
+
+        @Override
+        public synchronized void borrow(Long bookId) {
+            final Book borrowed = getById(bookId).borrow();
+            books.replaceAll(b -> b.id().equals(bookId) ? borrowed : b);
+        }
+
+        @Override
+        public synchronized void returnBook(Long bookId) {
+            final Book returned = getById(bookId).returnBook();
+            books.replaceAll(b -> b.id().equals(bookId) ? returned : b);
+        }
+
+        @Override
+        public synchronized Hold placeHold(Long bookId, String patron) {
+            final Hold hold = new Hold((long) holds.size() + 1, bookId, patron, null);
+            holds.add(hold);
+            return hold;
+        }
+
+        @Override
+        public synchronized List<Hold> getHolds(Long bookId) {
+            return holds.stream().filter(h -> h.bookId().equals(bookId)).toList();
+        }
+
+        @Override
+        public synchronized BookDetails getDetails(final Long bookId) {
+            final Book book = getById(bookId);
+            return new BookDetails(book.id(), book.title(), null, null, book.publicationYear(),
+                book.isBorrowed(), book.borrowedAt(), getHolds(bookId));
+        }
+    }
+
+    static final class SingleAuthorInput implements AuthorManagementInput {
+        @Override
+        public Author addAuthor(AddAuthorCommand cmd) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Author> getAll() {
+            return List.of(new Author(1L, "Frank Herbert"));
+        }
+
+        @Override
+        public Author getById(Long id) {
+            return new Author(id, "Frank Herbert");
+        }
+    }
+
+    static final class SingleCollectionInput implements CollectionManagementInput {
+        @Override
+        public Collection addCollection(AddCollectionCommand cmd) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Collection> getAll() {
+            return List.of(new Collection(1L, "Sci-Fi"));
+        }
+
+        @Override
+        public Collection getById(Long id) {
+            return new Collection(id, "Sci-Fi");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.gogoasac.infra.input.socket;
+
+import com.github.gogoasac.domain.entity.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LineProtocolServer")
+class LineProtocolServerTest {
+
+    private LineProtocolHandlerTest.InMemoryBookInput bookInput;
+    private LineProtocolServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookInput = new LineProtocolHandlerTest.InMemoryBookInput();
+        for (long id = 1; id <= 50; id++) {
+            bookInput.add(new Book(id, "Book " + id, 1L, id % 2 + 1, 2000));
+        }
+
+        final LineProtocolHandler handler = LineProtocolHandlerTest.handler(bookInput);
+        server = new LineProtocolServer(handler, new InetSocketAddress("127.0.0.1", 0), 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("should answer a simple request")
+    void shouldAnswerRequest() throws IOException {
+        try (LineProtocolTestClient client = new LineProtocolTestClient(server.getPort())) {
+            assertEquals(List.of("OK PONG"), client.request("PING"));
+        }
+    }
+
+    @Test
+    @DisplayName("should answer pipelined requests in order")
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        try (LineProtocolTestClient client = new LineProtocolTestClient(server.getPort())) {
+            final List<String> requests = new ArrayList<>();
+            for (int id = 1; id <= 50; id++) {
+                requests.add("GET BOOK " + id);
+            }
+            requests.add("LIST BOOKS 1");
+            requests.add("BORROW 7");
+            requests.add("BORROW 7");
+            client.send(requests.toArray(String[]::new));
+
+            for (int id = 1; id <= 50; id++) {
+                final List<String> response = client.readResponse();
+                assertTrue(response.getFirst().contains("title='Book " + id + "'"), response.getFirst());
+            }
+            final List<String> listing = client.readResponse();
+            assertEquals("OK 25", listing.getFirst());
+            assertEquals(26, listing.size());
+            assertEquals(List.of("OK Borrowed 7"), client.readResponse());
+            assertEquals(List.of("ERR Book is already borrowed."), client.readResponse());
+        }
+    }
+
+    @Test
+    @DisplayName("should close the connection after QUIT once earlier responses are sent")
+    void shouldCloseAfterQuit() throws IOException {
+        try (LineProtocolTestClient client = new LineProtocolTestClient(server.getPort())) {
+            client.send("PING", "QUIT", "PING");
+
+            assertEquals(List.of("OK PONG"), client.readResponse());
+            assertEquals(List.of("OK BYE"), client.readResponse());
+            assertTrue(client.isClosedByServer());
+        }
+    }
+
+    @Test
+    @DisplayName("should reject an overlong line after answering the requests before it")
+    void shouldRejectOverlongLineInOrder() throws IOException {
+        try (LineProtocolTestClient client = new LineProtocolTestClient(server.getPort())) {
+            client.send("PING", "PING", "x".repeat(9 * 1024));
+
+            assertEquals(List.of("OK PONG"), client.readResponse());
+            assertEquals(List.of("OK PONG"), client.readResponse());
+            assertEquals(List.of("ERR Line exceeds 8192 bytes"), client.readResponse());
+            assertTrue(client.isClosedByServer());
+        }
+    }
+
+    @Test
+    @DisplayName("should answer every request of a client that pipelines far ahead of reading")
+    void shouldAnswerDeepPipeline() throws IOException {
+        try (LineProtocolTestClient client = new LineProtocolTestClient(server.getPort())) {
+            final String[] requests = new String[5_000];
+            Arrays.fill(requests, "PING");
+            client.send(requests);
+
+            for (int i = 0; i < requests.length; i++) {
+                assertEquals(List.of("OK PONG"), client.readResponse(), "response " + i);
+            }
+            assertEquals(List.of("OK PONG"), client.request("PING"));
+        }
+    }
+
+    @Test
+    @DisplayName("should keep many idle connections open and still serve them")
+    void shouldServeManyIdleConnections() throws IOException {
+        final List<LineProtocolTestClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 500; i++) {
+                clients.add(new LineProtocolTestClient(server.getPort()));
+            }
+
+            assertEquals(List.of("OK PONG"), clients.getFirst().request("PING"));
+            assertEquals(List.of("OK PONG"), clients.getLast().request("PING"));
+        } finally {
+            for (final LineProtocolTestClient client : clients) {
+                client.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.gogoasac.infra.input.socket;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal blocking client for the line protocol, used by the socket tests, the
+ * benchmark and {@code ReplicationIT}.
+ *
+ * <p>{@link #send(String...)} writes every request in one go without waiting for
+ * answers (pipelining); {@link #readResponse()} reads one complete response,
+ * including the body lines of {@code OK <n>} listings.
+ */
+public final class LineProtocolTestClient implements AutoCloseable {
+    private final Socket socket;
+    private final OutputStream out;
+    private final BufferedReader in;
+
+    public LineProtocolTestClient(final int port) throws IOException {
+        this.socket = new Socket();
+        this.socket.setTcpNoDelay(true);
+        this.socket.connect(new InetSocketAddress("127.0.0.1", port), 5_000);
+        this.socket.setSoTimeout(10_000);
+        this.out = socket.getOutputStream();
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    public void send(final String... lines) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (final String line : lines) {
+            sb.append(line).append('\n');
+        }
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    public List<String> readResponse() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        final String head = in.readLine();
+        if (head == null) {
+            return lines;
+        }
+        lines.add(head);
+
+        final int bodyLines = listingSize(head);
+        for (int i = 0; i < bodyLines; i++) {
+            lines.add(in.readLine());
+        }
+        return lines;
+    }
+
+    public List<String> request(final String line) throws IOException {
+        send(line);
+        return readResponse();
+    }
+
+    public boolean isClosedByServer() throws IOException {
+        return in.readLine() == null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private static int listingSize(final String head) {
+        final String[] parts = head.split(" ");
+        if (parts.length == 2 && parts[0].equals("OK") && parts[1].chars().allMatch(Character::isDigit)) {
+            return Integer.parseInt(parts[1]);
+        }
+        return 0;
+    }
+}
@@ -25,6 +25,7 @@ class AuthorRepositoryTest {
         if (file.exists()) {
             file.delete();
         }
+        new File(FILE_PATH + ".meta").delete();
     }
 
     @Nested
@@ -131,5 +132,17 @@ class AuthorRepositoryTest {
             assertTrue(found.isPresent());
             assertEquals(author.name(), found.get().name());
         }
+
+        @Test
+        @DisplayName("Should bump the data version on writes only")
+        void dataVersion_ShouldChangeOnWritesOnly() {
+            final long initial = repository.dataVersion();
+
+            repository.findAll();
+            assertEquals(initial, repository.dataVersion());
+
+            repository.addAuthor(new Author(null, "Versioned Author"));
+            assertEquals(initial + 1, repository.dataVersion());
+        }
     }
 }
@@ -1,13 +1,27 @@
 package com.github.gogoasac.infra.output;
 
+import com.github.gogoasac.application.output.PersistenceSnapshot;
 import com.github.gogoasac.domain.entity.Author;
 import com.github.gogoasac.domain.entity.Book;
 import com.github.gogoasac.domain.entity.Collection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +46,7 @@ class BookRepositoryTest {
             boolean deleted = file.delete();
             assertTrue(deleted, "Failed to delete test file " + FILE_PATH);
         }
+        new File(FILE_PATH + ".meta").delete();
     }
 
     @Nested
@@ -159,5 +174,214 @@ class BookRepositoryTest {
             assertEquals(book.publicationYear(), retrieved.publicationYear());
         }
     }
-}
 
+    @Nested
+    @DisplayName("Header file tests")
+    class HeaderTests {
+        private final Path headerPath = Path.of(FILE_PATH + ".meta");
+
+        @Test
+        @DisplayName("Should record max id and count in the header on every write")
+        void header_ShouldTrackMaxIdAndCount() throws IOException {
+            repository.addBook(new Book(null, "First", testAuthor.id(), testCollection.id(), 2024));
+            Book second = repository.addBook(new Book(null, "Second", testAuthor.id(), testCollection.id(), 2024));
+
+            JsonNode header = readHeader();
+
+            assertEquals(second.id(), header.get("maxId").asLong());
+            assertEquals(2, header.get("count").asInt());
+            assertEquals(Files.size(Path.of(FILE_PATH)), header.get("size").asLong());
+        }
+
+        @Test
+        @DisplayName("Should take the next id from a valid header instead of scanning")
+        void header_WhenValid_ShouldSupplyMaxId() throws IOException {
+            repository.addBook(new Book(null, "First", testAuthor.id(), testCollection.id(), 2024));
+            // ids 2..99 were handed out and deleted by an earlier version of the file
+            ObjectNode header = (ObjectNode) readHeader();
+            header.put("maxId", 99L);
+            Files.writeString(headerPath, header.toString());
+
+            BookRepository reopened = new BookRepository(FILE_PATH);
+            Book saved = reopened.addBook(new Book(null, "Next", testAuthor.id(), testCollection.id(), 2024));
+
+            assertEquals(100L, saved.id());
+        }
+
+        @Test
+        @DisplayName("Should fall back to a full scan when the data file no longer matches the header")
+        void header_WhenStale_ShouldRescan() throws IOException {
+            repository.addBook(new Book(null, "First", testAuthor.id(), testCollection.id(), 2024));
+            Files.writeString(Path.of(FILE_PATH),
+                "[{\"id\":7,\"title\":\"Edited by hand\",\"authorId\":1,\"collectionId\":1,\"publicationYear\":2024}]");
+
+            BookRepository reopened = new BookRepository(FILE_PATH);
+            Book saved = reopened.addBook(new Book(null, "Next", testAuthor.id(), testCollection.id(), 2024));
+
+            assertEquals(8L, saved.id());
+            assertEquals(2, reopened.findAll().size());
+            assertEquals(8L, readHeader().get("maxId").asLong());
+        }
+
+        @Test
+        @DisplayName("Should ignore an unreadable header and rewrite it on load")
+        void header_WhenCorrupt_ShouldRescanAndRewrite() throws IOException {
+            Book book = repository.addBook(new Book(null, "First", testAuthor.id(), testCollection.id(), 2024));
+            Files.writeString(headerPath, "not json");
+
+            BookRepository reopened = new BookRepository(FILE_PATH);
+            reopened.preload();
+
+            assertEquals(List.of(book), reopened.findAll());
+            assertEquals(book.id(), readHeader().get("maxId").asLong());
+        }
+
+        @Test
+        @DisplayName("Should keep a committed write when only the header cannot be written")
+        void header_WhenUnwritable_ShouldNotFailTheWrite() throws IOException {
+            Book first = repository.addBook(new Book(null, "First", testAuthor.id(), testCollection.id(), 2024));
+            Files.delete(headerPath);
+            Files.createDirectory(headerPath);
+
+            Book second = repository.addBook(new Book(null, "Second", testAuthor.id(), testCollection.id(), 2024));
+
+            assertEquals(Optional.of(second), repository.findById(second.id()));
+            assertEquals(List.of(first, second), new BookRepository(FILE_PATH).findAll());
+        }
+
+        private JsonNode readHeader() throws IOException {
+            return JsonSerialization.shared().mapper().readTree(headerPath.toFile());
+        }
+    }
+
+    @Nested
+    @DisplayName("updateIfVersion method tests")
+    class UpdateIfVersionTests {
+        @Test
+        @DisplayName("Should update and bump the version when the expected version matches")
+        void updateIfVersion_WhenVersionMatches_ShouldUpdate() {
+            Book book = repository.addBook(new Book(null, "Versioned", testAuthor.id(), testCollection.id(), 2024));
+
+            Optional<Book> updated = repository.updateIfVersion(book.borrow(), book.version());
+
+            assertTrue(updated.isPresent());
+            assertEquals(book.version() + 1, updated.get().version());
+            Book stored = repository.findById(book.id()).orElseThrow();
+            assertTrue(stored.isBorrowed());
+            assertEquals(book.version() + 1, stored.version());
+        }
+
+        @Test
+        @DisplayName("Should reject a stale version without writing")
+        void updateIfVersion_WhenVersionIsStale_ShouldReturnEmpty() {
+            Book book = repository.addBook(new Book(null, "Versioned", testAuthor.id(), testCollection.id(), 2024));
+            repository.updateIfVersion(book.borrow(), book.version()).orElseThrow();
+
+            Optional<Book> stale = repository.updateIfVersion(book.borrow(), book.version());
+
+            assertTrue(stale.isEmpty());
+            assertEquals(book.version() + 1, repository.findById(book.id()).orElseThrow().version());
+        }
+
+        @Test
+        @DisplayName("Should bump the version on unconditional updates as well")
+        void updateBook_ShouldBumpVersion() {
+            Book book = repository.addBook(new Book(null, "Versioned", testAuthor.id(), testCollection.id(), 2024));
+
+            Book updated = repository.updateBook(book.borrow()).orElseThrow();
+
+            assertEquals(book.version() + 1, updated.version());
+            assertTrue(repository.updateIfVersion(updated.returnBook(), book.version()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should let only one of many concurrent compare-and-set updates win")
+        void updateIfVersion_UnderContention_ShouldHaveSingleWinner() throws Exception {
+            Book book = repository.addBook(new Book(null, "Contended", testAuthor.id(), testCollection.id(), 2024));
+            final int threads = 8;
+            final ExecutorService pool = Executors.newFixedThreadPool(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return repository.updateIfVersion(book.borrow(), book.version()).isPresent();
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                winners += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            pool.shutdown();
+
+            assertEquals(1, winners);
+            assertEquals(book.version() + 1, repository.findById(book.id()).orElseThrow().version());
+        }
+    }
+
+    @Nested
+    @DisplayName("change journal tests")
+    class ChangeJournalTests {
+        @Test
+        @DisplayName("Should report the collections touched since a sequence")
+        void collectionsChangedSince_ShouldReportTouchedCollections() {
+            repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final Book b = repository.addBook(new Book(null, "B", 1L, 2L, 2000));
+            final long mark = repository.changeSequence();
+
+            repository.updateBook(new Book(b.id(), "B", 1L, 3L, 2000));
+            repository.addBook(new Book(null, "C", 1L, 4L, 2000));
+
+            assertEquals(mark + 2, repository.changeSequence());
+            assertEquals(Set.of(2L, 3L, 4L), repository.collectionsChangedSince(mark).orElseThrow());
+            assertEquals(Set.of(), repository.collectionsChangedSince(repository.changeSequence()).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should not record failed compare-and-set updates")
+        void updateIfVersion_ShouldNotRecordConflicts() {
+            final Book saved = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final long mark = repository.changeSequence();
+
+            assertTrue(repository.updateIfVersion(saved.borrow(), 7L).isEmpty());
+
+            assertEquals(mark, repository.changeSequence());
+        }
+
+        @Test
+        @DisplayName("Should report history beyond the journal capacity as unavailable")
+        void collectionsChangedSince_ShouldReportTruncatedHistory() {
+            final Book saved = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            Book current = saved;
+            for (int i = 0; i < BookRepository.JOURNAL_CAPACITY; i++) {
+                current = repository.updateIfVersion(current, current.version()).orElseThrow();
+            }
+
+            assertTrue(repository.collectionsChangedSince(0L).isEmpty());
+            assertEquals(Set.of(1L), repository.collectionsChangedSince(2L).orElseThrow());
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshot tests")
+    class SnapshotTests {
+        @Test
+        @DisplayName("Should keep a snapshot unchanged by later writes")
+        void snapshot_ShouldBeIsolatedFromLaterWrites() {
+            final Book saved = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final PersistenceSnapshot<Book> before = repository.snapshot().orElseThrow();
+
+            repository.updateBook(saved.borrow());
+            repository.addBook(new Book(null, "B", 1L, 1L, 2000));
+
+            assertEquals(List.of(saved), before.entities());
+            assertEquals(1L, before.version());
+            final PersistenceSnapshot<Book> after = repository.snapshot().orElseThrow();
+            assertEquals(repository.changeSequence(), after.version());
+            assertEquals(2, after.entities().size());
+            assertThrows(UnsupportedOperationException.class, () -> after.entities().clear());
+        }
+    }
+}
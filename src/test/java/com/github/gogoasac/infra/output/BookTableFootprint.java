@@ -0,0 +1,64 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.domain.entity.Book;
+
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained-heap comparison of {@code n} books held as {@code List<Book>} and as
+ * a {@link BookTable}. Titles are created up front and shared by both, so only
+ * the per-book overhead is measured.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test}); run it manually, e.g.
+ * {@code java -Xmx2g -cp target/classes:target/test-classes:<deps> com.github.gogoasac.infra.output.BookTableFootprint [books]}.
+ */
+public final class BookTableFootprint {
+    private BookTableFootprint() {}
+
+    public static void main(final String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        final String[] titles = new String[count];
+        for (int i = 0; i < count; i++) {
+            titles[i] = "Book " + i;
+        }
+
+        final long baseline = usedHeap();
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long id = i + 1L;
+            // a third of the books are on loan, ids and years past the small-value box caches
+            books.add(new Book(id, titles[i], 1_000 + id % 5_000, 200 + id % 400, 1900 + i % 120,
+                i % 3 == 0 ? LocalDate.of(2024, 1, 1).plusDays(i % 365) : null, i % 3 == 0, i % 7));
+        }
+        final long asRecords = usedHeap() - baseline;
+
+        final BookTable table = BookTable.of(books);
+        final int sampleRow = count / 2;
+        final Book sample = books.get(sampleRow);
+        books = null;
+        final long asTable = usedHeap() - baseline;
+
+        if (!sample.equals(table.book(sampleRow))) {
+            throw new AssertionError("table does not match the records");
+        }
+        System.out.printf("%,d books%n", count);
+        System.out.printf("List<Book>  %,15d bytes  %6.1f bytes/book%n", asRecords, (double) asRecords / count);
+        System.out.printf("BookTable   %,15d bytes  %6.1f bytes/book%n", asTable, (double) asTable / count);
+        System.out.printf("saved       %14.1f%%%n", 100.0 * (asRecords - asTable) / asRecords);
+        // keep both alive until after the measurements
+        Reference.reachabilityFence(titles);
+        Reference.reachabilityFence(table);
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.BookRows;
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookTable Tests")
+class BookTableTest {
+    private static final List<Book> BOOKS = List.of(
+        new Book(1L, "The Dispossessed", 10L, 100L, 1974),
+        new Book(2L, "The Left Hand of Darkness", 10L, 200L, 1969, LocalDate.of(2024, 3, 1), true, 3L),
+        new Book(3L, "Untitled draft", null, null, null),
+        new Book(4L, "The Lathe of Heaven", 10L, 100L, 1971, LocalDate.of(1970, 1, 1), true, 1L)
+    );
+
+    @Nested
+    @DisplayName("conversion tests")
+    class ConversionTests {
+        @Test
+        @DisplayName("Should give back equal books, nulls and dates included")
+        void asList_ShouldRoundTripBooks() {
+            final BookTable table = BookTable.of(BOOKS);
+
+            assertEquals(BOOKS, table.asList());
+            assertEquals(BOOKS.get(2), table.book(2));
+        }
+
+        @Test
+        @DisplayName("Should store nulls as sentinels and dates as epoch days")
+        void columns_ShouldUseSentinels() {
+            final BookTable table = BookTable.of(BOOKS);
+
+            assertEquals(BookTable.NO_ID, table.authorId(2));
+            assertEquals(BookTable.NO_ID, table.collectionId(2));
+            assertEquals(BookTable.NO_YEAR, table.publicationYear(2));
+            assertEquals(BookTable.NO_DATE, table.borrowedEpochDay(0));
+            assertEquals(LocalDate.of(2024, 3, 1).toEpochDay(), table.borrowedEpochDay(1));
+            assertEquals(0, table.borrowedEpochDay(3), "1970-01-01 is epoch day 0, not absent");
+            assertTrue(table.isBorrowed(1));
+            assertEquals(3L, table.version(1));
+        }
+
+        @Test
+        @DisplayName("Should reuse the table behind its own list view")
+        void of_ListView_ShouldReturnSameTable() {
+            final BookTable table = BookTable.of(BOOKS);
+
+            assertSame(table, BookTable.of(table.asList()));
+        }
+
+        @Test
+        @DisplayName("Should concatenate tables column by column")
+        void concat_ShouldAppendRowsInOrder() {
+            final BookTable first = BookTable.of(BOOKS.subList(0, 1));
+            final BookTable rest = BookTable.of(BOOKS.subList(1, 4));
+
+            final BookTable joined = BookTable.concat(List.of(first, BookTable.of(List.of()), rest));
+
+            assertEquals(BOOKS, joined.asList());
+            assertEquals(BookTable.NO_YEAR, joined.publicationYear(2));
+        }
+
+        @Test
+        @DisplayName("Should be kept uncopied by a persistence snapshot")
+        void snapshot_ShouldKeepListView() {
+            final List<Book> rows = BookTable.of(BOOKS).asList();
+
+            assertSame(rows, new PersistenceSnapshot<>(1L, rows).entities());
+            assertThrows(UnsupportedOperationException.class, () -> rows.set(0, BOOKS.get(1)));
+        }
+    }
+
+    @Nested
+    @DisplayName("copy tests")
+    class CopyTests {
+        @Test
+        @DisplayName("Should append, replace and remove rows into a new table, leaving the original as it was")
+        void copies_ShouldNotChangeTheOriginal() {
+            final BookTable table = BookTable.of(BOOKS.subList(0, 3));
+            final Book replacement = BOOKS.get(0).borrow();
+
+            assertEquals(BOOKS, table.withAppended(BOOKS.subList(3, 4)).asList());
+            assertEquals(List.of(BOOKS.get(0), replacement, BOOKS.get(2)), table.withRow(1, replacement).asList());
+            assertEquals(List.of(BOOKS.get(0), BOOKS.get(2)), table.withoutRow(1).asList());
+            assertEquals(List.of(BOOKS.get(1), BOOKS.get(2)), table.withoutRow(0).asList());
+            assertEquals(BOOKS.subList(0, 2), table.withoutRow(2).asList());
+            assertEquals(BOOKS.subList(0, 3), table.asList());
+        }
+
+        @Test
+        @DisplayName("Should keep a repository's committed books as rows across writes")
+        void repositoryWrites_ShouldKeepRows(@TempDir final Path dir) {
+            final BookRepository repository = new BookRepository(dir.resolve("Books.json").toString());
+            final Book book = repository.addBook(new Book(null, "Rows", 1L, 1L, 2000));
+            repository.updateIfVersion(book.borrow(), book.version());
+
+            assertInstanceOf(BookRows.class, repository.findAll());
+            assertSame(repository.findAll(), repository.snapshot().orElseThrow().entities());
+        }
+    }
+
+    @Nested
+    @DisplayName("query tests")
+    class QueryTests {
+        @Test
+        @DisplayName("Should find rows by id")
+        void rowOf_ShouldFindById() {
+            final BookTable table = BookTable.of(BOOKS);
+
+            assertEquals(1, table.rowOf(2L));
+            assertEquals(-1, table.rowOf(99L));
+        }
+
+        @Test
+        @DisplayName("Should select and group books by collection in row order")
+        void booksOf_AndGroupByCollection_ShouldKeepRowOrder() {
+            final BookTable table = BookTable.of(BOOKS);
+
+            final Map<Long, List<Book>> grouped = table.groupByCollection();
+
+            assertEquals(List.of(BOOKS.get(0), BOOKS.get(3)), table.booksOf(100L));
+            assertEquals(List.of(BOOKS.get(0), BOOKS.get(3)), grouped.get(100L));
+            assertEquals(List.of(BOOKS.get(1)), grouped.get(200L));
+            assertEquals(List.of(BOOKS.get(2)), grouped.get(null));
+            assertEquals(3, grouped.size());
+            assertTrue(table.booksOf(300L).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should handle an empty list")
+        void emptyTable_ShouldBeEmpty() {
+            final BookTable table = BookTable.of(List.of());
+
+            assertEquals(0, table.size());
+            assertTrue(table.asList().isEmpty());
+            assertTrue(table.groupByCollection().isEmpty());
+            assertEquals(List.of(), Arrays.asList(table.asList().toArray()));
+        }
+    }
+}
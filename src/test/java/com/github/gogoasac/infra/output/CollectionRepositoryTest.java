@@ -25,6 +25,7 @@ class CollectionRepositoryTest {
         if (file.exists()) {
             file.delete();
         }
+        new File(FILE_PATH + ".meta").delete();
     }
 
     @Nested
@@ -0,0 +1,223 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("File transaction manager Tests")
+class FileTransactionManagerTest {
+    @TempDir
+    Path dataDir;
+
+    private AuthorRepository authors;
+    private CollectionRepository collections;
+    private BookRepository books;
+    private FileTransactionManager transactions;
+
+    @BeforeEach
+    void setUp() {
+        open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        transactions.close();
+    }
+
+    @Nested
+    @DisplayName("commit tests")
+    class CommitTests {
+        @Test
+        @DisplayName("Should store staged entities only on commit, with one write per repository")
+        void commit_ShouldStoreEverythingAtOnce() throws IOException {
+            final long authorVersion = authors.dataVersion();
+            final long collectionVersion = collections.dataVersion();
+            final long bookSequence = books.changeSequence();
+
+            final UnitOfWork unitOfWork = transactions.begin();
+            final Author author = unitOfWork.addAuthor(new Author(null, "Ann Leckie"));
+            final Collection collection = unitOfWork.addCollection(new Collection(null, "Space Opera"));
+            final Book first = unitOfWork.addBook(new Book(null, "Ancillary Justice", author.id(), collection.id(), 2013));
+            final Book second = unitOfWork.addBook(new Book(null, "Ancillary Sword", author.id(), collection.id(), 2014));
+            assertTrue(authors.findAll().isEmpty());
+            assertTrue(books.findAll().isEmpty());
+
+            final UnitOfWork.Committed committed = unitOfWork.commit();
+
+            assertEquals(4, committed.size());
+            assertEquals(List.of(author), authors.findAll());
+            assertEquals(List.of(collection), collections.findAll());
+            assertEquals(List.of(first, second), books.findByCollectionId(collection.id()));
+            assertEquals(authorVersion + 1, authors.dataVersion());
+            assertEquals(collectionVersion + 1, collections.dataVersion());
+            assertEquals(bookSequence + 1, books.changeSequence());
+            assertEquals(0L, Files.size(logPath()), "the log is emptied once the repositories are written");
+        }
+
+        @Test
+        @DisplayName("Should share id allocators with single writes")
+        void ids_ShouldNotCollideWithSingleWrites() {
+            final UnitOfWork unitOfWork = transactions.begin();
+            final Author staged = unitOfWork.addAuthor(new Author(null, "Staged"));
+            final Author direct = authors.addAuthor(new Author(null, "Direct"));
+            unitOfWork.commit();
+
+            assertNotEquals(staged.id(), direct.id());
+            assertEquals(2, authors.findAll().size());
+        }
+
+        @Test
+        @DisplayName("Should refuse to commit twice")
+        void commit_ShouldRunOnce() {
+            final UnitOfWork unitOfWork = transactions.begin();
+            unitOfWork.addAuthor(new Author(null, "Once"));
+            unitOfWork.commit();
+
+            assertThrows(IllegalStateException.class, unitOfWork::commit);
+            assertThrows(IllegalStateException.class, () -> unitOfWork.addAuthor(new Author(null, "Late")));
+            assertEquals(1, authors.findAll().size());
+        }
+
+        @Test
+        @DisplayName("Should store books in their shards with sharded book storage")
+        void commit_ShouldWorkWithShards() throws IOException {
+            transactions.close();
+            final ShardedBookRepository sharded = new ShardedBookRepository(dataDir.resolve("Books.shards").toString());
+            transactions = new FileTransactionManager(logPath().toString(), authors, collections, sharded);
+
+            final UnitOfWork unitOfWork = transactions.begin();
+            final Book first = unitOfWork.addBook(new Book(null, "One", 1L, 1L, 2001));
+            final Book second = unitOfWork.addBook(new Book(null, "Two", 1L, 2L, 2002));
+            unitOfWork.commit();
+
+            assertEquals(List.of(first), sharded.findByCollectionId(1L));
+            assertEquals(List.of(second), sharded.findByCollectionId(2L));
+            assertEquals(1L, sharded.changeSequence());
+            assertNotEquals(first.id(), sharded.addBook(new Book(null, "Three", 1L, 1L, 2003)).id());
+        }
+    }
+
+    @Nested
+    @DisplayName("recovery tests")
+    class RecoveryTests {
+        @Test
+        @DisplayName("Should store a logged commit whose apply failed with the next commit")
+        void failedApply_ShouldBeReplayedByTheNextCommit() throws IOException {
+            transactions.close();
+            final FailingOnce failingAuthors = new FailingOnce(authors);
+            transactions = new FileTransactionManager(logPath().toString(), failingAuthors, collections, books);
+
+            final UnitOfWork first = transactions.begin();
+            final Author lost = first.addAuthor(new Author(null, "Logged First"));
+            final Book lostBook = first.addBook(new Book(null, "First", lost.id(), 1L, 2001));
+            assertThrows(IllegalStateException.class, first::commit);
+            assertTrue(authors.findAll().isEmpty());
+            assertTrue(Files.size(logPath()) > 0L, "the failed commit stays in the log");
+
+            final UnitOfWork second = transactions.begin();
+            final Author next = second.addAuthor(new Author(null, "Logged Second"));
+            second.commit();
+
+            assertEquals(List.of(lost, next), authors.findAll());
+            assertEquals(List.of(lostBook), books.findAll());
+            assertEquals(0L, Files.size(logPath()));
+        }
+
+        @Test
+        @DisplayName("Should replay a logged commit that was not applied")
+        void open_ShouldReplayTheLog() throws IOException {
+            transactions.close();
+            final Author author = new Author(7L, "Logged Author");
+            final Book book = new Book(12L, "Logged Book", 7L, 3L, 1999);
+            writeLog(record(List.of(author), List.of(new Collection(3L, "Logged Collection")), List.of(book)) + "\n");
+
+            open();
+
+            assertEquals(List.of(author), authors.findAll());
+            assertEquals(book, books.findById(12L).orElseThrow());
+            assertEquals(13L, books.addBook(new Book(null, "Next", 7L, 3L, 2000)).id());
+            assertEquals(0L, Files.size(logPath()));
+        }
+
+        @Test
+        @DisplayName("Should skip entities that were already stored and drop an unfinished record")
+        void open_ShouldBeIdempotent() throws IOException {
+            final Author stored = authors.addAuthor(new Author(null, "Already Stored"));
+            transactions.close();
+            final Author logged = new Author(stored.id() + 1, "Only Logged");
+            writeLog(record(List.of(stored, logged), List.of(), List.of()) + "\n"
+                + record(List.of(new Author(99L, "Never Committed")), List.of(), List.of()).substring(0, 20));
+
+            open();
+
+            assertEquals(List.of(stored, logged), authors.findAll());
+        }
+    }
+
+    // fails the first batch it is given, then delegates
+    private static final class FailingOnce implements BatchStore<Author> {
+        private final AuthorRepository delegate;
+        private boolean failed;
+
+        FailingOnce(final AuthorRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long reserveId() {
+            return delegate.reserveId();
+        }
+
+        @Override
+        public List<Author> insertAll(final List<Author> entities) {
+            if (!failed) {
+                failed = true;
+                throw new IllegalStateException("disk full");
+            }
+            return delegate.insertAll(entities);
+        }
+
+        @Override
+        public PersistenceSnapshot<Author> committed() {
+            return delegate.committed();
+        }
+    }
+
+    private void open() {
+        authors = new AuthorRepository(dataDir.resolve("Authors.json").toString());
+        collections = new CollectionRepository(dataDir.resolve("Collections.json").toString());
+        books = new BookRepository(dataDir.resolve("Books.json").toString());
+        transactions = new FileTransactionManager(logPath().toString(), authors, collections, books);
+    }
+
+    private Path logPath() {
+        return dataDir.resolve(FileTransactionManager.DEFAULT_LOG);
+    }
+
+    private void writeLog(final String content) throws IOException {
+        Files.writeString(logPath(), content, StandardCharsets.UTF_8);
+    }
+
+    private static String record(final List<Author> authors, final List<Collection> collections, final List<Book> books)
+        throws IOException {
+        return JsonSerialization.shared().writer(FileTransactionManager.LogRecord.class)
+            .writeValueAsString(new FileTransactionManager.LogRecord(authors, collections, books));
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.domain.entity.Hold;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HoldRepository Tests")
+class HoldRepositoryTest {
+    private static final String FILE_PATH = "Holds_test.log";
+    private HoldRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new HoldRepository(FILE_PATH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(FILE_PATH));
+    }
+
+    private static Hold hold(final Long bookId, final String patron) {
+        return new Hold(null, bookId, patron, LocalDate.of(2024, 5, 1));
+    }
+
+    @Nested
+    @DisplayName("queue semantics")
+    class QueueTests {
+        @Test
+        @DisplayName("Should serve holds of a book in FIFO order")
+        void shouldServeInFifoOrder() {
+            final Hold first = repository.enqueue(hold(1L, "Ada"));
+            final Hold second = repository.enqueue(hold(1L, "Grace"));
+            repository.enqueue(hold(2L, "Linus"));
+
+            assertEquals(first, repository.peek(1L).orElseThrow());
+            assertTrue(repository.dequeue(first));
+            assertEquals(second, repository.peek(1L).orElseThrow());
+            assertEquals(List.of(second), repository.findByBookId(1L));
+            assertEquals(1, repository.findByBookId(2L).size());
+        }
+
+        @Test
+        @DisplayName("Should only dequeue the head of the queue")
+        void shouldOnlyDequeueHead() {
+            repository.enqueue(hold(1L, "Ada"));
+            final Hold second = repository.enqueue(hold(1L, "Grace"));
+
+            assertFalse(repository.dequeue(second));
+            assertEquals(2, repository.findByBookId(1L).size());
+            assertTrue(repository.peek(3L).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("durability")
+    class DurabilityTests {
+        @Test
+        @DisplayName("Should rebuild queues and ids by replaying the log")
+        void shouldReplayLog() {
+            final Hold first = repository.enqueue(hold(1L, "Ada"));
+            final Hold second = repository.enqueue(hold(1L, "Grace"));
+            repository.dequeue(first);
+
+            final HoldRepository reopened = new HoldRepository(FILE_PATH);
+
+            assertEquals(List.of(second), reopened.findByBookId(1L));
+            assertEquals(3L, reopened.enqueue(hold(1L, "Linus")).id());
+        }
+
+        @Test
+        @DisplayName("Should drop an append torn by a crash and keep appending after it")
+        void shouldDropTornTail() throws IOException {
+            final Hold first = repository.enqueue(hold(1L, "Ada"));
+            final long intact = Files.size(Path.of(FILE_PATH));
+            Files.writeString(Path.of(FILE_PATH), "{\"op\":\"ENQUEUE\",\"id\":2,\"bookId\":1,\"pat",
+                StandardOpenOption.APPEND);
+
+            final HoldRepository reopened = new HoldRepository(FILE_PATH);
+
+            assertEquals(List.of(first), reopened.findByBookId(1L));
+            assertEquals(intact, Files.size(Path.of(FILE_PATH)));
+            final Hold second = reopened.enqueue(hold(1L, "Grace"));
+            assertEquals(List.of(first, second), new HoldRepository(FILE_PATH).findByBookId(1L));
+        }
+
+        @Test
+        @DisplayName("Should refuse a log with an unreadable entry before its end")
+        void shouldRejectCorruptEntryBeforeTail() throws IOException {
+            repository.enqueue(hold(1L, "Ada"));
+            Files.writeString(Path.of(FILE_PATH), "garbage" + System.lineSeparator(), StandardOpenOption.APPEND);
+            repository.enqueue(hold(1L, "Grace"));
+
+            assertThrows(UncheckedIOException.class, () -> new HoldRepository(FILE_PATH));
+        }
+
+        @Test
+        @DisplayName("Should append one line per mutation")
+        void shouldAppendOneLinePerMutation() throws IOException {
+            final Hold first = repository.enqueue(hold(1L, "Ada"));
+            repository.enqueue(hold(1L, "Grace"));
+            repository.dequeue(first);
+
+            assertEquals(3, Files.readAllLines(Path.of(FILE_PATH)).size());
+        }
+
+        @Test
+        @DisplayName("Should compact a log dominated by served holds on startup")
+        void shouldCompactOnStartup() throws IOException {
+            for (int i = 0; i < 600; i++) {
+                repository.dequeue(repository.enqueue(hold(1L, "Patron " + i)));
+            }
+            final Hold live = repository.enqueue(hold(2L, "Ada"));
+
+            final HoldRepository reopened = new HoldRepository(FILE_PATH);
+
+            assertEquals(2, Files.readAllLines(Path.of(FILE_PATH)).size());
+            assertEquals(List.of(live), reopened.findByBookId(2L));
+            assertTrue(reopened.enqueue(hold(2L, "Grace")).id() > live.id());
+        }
+
+        @Test
+        @DisplayName("Should not reissue the ids of served holds after compaction")
+        void shouldKeepIdsIncreasingAcrossCompaction() {
+            for (int i = 0; i < 600; i++) {
+                repository.dequeue(repository.enqueue(hold(1L, "Patron " + i)));
+            }
+            final Hold live = repository.enqueue(hold(2L, "Ada"));
+            final Hold highest = repository.enqueue(hold(3L, "Grace"));
+            repository.dequeue(highest);
+
+            final HoldRepository reopened = new HoldRepository(FILE_PATH);
+
+            assertEquals(List.of(live), reopened.findByBookId(2L));
+            assertTrue(reopened.enqueue(hold(3L, "Linus")).id() > highest.id());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.gogoasac.infra.output;
+
+import com.github.gogoasac.application.output.PersistenceSnapshot;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.infra.output.base.JsonSerialization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedBookRepository Tests")
+class ShardedBookRepositoryTest {
+    @TempDir
+    Path directory;
+
+    private ShardedBookRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedBookRepository(directory.toString());
+    }
+
+    @Nested
+    @DisplayName("sharding tests")
+    class ShardingTests {
+        @Test
+        @DisplayName("Should write every collection to its own file")
+        void addBook_ShouldWriteOneFilePerCollection() throws IOException {
+            final Book first = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final Book second = repository.addBook(new Book(null, "B", 1L, 2L, 2000));
+            final Book loose = repository.addBook(new Book(null, "C", 1L, null, 2000));
+
+            assertEquals(List.of(first), read("collection-1.json"));
+            assertEquals(List.of(second), read("collection-2.json"));
+            assertEquals(List.of(loose), read("collection-none.json"));
+        }
+
+        @Test
+        @DisplayName("Should number books uniquely across shards")
+        void addBook_ShouldAllocateGlobalIds() {
+            final Book first = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final Book second = repository.addBook(new Book(null, "B", 1L, 2L, 2000));
+            final Book third = repository.addBook(new Book(null, "C", 1L, 1L, 2000));
+
+            assertEquals(List.of(1L, 2L, 3L), List.of(first.id(), second.id(), third.id()));
+            assertEquals(List.of(first, third), repository.findByCollectionId(1L));
+            assertEquals(second, repository.findById(2L).orElseThrow());
+            assertTrue(repository.findById(99L).isEmpty());
+            assertTrue(repository.findByCollectionId(3L).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should move a book whose collection changes to the other shard")
+        void updateBook_WhenCollectionChanges_ShouldMoveBook() throws IOException {
+            final Book book = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+
+            final Book moved = repository.updateBook(new Book(book.id(), "A", 1L, 2L, 2000)).orElseThrow();
+
+            assertEquals(2L, moved.collectionId());
+            assertEquals(book.version() + 1, moved.version());
+            assertEquals(List.of(), read("collection-1.json"));
+            assertEquals(List.of(moved), read("collection-2.json"));
+            assertEquals(moved, repository.findById(book.id()).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should reject a stale version without moving the book")
+        void updateIfVersion_WhenStale_ShouldNotMove() {
+            final Book book = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            repository.updateBook(book.borrow()).orElseThrow();
+
+            assertTrue(repository.updateIfVersion(new Book(book.id(), "A", 1L, 2L, 2000), book.version()).isEmpty());
+            assertEquals(1L, repository.findById(book.id()).orElseThrow().collectionId());
+            assertTrue(repository.findByCollectionId(2L).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("reopen tests")
+    class ReopenTests {
+        @Test
+        @DisplayName("Should rebuild the routing index and id allocator from the shards")
+        void reopen_ShouldRestoreIndexAndIds() {
+            final Book first = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            repository.addBook(new Book(null, "B", 1L, 2L, 2000));
+
+            final ShardedBookRepository reopened = new ShardedBookRepository(directory.toString());
+
+            assertEquals(first, reopened.findById(first.id()).orElseThrow());
+            assertEquals(3L, reopened.addBook(new Book(null, "C", 1L, 3L, 2000)).id());
+            assertEquals(3, reopened.findAll().size());
+        }
+
+        @Test
+        @DisplayName("Should keep the newer copy of a book left in two shards by an interrupted move")
+        void reopen_WhenBookInTwoShards_ShouldKeepNewerCopy() throws IOException {
+            final Book book = repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final Book moved = repository.updateBook(new Book(book.id(), "A", 1L, 2L, 2000)).orElseThrow();
+            // the old copy as it was before the move removed it
+            write("collection-1.json", List.of(book));
+
+            final ShardedBookRepository reopened = new ShardedBookRepository(directory.toString());
+
+            assertEquals(List.of(moved), reopened.findAll());
+            assertEquals(List.of(), read("collection-1.json"));
+        }
+    }
+
+    @Nested
+    @DisplayName("concurrency tests")
+    class ConcurrencyTests {
+        @Test
+        @DisplayName("Should accept concurrent writes to different collections")
+        void addBook_FromManyThreads_ShouldKeepEveryBook() throws Exception {
+            final int threads = 4;
+            final int perThread = 25;
+            final ExecutorService pool = Executors.newFixedThreadPool(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final long collectionId = t + 1;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        repository.addBook(new Book(null, "Book " + i, 1L, collectionId, 2000));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            final List<Book> all = repository.findAll();
+            assertEquals(threads * perThread, all.size());
+            assertEquals(threads * perThread, all.stream().map(Book::id).distinct().count());
+            assertEquals(threads * perThread, repository.changeSequence());
+            for (long collectionId = 1; collectionId <= threads; collectionId++) {
+                assertEquals(perThread, new ShardedBookRepository(directory.toString()).findByCollectionId(collectionId).size());
+            }
+        }
+
+        @Test
+        @DisplayName("Should only take snapshots that match one committed write")
+        void snapshot_UnderConcurrentMoves_ShouldBeConsistent() throws Exception {
+            final Book book = repository.addBook(new Book(null, "Moving", 1L, 1L, 2000));
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final ExecutorService pool = Executors.newSingleThreadExecutor();
+            final Future<?> mover = pool.submit(() -> {
+                long collectionId = 1L;
+                while (running.get()) {
+                    collectionId = collectionId == 1L ? 2L : 1L;
+                    repository.updateBook(new Book(book.id(), "Moving", 1L, collectionId, 2000));
+                }
+            });
+
+            try {
+                for (int i = 0; i < 200; i++) {
+                    final PersistenceSnapshot<Book> snapshot = repository.snapshot().orElseThrow();
+                    assertEquals(1, snapshot.entities().size(), "the book is in exactly one shard");
+                    // one add, then one version bump per move
+                    assertEquals(snapshot.version() - 1, snapshot.entities().get(0).version());
+                }
+            } finally {
+                running.set(false);
+                mover.get(30, TimeUnit.SECONDS);
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("change journal tests")
+    class ChangeJournalTests {
+        @Test
+        @DisplayName("Should report both collections of a moved book")
+        void collectionsChangedSince_ShouldReportTouchedCollections() {
+            repository.addBook(new Book(null, "A", 1L, 1L, 2000));
+            final Book b = repository.addBook(new Book(null, "B", 1L, 2L, 2000));
+            final long mark = repository.changeSequence();
+
+            repository.updateBook(new Book(b.id(), "B", 1L, 3L, 2000));
+            repository.addBook(new Book(null, "C", 1L, 4L, 2000));
+
+            assertEquals(mark + 2, repository.changeSequence());
+            assertEquals(Set.of(2L, 3L, 4L), repository.collectionsChangedSince(mark).orElseThrow());
+            assertEquals(repository.changeSequence(), repository.snapshot().orElseThrow().version());
+            assertEquals(
+                List.of(1L, 2L, 3L),
+                repository.snapshot().orElseThrow().entities().stream().map(Book::id).sorted(Comparator.naturalOrder()).toList()
+            );
+        }
+    }
+
+    private List<Book> read(final String file) throws IOException {
+        return List.of(JsonSerialization.shared().mapper().readValue(directory.resolve(file).toFile(), Book[].class));
+    }
+
+    private void write(final String file, final List<Book> books) throws IOException {
+        JsonSerialization.shared().mapper().writeValue(directory.resolve(file).toFile(), books);
+        Files.deleteIfExists(directory.resolve(file + ".meta"));
+    }
+}
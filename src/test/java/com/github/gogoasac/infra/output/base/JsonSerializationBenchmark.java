@@ -0,0 +1,120 @@
+package com.github.gogoasac.infra.output.base;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.gogoasac.domain.entity.Book;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the per-repository mapper setup ({@code findAndAddModules()} and
+ * {@code readValue/writeValue} with a {@link TypeReference}) against
+ * {@link JsonSerialization}'s shared mapper with pre-bound readers and writers,
+ * with and without Blackbird.
+ *
+ * <p>Not a unit test (surefire only picks up {@code *Test}); run it manually, e.g.
+ * {@code java -cp target/classes:target/test-classes:<deps> com.github.gogoasac.infra.output.base.JsonSerializationBenchmark [books] [rounds]}.
+ */
+public final class JsonSerializationBenchmark {
+    private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() {};
+    private static final int MAPPER_BUILDS = 200;
+
+    private JsonSerializationBenchmark() {}
+
+    public static void main(final String[] args) throws Exception {
+        final int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        final List<Book> books = new ArrayList<>(bookCount);
+        for (long id = 1; id <= bookCount; id++) {
+            books.add(new Book(id, "Book " + id, id % 50, id % 10, 1950 + (int) (id % 70),
+                id % 3 == 0 ? LocalDate.of(2024, 1, 1).plusDays(id % 365) : null, id % 3 == 0, id));
+        }
+
+        // startup: cost of one mapper as each repository used to build it, vs the shared one
+        long start = System.nanoTime();
+        ObjectMapper legacy = null;
+        for (int i = 0; i < MAPPER_BUILDS; i++) {
+            legacy = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .findAndAddModules()
+                .build();
+        }
+        report("mapper build, findAndAddModules", System.nanoTime() - start, MAPPER_BUILDS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < MAPPER_BUILDS; i++) {
+            new JsonSerialization(false);
+        }
+        report("mapper build, explicit modules", System.nanoTime() - start, MAPPER_BUILDS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < MAPPER_BUILDS; i++) {
+            new JsonSerialization(true);
+        }
+        report("mapper build, explicit + Blackbird", System.nanoTime() - start, MAPPER_BUILDS);
+
+        final ObjectMapper legacyMapper = legacy;
+        perCall("TypeReference per call", rounds,
+            () -> legacyMapper.writeValueAsString(books),
+            json -> legacyMapper.readValue(json, BOOK_LIST));
+
+        final JsonSerialization shared = new JsonSerialization(false);
+        perCall("pre-bound reader/writer", rounds,
+            writerCall(shared.writer(BOOK_LIST), books), readerCall(shared.reader(BOOK_LIST)));
+
+        final JsonSerialization blackbird = new JsonSerialization(true);
+        perCall("pre-bound + Blackbird", rounds,
+            writerCall(blackbird.writer(BOOK_LIST), books), readerCall(blackbird.reader(BOOK_LIST)));
+    }
+
+    private static Write writerCall(final ObjectWriter writer, final List<Book> books) {
+        return () -> writer.writeValueAsString(books);
+    }
+
+    private static Read readerCall(final ObjectReader reader) {
+        return reader::readValue;
+    }
+
+    private static void perCall(final String label, final int rounds, final Write write, final Read read) throws Exception {
+        final String json = write.run();
+        // warm up the JIT before measuring
+        for (int i = 0; i < rounds / 5; i++) {
+            read.run(write.run());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            write.run();
+        }
+        report("write, " + label, System.nanoTime() - start, rounds);
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            read.run(json);
+        }
+        report("read, " + label, System.nanoTime() - start, rounds);
+    }
+
+    private static void report(final String label, final long nanos, final int operations) {
+        System.out.printf("%-45s %10.1f us/op%n", label, nanos / 1_000.0 / operations);
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        String run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Read {
+        Object run(String json) throws Exception;
+    }
+}
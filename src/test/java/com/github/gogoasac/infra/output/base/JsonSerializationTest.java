@@ -0,0 +1,98 @@
+package com.github.gogoasac.infra.output.base;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.gogoasac.common.StringUtils;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonSerialization Tests")
+class JsonSerializationTest {
+    private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() {};
+
+    private static final List<Book> BOOKS = List.of(
+        new Book(1L, "The Dispossessed", 1L, 1L, 1974),
+        new Book(2L, "The Left Hand of Darkness", 1L, 1L, 1969, LocalDate.of(2024, 3, 1), true, 4L)
+    );
+
+    @Nested
+    @DisplayName("reader and writer tests")
+    class ReaderWriterTests {
+        @Test
+        @DisplayName("Should hand out the same bound reader and writer for the same type")
+        void readerAndWriter_ShouldBeCachedPerType() {
+            final JsonSerialization serialization = new JsonSerialization(false);
+
+            assertSame(serialization.reader(BOOK_LIST), serialization.reader(new TypeReference<List<Book>>() {}));
+            assertSame(serialization.writer(BOOK_LIST), serialization.writer(new TypeReference<List<Book>>() {}));
+            assertNotSame(serialization.reader(BOOK_LIST), serialization.reader(Book.class));
+        }
+
+        @Test
+        @DisplayName("Should write dates as ISO text and read them back")
+        void roundTrip_ShouldWriteIsoDates() throws Exception {
+            final JsonSerialization serialization = new JsonSerialization(false);
+
+            final String json = serialization.writer(BOOK_LIST).writeValueAsString(BOOKS);
+            final List<Book> read = serialization.reader(BOOK_LIST).readValue(json);
+
+            assertTrue(json.contains("\"2024-03-01\""), json);
+            assertEquals(BOOKS, read);
+        }
+
+        @Test
+        @DisplayName("Should produce the same JSON with Blackbird enabled")
+        void roundTrip_WithBlackbird_ShouldMatchDefault() throws Exception {
+            final JsonSerialization plain = new JsonSerialization(false);
+            final JsonSerialization blackbird = new JsonSerialization(true);
+
+            final String json = blackbird.writer(BOOK_LIST).writeValueAsString(BOOKS);
+            final List<Book> read = blackbird.reader(BOOK_LIST).readValue(json);
+
+            assertTrue(blackbird.usesBlackbird());
+            assertEquals(plain.writer(BOOK_LIST).writeValueAsString(BOOKS), json);
+            assertEquals(BOOKS, read);
+        }
+
+        @Test
+        @DisplayName("Should read repeated strings as one shared instance")
+        void read_ShouldCanonicalizeStrings() throws Exception {
+            final JsonSerialization serialization = new JsonSerialization(false);
+            final String json = serialization.writer(BOOK_LIST).writeValueAsString(List.of(
+                new Book(1L, "Collected Stories", 1L, 1L, 2001),
+                new Book(2L, "Collected Stories", 2L, 1L, 2002)
+            ));
+
+            final List<Book> first = serialization.reader(BOOK_LIST).readValue(json);
+            final List<Book> reloaded = serialization.reader(BOOK_LIST).readValue(json);
+
+            assertSame(first.get(0).title(), first.get(1).title());
+            assertSame(first.get(0).title(), reloaded.get(0).title());
+        }
+
+        @Test
+        @DisplayName("Should canonicalize only titles and author and collection names")
+        void read_ShouldCanonicalizeOnlyNames() throws Exception {
+            final JsonSerialization serialization = new JsonSerialization(false);
+            final String hold = "{\"id\":1,\"bookId\":1,\"patron\":\"Ada Lovelace\",\"placedAt\":\"2024-03-01\"}";
+
+            final Author author = serialization.reader(Author.class).readValue("{\"id\":1,\"name\":\"Octavia Butler\"}");
+            final Collection collection = serialization.reader(Collection.class).readValue("{\"id\":1,\"name\":\"Parables\"}");
+            final Hold first = serialization.reader(Hold.class).readValue(hold);
+            final Hold second = serialization.reader(Hold.class).readValue(hold);
+
+            assertSame(StringUtils.canonical("Octavia Butler"), author.name());
+            assertSame(StringUtils.canonical("Parables"), collection.name());
+            assertNotSame(first.patron(), second.patron(), "other strings are read as is");
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.github.gogoasac.infra.output.events;
+
+import com.github.gogoasac.application.output.ChangeEvent;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.AuthorRepository;
+import com.github.gogoasac.infra.output.BookRepository;
+import com.github.gogoasac.infra.output.CollectionRepository;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Change event publisher Tests")
+class ChangeEventPublisherTest {
+    @TempDir
+    Path dataDir;
+
+    private ChangeEventPublisher events;
+
+    @BeforeEach
+    void setUp() {
+        // delivers on the writing thread, so every test sees its events right after the write
+        events = publisher(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        events.close();
+    }
+
+    @Nested
+    @DisplayName("event tests")
+    class EventTests {
+        @Test
+        @DisplayName("Should publish one typed event per committed write, in sequence")
+        void writes_ShouldBePublishedAsTypedEvents() {
+            final RecordingSubscriber subscriber = subscribe(Long.MAX_VALUE);
+
+            final Author author = events.authors().addAuthor(new Author(null, "Octavia E. Butler"));
+            final Collection collection = events.collections().addCollection(new Collection(null, "Science Fiction"));
+            final Book book = events.books().addBook(new Book(null, "Kindred", author.id(), collection.id(), 1979));
+            final Book borrowed = events.books().updateIfVersion(book.borrow(), book.version()).orElseThrow();
+            final Book returned = events.books().updateIfVersion(borrowed.returnBook(), borrowed.version()).orElseThrow();
+            final Book moved = events.books().updateBook(new Book(book.id(), "Kindred", author.id(), 2L, 1979)).orElseThrow();
+
+            assertEquals(List.of(
+                new ChangeEvent.AuthorAdded(1, author),
+                new ChangeEvent.CollectionAdded(2, collection),
+                new ChangeEvent.BookAdded(3, book),
+                new ChangeEvent.BookBorrowed(4, borrowed),
+                new ChangeEvent.BookReturned(5, returned),
+                new ChangeEvent.BookUpdated(6, moved)
+            ), subscriber.events);
+            assertEquals(6, events.sequence());
+        }
+
+        @Test
+        @DisplayName("Should not publish failed writes")
+        void failedWrite_ShouldNotBePublished() {
+            final Book book = events.books().addBook(new Book(null, "Parable of the Sower", 1L, 1L, 1993));
+            final RecordingSubscriber subscriber = subscribe(Long.MAX_VALUE);
+
+            assertTrue(events.books().updateIfVersion(book.borrow(), 99L).isEmpty());
+            assertTrue(events.books().updateBook(new Book(42L, "Missing", 1L, 1L, 2000)).isEmpty());
+
+            assertEquals(List.of(), subscriber.events);
+            assertEquals(1, events.sequence());
+        }
+
+        @Test
+        @DisplayName("Should publish a committed unit of work as consecutive events")
+        void commit_ShouldBePublished() throws Exception {
+            final AuthorRepository authors = new AuthorRepository(dataDir.resolve("Authors.json").toString());
+            final CollectionRepository collections = new CollectionRepository(dataDir.resolve("Collections.json").toString());
+            final BookRepository books = new BookRepository(dataDir.resolve("Books.json").toString());
+            try (ChangeEventPublisher published = new ChangeEventPublisher(books, authors, collections, Runnable::run, 4);
+                 FileTransactionManager transactions = new FileTransactionManager(
+                     dataDir.resolve(FileTransactionManager.DEFAULT_LOG).toString(), authors, collections, books)) {
+                final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+                published.subscribe(subscriber);
+
+                final UnitOfWork unitOfWork = published.transactions(transactions).begin();
+                final Collection collection = unitOfWork.addCollection(new Collection(null, "Novels"));
+                final Book book = unitOfWork.addBook(new Book(null, "Lilith's Brood", 1L, collection.id(), 2000));
+                unitOfWork.commit();
+
+                assertEquals(List.of(
+                    new ChangeEvent.CollectionAdded(1, collection),
+                    new ChangeEvent.BookAdded(2, book)
+                ), subscriber.events);
+            }
+        }
+
+        @Test
+        @DisplayName("Should report a hand-over to the next hold as a borrow")
+        void reborrow_ShouldBePublishedAsBorrow() {
+            final Book book = events.books().addBook(new Book(null, "Dawn", 1L, 1L, 1987));
+            final Book borrowed = events.books().updateIfVersion(
+                new Book(book.id(), "Dawn", 1L, 1L, 1987, LocalDate.of(2024, 1, 1), true, book.version()),
+                book.version()).orElseThrow();
+            final RecordingSubscriber subscriber = subscribe(Long.MAX_VALUE);
+
+            final Book handedOver = events.books().updateIfVersion(borrowed.returnBook().borrow(), borrowed.version()).orElseThrow();
+
+            assertEquals(List.of(new ChangeEvent.BookBorrowed(3, handedOver)), subscriber.events);
+        }
+    }
+
+    @Nested
+    @DisplayName("classification tests")
+    class ClassificationTests {
+        @Test
+        @DisplayName("Should classify updates from the replaced book, without reading it first")
+        void update_ShouldNotReadBeforeWriting() {
+            final AtomicInteger reads = new AtomicInteger();
+            final BookRepository books = new BookRepository(dataDir.resolve("Counted.json").toString()) {
+                @Override
+                public Optional<Book> findById(final Long id) {
+                    reads.incrementAndGet();
+                    return super.findById(id);
+                }
+            };
+            try (ChangeEventPublisher counted = new ChangeEventPublisher(books,
+                new AuthorRepository(dataDir.resolve("Authors.json").toString()),
+                new CollectionRepository(dataDir.resolve("Collections.json").toString()),
+                Runnable::run, 4)) {
+                final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+                counted.subscribe(subscriber);
+
+                final Book book = counted.books().addBook(new Book(null, "Wild Seed", 1L, 1L, 1980));
+                final Book borrowed = counted.books().updateIfVersion(book.borrow(), book.version()).orElseThrow();
+                final Book returned = counted.books().updateBook(borrowed.returnBook()).orElseThrow();
+
+                assertEquals(List.of(
+                    new ChangeEvent.BookAdded(1, book),
+                    new ChangeEvent.BookBorrowed(2, borrowed),
+                    new ChangeEvent.BookReturned(3, returned)
+                ), subscriber.events);
+                assertEquals(0, reads.get());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("backpressure tests")
+    class BackpressureTests {
+        @Test
+        @DisplayName("Should deliver no more events than requested and buffer the rest")
+        void subscriber_ShouldReceiveOnlyWhatItRequested() {
+            final RecordingSubscriber subscriber = subscribe(1);
+
+            for (int i = 1; i <= 3; i++) {
+                events.authors().addAuthor(new Author(null, "Author " + i));
+            }
+            assertEquals(List.of(1L), subscriber.sequences());
+
+            subscriber.subscription.request(2);
+            assertEquals(List.of(1L, 2L, 3L), subscriber.sequences());
+            assertNull(subscriber.error);
+        }
+
+        @Test
+        @DisplayName("Should fail a subscriber whose buffer overflowed, without affecting the others")
+        void slowSubscriber_ShouldBeFailed() {
+            final RecordingSubscriber slow = subscribe(0);
+            final RecordingSubscriber fast = subscribe(Long.MAX_VALUE);
+
+            for (int i = 1; i <= 5; i++) {
+                events.authors().addAuthor(new Author(null, "Author " + i));
+            }
+            slow.subscription.request(10);
+
+            assertEquals(List.of(), slow.events);
+            assertInstanceOf(IllegalStateException.class, slow.error);
+            assertEquals(ChangeEventPublisher.OVERFLOW, slow.error.getMessage());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), fast.sequences());
+            assertNull(fast.error);
+        }
+
+        @Test
+        @DisplayName("Should complete subscribers on close")
+        void close_ShouldComplete() {
+            final RecordingSubscriber subscriber = subscribe(Long.MAX_VALUE);
+
+            events.close();
+
+            assertTrue(subscriber.completed);
+        }
+    }
+
+    @Nested
+    @DisplayName("concurrency tests")
+    class ConcurrencyTests {
+        @Test
+        @DisplayName("Should deliver concurrent writes without gaps, in sequence order")
+        void concurrentWrites_ShouldBeDeliveredInOrder() throws Exception {
+            final int writers = 4;
+            final int perWriter = 50;
+            final ExecutorService delivery = Executors.newSingleThreadExecutor();
+            final ExecutorService pool = Executors.newFixedThreadPool(writers);
+            try (ChangeEventPublisher published = new ChangeEventPublisher(
+                new BookRepository(dataDir.resolve("Concurrent.json").toString()),
+                new AuthorRepository(dataDir.resolve("Authors.json").toString()),
+                new CollectionRepository(dataDir.resolve("Collections.json").toString()),
+                delivery,
+                writers * perWriter)) {
+                final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+                published.subscribe(subscriber);
+
+                final List<Future<?>> tasks = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    tasks.add(pool.submit(() -> {
+                        for (int i = 0; i < perWriter; i++) {
+                            published.books().addBook(new Book(null, "Book", 1L, 1L, 2000));
+                        }
+                    }));
+                }
+                for (final Future<?> task : tasks) {
+                    task.get(30, TimeUnit.SECONDS);
+                }
+                published.close();
+
+                assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+                final List<Long> expected = new ArrayList<>();
+                for (long s = 1; s <= writers * perWriter; s++) {
+                    expected.add(s);
+                }
+                assertEquals(expected, subscriber.sequences());
+                assertNull(subscriber.error);
+            } finally {
+                pool.shutdownNow();
+                delivery.shutdownNow();
+            }
+        }
+    }
+
+    private ChangeEventPublisher publisher(final int bufferCapacity) {
+        return new ChangeEventPublisher(
+            new BookRepository(dataDir.resolve("Books.json").toString()),
+            new AuthorRepository(dataDir.resolve("Authors.json").toString()),
+            new CollectionRepository(dataDir.resolve("Collections.json").toString()),
+            Runnable::run,
+            bufferCapacity
+        );
+    }
+
+    private RecordingSubscriber subscribe(final long initialDemand) {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(initialDemand);
+        events.subscribe(subscriber);
+        return subscriber;
+    }
+
+    static final class RecordingSubscriber implements Flow.Subscriber<ChangeEvent> {
+        final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        private final long initialDemand;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        RecordingSubscriber(final long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(final ChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+
+        List<Long> sequences() {
+            return events.stream().map(ChangeEvent::sequence).toList();
+        }
+    }
+}
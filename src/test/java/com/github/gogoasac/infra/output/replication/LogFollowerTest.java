@@ -0,0 +1,307 @@
+package com.github.gogoasac.infra.output.replication;
+
+import com.github.gogoasac.application.dto.ReplicationStatus;
+import com.github.gogoasac.application.output.AuthorPersistence;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.infra.output.AuthorRepository;
+import com.github.gogoasac.infra.output.BookRepository;
+import com.github.gogoasac.infra.output.CollectionRepository;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Log-shipping replication Tests")
+class LogFollowerTest {
+    @TempDir
+    Path dataDir;
+
+    @TempDir
+    Path sharedDir;
+
+    private ReplicationPrimary primary;
+    private LogFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        primary = startPrimary();
+        follower = new LogFollower(sharedDir);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        follower.close();
+        primary.close();
+    }
+
+    @Nested
+    @DisplayName("shipping tests")
+    class ShippingTests {
+        @Test
+        @DisplayName("Should apply the baseline and every later write")
+        void poll_ShouldReplayWrites() throws IOException {
+            final Author author = primary.authors().addAuthor(new Author(null, "Ursula K. Le Guin"));
+            final Collection collection = primary.collections().addCollection(new Collection(null, "Science Fiction"));
+            final Book book = primary.books().addBook(new Book(null, "The Dispossessed", author.id(), collection.id(), 1974));
+
+            assertEquals(3, follower.poll());
+            final Book borrowed = primary.books().updateIfVersion(book.borrow(), book.version()).orElseThrow();
+            assertEquals(1, follower.poll());
+
+            assertEquals(List.of(author), follower.authors().findAll());
+            assertEquals(collection, follower.collections().findById(collection.id()).orElseThrow());
+            assertEquals(borrowed, follower.books().findById(book.id()).orElseThrow());
+            assertEquals(List.of(borrowed), follower.books().findByCollectionId(collection.id()));
+            assertEquals(0, follower.poll());
+        }
+
+        @Test
+        @DisplayName("Should ship a committed unit of work")
+        void commit_ShouldBeShipped() throws IOException {
+            primary.close();
+            final AuthorRepository authors = new AuthorRepository(dataDir.resolve("Authors.json").toString());
+            final CollectionRepository collections = new CollectionRepository(dataDir.resolve("Collections.json").toString());
+            final BookRepository books = new BookRepository(dataDir.resolve("Books.json").toString());
+            primary = new ReplicationPrimary(sharedDir, books, authors, collections);
+
+            try (FileTransactionManager transactions = new FileTransactionManager(
+                dataDir.resolve(FileTransactionManager.DEFAULT_LOG).toString(), authors, collections, books)) {
+                final UnitOfWork unitOfWork = primary.transactions(transactions).begin();
+                final Author author = unitOfWork.addAuthor(new Author(null, "Becky Chambers"));
+                final Book book = unitOfWork.addBook(new Book(null, "Record of a Spaceborn Few", author.id(), 1L, 2018));
+                unitOfWork.commit();
+
+                assertEquals(2, follower.poll());
+                assertEquals(List.of(author), follower.authors().findAll());
+                assertEquals(book, follower.books().findById(book.id()).orElseThrow());
+            }
+        }
+
+        @Test
+        @DisplayName("Should not log failed writes")
+        void failedWrite_ShouldNotBeShipped() throws IOException {
+            final Book book = primary.books().addBook(new Book(null, "Kept", 1L, 1L, 2000));
+            follower.poll();
+
+            assertTrue(primary.books().updateIfVersion(book.borrow(), 99L).isEmpty());
+
+            assertEquals(0, follower.poll());
+            assertEquals(1L, primary.getReplicationStatus().sequence());
+        }
+
+        @Test
+        @DisplayName("Should start from the primary's data at startup")
+        void newPrimary_ShouldWriteBaseline() throws IOException {
+            primary.authors().addAuthor(new Author(null, "Octavia E. Butler"));
+            primary.books().addBook(new Book(null, "Kindred", 1L, 1L, 1979));
+            primary.close();
+
+            primary = startPrimary();
+
+            assertEquals(2, follower.poll());
+            assertEquals(1, follower.books().findAll().size());
+            assertEquals(2L, primary.getReplicationStatus().sequence());
+        }
+
+        @Test
+        @DisplayName("Should keep a write whose append failed and resync followers on a new log")
+        void failedAppend_ShouldStartNewGeneration() throws Exception {
+            primary.close();
+            final InterruptingAuthors authors = new InterruptingAuthors(
+                new AuthorRepository(dataDir.resolve("Authors.json").toString()));
+            primary = new ReplicationPrimary(sharedDir,
+                new BookRepository(dataDir.resolve("Books.json").toString()),
+                authors,
+                new CollectionRepository(dataDir.resolve("Collections.json").toString()));
+            final Author before = primary.authors().addAuthor(new Author(null, "Before"));
+            follower.poll();
+
+            // an interrupt closes the log channel, so the append fails after the author was stored
+            authors.interruptNext = true;
+            final Author lost;
+            try {
+                lost = primary.authors().addAuthor(new Author(null, "Lost append"));
+            } finally {
+                Thread.interrupted();
+            }
+            final Author after = primary.authors().addAuthor(new Author(null, "After"));
+            follower.poll();
+
+            assertEquals(List.of(before, lost, after), follower.authors().findAll());
+            assertEquals(3L, primary.getReplicationStatus().sequence(), "the new log starts with the baseline");
+        }
+
+        @Test
+        @DisplayName("Should reject writes on the replica")
+        void replica_ShouldBeReadOnly() {
+            final Book book = new Book(1L, "Any", 1L, 1L, 2000);
+
+            assertThrows(UnsupportedOperationException.class, () -> follower.books().addBook(book));
+            assertThrows(UnsupportedOperationException.class, () -> follower.books().updateIfVersion(book, 0L));
+            assertThrows(UnsupportedOperationException.class, () -> follower.authors().addAuthor(new Author(null, "A")));
+            assertThrows(UnsupportedOperationException.class, () -> follower.collections().addCollection(new Collection(null, "C")));
+            assertTrue(follower.holds().findByBookId(1L).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("tailing tests")
+    class TailingTests {
+        @Test
+        @DisplayName("Should leave an incomplete last line for the next poll")
+        void poll_ShouldWaitForCompleteLines() throws IOException {
+            primary.books().addBook(new Book(null, "First", 1L, 1L, 2000));
+            final Path log = sharedDir.resolve(ReplicationPrimary.LOG_FILE);
+            final String line = Files.readAllLines(log).getFirst().replace("\"id\":1", "\"id\":2").replace("\"sequence\":1", "\"sequence\":2");
+            Files.writeString(log, line.substring(0, 10), StandardOpenOption.APPEND);
+
+            assertEquals(1, follower.poll());
+            assertTrue(follower.getReplicationStatus().pendingBytes() > 0);
+
+            Files.writeString(log, line.substring(10) + "\n", StandardOpenOption.APPEND);
+            assertEquals(1, follower.poll());
+            assertEquals(2, follower.books().findAll().size());
+            assertEquals(0L, follower.getReplicationStatus().pendingBytes());
+        }
+
+        @Test
+        @DisplayName("Should keep the higher version of a book shipped out of order")
+        void poll_ShouldIgnoreOlderBookVersions() throws IOException {
+            final Book book = primary.books().addBook(new Book(null, "Versioned", 1L, 1L, 2000));
+            final Book borrowed = primary.books().updateIfVersion(book.borrow(), book.version()).orElseThrow();
+            final Path log = sharedDir.resolve(ReplicationPrimary.LOG_FILE);
+            final List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+            // appended in sequence order, but the later version first
+            Files.write(log, List.of(
+                lines.get(1).replace("\"sequence\":2", "\"sequence\":1"),
+                lines.get(0).replace("\"sequence\":1", "\"sequence\":2")
+            ), StandardCharsets.UTF_8);
+
+            assertEquals(2, follower.poll());
+
+            assertEquals(borrowed, follower.books().findById(book.id()).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should start over when the primary restarts with a new log")
+        void poll_WhenPrimaryRestarts_ShouldReplayNewLog() throws Exception {
+            primary.books().addBook(new Book(null, "Before", 1L, 1L, 2000));
+            primary.books().addBook(new Book(null, "Also before", 1L, 2L, 2000));
+            follower.poll();
+            primary.close();
+            Files.writeString(dataDir.resolve("Books.json"), "[]");
+            Files.deleteIfExists(dataDir.resolve("Books.json.meta"));
+            // generations are start times in milliseconds
+            Thread.sleep(2);
+
+            primary = startPrimary();
+            primary.books().addBook(new Book(null, "After", 1L, 1L, 2000));
+            follower.poll();
+
+            assertEquals(List.of("After"), follower.books().findAll().stream().map(Book::title).toList());
+        }
+
+        @Test
+        @DisplayName("Should keep its copies and fail when a replay finds the same missing record")
+        void poll_WhenRecordIsMissing_ShouldReplayOnceAndFail() throws IOException {
+            primary.books().addBook(new Book(null, "First", 1L, 1L, 2000));
+            primary.books().addBook(new Book(null, "Lost", 1L, 1L, 2000));
+            primary.books().addBook(new Book(null, "Third", 1L, 1L, 2000));
+            final Path log = sharedDir.resolve(ReplicationPrimary.LOG_FILE);
+            final List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+            Files.write(log, List.of(lines.get(0), lines.get(2)), StandardCharsets.UTF_8);
+
+            final IOException failure = assertThrows(IOException.class, follower::poll);
+
+            assertTrue(failure.getMessage().contains("missing"), failure.getMessage());
+            assertEquals(List.of("First"), follower.books().findAll().stream().map(Book::title).toList());
+            assertEquals(1L, follower.getReplicationStatus().sequence());
+        }
+
+        @Test
+        @DisplayName("Should report pending bytes and lag until it catches up")
+        void status_ShouldReportLag() throws Exception {
+            follower.poll();
+            primary.books().addBook(new Book(null, "Waiting", 1L, 1L, 2000));
+            Thread.sleep(5);
+
+            final ReplicationStatus behind = follower.getReplicationStatus();
+            assertEquals(ReplicationStatus.FOLLOWER, behind.role());
+            assertTrue(behind.pendingBytes() > 0);
+            assertTrue(behind.lag().compareTo(Duration.ZERO) > 0);
+
+            follower.poll();
+            final ReplicationStatus caughtUp = follower.getReplicationStatus();
+            assertEquals(1L, caughtUp.sequence());
+            assertEquals(Duration.ZERO, caughtUp.lag());
+        }
+
+        @Test
+        @DisplayName("Should pick up writes on its own once started")
+        void start_ShouldPollInBackground() throws Exception {
+            follower.start(Duration.ofMillis(5));
+            final Book book = primary.books().addBook(new Book(null, "Background", 1L, 1L, 2000));
+
+            final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (follower.books().findById(book.id()).isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(book, follower.books().findById(book.id()).orElseThrow());
+        }
+    }
+
+    private static final class InterruptingAuthors implements AuthorPersistence {
+        private final AuthorPersistence delegate;
+        private boolean interruptNext;
+
+        private InterruptingAuthors(final AuthorPersistence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Author addAuthor(final Author author) {
+            final Author added = delegate.addAuthor(author);
+            if (interruptNext) {
+                interruptNext = false;
+                Thread.currentThread().interrupt();
+            }
+            return added;
+        }
+
+        @Override
+        public Optional<Author> findById(final Long id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Author> findAll() {
+            return delegate.findAll();
+        }
+    }
+
+    private ReplicationPrimary startPrimary() {
+        return new ReplicationPrimary(
+            sharedDir,
+            new BookRepository(dataDir.resolve("Books.json").toString()),
+            new AuthorRepository(dataDir.resolve("Authors.json").toString()),
+            new CollectionRepository(dataDir.resolve("Collections.json").toString())
+        );
+    }
+}
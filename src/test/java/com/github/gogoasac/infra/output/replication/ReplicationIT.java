@@ -0,0 +1,195 @@
+package com.github.gogoasac.infra.output.replication;
+
+import com.github.gogoasac.HeadlessMain;
+import com.github.gogoasac.infra.input.socket.LineProtocolTestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a replication primary and two followers as separate JVMs sharing one
+ * change-log directory, and talks to them over the line protocol: writes on
+ * the primary must show up on the followers, writes on a follower must be
+ * rejected, and read throughput is measured against one and then both
+ * followers.
+ *
+ * <p>Run by failsafe in the {@code replication-it} profile
+ * ({@code mvn -Preplication-it verify}). Throughput is printed; it is only
+ * asserted to scale when the machine has enough cores for the clients and two
+ * follower processes not to share one.
+ */
+@DisplayName("Replication multi-process tests")
+class ReplicationIT {
+    private static final int BOOKS = 200;
+    private static final int COLLECTIONS = 4;
+    private static final int CLIENTS_PER_FOLLOWER = 4;
+    private static final int PIPELINE_DEPTH = 16;
+    private static final Duration LOAD_DURATION = Duration.ofSeconds(3);
+    private static final Pattern LISTENING = Pattern.compile("listening on port (\\d+)");
+    private static final int SCALING_CORES = 4;
+
+    @TempDir
+    Path workDir;
+
+    private final List<Process> processes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (final Process process : processes) {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Should ship writes to every follower and scale reads across them")
+    void followers_ShouldReplicateAndScaleReads() throws Exception {
+        final Path shared = workDir.resolve("shared");
+        final Path primaryDir = workDir.resolve("primary");
+        seed(primaryDir);
+
+        final int primary = start(primaryDir, List.of("-Dlibrary.replication.dir=" + shared), "serve", "0");
+        final int first = start(workDir.resolve("follower-1"), List.of(), "follow", shared.toString(), "0");
+        final int second = start(workDir.resolve("follower-2"), List.of(), "follow", shared.toString(), "0");
+
+        try (LineProtocolTestClient writer = new LineProtocolTestClient(primary);
+             LineProtocolTestClient reader1 = new LineProtocolTestClient(first);
+             LineProtocolTestClient reader2 = new LineProtocolTestClient(second)) {
+            assertEquals("OK " + BOOKS / COLLECTIONS, reader1.request("LIST BOOKS 1").getFirst());
+            assertTrue(reader2.request("GET BOOK 7").getFirst().contains("Book 7"));
+
+            assertEquals("OK Borrowed 7", writer.request("BORROW 7").getFirst());
+            final long shipped = System.nanoTime();
+            awaitBorrowed(reader1, 7);
+            awaitBorrowed(reader2, 7);
+            System.out.printf("BORROW visible on both followers after %.1f ms%n", (System.nanoTime() - shipped) / 1e6);
+
+            assertTrue(reader1.request("BORROW 8").getFirst().startsWith("ERR Read-only replica"));
+            // the baseline (one author, the collections, the books) plus the borrow
+            final long sequence = 1 + COLLECTIONS + BOOKS + 1;
+            assertTrue(writer.request("REPLICATION").getFirst().startsWith("OK primary sequence=" + sequence));
+            assertTrue(reader1.request("REPLICATION").getFirst().startsWith("OK follower sequence=" + sequence));
+        }
+
+        final double one = throughput(List.of(first));
+        final double both = throughput(List.of(first, second));
+        final int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("reads/s: one follower %.0f, two followers %.0f (x%.2f, %d cores)%n", one, both, both / one, cores);
+        if (cores >= SCALING_CORES) {
+            assertTrue(both > 1.3 * one, "two followers should serve clearly more reads than one");
+        }
+    }
+
+    private void seed(final Path dir) throws Exception {
+        final StringBuilder script = new StringBuilder("add-author \"Seed Author\"\n");
+        for (int c = 1; c <= COLLECTIONS; c++) {
+            script.append("add-collection \"Collection ").append(c).append("\"\n");
+        }
+        for (int b = 1; b <= BOOKS; b++) {
+            script.append("add-book \"Book ").append(b).append("\" 1 ").append((b - 1) % COLLECTIONS + 1).append(" 2000\n");
+        }
+        Files.createDirectories(dir);
+        final Process batch = new ProcessBuilder(command(List.of(), "batch", "-"))
+            .directory(dir.toFile())
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        try (var in = batch.getOutputStream()) {
+            in.write(script.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(batch.waitFor(60, TimeUnit.SECONDS), "seeding did not finish");
+        assertEquals(0, batch.exitValue());
+    }
+
+    // starts a server process and returns the port it reports
+    private int start(final Path dir, final List<String> jvmOptions, final String... args) throws IOException {
+        Files.createDirectories(dir);
+        final Process process = new ProcessBuilder(command(jvmOptions, args))
+            .directory(dir.toFile())
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        processes.add(process);
+        final BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            final Matcher matcher = LISTENING.matcher(line);
+            if (matcher.find()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+        }
+        throw new IllegalStateException("server exited before listening: " + String.join(" ", args));
+    }
+
+    private static void awaitBorrowed(final LineProtocolTestClient follower, final long id) throws Exception {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (follower.request("GET BOOK " + id).getFirst().contains("isBorrowed=true")) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("book " + id + " was not replicated within 10 s");
+    }
+
+    // listings of one collection, pipelined, from CLIENTS_PER_FOLLOWER clients per follower
+    private static double throughput(final List<Integer> ports) throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(ports.size() * CLIENTS_PER_FOLLOWER);
+        final long end = System.nanoTime() + LOAD_DURATION.toNanos();
+        final List<Future<Long>> clients = new ArrayList<>();
+        for (final int port : ports) {
+            for (int c = 0; c < CLIENTS_PER_FOLLOWER; c++) {
+                clients.add(pool.submit(() -> {
+                    long requests = 0;
+                    try (LineProtocolTestClient client = new LineProtocolTestClient(port)) {
+                        final String[] batch = new String[PIPELINE_DEPTH];
+                        while (System.nanoTime() < end) {
+                            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                                batch[i] = "LIST BOOKS " + ((requests + i) % COLLECTIONS + 1);
+                            }
+                            client.send(batch);
+                            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                                client.readResponse();
+                            }
+                            requests += PIPELINE_DEPTH;
+                        }
+                    }
+                    return requests;
+                }));
+            }
+        }
+        long total = 0;
+        for (final Future<Long> client : clients) {
+            total += client.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return total / (LOAD_DURATION.toNanos() / 1e9);
+    }
+
+    private static List<String> command(final List<String> jvmOptions, final String... args) {
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), HeadlessMain.class.getName()));
+        command.addAll(List.of(args));
+        return command;
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.gogoasac.infra.output.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.gogoasac.application.dto.BookReport;
+import com.github.gogoasac.application.dto.CollectionReport;
+import com.github.gogoasac.application.output.ReportRenderer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Report renderers")
+class ReportRenderersTest {
+    private static final List<CollectionReport> REPORTS = List.of(
+        new CollectionReport("Sci-Fi, \"Classics\"", List.of(
+            new BookReport(1L, "Dune", "Frank Herbert", LocalDate.of(2024, 4, 30)),
+            new BookReport("<Neuromancer> | 1984", "William Gibson"))),
+        new CollectionReport("Empty", List.of())
+    );
+
+    private static String render(final ReportRenderer renderer) throws IOException {
+        final ClosingTrackingStream out = new ClosingTrackingStream();
+        final ReportRenderer.Session session = renderer.open(out, "2024-05-01");
+        for (final CollectionReport report : REPORTS) {
+            session.collection(report);
+        }
+        session.finish();
+        assertFalse(out.closed, "renderers must not close the caller's stream");
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("formats")
+    class FormatTests {
+        @Test
+        @DisplayName("CSV should quote separators and keep empty collections")
+        void shouldRenderCsv() throws IOException {
+            final List<String> rows = render(new CsvReportRenderer()).lines().toList();
+
+            assertEquals("collection,title,author,borrowedAt", rows.get(0));
+            assertEquals("\"Sci-Fi, \"\"Classics\"\"\",Dune,Frank Herbert,2024-04-30", rows.get(1));
+            assertEquals("Empty,,,", rows.get(3));
+        }
+
+        @Test
+        @DisplayName("JSON should produce a parsable document")
+        void shouldRenderJson() throws IOException {
+            final JsonNode root = new ObjectMapper().readTree(render(new JsonReportRenderer()));
+
+            assertEquals("2024-05-01", root.get("date").asText());
+            assertEquals(2, root.get("collections").size());
+            assertEquals("William Gibson", root.get("collections").get(0).get("books").get(1).get("author").asText());
+            assertEquals("Dune", root.get("collections").get(0).get("books").get(0).get("title").asText());
+            assertEquals("2024-04-30", root.get("collections").get(0).get("books").get(0).get("borrowedAt").asText());
+            assertTrue(root.get("collections").get(0).get("books").get(1).get("borrowedAt").isNull());
+            assertEquals(0, root.get("collections").get(1).get("books").size());
+        }
+
+        @Test
+        @DisplayName("HTML should escape markup")
+        void shouldRenderHtml() throws IOException {
+            final String html = render(new HtmlReportRenderer());
+
+            assertTrue(html.startsWith("<!DOCTYPE html>"));
+            assertTrue(html.contains("<td>&lt;Neuromancer&gt; | 1984</td>"));
+            assertTrue(html.contains("<h2>Collection: Sci-Fi, &quot;Classics&quot;</h2>"));
+            assertTrue(html.trim().endsWith("</html>"));
+        }
+
+        @Test
+        @DisplayName("Markdown should escape table pipes")
+        void shouldRenderMarkdown() throws IOException {
+            final String markdown = render(new MarkdownReportRenderer());
+
+            assertTrue(markdown.startsWith("# Library Report - 2024-05-01"));
+            assertTrue(markdown.contains("| Dune | Frank Herbert | 2024-04-30 |"));
+            assertTrue(markdown.contains("| <Neuromancer> \\| 1984 | William Gibson |  |"));
+            assertTrue(markdown.contains("_No books._"));
+        }
+    }
+
+    private static final class ClosingTrackingStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
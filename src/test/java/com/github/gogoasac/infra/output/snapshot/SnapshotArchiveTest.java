@@ -0,0 +1,301 @@
+package com.github.gogoasac.infra.output.snapshot;
+
+import com.github.gogoasac.application.dto.SnapshotInfo;
+import com.github.gogoasac.application.output.UnitOfWork;
+import com.github.gogoasac.domain.entity.Author;
+import com.github.gogoasac.domain.entity.Book;
+import com.github.gogoasac.domain.entity.Collection;
+import com.github.gogoasac.domain.entity.Hold;
+import com.github.gogoasac.infra.output.AuthorRepository;
+import com.github.gogoasac.infra.output.BookRepository;
+import com.github.gogoasac.infra.output.CatalogSnapshot;
+import com.github.gogoasac.infra.output.CollectionRepository;
+import com.github.gogoasac.infra.output.FileTransactionManager;
+import com.github.gogoasac.infra.output.HoldRepository;
+import com.github.gogoasac.infra.output.ShardedBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Snapshot archive Tests")
+class SnapshotArchiveTest {
+    private static final Instant TAKEN_AT = Instant.parse("2024-01-31T23:59:59.123Z");
+
+    @TempDir
+    Path dataDir;
+    @TempDir
+    Path restoreDir;
+
+    private AuthorRepository authors;
+    private CollectionRepository collections;
+    private BookRepository books;
+    private FileTransactionManager transactions;
+
+    @BeforeEach
+    void setUp() {
+        authors = new AuthorRepository(dataDir.resolve(SnapshotArchive.AUTHORS).toString());
+        collections = new CollectionRepository(dataDir.resolve(SnapshotArchive.COLLECTIONS).toString());
+        books = new BookRepository(dataDir.resolve(SnapshotArchive.BOOKS).toString());
+        transactions = new FileTransactionManager(
+            dataDir.resolve(FileTransactionManager.DEFAULT_LOG).toString(), authors, collections, books);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        transactions.close();
+    }
+
+    @Nested
+    @DisplayName("snapshot tests")
+    class SnapshotTests {
+        @Test
+        @DisplayName("Should write one compressed entry per repository and a manifest")
+        void createSnapshot_ShouldWriteArchive() throws IOException {
+            final Author author = authors.addAuthor(new Author(null, "Ursula K. Le Guin"));
+            final Collection collection = collections.addCollection(new Collection(null, "Earthsea"));
+            books.addBook(new Book(null, "A Wizard of Earthsea", author.id(), collection.id(), 1968));
+            books.addBook(new Book(null, "The Tombs of Atuan", author.id(), collection.id(), 1971));
+
+            final SnapshotInfo info = snapshots().createSnapshot();
+
+            final Path archive = dataDir.resolve("snapshots").resolve("library-20240131-235959-123.zip");
+            assertEquals(archive.toString(), info.location());
+            assertEquals(1, info.authors());
+            assertEquals(1, info.collections());
+            assertEquals(2, info.books());
+            assertEquals(Files.size(archive), info.bytes());
+            try (ZipFile zip = new ZipFile(archive.toFile())) {
+                assertEquals(Set.of(SnapshotArchive.AUTHORS, SnapshotArchive.COLLECTIONS, SnapshotArchive.BOOKS,
+                    SnapshotArchive.MANIFEST), zip.stream().map(ZipEntry::getName).collect(Collectors.toSet()));
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry(SnapshotArchive.BOOKS).getMethod());
+                try (InputStream in = zip.getInputStream(zip.getEntry(SnapshotArchive.BOOKS))) {
+                    assertArrayEquals(Files.readAllBytes(dataDir.resolve(SnapshotArchive.BOOKS)), in.readAllBytes(),
+                        "an entry is a drop-in replacement for its data file");
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should take either all or nothing of a commit and every book with its author")
+        void snapshot_ShouldBeConsistentUnderWrites() throws Exception {
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final ExecutorService writers = Executors.newFixedThreadPool(2);
+            try {
+                final Future<?> singleWrites = writers.submit(() -> {
+                    while (running.get()) {
+                        final Author author = authors.addAuthor(new Author(null, "Single"));
+                        books.addBook(new Book(null, "Single", author.id(), 0L, 2000));
+                    }
+                });
+                final Future<?> commits = writers.submit(() -> {
+                    while (running.get()) {
+                        final UnitOfWork unitOfWork = transactions.begin();
+                        final Collection collection = unitOfWork.addCollection(new Collection(null, "Imported"));
+                        final Author author = unitOfWork.addAuthor(new Author(null, "Imported"));
+                        unitOfWork.addBook(new Book(null, "Imported", author.id(), collection.id(), 2000));
+                        unitOfWork.addBook(new Book(null, "Imported", author.id(), collection.id(), 2001));
+                        unitOfWork.commit();
+                    }
+                });
+
+                for (int i = 0; i < 200; i++) {
+                    final CatalogSnapshot snapshot = transactions.snapshot();
+                    final Set<Long> authorIds = snapshot.authors().entities().stream()
+                        .map(Author::id).collect(Collectors.toSet());
+                    final long importedCollections = snapshot.collections().entities().size();
+                    final long importedBooks = snapshot.books().entities().stream()
+                        .filter(book -> book.collectionId() != 0L).count();
+                    assertEquals(2 * importedCollections, importedBooks, "a commit is never half in the copy");
+                    snapshot.books().entities().forEach(book -> assertTrue(authorIds.contains(book.authorId()),
+                        () -> "author missing for " + book));
+                }
+
+                running.set(false);
+                singleWrites.get(30, TimeUnit.SECONDS);
+                commits.get(30, TimeUnit.SECONDS);
+            } finally {
+                running.set(false);
+                writers.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("restore tests")
+    class RestoreTests {
+        @Test
+        @DisplayName("Should restore every repository and let it continue numbering")
+        void restore_ShouldReplaceDataFiles() throws IOException {
+            final Author author = authors.addAuthor(new Author(null, "N. K. Jemisin"));
+            final Collection collection = collections.addCollection(new Collection(null, "Broken Earth"));
+            final Book book = books.addBook(new Book(null, "The Fifth Season", author.id(), collection.id(), 2015));
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            Files.writeString(restoreDir.resolve(SnapshotArchive.BOOKS), "[]", StandardCharsets.UTF_8);
+            Files.writeString(restoreDir.resolve(SnapshotArchive.BOOKS + ".meta"), "{}", StandardCharsets.UTF_8);
+            Files.writeString(restoreDir.resolve(FileTransactionManager.DEFAULT_LOG), "{}\n", StandardCharsets.UTF_8);
+
+            final SnapshotArchive.Manifest manifest = SnapshotArchive.restore(archive, restoreDir, Runnable::run);
+
+            assertEquals(TAKEN_AT, manifest.takenAt());
+            assertEquals(1, manifest.count(SnapshotArchive.BOOKS));
+            assertFalse(Files.exists(restoreDir.resolve(SnapshotArchive.BOOKS + ".meta")), "stale header is removed");
+            assertFalse(Files.exists(restoreDir.resolve(FileTransactionManager.DEFAULT_LOG)),
+                "commits logged against the old data are dropped");
+            assertTrue(SnapshotArchive.pendingRestore(restoreDir).isEmpty());
+            final BookRepository restoredBooks = new BookRepository(restoreDir.resolve(SnapshotArchive.BOOKS).toString());
+            assertEquals(List.of(author),
+                new AuthorRepository(restoreDir.resolve(SnapshotArchive.AUTHORS).toString()).findAll());
+            assertEquals(List.of(collection),
+                new CollectionRepository(restoreDir.resolve(SnapshotArchive.COLLECTIONS).toString()).findAll());
+            assertEquals(List.of(book), restoredBooks.findAll());
+            assertEquals(book.id() + 1, restoredBooks.addBook(new Book(null, "Next", author.id(), collection.id(), 2016)).id());
+        }
+
+        @Test
+        @DisplayName("Should empty the hold queues but never reissue a hold id")
+        void restore_ShouldClearHolds() throws IOException {
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            final Path holdLog = restoreDir.resolve(HoldRepository.DEFAULT_LOG);
+            final HoldRepository holds = new HoldRepository(holdLog.toString());
+            final Hold served = holds.enqueue(new Hold(null, 1L, "Ada", LocalDate.of(2024, 5, 1)));
+            holds.dequeue(served);
+            final Hold queued = holds.enqueue(new Hold(null, 2L, "Grace", LocalDate.of(2024, 5, 2)));
+
+            SnapshotArchive.restore(archive, restoreDir, Runnable::run);
+
+            final HoldRepository restored = new HoldRepository(holdLog.toString());
+            assertTrue(restored.findByBookId(queued.bookId()).isEmpty(), "queues refer to the replaced books");
+            assertTrue(restored.enqueue(new Hold(null, 2L, "Linus", LocalDate.of(2024, 5, 3))).id() > queued.id());
+        }
+
+        @Test
+        @DisplayName("Should extract the entries concurrently")
+        void restore_ShouldRunInParallel() throws Exception {
+            authors.addAuthor(new Author(null, "Parallel"));
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            final ExecutorService pool = Executors.newFixedThreadPool(3);
+            try {
+                final SnapshotArchive.Manifest manifest = SnapshotArchive.restore(archive, restoreDir, pool);
+
+                assertEquals(1, manifest.count(SnapshotArchive.AUTHORS));
+                assertEquals(1, new AuthorRepository(restoreDir.resolve(SnapshotArchive.AUTHORS).toString()).findAll().size());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should leave the data files untouched when an entry does not match its checksum")
+        void restore_ShouldRejectCorruptEntries() throws IOException {
+            authors.addAuthor(new Author(null, "Kept"));
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            final Path corrupt = restoreDir.resolve("corrupt.zip");
+            rewrite(archive, corrupt, SnapshotArchive.BOOKS, "[{\"id\":1}]");
+            final Path existing = restoreDir.resolve(SnapshotArchive.AUTHORS);
+            Files.writeString(existing, "[]", StandardCharsets.UTF_8);
+
+            final IOException failure = assertThrows(IOException.class,
+                () -> SnapshotArchive.restore(corrupt, restoreDir, Runnable::run));
+
+            assertTrue(failure.getMessage().contains(SnapshotArchive.BOOKS), failure.getMessage());
+            assertEquals("[]", Files.readString(existing), "no file is replaced unless every entry matched");
+            try (var files = Files.list(restoreDir)) {
+                assertEquals(Set.of("corrupt.zip", SnapshotArchive.AUTHORS),
+                    files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+            }
+        }
+
+        @Test
+        @DisplayName("Should refuse a directory with sharded books")
+        void restore_ShouldRefuseShards() throws IOException {
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            final Path shards = Files.createDirectory(restoreDir.resolve(ShardedBookRepository.DEFAULT_DIRECTORY));
+            Files.writeString(shards.resolve("collection-1.json"), "[]", StandardCharsets.UTF_8);
+
+            final IOException failure = assertThrows(IOException.class,
+                () -> SnapshotArchive.restore(archive, restoreDir, Runnable::run));
+
+            assertTrue(failure.getMessage().contains(ShardedBookRepository.DEFAULT_DIRECTORY), failure.getMessage());
+            assertFalse(Files.exists(restoreDir.resolve(SnapshotArchive.BOOKS)));
+        }
+
+        @Test
+        @DisplayName("Should report an interrupted restore until it is run again")
+        void pendingRestore_ShouldLastUntilRestoreCompletes() throws IOException {
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            Files.writeString(restoreDir.resolve(SnapshotArchive.PENDING), archive.toString(), StandardCharsets.UTF_8);
+
+            assertEquals(archive.toString(), SnapshotArchive.pendingRestore(restoreDir).orElseThrow());
+
+            SnapshotArchive.restore(archive, restoreDir, Runnable::run);
+            assertTrue(SnapshotArchive.pendingRestore(restoreDir).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should refuse files that are not snapshots")
+        void restore_ShouldRequireManifest() throws IOException {
+            final Path archive = Path.of(snapshots().createSnapshot().location());
+            final Path stripped = restoreDir.resolve("stripped.zip");
+            rewrite(archive, stripped, SnapshotArchive.MANIFEST, null);
+
+            assertThrows(IOException.class, () -> SnapshotArchive.restore(stripped, restoreDir, Runnable::run));
+        }
+    }
+
+    private OnlineSnapshots snapshots() {
+        return new OnlineSnapshots(transactions, dataDir.resolve("snapshots"), Clock.fixed(TAKEN_AT, ZoneOffset.UTC));
+    }
+
+    // copies the archive, replacing one entry's content, or dropping it when content is null
+    private static void rewrite(final Path source, final Path target, final String entryName, final String content)
+        throws IOException {
+        try (ZipFile zip = new ZipFile(source.toFile());
+             OutputStream file = Files.newOutputStream(target);
+             ZipOutputStream out = new ZipOutputStream(file)) {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                if (entry.getName().equals(entryName) && content == null) {
+                    continue;
+                }
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().equals(entryName)) {
+                    out.write(content.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        in.transferTo(out);
+                    }
+                }
+                out.closeEntry();
+            }
+        }
+    }
+}